@@ -28,7 +28,9 @@ import com.codenvy.api.core.ServerException;
 import com.codenvy.api.core.UnauthorizedException;
 import com.codenvy.api.core.notification.EventService;
 import com.codenvy.api.core.notification.EventSubscriber;
+import com.codenvy.api.core.rest.CircuitBreaker;
 import com.codenvy.api.core.rest.HttpJsonHelper;
+import com.codenvy.api.core.rest.HttpResponseCache;
 import com.codenvy.api.core.rest.ServiceContext;
 import com.codenvy.api.core.rest.shared.dto.Link;
 import com.codenvy.api.project.server.ProjectService;
@@ -92,6 +94,8 @@ public class BuildQueue {
 
     private static final long CHECK_AVAILABLE_BUILDER_DELAY = 2000;
 
+    private static final int DESCRIPTORS_CACHE_SIZE = 256;
+
     private static final AtomicLong sequence = new AtomicLong(1);
 
     private final ConcurrentMap<String, RemoteBuilderServer> builderServices;
@@ -105,6 +109,8 @@ public class BuildQueue {
     /** Max time for request to be in queue in milliseconds. */
     private final long                                       waitingTimeMillis;
     private final Cache<BaseBuilderRequest, RemoteTask>      successfulBuilds;
+    /** Cache of project and workspace descriptors. Descriptors are revalidated on each request but don't get downloaded if unchanged. */
+    private final HttpResponseCache                          descriptorsCache;
     private final AtomicBoolean                              started;
     private final long                                       keepResultTimeMillis;
 
@@ -116,6 +122,11 @@ public class BuildQueue {
     @Named(Constants.BUILDER_SLAVE_BUILDER_URLS)
     private String[] slaves = new String[0];
 
+    /** Optional delay in milliseconds after that idempotent request to a slave builder is sent again. Hedging is disabled by default. */
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.SLAVE_HEDGE_DELAY)
+    private long slaveHedgeDelay = 0;
+
     /**
      * @param baseWorkspaceApiUrl
      *         workspace api url. Configuration parameter that points to the Workspace API location. If such parameter isn't specified than
@@ -152,6 +163,7 @@ public class BuildQueue {
         tasks = new ConcurrentHashMap<>();
         builderListMapping = new ConcurrentHashMap<>();
         successfulBuilds = new SynchronizedCache<>(new SLRUCache<BaseBuilderRequest, RemoteTask>(200, 400));
+        descriptorsCache = new HttpResponseCache(DESCRIPTORS_CACHE_SIZE);
         builderServices = new ConcurrentHashMap<>();
         started = new AtomicBoolean(false);
     }
@@ -218,7 +230,10 @@ public class BuildQueue {
     // Switched to default for test.
     // private
     RemoteBuilderServer createRemoteBuilderServer(String url) {
-        return new RemoteBuilderServer(url);
+        return new RemoteBuilderServer(url, new CircuitBreaker(url,
+                                                               CircuitBreaker.DEFAULT_FAILURE_THRESHOLD,
+                                                               CircuitBreaker.DEFAULT_OPEN_TIME,
+                                                               slaveHedgeDelay));
     }
 
     // Switched to default for test.
@@ -437,7 +452,7 @@ public class BuildQueue {
                                                        .build(workspace, project.startsWith("/") ? project.substring(1) : project)
                                                        .toString();
         try {
-            return HttpJsonHelper.get(ProjectDescriptor.class, projectUrl);
+            return HttpJsonHelper.get(ProjectDescriptor.class, descriptorsCache, projectUrl);
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -453,7 +468,7 @@ public class BuildQueue {
                                                            .path(WorkspaceService.class, "getById")
                                                            .build(workspace).toString();
         try {
-            return HttpJsonHelper.get(WorkspaceDescriptor.class, workspaceUrl);
+            return HttpJsonHelper.get(WorkspaceDescriptor.class, descriptorsCache, workspaceUrl);
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -612,6 +627,10 @@ public class BuildQueue {
             eventService.subscribe(new EventSubscriber<BuilderEvent>() {
                 @Override
                 public void onEvent(BuilderEvent event) {
+                    // Result of build is known only when build is done, don't request status of remote task for each logged line.
+                    if (event.getType() != BuilderEvent.EventType.DONE) {
+                        return;
+                    }
                     final long id = event.getTaskId();
                     try {
                         final BuildQueueTask task = getTask(id);
@@ -719,6 +738,7 @@ public class BuildQueue {
             tasks.clear();
             builderListMapping.clear();
             successfulBuilds.clear();
+            descriptorsCache.clear();
             if (interrupted) {
                 Thread.currentThread().interrupt();
             }
@@ -825,11 +845,13 @@ public class BuildQueue {
             return builders.size();
         }
 
-        synchronized RemoteBuilder getBuilder(BaseBuilderRequest request) {
+        RemoteBuilder getBuilder(BaseBuilderRequest request) {
             final List<RemoteBuilder> matched = new ArrayList<>();
-            for (RemoteBuilder builder : builders) {
-                if (request.getBuilder().equals(builder.getName())) {
-                    matched.add(builder);
+            synchronized (this) {
+                for (RemoteBuilder builder : builders) {
+                    if (request.getBuilder().equals(builder.getName())) {
+                        matched.add(builder);
+                    }
                 }
             }
             final int size = matched.size();
@@ -837,6 +859,7 @@ public class BuildQueue {
                 return null;
             }
             final List<RemoteBuilder> available = new ArrayList<>(matched.size());
+            // Don't hold lock of this list while talking to the remote builders. One slow builder must not block other threads.
             for (; ; ) {
                 for (RemoteBuilder builder : matched) {
                     if (Thread.currentThread().isInterrupted()) {
@@ -844,9 +867,14 @@ public class BuildQueue {
                     }
                     BuilderState builderState;
                     try {
+                        // fails immediately if server of builder doesn't respond
                         builderState = builder.getBuilderState();
                     } catch (Exception e) {
-                        LOG.error(e.getMessage(), e);
+                        if (builder.isAvailable()) {
+                            LOG.error(e.getMessage(), e);
+                        } else {
+                            LOG.debug(e.getMessage(), e);
+                        }
                         continue;
                     }
                     if (builderState.getFreeWorkers() > 0) {
@@ -856,7 +884,9 @@ public class BuildQueue {
 
                 if (available.isEmpty()) {
                     try {
-                        wait(CHECK_AVAILABLE_BUILDER_DELAY); // wait and try again
+                        synchronized (this) {
+                            wait(CHECK_AVAILABLE_BUILDER_DELAY); // wait and try again
+                        }
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         return null; // expected to get here if task is canceled
@@ -874,6 +904,10 @@ public class BuildQueue {
     private class AnalyticsMessenger implements EventSubscriber<BuilderEvent> {
         @Override
         public void onEvent(BuilderEvent event) {
+            if (event.getType() == BuilderEvent.EventType.MESSAGE_LOGGED) {
+                // Logged lines aren't interesting for analytics, don't look up task for each of them.
+                return;
+            }
             try {
                 final long taskId = event.getTaskId();
                 final BaseBuilderRequest request = getTask(taskId).getRequest();
@@ -17,11 +17,8 @@ import com.codenvy.api.builder.dto.BuildRequest;
 import com.codenvy.api.builder.dto.BuilderDescriptor;
 import com.codenvy.api.builder.dto.BuilderState;
 import com.codenvy.api.builder.dto.DependencyRequest;
-import com.codenvy.api.core.ConflictException;
-import com.codenvy.api.core.ForbiddenException;
-import com.codenvy.api.core.NotFoundException;
-import com.codenvy.api.core.ServerException;
-import com.codenvy.api.core.UnauthorizedException;
+import com.codenvy.api.core.ApiException;
+import com.codenvy.api.core.rest.CircuitBreaker;
 import com.codenvy.api.core.rest.HttpJsonHelper;
 import com.codenvy.api.core.rest.shared.Links;
 import com.codenvy.api.core.rest.shared.dto.Link;
@@ -52,17 +49,19 @@ import java.util.List;
  * @see RemoteBuilderServer
  */
 public class RemoteBuilder {
-    private final String     baseUrl;
-    private final List<Link> links;
-    private final String     name;
-    private final String     description;
-    private final int        hashCode;
+    private final String         baseUrl;
+    private final List<Link>     links;
+    private final String         name;
+    private final String         description;
+    private final int            hashCode;
+    private final CircuitBreaker circuitBreaker;
 
     private volatile long lastUsage = -1;
 
     /* Package visibility, not expected to be created by api users. They should use RemoteBuilderServer to get an instance of RemoteBuilder. */
-    RemoteBuilder(String baseUrl, BuilderDescriptor builderDescriptor, List<Link> links) {
+    RemoteBuilder(String baseUrl, BuilderDescriptor builderDescriptor, List<Link> links, CircuitBreaker circuitBreaker) {
         this.baseUrl = baseUrl;
+        this.circuitBreaker = circuitBreaker;
         name = builderDescriptor.getName();
         description = builderDescriptor.getDescription();
         this.links = new ArrayList<>(links);
@@ -96,6 +95,16 @@ public class RemoteBuilder {
         return description;
     }
 
+    /**
+     * Checks whether remote server of this builder is considered available. Calls to unavailable server fail immediately.
+     *
+     * @return {@code false} if remote server of this builder doesn't respond
+     * @see CircuitBreaker
+     */
+    public boolean isAvailable() {
+        return !circuitBreaker.isOpen();
+    }
+
     /**
      * Get last time of usage of this builder.
      *
@@ -139,17 +148,23 @@ public class RemoteBuilder {
         return perform(DtoFactory.getInstance().clone(link), request);
     }
 
-    private RemoteTask perform(Link link, BaseBuilderRequest request) throws BuilderException {
+    private RemoteTask perform(final Link link, final BaseBuilderRequest request) throws BuilderException {
         final BuildTaskDescriptor build;
         try {
-            build = HttpJsonHelper.request(BuildTaskDescriptor.class, link, request);
+            // not idempotent, never hedge it
+            build = circuitBreaker.execute(new CircuitBreaker.RemoteCall<BuildTaskDescriptor>() {
+                @Override
+                public BuildTaskDescriptor call() throws IOException, ApiException {
+                    return HttpJsonHelper.request(BuildTaskDescriptor.class, link, request);
+                }
+            });
         } catch (IOException e) {
             throw new BuilderException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
+        } catch (ApiException e) {
             throw new BuilderException(e.getServiceError());
         }
         lastUsage = System.currentTimeMillis();
-        return new RemoteTask(baseUrl, request.getBuilder(), build.getTaskId());
+        return new RemoteTask(baseUrl, request.getBuilder(), build.getTaskId(), circuitBreaker);
     }
 
     /**
@@ -165,10 +180,15 @@ public class RemoteBuilder {
             throw new BuilderException("Unable get URL for getting state of a remote builder");
         }
         try {
-            return HttpJsonHelper.request(BuilderState.class, DtoFactory.getInstance().clone(link), Pair.of("builder", name));
+            return circuitBreaker.executeIdempotent(new CircuitBreaker.RemoteCall<BuilderState>() {
+                @Override
+                public BuilderState call() throws IOException, ApiException {
+                    return HttpJsonHelper.request(BuilderState.class, DtoFactory.getInstance().clone(link), Pair.of("builder", name));
+                }
+            });
         } catch (IOException e) {
             throw new BuilderException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
+        } catch (ApiException e) {
             throw new BuilderException(e.getServiceError());
         }
     }
@@ -13,11 +13,9 @@ package com.codenvy.api.builder;
 import com.codenvy.api.builder.internal.Constants;
 import com.codenvy.api.builder.dto.BuilderDescriptor;
 import com.codenvy.api.builder.dto.ServerState;
-import com.codenvy.api.core.ConflictException;
-import com.codenvy.api.core.ForbiddenException;
-import com.codenvy.api.core.NotFoundException;
+import com.codenvy.api.core.ApiException;
 import com.codenvy.api.core.ServerException;
-import com.codenvy.api.core.UnauthorizedException;
+import com.codenvy.api.core.rest.CircuitBreaker;
 import com.codenvy.api.core.rest.HttpJsonHelper;
 import com.codenvy.api.core.rest.RemoteServiceDescriptor;
 import com.codenvy.api.core.rest.shared.dto.Link;
@@ -33,13 +31,31 @@ import java.util.List;
  */
 public class RemoteBuilderServer extends RemoteServiceDescriptor {
 
+    private final CircuitBreaker circuitBreaker;
+
     /** Name of IDE workspace this server used for. */
     private String assignedWorkspace;
     /** Name of project inside IDE workspace this server used for. */
     private String assignedProject;
 
     public RemoteBuilderServer(String baseUrl) {
+        this(baseUrl, new CircuitBreaker(baseUrl));
+    }
+
+    /**
+     * @param baseUrl
+     *         URL of remote server
+     * @param circuitBreaker
+     *         tracks health of remote server. The same instance is shared with all builders and tasks of this server, so if server
+     *         stops responding all calls to it fail fast.
+     */
+    public RemoteBuilderServer(String baseUrl, CircuitBreaker circuitBreaker) {
         super(baseUrl);
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
     public String getAssignedWorkspace() {
@@ -66,7 +82,7 @@ public class RemoteBuilderServer extends RemoteServiceDescriptor {
         try {
             for (BuilderDescriptor builderDescriptor : getAvailableBuilders()) {
                 if (name.equals(builderDescriptor.getName())) {
-                    return new RemoteBuilder(baseUrl, builderDescriptor, getLinks());
+                    return new RemoteBuilder(baseUrl, builderDescriptor, getLinks(), circuitBreaker);
                 }
             }
         } catch (IOException e) {
@@ -79,7 +95,7 @@ public class RemoteBuilderServer extends RemoteServiceDescriptor {
 
     public RemoteBuilder createRemoteBuilder(BuilderDescriptor descriptor) throws BuilderException {
         try {
-            return new RemoteBuilder(baseUrl, descriptor, getLinks());
+            return new RemoteBuilder(baseUrl, descriptor, getLinks(), circuitBreaker);
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException e) {
@@ -93,10 +109,15 @@ public class RemoteBuilderServer extends RemoteServiceDescriptor {
             if (link == null) {
                 throw new BuilderException("Unable get URL for retrieving list of remote builders");
             }
-            return HttpJsonHelper.requestArray(BuilderDescriptor.class, link);
+            return circuitBreaker.executeIdempotent(new CircuitBreaker.RemoteCall<List<BuilderDescriptor>>() {
+                @Override
+                public List<BuilderDescriptor> call() throws IOException, ApiException {
+                    return HttpJsonHelper.requestArray(BuilderDescriptor.class, link);
+                }
+            });
         } catch (IOException e) {
             throw new BuilderException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
+        } catch (ApiException e) {
             throw new BuilderException(e.getServiceError());
         }
     }
@@ -107,10 +128,15 @@ public class RemoteBuilderServer extends RemoteServiceDescriptor {
             if (stateLink == null) {
                 throw new BuilderException(String.format("Unable get URL for getting state of a remote server '%s'", baseUrl));
             }
-            return HttpJsonHelper.request(ServerState.class, stateLink);
+            return circuitBreaker.executeIdempotent(new CircuitBreaker.RemoteCall<ServerState>() {
+                @Override
+                public ServerState call() throws IOException, ApiException {
+                    return HttpJsonHelper.request(ServerState.class, stateLink);
+                }
+            });
         } catch (IOException e) {
             throw new BuilderException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
+        } catch (ApiException e) {
             throw new BuilderException(e.getServiceError());
         }
     }
@@ -12,11 +12,9 @@ package com.codenvy.api.builder;
 
 import com.codenvy.api.builder.dto.BuildTaskDescriptor;
 import com.codenvy.api.builder.internal.Constants;
-import com.codenvy.api.core.ConflictException;
-import com.codenvy.api.core.ForbiddenException;
+import com.codenvy.api.core.ApiException;
 import com.codenvy.api.core.NotFoundException;
-import com.codenvy.api.core.ServerException;
-import com.codenvy.api.core.UnauthorizedException;
+import com.codenvy.api.core.rest.CircuitBreaker;
 import com.codenvy.api.core.rest.HttpJsonHelper;
 import com.codenvy.api.core.rest.HttpOutputMessage;
 import com.codenvy.api.core.rest.OutputProvider;
@@ -43,16 +41,18 @@ import java.net.URL;
 public class RemoteTask {
     private static final Logger LOG = LoggerFactory.getLogger(RemoteTask.class);
 
-    private final String baseUrl;
-    private final String builder;
-    private final Long   taskId;
-    private final long   created;
+    private final String         baseUrl;
+    private final String         builder;
+    private final Long           taskId;
+    private final long           created;
+    private final CircuitBreaker circuitBreaker;
 
     /* Package visibility, not expected to be created by api users. They should use RemoteBuilder instead and get an instance of remote task. */
-    RemoteTask(String baseUrl, String builder, Long taskId) {
+    RemoteTask(String baseUrl, String builder, Long taskId, CircuitBreaker circuitBreaker) {
         this.baseUrl = baseUrl;
         this.builder = builder;
         this.taskId = taskId;
+        this.circuitBreaker = circuitBreaker;
         created = System.currentTimeMillis();
     }
 
@@ -81,10 +81,17 @@ public class RemoteTask {
      */
     public BuildTaskDescriptor getBuildTaskDescriptor() throws BuilderException, NotFoundException {
         try {
-            return HttpJsonHelper.get(BuildTaskDescriptor.class, String.format("%s/status/%s/%d", baseUrl, builder, taskId));
+            return circuitBreaker.executeIdempotent(new CircuitBreaker.RemoteCall<BuildTaskDescriptor>() {
+                @Override
+                public BuildTaskDescriptor call() throws IOException, ApiException {
+                    return HttpJsonHelper.get(BuildTaskDescriptor.class, String.format("%s/status/%s/%d", baseUrl, builder, taskId));
+                }
+            });
         } catch (IOException e) {
             throw new BuilderException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | ConflictException e) {
+        } catch (NotFoundException e) {
+            throw e;
+        } catch (ApiException e) {
             throw new BuilderException(e.getServiceError());
         }
     }
@@ -113,10 +120,17 @@ public class RemoteTask {
             }
         }
         try {
-            return HttpJsonHelper.request(BuildTaskDescriptor.class, DtoFactory.getInstance().clone(link));
+            return circuitBreaker.execute(new CircuitBreaker.RemoteCall<BuildTaskDescriptor>() {
+                @Override
+                public BuildTaskDescriptor call() throws IOException, ApiException {
+                    return HttpJsonHelper.request(BuildTaskDescriptor.class, DtoFactory.getInstance().clone(link));
+                }
+            });
         } catch (IOException e) {
             throw new BuilderException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | ConflictException e) {
+        } catch (NotFoundException e) {
+            throw e;
+        } catch (ApiException e) {
             throw new BuilderException(e.getServiceError());
         }
     }
@@ -614,6 +614,8 @@ public abstract class Builder {
         private final BuildLogger          buildLogger;
         private final Callback             callback;
 
+        private final EventSubscriber<BuilderEvent> startTimeSubscriber;
+
         private BuildResult result;
         private long        startTime;
         private long        endTime;
@@ -635,15 +637,24 @@ public abstract class Builder {
             startTime = -1L;
             endTime = -1L;
 
-            eventService.subscribe(new EventSubscriber<BuilderEvent>() {
+            // Get events of this task only, subscriber is removed when task is done.
+            startTimeSubscriber = new EventSubscriber<BuilderEvent>() {
                 @Override
                 public void onEvent(BuilderEvent event) {
                     if (event.getType() == EventType.BUILD_TIME_STARTED) {
                         final BuilderEvent.LoggedMessage message = event.getMessage();
-                        startTime = Long.parseLong(message.getMessage());
+                        synchronized (FutureBuildTask.this) {
+                            startTime = Long.parseLong(message.getMessage());
+                        }
                     }
                 }
-            });
+            };
+            eventService.subscribe(configuration.getRequest().getId(), startTimeSubscriber);
+        }
+
+        @Override
+        protected void done() {
+            eventService.unsubscribe(configuration.getRequest().getId(), startTimeSubscriber);
         }
 
         @Override
@@ -11,12 +11,13 @@
 package com.codenvy.api.builder.internal;
 
 import com.codenvy.api.core.notification.EventOrigin;
+import com.codenvy.api.core.notification.KeyedEvent;
 
 /**
  * @author andrew00x
  */
 @EventOrigin("builder")
-public class BuilderEvent {
+public class BuilderEvent implements KeyedEvent {
     public enum EventType {
         /** Build time is started. */
         BUILD_TIME_STARTED("build_time_begin"),
@@ -207,6 +208,12 @@ public class BuilderEvent {
         this.reused = reused;
     }
 
+    /** Id of build task is used as routing key of event. */
+    @Override
+    public long routingKey() {
+        return taskId;
+    }
+
     @Override
     public String toString() {
         return "BuilderEvent{" +
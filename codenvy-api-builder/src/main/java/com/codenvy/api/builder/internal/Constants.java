@@ -62,6 +62,11 @@ public class Constants {
      * this time build may be terminated.
      */
     public static final String MAX_EXECUTION_TIME         = "builder.max_execution_time";
+    /**
+     * Delay in milliseconds after that idempotent request (e.g. get status of build) to a slave builder is sent again if there is no
+     * response yet. Zero or negative value disables such hedged requests.
+     */
+    public static final String SLAVE_HEDGE_DELAY          = "builder.slave_hedge_delay";
 
     /* ================================================= */
 
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.core.notification;
+
+import java.util.List;
+
+/**
+ * Event that groups other events. {@link EventService} delivers such event as is only to subscribers of composite events, all other
+ * subscribers, including {@link WSocketEventBusClient} and {@link WSocketEventBusServer}, get grouped events one by one.
+ *
+ * @author andrew00x
+ */
+public interface CompositeEvent {
+    /** Gets grouped events in order they happened. */
+    List<?> getEvents();
+}
@@ -10,23 +10,22 @@
  *******************************************************************************/
 package com.codenvy.api.core.notification;
 
-import com.codenvy.commons.lang.cache.Cache;
-import com.codenvy.commons.lang.cache.LoadingValueSLRUCache;
-import com.codenvy.commons.lang.cache.SynchronizedCache;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +39,14 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * Subscriber that is interested only in events related to particular task, workspace, etc may be registered with routing key, see
+ * {@link #subscribe(long, EventSubscriber)}. Such subscribers get only events that implement {@link KeyedEvent} and have the same
+ * routing key. Delivery of keyed events is a single hash lookup regardless of number of keyed subscribers, routing key isn't boxed.
+ * <p/>
+ * Event that implements {@link CompositeEvent} is delivered as is only to subscribers of composite events, e.g. {@code
+ * EventSubscriber<BatchEvent>}. Then each grouped event is published as any other event, so subscribers of particular types of events,
+ * e.g. {@code EventSubscriber<CreateEvent>} or {@code EventSubscriber<Object>}, get grouped events one by one and don't need to know
+ * anything about composite events.
  *
  * @author andrew00x
  */
@@ -47,44 +54,58 @@ import java.util.concurrent.CopyOnWriteArraySet;
 public class EventService {
     private static final Logger LOG = LoggerFactory.getLogger(EventService.class);
 
-    private static final int CACHE_NUM  = 1 << 2;
-    private static final int CACHE_MASK = CACHE_NUM - 1;
-    private static final int SEG_SIZE   = 32;
-
-    private final Cache<Class<?>, Set<Class<?>>>[]              typeCache;
-    private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    private static final EventSubscriber[] NO_SUBSCRIBERS = new EventSubscriber[0];
 
-    @SuppressWarnings("unchecked")
-    public EventService() {
-        subscribersByEventType = new ConcurrentHashMap<>();
-        typeCache = new Cache[CACHE_NUM];
-        for (int i = 0; i < CACHE_NUM; i++) {
-            typeCache[i] = new SynchronizedCache<>(new LoadingValueSLRUCache<Class<?>, Set<Class<?>>>(SEG_SIZE, SEG_SIZE) {
-                @Override
-                protected Set<Class<?>> loadValue(Class<?> eventClass) throws RuntimeException {
-                    LinkedList<Class<?>> parents = new LinkedList<>();
-                    Set<Class<?>> classes = new HashSet<>();
-                    parents.add(eventClass);
-                    while (!parents.isEmpty()) {
-                        Class<?> clazz = parents.pop();
-                        classes.add(clazz);
-                        Class<?> parent = clazz.getSuperclass();
-                        if (parent != null) {
-                            parents.add(parent);
-                        }
-                        Class<?>[] interfaces = clazz.getInterfaces();
-                        if (interfaces.length > 0) {
-                            Collections.addAll(parents, interfaces);
-                        }
-                    }
-                    return classes;
+    /** All super classes and interfaces of event class including class itself. Computed once per class, lookup doesn't need any lock. */
+    private static final ClassValue<Class<?>[]> TYPE_HIERARCHY = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> eventClass) {
+            final LinkedList<Class<?>> parents = new LinkedList<>();
+            final Set<Class<?>> classes = new LinkedHashSet<>();
+            parents.add(eventClass);
+            while (!parents.isEmpty()) {
+                final Class<?> clazz = parents.pop();
+                classes.add(clazz);
+                final Class<?> parent = clazz.getSuperclass();
+                if (parent != null) {
+                    parents.add(parent);
                 }
-            });
+                final Class<?>[] interfaces = clazz.getInterfaces();
+                if (interfaces.length > 0) {
+                    parents.addAll(Arrays.asList(interfaces));
+                }
+            }
+            return classes.toArray(new Class<?>[classes.size()]);
+        }
+    };
+
+    /** Type of events processed by subscriber class. Resolved with reflection once per subscriber class. */
+    private static final ClassValue<Class<?>> SUBSCRIBER_EVENT_TYPE = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> subscriberClass) {
+            return resolveEventType(subscriberClass);
         }
+    };
+
+    /** Guards modifications of subscribers. Not used when events are published to known event types. */
+    private final Object                                     lock;
+    /** Subscribers by type of event they declare. Arrays are never modified, they are replaced on subscribe/unsubscribe. */
+    private final Map<Class<?>, EventSubscriber[]>           subscribersByEventType;
+    /** All subscribers that should get event of particular class, including subscribers of its super classes and interfaces. */
+    private final ConcurrentMap<Class<?>, EventSubscriber[]> subscribersByEventClass;
+    /** Subscribers by routing key. Table is never modified, it is replaced on subscribe/unsubscribe. */
+    private volatile KeyedSubscribers                        subscribersByKey;
+
+    public EventService() {
+        lock = new Object();
+        subscribersByEventType = new HashMap<>();
+        subscribersByEventClass = new ConcurrentHashMap<>();
+        subscribersByKey = KeyedSubscribers.EMPTY;
     }
 
     /**
-     * Publish event {@code event}.
+     * Publish event {@code event}. Once subscribers of particular class of event are resolved publishing of events of the same class
+     * doesn't require any locking or allocation of memory.
      *
      * @param event
      *         event
@@ -94,15 +115,37 @@ public class EventService {
         if (event == null) {
             throw new IllegalArgumentException("Null event.");
         }
-        final Class<?> eventClass = event.getClass();
-        for (Class<?> clazz : typeCache[eventClass.hashCode() & CACHE_MASK].get(eventClass)) {
-            final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
-            if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
-                for (EventSubscriber eventSubscriber : eventSubscribers) {
-                    try {
-                        eventSubscriber.onEvent(event);
-                    } catch (RuntimeException e) {
-                        LOG.error(e.getMessage(), e);
+        final EventSubscriber[] eventSubscribers = getSubscribers(event.getClass());
+        for (int i = 0, size = eventSubscribers.length; i < size; i++) {
+            try {
+                eventSubscribers[i].onEvent(event);
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+        if (event instanceof KeyedEvent) {
+            final KeyedSubscriber[] keyedSubscribers = subscribersByKey.get(((KeyedEvent)event).routingKey());
+            if (keyedSubscribers != null) {
+                for (int i = 0, size = keyedSubscribers.length; i < size; i++) {
+                    final KeyedSubscriber keyedSubscriber = keyedSubscribers[i];
+                    if (keyedSubscriber.eventType.isInstance(event)
+                        && (!(event instanceof CompositeEvent) || CompositeEvent.class.isAssignableFrom(keyedSubscriber.eventType))) {
+                        try {
+                            keyedSubscriber.subscriber.onEvent(event);
+                        } catch (RuntimeException e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                    }
+                }
+            }
+        }
+        if (event instanceof CompositeEvent) {
+            final List<?> grouped = ((CompositeEvent)event).getEvents();
+            if (grouped != null) {
+                for (int i = 0, size = grouped.size(); i < size; i++) {
+                    final Object groupedEvent = grouped.get(i);
+                    if (groupedEvent != null) {
+                        publish(groupedEvent);
                     }
                 }
             }
@@ -117,15 +160,22 @@ public class EventService {
      */
     public void subscribe(EventSubscriber<?> subscriber) {
         final Class<?> eventType = getEventType(subscriber);
-        Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
-        if (entries == null) {
-            Set<EventSubscriber> newEntries = new CopyOnWriteArraySet<>();
-            entries = subscribersByEventType.putIfAbsent(eventType, newEntries);
+        synchronized (lock) {
+            final EventSubscriber[] entries = subscribersByEventType.get(eventType);
             if (entries == null) {
-                entries = newEntries;
+                subscribersByEventType.put(eventType, new EventSubscriber[]{subscriber});
+            } else {
+                for (EventSubscriber entry : entries) {
+                    if (entry.equals(subscriber)) {
+                        return;
+                    }
+                }
+                final EventSubscriber[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+                newEntries[entries.length] = subscriber;
+                subscribersByEventType.put(eventType, newEntries);
             }
+            subscribersByEventClass.clear();
         }
-        entries.add(subscriber);
     }
 
     /**
@@ -136,20 +186,135 @@ public class EventService {
      */
     public void unsubscribe(EventSubscriber<?> subscriber) {
         final Class<?> eventType = getEventType(subscriber);
-        final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
-        if (entries != null && !entries.isEmpty()) {
-            boolean changed = entries.remove(subscriber);
-            if (changed) {
-                if (entries.isEmpty()) {
-                    subscribersByEventType.remove(eventType);
+        synchronized (lock) {
+            final EventSubscriber[] entries = subscribersByEventType.get(eventType);
+            if (entries == null) {
+                return;
+            }
+            final List<EventSubscriber> newEntries = new ArrayList<>(entries.length);
+            for (EventSubscriber entry : entries) {
+                if (!entry.equals(subscriber)) {
+                    newEntries.add(entry);
                 }
             }
+            if (newEntries.size() == entries.length) {
+                return;
+            }
+            if (newEntries.isEmpty()) {
+                subscribersByEventType.remove(eventType);
+            } else {
+                subscribersByEventType.put(eventType, newEntries.toArray(new EventSubscriber[newEntries.size()]));
+            }
+            subscribersByEventClass.clear();
+        }
+    }
+
+    /**
+     * Subscribe event listener that gets only events that implement {@link KeyedEvent} and have routing key {@code key}. Subscriber
+     * should be removed with {@link #unsubscribe(long, EventSubscriber)} or {@link #unsubscribeAll(long)} when it isn't needed
+     * anymore, e.g. when task it listens to is done.
+     *
+     * @param key
+     *         routing key
+     * @param subscriber
+     *         event subscriber
+     */
+    public void subscribe(long key, EventSubscriber<?> subscriber) {
+        final Class<?> eventType = getEventType(subscriber);
+        synchronized (lock) {
+            final KeyedSubscriber[] entries = subscribersByKey.get(key);
+            if (entries == null) {
+                subscribersByKey = subscribersByKey.put(key, new KeyedSubscriber[]{new KeyedSubscriber(eventType, subscriber)});
+            } else {
+                for (KeyedSubscriber entry : entries) {
+                    if (entry.subscriber.equals(subscriber)) {
+                        return;
+                    }
+                }
+                final KeyedSubscriber[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+                newEntries[entries.length] = new KeyedSubscriber(eventType, subscriber);
+                subscribersByKey = subscribersByKey.put(key, newEntries);
+            }
+        }
+    }
+
+    /**
+     * Unsubscribe event listener registered with routing key {@code key}.
+     *
+     * @param key
+     *         routing key
+     * @param subscriber
+     *         event subscriber
+     */
+    public void unsubscribe(long key, EventSubscriber<?> subscriber) {
+        synchronized (lock) {
+            final KeyedSubscriber[] entries = subscribersByKey.get(key);
+            if (entries == null) {
+                return;
+            }
+            final List<KeyedSubscriber> newEntries = new ArrayList<>(entries.length);
+            for (KeyedSubscriber entry : entries) {
+                if (!entry.subscriber.equals(subscriber)) {
+                    newEntries.add(entry);
+                }
+            }
+            if (newEntries.size() == entries.length) {
+                return;
+            }
+            subscribersByKey = subscribersByKey.put(key, newEntries.isEmpty()
+                                                         ? null : newEntries.toArray(new KeyedSubscriber[newEntries.size()]));
         }
     }
 
+    /**
+     * Unsubscribe all event listeners registered with routing key {@code key}.
+     *
+     * @param key
+     *         routing key
+     */
+    public void unsubscribeAll(long key) {
+        synchronized (lock) {
+            subscribersByKey = subscribersByKey.put(key, null);
+        }
+    }
+
+    /* used in tests */EventSubscriber[] getSubscribers(Class<?> eventClass) {
+        EventSubscriber[] eventSubscribers = subscribersByEventClass.get(eventClass);
+        if (eventSubscribers == null) {
+            synchronized (lock) {
+                eventSubscribers = subscribersByEventClass.get(eventClass);
+                if (eventSubscribers == null) {
+                    final List<EventSubscriber> list = new ArrayList<>();
+                    final boolean composite = CompositeEvent.class.isAssignableFrom(eventClass);
+                    for (Class<?> clazz : TYPE_HIERARCHY.get(eventClass)) {
+                        if (composite && !CompositeEvent.class.isAssignableFrom(clazz)) {
+                            // other subscribers get grouped events one by one
+                            continue;
+                        }
+                        final EventSubscriber[] entries = subscribersByEventType.get(clazz);
+                        if (entries != null) {
+                            list.addAll(Arrays.asList(entries));
+                        }
+                    }
+                    eventSubscribers = list.isEmpty() ? NO_SUBSCRIBERS : list.toArray(new EventSubscriber[list.size()]);
+                    subscribersByEventClass.put(eventClass, eventSubscribers);
+                }
+            }
+        }
+        return eventSubscribers;
+    }
+
     private Class<?> getEventType(EventSubscriber<?> subscriber) {
+        final Class<?> eventType = SUBSCRIBER_EVENT_TYPE.get(subscriber.getClass());
+        if (eventType == null) {
+            throw new IllegalArgumentException(String.format("Unable determine type of events processed by %s", subscriber));
+        }
+        return eventType;
+    }
+
+    private static Class<?> resolveEventType(Class<?> subscriberClass) {
         Class<?> eventType = null;
-        Class<?> clazz = subscriber.getClass();
+        Class<?> clazz = subscriberClass;
         while (clazz != null && eventType == null) {
             for (Type type : clazz.getGenericInterfaces()) {
                 if (type instanceof ParameterizedType) {
@@ -167,9 +332,91 @@ public class EventService {
             }
             clazz = clazz.getSuperclass();
         }
-        if (eventType == null) {
-            throw new IllegalArgumentException(String.format("Unable determine type of events processed by %s", subscriber));
-        }
         return eventType;
     }
+
+    private static class KeyedSubscriber {
+        final Class<?>        eventType;
+        final EventSubscriber subscriber;
+
+        KeyedSubscriber(Class<?> eventType, EventSubscriber subscriber) {
+            this.eventType = eventType;
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * Immutable hash table of keyed subscribers with primitive keys and open addressing. Modification creates new table, it is cheap
+     * enough since keyed subscribers are added once per task and there are not many running tasks at the same time.
+     */
+    private static final class KeyedSubscribers {
+        static final KeyedSubscribers EMPTY = new KeyedSubscribers(0);
+
+        final long[]              keys;
+        /** {@code null} element means empty slot. */
+        final KeyedSubscriber[][] values;
+        final int                 size;
+
+        private KeyedSubscribers(int size) {
+            this.size = size;
+            int capacity = 0;
+            if (size > 0) {
+                // Keep table at most half full.
+                capacity = Integer.highestOneBit(size * 2 - 1) << 1;
+            }
+            keys = new long[capacity];
+            values = new KeyedSubscriber[capacity][];
+        }
+
+        KeyedSubscriber[] get(long key) {
+            if (size == 0) {
+                return null;
+            }
+            final int mask = keys.length - 1;
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                final KeyedSubscriber[] entries = values[i];
+                if (entries == null || keys[i] == key) {
+                    return entries;
+                }
+            }
+        }
+
+        /** Creates copy of this table with new subscribers of {@code key}. Subscribers are removed if {@code entries} is {@code null}. */
+        KeyedSubscribers put(long key, KeyedSubscriber[] entries) {
+            final boolean contains = get(key) != null;
+            if (!contains && entries == null) {
+                return this;
+            }
+            final int newSize = size + (contains ? 0 : 1) - (entries == null ? 1 : 0);
+            if (newSize == 0) {
+                return EMPTY;
+            }
+            final KeyedSubscribers copy = new KeyedSubscribers(newSize);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null && keys[i] != key) {
+                    copy.insert(keys[i], values[i]);
+                }
+            }
+            if (entries != null) {
+                copy.insert(key, entries);
+            }
+            return copy;
+        }
+
+        private void insert(long key, KeyedSubscriber[] entries) {
+            final int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = entries;
+        }
+
+        private static int index(long key, int mask) {
+            // Ids of tasks are sequential, spread them over the table.
+            final long h = key * 0x9E3779B97F4A7C15L;
+            return (int)(h ^ (h >>> 32)) & mask;
+        }
+    }
 }
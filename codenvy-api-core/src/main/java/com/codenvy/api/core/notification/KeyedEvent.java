@@ -0,0 +1,22 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.core.notification;
+
+/**
+ * Event that may be routed to subscribers registered with {@link EventService#subscribe(long, EventSubscriber)}, e.g. event of build
+ * task may use id of task as routing key. Method isn't named as java bean getter to keep routing key out of JSON representation of event.
+ *
+ * @author andrew00x
+ */
+public interface KeyedEvent {
+    /** Gets routing key of this event. */
+    long routingKey();
+}
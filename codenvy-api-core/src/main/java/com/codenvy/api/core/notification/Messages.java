@@ -12,6 +12,7 @@ package com.codenvy.api.core.notification;
 
 import com.codenvy.commons.lang.NameGenerator;
 
+import org.everrest.core.impl.provider.json.ArrayValue;
 import org.everrest.core.impl.provider.json.JsonGenerator;
 import org.everrest.core.impl.provider.json.JsonParser;
 import org.everrest.core.impl.provider.json.JsonValue;
@@ -26,14 +27,23 @@ import org.everrest.websockets.message.RESTfulOutputMessage;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 /**
+ * Few events may be sent in one message. In this case body of message is JSON array of events. Message with single event contains JSON
+ * object of this event, that keeps such messages compatible with peers that don't expect batches of events. Peers of older versions fail
+ * to read JSON array, that is why batching is disabled by default, see {@link WSocketEventBusClient#BATCH_EVENTS} and {@link
+ * WSocketEventBusServer#BATCH_EVENTS}.
+ *
  * @author andrew00x
  */
 class Messages {
-    static InputMessage clientMessage(Object event) throws Exception {
+    static InputMessage clientMessage(List<?> events) throws Exception {
         RESTfulInputMessage message = new RESTfulInputMessage();
-        message.setBody(toJson(event));
+        message.setBody(toJson(events));
         message.setMethod("POST");
         message.setHeaders(new org.everrest.websockets.message.Pair[]{
                 new org.everrest.websockets.message.Pair("Content-type", "application/json")});
@@ -46,40 +56,68 @@ class Messages {
         return RESTfulInputMessage.newSubscribeChannelMessage(NameGenerator.generate(null, 8), channel);
     }
 
-    static ChannelBroadcastMessage broadcastMessage(String channel, Object event) throws Exception {
+    static ChannelBroadcastMessage broadcastMessage(String channel, List<?> events) throws Exception {
         final ChannelBroadcastMessage message = new ChannelBroadcastMessage();
-        message.setBody(toJson(event));
+        message.setBody(toJson(events));
         message.setChannel(channel);
         return message;
     }
 
-    static Object restoreEventFromBroadcastMessage(RESTfulOutputMessage message) throws Exception {
+    static List<Object> restoreEventsFromBroadcastMessage(RESTfulOutputMessage message) throws Exception {
         return fromJson(message.getBody());
     }
 
-    static Object restoreEventFromClientMessage(String message) throws Exception {
+    static List<Object> restoreEventsFromClientMessage(String message) throws Exception {
         if (message != null) {
             return fromJson(message);
         }
-        return null;
+        return Collections.emptyList();
     }
 
-    private static String toJson(Object event) throws Exception {
-        final String type = event.getClass().getName();
-        final JsonValue json = JsonGenerator.createJsonObject(event);
-        json.addElement("$type", new StringValue(type));
+    private static String toJson(List<?> events) throws Exception {
+        final JsonValue json;
+        if (events.size() == 1) {
+            json = toJsonValue(events.get(0));
+        } else {
+            json = new ArrayValue();
+            for (Object event : events) {
+                json.addElement(toJsonValue(event));
+            }
+        }
         final Writer w = new StringWriter();
         json.writeTo(new JsonWriter(w));
         return w.toString();
     }
 
-    private static Object fromJson(String json) throws Exception {
+    private static JsonValue toJsonValue(Object event) throws Exception {
+        final String type = event.getClass().getName();
+        final JsonValue json = JsonGenerator.createJsonObject(event);
+        json.addElement("$type", new StringValue(type));
+        return json;
+    }
+
+    private static List<Object> fromJson(String json) throws Exception {
         if (json == null || json.isEmpty()) {
-            return null;
+            return Collections.emptyList();
         }
         final JsonParser parser = new JsonParser();
         parser.parse(new StringReader(json));
         final JsonValue node = parser.getJsonObject();
+        if (!node.isArray()) {
+            final Object event = fromJsonValue(node);
+            return event == null ? Collections.emptyList() : Collections.singletonList(event);
+        }
+        final List<Object> events = new ArrayList<>(node.size());
+        for (Iterator<JsonValue> iterator = node.getElements(); iterator.hasNext(); ) {
+            final Object event = fromJsonValue(iterator.next());
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private static Object fromJsonValue(JsonValue node) throws Exception {
         final JsonValue typeNode = node.getElement("$type");
         final String type;
         if (typeNode == null || (type = typeNode.getStringValue()) == null) {
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue of events that are waiting for sending over websocket. Publishers never wait, if queue is full event is dropped. Sender
+ * thread takes events from queue in batches. If batching is disabled every batch contains only one event, that is required for peers
+ * that don't accept JSON array of events in one message.
+ *
+ * @author andrew00x
+ */
+class OutboundEventQueue {
+    private static final Logger LOG = LoggerFactory.getLogger(OutboundEventQueue.class);
+
+    private static final Object CLOSED = new Object();
+
+    private final String                name;
+    private final int                   maxBatchSize;
+    private final BlockingQueue<Object> queue;
+    private final AtomicLong            dropped;
+
+    private volatile boolean closed;
+
+    OutboundEventQueue(String name, int capacity, int maxBatchSize, boolean batchEvents) {
+        this.name = name;
+        this.maxBatchSize = batchEvents ? maxBatchSize : 1;
+        queue = new LinkedBlockingQueue<>(capacity);
+        dropped = new AtomicLong();
+    }
+
+    /**
+     * Adds event in queue. Never blocks.
+     *
+     * @return {@code false} if queue is full or closed and event is dropped
+     */
+    boolean offer(Object event) {
+        if (closed) {
+            return false;
+        }
+        if (!queue.offer(event)) {
+            if (dropped.getAndIncrement() % 1000 == 0) {
+                LOG.warn("Outbound queue {} is full, {} events dropped", name, dropped.get());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Waits for at least one event and takes all events that are available in queue but not more than max size of batch.
+     *
+     * @return events for sending in one message or empty list if queue is closed
+     */
+    List<Object> take() throws InterruptedException {
+        final Object first = queue.take();
+        if (closed || first == CLOSED) {
+            return Collections.emptyList();
+        }
+        final List<Object> batch = new ArrayList<>(Math.min(maxBatchSize, queue.size() + 1));
+        batch.add(first);
+        if (maxBatchSize > 1) {
+            queue.drainTo(batch, maxBatchSize - 1);
+        }
+        batch.remove(CLOSED);
+        return batch;
+    }
+
+    /** Discards all events. Thread that waits in {@link #take()} gets empty list. */
+    void close() {
+        closed = true;
+        queue.clear();
+        queue.offer(CLOSED);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+}
@@ -35,6 +35,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -48,7 +49,11 @@ import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Receives event over websocket and publish them to the local EventsService.
+ * Receives event over websocket and publish them to the local EventsService. Local events accepted by {@link
+ * ClientEventPropagationPolicy} are sent to remote servers. Each connection has own outbound queue and sender thread, publishers only
+ * put events in queues and never wait for network. If queue is full events are dropped. If batching is enabled with {@link #BATCH_EVENTS}
+ * events that are accumulated in queue while previous message is sent are sent together in one message. If connection is broken its queue
+ * is discarded and events for this server are dropped until connection is restored.
  *
  * @author andrew00x
  */
@@ -56,15 +61,31 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public final class WSocketEventBusClient {
     private static final Logger LOG = LoggerFactory.getLogger(WSocketEventBusClient.class);
 
+    public static final String BATCH_EVENTS = "notification.client.batch_events";
+
     private static final long wsConnectionTimeout = 2000;
 
+    /** Max number of events that are waiting for sending to one server. Events are dropped if queue is full. */
+    static final int OUTBOUND_QUEUE_SIZE = 10000;
+    /** Max number of events in one message. */
+    static final int MAX_BATCH_SIZE      = 100;
+
     private final EventService                         eventService;
     private final Pair<String, String>[]               eventSubscriptions;
     private final ClientEventPropagationPolicy         policy;
     private final MessageConverter                     messageConverter;
     private final ConcurrentMap<URI, Future<WSClient>> connections;
+    private final ConcurrentMap<URI, EventSender>      senders;
     private final AtomicBoolean                        start;
 
+    /**
+     * Optional flag that enables sending of few events in one message. Such message contains JSON array of events and may be consumed by
+     * servers of the same or later version only. Disabled by default, every event is sent in separate message.
+     */
+    @com.google.inject.Inject(optional = true)
+    @Named(BATCH_EVENTS)
+    private boolean batchEvents = false;
+
     private ExecutorService executor;
 
     @Inject
@@ -77,6 +98,7 @@ public final class WSocketEventBusClient {
 
         messageConverter = new JsonMessageConverter();
         connections = new ConcurrentHashMap<>();
+        senders = new ConcurrentHashMap<>();
         start = new AtomicBoolean(false);
     }
 
@@ -118,17 +140,8 @@ public final class WSocketEventBusClient {
     }
 
     protected void propagate(Object event) {
-        for (Future<WSClient> future : connections.values()) {
-            if (future.isDone()) {
-                try {
-                    final WSClient client = future.get();
-                    if (policy.shouldPropagated(client.getUri(), event)) {
-                        client.send(messageConverter.toString(Messages.clientMessage(event)));
-                    }
-                } catch (Exception e) {
-                    LOG.error(e.getMessage(), e);
-                }
-            }
+        for (EventSender sender : senders.values()) {
+            sender.offer(event);
         }
     }
 
@@ -192,6 +205,10 @@ public final class WSocketEventBusClient {
         @Override
         public void onClose(int status, String message) {
             connections.remove(wsUri);
+            final EventSender sender = senders.remove(wsUri);
+            if (sender != null) {
+                sender.close();
+            }
             LOG.debug("Close connection to {}. ", wsUri);
             if (start.get()) {
                 executor.execute(new ConnectTask(wsUri, channels));
@@ -207,8 +224,7 @@ public final class WSocketEventBusClient {
                         if ("x-everrest-websocket-channel".equals(header.getName())) {
                             final String channel = header.getValue();
                             if (channel != null && channels.contains(channel)) {
-                                final Object event = Messages.restoreEventFromBroadcastMessage(message);
-                                if (event != null) {
+                                for (Object event : Messages.restoreEventsFromBroadcastMessage(message)) {
                                     eventService.publish(event);
                                 }
                             }
@@ -230,6 +246,82 @@ public final class WSocketEventBusClient {
                     LOG.error(e.getMessage(), e);
                 }
             }
+            if (policy != null && executor != null) {
+                final EventSender sender = new EventSender(wsUri, client);
+                final EventSender previous = senders.put(wsUri, sender);
+                if (previous != null) {
+                    previous.close();
+                }
+                executor.execute(sender);
+            }
+        }
+    }
+
+    /** Sends events to one server. Events are taken from queue in separate thread and sent in batches if batching is enabled. */
+    private class EventSender implements Runnable {
+        final URI                wsUri;
+        final WSClient           client;
+        final OutboundEventQueue queue;
+
+        EventSender(URI wsUri, WSClient client) {
+            this.wsUri = wsUri;
+            this.client = client;
+            queue = new OutboundEventQueue(wsUri.toString(), OUTBOUND_QUEUE_SIZE, MAX_BATCH_SIZE, batchEvents);
+        }
+
+        /** Adds event in outbound queue if it should be sent to the server. Never blocks. */
+        void offer(Object event) {
+            if (!queue.isClosed() && shouldPropagated(event)) {
+                queue.offer(event);
+            }
+        }
+
+        void close() {
+            queue.close();
+        }
+
+        /** Policy is checked for each event since it may decide by content of event, not only by its type. */
+        private boolean shouldPropagated(Object event) {
+            try {
+                return policy.shouldPropagated(wsUri, event);
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+                return false;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!queue.isClosed()) {
+                    final List<Object> batch = queue.take();
+                    if (batch.isEmpty()) {
+                        return;
+                    }
+                    try {
+                        client.send(messageConverter.toString(Messages.clientMessage(batch)));
+                    } catch (IOException e) {
+                        // Connection is broken. Stop accepting events for this server, they are dropped until connection is restored.
+                        LOG.error(String.format("Failed send events to %s", wsUri), e);
+                        close();
+                        senders.remove(wsUri, this);
+                        disconnect();
+                    } catch (Exception e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void disconnect() {
+            try {
+                // listener gets close notification and starts reconnecting
+                client.disconnect();
+            } catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
         }
     }
 
@@ -10,21 +10,36 @@
  *******************************************************************************/
 package com.codenvy.api.core.notification;
 
+import com.codenvy.commons.lang.NamedThreadFactory;
+
 import org.everrest.websockets.WSConnectionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.core.MediaType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * Receives events from remote clients over websocket and publish them to the local EventsService. Local events accepted by {@link
+ * ServerEventPropagationPolicy} are broadcasted to the websocket channels. Events are broadcasted from separate thread, publishers only
+ * put them in the outbound queue. If queue is full events are dropped. If batching is enabled with {@link #BATCH_EVENTS} events that are
+ * accumulated in queue while previous message is sent are broadcasted together in one message.
+ *
  * @author andrew00x
  */
 @Singleton
@@ -32,10 +47,28 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public final class WSocketEventBusServer {
     private static final Logger LOG = LoggerFactory.getLogger(WSocketEventBusServer.class);
 
+    public static final String BATCH_EVENTS = "notification.server.batch_events";
+
+    /** Max number of events that are waiting for broadcasting. Events are dropped if queue is full. */
+    static final int OUTBOUND_QUEUE_SIZE = 10000;
+    /** Max number of events in one message. */
+    static final int MAX_BATCH_SIZE      = 100;
+
     private final EventService                 eventService;
     private final ServerEventPropagationPolicy policy;
     private final AtomicBoolean                start;
 
+    /**
+     * Optional flag that enables broadcasting of few events in one message. Such message contains JSON array of events and may be consumed
+     * by clients of the same or later version only. Disabled by default, every event is broadcasted in separate message.
+     */
+    @com.google.inject.Inject(optional = true)
+    @Named(BATCH_EVENTS)
+    private boolean batchEvents = false;
+
+    private OutboundEventQueue outbound;
+    private ExecutorService    executor;
+
     @Inject
     public WSocketEventBusServer(EventService eventService, @Nullable ServerEventPropagationPolicy policy) {
         this.eventService = eventService;
@@ -48,8 +81,7 @@ public final class WSocketEventBusServer {
     @Consumes(MediaType.APPLICATION_JSON)
     public void event(String message) {
         try {
-            final Object event = Messages.restoreEventFromClientMessage(message);
-            if (event != null) {
+            for (Object event : Messages.restoreEventsFromClientMessage(message)) {
                 eventService.publish(event);
             }
         } catch (Exception e) {
@@ -61,6 +93,9 @@ public final class WSocketEventBusServer {
     void start() {
         if (start.compareAndSet(false, true)) {
             if (policy != null) {
+                outbound = new OutboundEventQueue("event-bus", OUTBOUND_QUEUE_SIZE, MAX_BATCH_SIZE, batchEvents);
+                executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("WSocketEventBusServer-", true));
+                executor.execute(new Broadcaster());
                 eventService.subscribe(new EventSubscriber<Object>() {
                     @Override
                     public void onEvent(Object event) {
@@ -71,13 +106,17 @@ public final class WSocketEventBusServer {
         }
     }
 
+    @PreDestroy
+    void stop() {
+        if (start.compareAndSet(true, false) && executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
     protected void propagate(Object event) {
-        if (policy.shouldPropagated(event)) {
-            try {
-                WSConnectionContext.sendMessage(Messages.broadcastMessage(resolveChannelName(event), event));
-            } catch (Exception e) {
-                LOG.error(e.getMessage(), e);
-            }
+        // don't block publisher if clients can't consume events quickly enough, queue drops events if it is full
+        if (shouldPropagated(event)) {
+            outbound.offer(event);
         }
     }
 
@@ -88,4 +127,48 @@ public final class WSocketEventBusServer {
         }
         return eventOrigin.value();
     }
+
+    /** Policy is checked for each event since it may decide by content of event, not only by its type. */
+    private boolean shouldPropagated(Object event) {
+        try {
+            return policy.shouldPropagated(event);
+        } catch (RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private class Broadcaster implements Runnable {
+        @Override
+        public void run() {
+            final Map<String, List<Object>> byChannel = new LinkedHashMap<>();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    final List<Object> batch = outbound.take();
+                    for (Object event : batch) {
+                        try {
+                            final String channel = resolveChannelName(event);
+                            List<Object> events = byChannel.get(channel);
+                            if (events == null) {
+                                byChannel.put(channel, events = new ArrayList<>());
+                            }
+                            events.add(event);
+                        } catch (RuntimeException e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                    }
+                    for (Map.Entry<String, List<Object>> entry : byChannel.entrySet()) {
+                        try {
+                            WSConnectionContext.sendMessage(Messages.broadcastMessage(entry.getKey(), entry.getValue()));
+                        } catch (Exception e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                    }
+                    byChannel.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.core.rest;
+
+import com.codenvy.api.core.ApiException;
+import com.codenvy.commons.lang.NamedThreadFactory;
+import com.codenvy.commons.lang.concurrent.ThreadLocalPropagateContext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks health of a remote server and protects callers from waiting for a server that doesn't respond. After {@code failureThreshold}
+ * consecutive i/o failures circuit gets open and all calls fail immediately with {@link OpenCircuitException} during {@code
+ * openTimeMillis}. After that a single trial call is allowed. Successful trial call closes circuit, failed one keeps it open for next
+ * {@code openTimeMillis}. Errors reported by remote server itself, e.g. {@link com.codenvy.api.core.NotFoundException}, mean that server
+ * is alive and aren't counted as failures.
+ * <p/>
+ * Idempotent calls (e.g. getting status or descriptors) may be hedged, see {@link #executeIdempotent(RemoteCall)}.
+ *
+ * @author andrew00x
+ */
+public class CircuitBreaker {
+    public static final int  DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_OPEN_TIME         = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Max number of threads that run idempotent calls. Hedging fires when remote servers are slow, pool must not grow together with
+     * number of stalled calls. When all threads are busy calls aren't hedged, see {@link #executeIdempotent(RemoteCall)}.
+     */
+    private static final int MAX_HEDGE_THREADS = 4 * Runtime.getRuntime().availableProcessors();
+
+    private static final ExecutorService HEDGE_EXECUTOR = newHedgeExecutor(MAX_HEDGE_THREADS);
+
+    /** Creates pool that rejects tasks with {@link RejectedExecutionException} if all its threads are busy. */
+    static ThreadPoolExecutor newHedgeExecutor(int maxThreads) {
+        return new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                                      new NamedThreadFactory("CircuitBreaker-Hedge-", true), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Call to remote server. */
+    public interface RemoteCall<T> {
+        T call() throws IOException, ApiException;
+    }
+
+    /** Thrown when call is rejected without any attempt to reach remote server because circuit is open. */
+    @SuppressWarnings("serial")
+    public static class OpenCircuitException extends IOException {
+        public OpenCircuitException(String message) {
+            super(message);
+        }
+    }
+
+    private final String          name;
+    private final int             failureThreshold;
+    private final long            openTimeMillis;
+    private final long            hedgeDelayMillis;
+    private final AtomicInteger   consecutiveFailures;
+    /** Time when circuit was open or last trial call was allowed. Zero means circuit is closed. */
+    private final AtomicLong      openedAt;
+    private final ExecutorService hedgeExecutor;
+
+    /**
+     * Creates circuit breaker with default settings and without hedging of idempotent calls.
+     *
+     * @param name
+     *         name of remote server, e.g. its URL, used in error messages
+     */
+    public CircuitBreaker(String name) {
+        this(name, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_TIME, 0);
+    }
+
+    /**
+     * @param name
+     *         name of remote server, e.g. its URL, used in error messages
+     * @param failureThreshold
+     *         number of consecutive i/o failures after that circuit gets open
+     * @param openTimeMillis
+     *         time in milliseconds during that all calls are rejected after circuit gets open
+     * @param hedgeDelayMillis
+     *         time in milliseconds after that idempotent call is sent again if there is no response yet. Zero or negative value disables
+     *         hedging
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openTimeMillis, long hedgeDelayMillis) {
+        this(name, failureThreshold, openTimeMillis, hedgeDelayMillis, HEDGE_EXECUTOR);
+    }
+
+    /* used in tests */CircuitBreaker(String name, int failureThreshold, long openTimeMillis, long hedgeDelayMillis,
+                                      ExecutorService hedgeExecutor) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException(String.format("Invalid failure threshold: %d", failureThreshold));
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openTimeMillis = openTimeMillis;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.hedgeExecutor = hedgeExecutor;
+        consecutiveFailures = new AtomicInteger();
+        openedAt = new AtomicLong();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Returns {@code true} if circuit is open and calls to the remote server are rejected. */
+    public boolean isOpen() {
+        return openedAt.get() != 0;
+    }
+
+    /** Gets number of consecutive i/o failures of calls to the remote server. */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * Executes call to the remote server.
+     *
+     * @throws OpenCircuitException
+     *         if circuit is open
+     * @throws IOException
+     *         if i/o error occurs during call
+     * @throws ApiException
+     *         if remote server reports an error
+     */
+    public <T> T execute(RemoteCall<T> call) throws IOException, ApiException {
+        if (!allowRequest()) {
+            throw openCircuitException();
+        }
+        return doExecute(call);
+    }
+
+    private <T> T doExecute(RemoteCall<T> call) throws IOException, ApiException {
+        boolean failed = true;
+        try {
+            final T result = call.call();
+            failed = false;
+            return result;
+        } catch (ApiException e) {
+            failed = false;
+            throw e;
+        } finally {
+            if (failed) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+        }
+    }
+
+    /**
+     * Executes idempotent call to the remote server. If hedging is enabled and there is no response after hedge delay the same call is
+     * sent once again and result of first successful call is returned. Hedged call isn't sent if circuit is in trial state. Calls are
+     * executed in bounded pool of threads. If there is no free thread for the first call it is executed in the current thread without
+     * hedging, if there is no free thread for hedged call only the first call is awaited.
+     *
+     * @throws OpenCircuitException
+     *         if circuit is open
+     * @throws IOException
+     *         if i/o error occurs during call
+     * @throws ApiException
+     *         if remote server reports an error
+     */
+    public <T> T executeIdempotent(final RemoteCall<T> call) throws IOException, ApiException {
+        if (hedgeDelayMillis <= 0) {
+            return execute(call);
+        }
+        if (!allowRequest()) {
+            throw openCircuitException();
+        }
+        final Callable<T> task = ThreadLocalPropagateContext.wrap(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return call.call();
+            }
+        });
+        final CompletionService<T> completionService = new ExecutorCompletionService<>(hedgeExecutor);
+        final List<Future<T>> futures = new ArrayList<>(2);
+        Throwable failure = null;
+        try {
+            try {
+                futures.add(completionService.submit(task));
+            } catch (RejectedExecutionException e) {
+                // All threads are busy, don't make things worse and don't hedge.
+                return doExecute(call);
+            }
+            Future<T> done = completionService.poll(hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                if (!isOpen()) {
+                    try {
+                        futures.add(completionService.submit(task));
+                    } catch (RejectedExecutionException ignored) {
+                        // All threads are busy, wait for the first call only.
+                    }
+                }
+                done = completionService.take();
+            }
+            for (int received = 1; ; received++) {
+                try {
+                    final T result = done.get();
+                    onSuccess();
+                    return result;
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof ApiException) {
+                        onSuccess();
+                        throw (ApiException)cause;
+                    }
+                    failure = cause;
+                }
+                if (received == futures.size()) {
+                    break;
+                }
+                done = completionService.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Interrupted while waiting for response from %s", name));
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        onFailure();
+        if (failure instanceof IOException) {
+            throw (IOException)failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException)failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error)failure;
+        }
+        throw new IOException(failure);
+    }
+
+    private boolean allowRequest() {
+        final long opened = openedAt.get();
+        if (opened == 0) {
+            return true;
+        }
+        final long now = System.currentTimeMillis();
+        // let only one trial call pass through per open period
+        return now - opened >= openTimeMillis && openedAt.compareAndSet(opened, now);
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        openedAt.set(0);
+    }
+
+    private void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.currentTimeMillis());
+        }
+    }
+
+    private OpenCircuitException openCircuitException() {
+        return new OpenCircuitException(String.format("Server %s isn't available, it failed %d times in a row", name,
+                                                      consecutiveFailures.get()));
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" +
+               "name='" + name + '\'' +
+               ", open=" + isOpen() +
+               ", consecutiveFailures=" + consecutiveFailures.get() +
+               '}';
+    }
+}
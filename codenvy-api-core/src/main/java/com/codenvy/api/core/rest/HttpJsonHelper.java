@@ -154,6 +154,31 @@ public class HttpJsonHelper {
         return request(dtoInterface, url, "GET", null, parameters);
     }
 
+    /**
+     * Sends GET request to specified {@code url} and uses {@code cache} to avoid downloading of the same response again. Cached response
+     * is reused without request to the server while it is fresh, after that it is revalidated with conditional request.
+     *
+     * @param dtoInterface
+     *         type of expected response. If server returns some content we try parse it and restore object of the specified type from it.
+     *         Specified interface must be annotated with &#064DTO.
+     * @param cache
+     *         cache of responses, if {@code null} cache isn't used
+     * @param url
+     *         URL to send request
+     * @param parameters
+     *         additional query parameters.
+     * @return instance of {@code dtoInterface} which represents JSON response from the server
+     * @throws ServerException
+     *         if server returns error response in supported JSON format, see {@link ServiceError}
+     * @throws IOException
+     *         if any other error occurs
+     * @see HttpResponseCache
+     */
+    public static <DTO> DTO get(Class<DTO> dtoInterface, HttpResponseCache cache, String url, Pair<String, ?>... parameters)
+            throws IOException, ServerException, NotFoundException, ForbiddenException, UnauthorizedException, ConflictException {
+        return httpJsonHelperImpl.request(dtoInterface, cache, url, "GET", null, parameters);
+    }
+
     /**
      * Sends POST request to specified {@code url}.
      *
@@ -224,6 +249,30 @@ public class HttpJsonHelper {
         return request(dtoInterface, url, "OPTIONS", null, parameters);
     }
 
+    /**
+     * Sends OPTIONS request to specified {@code url} and uses {@code cache} to avoid downloading of the same response again.
+     *
+     * @param dtoInterface
+     *         type of expected response. If server returns some content we try parse it and restore object of the specified type from it.
+     *         Specified interface must be annotated with &#064DTO.
+     * @param cache
+     *         cache of responses, if {@code null} cache isn't used
+     * @param url
+     *         URL to send request
+     * @param parameters
+     *         additional query parameters.
+     * @return instance of {@code dtoInterface} which represents JSON response from the server
+     * @throws ServerException
+     *         if server returns error response in supported JSON format, see {@link ServiceError}
+     * @throws IOException
+     *         if any other error occurs
+     * @see HttpResponseCache
+     */
+    public static <DTO> DTO options(Class<DTO> dtoInterface, HttpResponseCache cache, String url, Pair<String, ?>... parameters)
+            throws IOException, ServerException, NotFoundException, ForbiddenException, UnauthorizedException, ConflictException {
+        return httpJsonHelperImpl.request(dtoInterface, cache, url, "OPTIONS", null, parameters);
+    }
+
     /**
      * Sends DELETE request to specified {@code url}.
      *
@@ -260,12 +309,21 @@ public class HttpJsonHelper {
                                  Object body,
                                  Pair<String, ?>... parameters)
                 throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
-            final String str = requestString(url, method, body, parameters);
+            return request(dtoInterface, null, url, method, body, parameters);
+        }
+
+        public <DTO> DTO request(Class<DTO> dtoInterface,
+                                 HttpResponseCache cache,
+                                 String url,
+                                 String method,
+                                 Object body,
+                                 Pair<String, ?>... parameters)
+                throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
+            final String str = requestString(cache, url, method, body, parameters);
             if (dtoInterface != null) {
                 return DtoFactory.getInstance().createDtoFromJson(str, dtoInterface);
             }
             return null;
-
         }
 
         public <DTO> List<DTO> requestArray(Class<DTO> dtoInterface,
@@ -294,6 +352,19 @@ public class HttpJsonHelper {
                                     Object body,
                                     Pair<String, ?>... parameters)
                 throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
+            return requestString(null, url, method, body, parameters);
+        }
+
+        /**
+         * Sends request and gets response as string. If {@code cache} isn't {@code null} and request is GET or OPTIONS without body
+         * response may be taken from the cache or revalidated with conditional request.
+         */
+        public String requestString(HttpResponseCache cache,
+                                    String url,
+                                    String method,
+                                    Object body,
+                                    Pair<String, ?>... parameters)
+                throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
             final String authToken = getAuthenticationToken();
             if ((parameters != null && parameters.length > 0) || authToken != null) {
                 final UriBuilder ub = UriBuilder.fromUri(url);
@@ -310,11 +381,27 @@ public class HttpJsonHelper {
                 }
                 url = ub.build().toString();
             }
+            if (cache != null && (body != null || !("GET".equals(method) || "OPTIONS".equals(method)))) {
+                cache = null;
+            }
+            final String cacheKey = cache == null ? null : HttpResponseCache.key(method, url);
+            final HttpResponseCache.Entry cached = cache == null ? null : cache.get(cacheKey);
+            if (cached != null && cached.isFresh()) {
+                return cached.body;
+            }
             final HttpURLConnection conn = (HttpURLConnection)new URL(url).openConnection();
             conn.setConnectTimeout(60 * 1000);
             conn.setReadTimeout(60 * 1000);
             try {
                 conn.setRequestMethod(method);
+                if (cached != null) {
+                    if (cached.eTag != null) {
+                        conn.setRequestProperty("If-None-Match", cached.eTag);
+                    }
+                    if (cached.lastModified != null) {
+                        conn.setRequestProperty("If-Modified-Since", cached.lastModified);
+                    }
+                }
                 if (body != null) {
                     conn.addRequestProperty("content-type", "application/json");
                     conn.setDoOutput(true);
@@ -330,6 +417,10 @@ public class HttpJsonHelper {
                 }
 
                 final int responseCode = conn.getResponseCode();
+                if (cached != null && responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    cached.revalidated(conn.getHeaderField("Cache-Control"));
+                    return cached.body;
+                }
                 if ((responseCode / 100) != 2) {
                     InputStream in = conn.getErrorStream();
                     if (in == null) {
@@ -370,12 +461,24 @@ public class HttpJsonHelper {
                                           " Retry the request. If this issue continues, contact. support.");
                 }
 
-                return CharStreams.toString(new InputSupplier<Reader>() {
+                final String str = CharStreams.toString(new InputSupplier<Reader>() {
                     @Override
                     public Reader getInput() throws IOException {
                         return new InputStreamReader(conn.getInputStream());
                     }
                 });
+                if (cache != null) {
+                    final HttpResponseCache.Entry entry = HttpResponseCache.newEntry(str,
+                                                                                    conn.getHeaderField("ETag"),
+                                                                                    conn.getHeaderField("Last-Modified"),
+                                                                                    conn.getHeaderField("Cache-Control"));
+                    if (entry != null) {
+                        cache.put(cacheKey, entry);
+                    } else if (cached != null) {
+                        cache.remove(cacheKey);
+                    }
+                }
+                return str;
             } finally {
                 conn.disconnect();
             }
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.core.rest;
+
+import com.codenvy.commons.lang.cache.Cache;
+import com.codenvy.commons.lang.cache.SLRUCache;
+import com.codenvy.commons.lang.cache.SynchronizedCache;
+
+/**
+ * Client side cache of JSON responses which is used by {@link HttpJsonHelper} when caller opts in to use it. Responses are stored as raw
+ * strings and parsed on each request, so callers never share mutable DTO instances. Entries are keyed by HTTP method and full request URL
+ * (including authentication token) and are revalidated with conditional requests ({@code If-None-Match}, {@code If-Modified-Since})
+ * after they become stale. Freshness of response is controlled by {@code Cache-Control} header sent by server. Responses with {@code
+ * Cache-Control: no-store} or without any validators and freshness information are never stored.
+ *
+ * @author andrew00x
+ * @see HttpJsonHelper#get(Class, HttpResponseCache, String, com.codenvy.commons.lang.Pair[])
+ * @see HttpJsonHelper#options(Class, HttpResponseCache, String, com.codenvy.commons.lang.Pair[])
+ */
+public class HttpResponseCache {
+    private final Cache<String, Entry> entries;
+
+    /**
+     * @param size
+     *         max number of responses to keep
+     */
+    public HttpResponseCache(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException(String.format("Invalid cache size: %d", size));
+        }
+        final int segmentSize = size / 2;
+        entries = new SynchronizedCache<>(new SLRUCache<String, Entry>(segmentSize, size - segmentSize));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    Entry get(String key) {
+        return entries.get(key);
+    }
+
+    void put(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    void remove(String key) {
+        entries.remove(key);
+    }
+
+    static String key(String method, String url) {
+        return method + ' ' + url;
+    }
+
+    /**
+     * Creates new cache entry from response headers. Returns {@code null} if response may not be cached.
+     *
+     * @param body
+     *         body of response
+     * @param eTag
+     *         value of {@code ETag} header or {@code null}
+     * @param lastModified
+     *         value of {@code Last-Modified} header or {@code null}
+     * @param cacheControl
+     *         value of {@code Cache-Control} header or {@code null}
+     */
+    static Entry newEntry(String body, String eTag, String lastModified, String cacheControl) {
+        if (cacheControl != null && cacheControl.contains("no-store")) {
+            return null;
+        }
+        final long maxAge = parseMaxAge(cacheControl);
+        if (eTag == null && lastModified == null && maxAge <= 0) {
+            return null;
+        }
+        return new Entry(body, eTag, lastModified, System.currentTimeMillis() + maxAge * 1000);
+    }
+
+    /** Gets value of {@code max-age} directive in seconds. Directive {@code no-cache} forces revalidation, so max-age is zero. */
+    static long parseMaxAge(String cacheControl) {
+        if (cacheControl == null || cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim();
+            if (directive.startsWith("max-age=")) {
+                try {
+                    return Long.parseLong(directive.substring(8).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    static class Entry {
+        final String body;
+        final String eTag;
+        final String lastModified;
+
+        volatile long expires;
+
+        Entry(String body, String eTag, String lastModified, long expires) {
+            this.body = body;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() < expires;
+        }
+
+        /** Updates freshness of entry after successful revalidation. */
+        void revalidated(String cacheControl) {
+            expires = System.currentTimeMillis() + parseMaxAge(cacheControl) * 1000;
+        }
+    }
+}
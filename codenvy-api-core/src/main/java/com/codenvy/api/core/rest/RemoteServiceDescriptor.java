@@ -41,8 +41,9 @@ import java.util.List;
  */
 public class RemoteServiceDescriptor {
 
-    protected final String baseUrl;
-    private final   URL    baseUrlURL;
+    protected final String            baseUrl;
+    private final   URL               baseUrlURL;
+    private final   HttpResponseCache responseCache;
 
     // will be initialized when it is needed
     private volatile ServiceDescriptor serviceDescriptor;
@@ -54,7 +55,20 @@ public class RemoteServiceDescriptor {
      *         if URL is invalid
      */
     public RemoteServiceDescriptor(String baseUrl) throws IllegalArgumentException {
+        this(baseUrl, null);
+    }
+
+    /**
+     * Creates new descriptor of remote RESTful service which uses {@code responseCache} to avoid downloading the same descriptor of
+     * service many times.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         if URL is invalid
+     * @see HttpResponseCache
+     */
+    public RemoteServiceDescriptor(String baseUrl, HttpResponseCache responseCache) throws IllegalArgumentException {
         this.baseUrl = baseUrl;
+        this.responseCache = responseCache;
         try {
             baseUrlURL = new URL(baseUrl);
             final String protocol = baseUrlURL.getProtocol();
@@ -93,7 +107,7 @@ public class RemoteServiceDescriptor {
                 myServiceDescriptor = serviceDescriptor;
                 if (myServiceDescriptor == null) {
                     try {
-                        myServiceDescriptor = serviceDescriptor = HttpJsonHelper.options(getServiceDescriptorClass(), baseUrl);
+                        myServiceDescriptor = serviceDescriptor = HttpJsonHelper.options(getServiceDescriptorClass(), responseCache, baseUrl);
                     } catch (NotFoundException | ConflictException | UnauthorizedException | ForbiddenException e) {
                         throw new ServerException(e.getServiceError());
                     }
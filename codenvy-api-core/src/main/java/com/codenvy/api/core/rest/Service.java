@@ -21,6 +21,8 @@ import com.codenvy.api.core.rest.shared.dto.LinkParameter;
 import com.codenvy.api.core.rest.shared.dto.RequestBodyDescriptor;
 import com.codenvy.api.core.rest.shared.dto.ServiceDescriptor;
 import com.codenvy.dto.server.DtoFactory;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.CookieParam;
@@ -33,8 +35,12 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import java.lang.annotation.Annotation;
@@ -46,6 +52,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Base class for all API services.
@@ -58,6 +66,20 @@ public abstract class Service {
 
     @OPTIONS
     @Produces(MediaType.APPLICATION_JSON)
+    public Response getServiceDescriptor(@Context Request request) {
+        if (!isStaticServiceDescriptor(getClass())) {
+            return Response.ok(getServiceDescriptor()).build();
+        }
+        // Descriptor is generated from annotations of service class and URI of request, no need to generate it to get its ETag.
+        final EntityTag eTag = createEntityTag(getClass().getName(), uriInfo.getRequestUriBuilder().replaceQuery(null).build(),
+                                               Constants.API_VERSION);
+        final Response notModified = notModified(request, eTag);
+        if (notModified != null) {
+            return notModified;
+        }
+        return okResponse(getServiceDescriptor(), eTag);
+    }
+
     public ServiceDescriptor getServiceDescriptor() {
         return generateServiceDescriptor(uriInfo, getClass());
     }
@@ -70,6 +92,107 @@ public abstract class Service {
         return DtoFactory.getInstance().createDto(ServiceDescriptor.class);
     }
 
+    /**
+     * Creates {@code ETag} from values that identify state of entity, e.g. identifier and modification date. It is much cheaper than
+     * calculate {@code ETag} from serialized entity and lets check {@code If-None-Match} header before entity is created.
+     *
+     * @param values
+     *         values that identify state of entity, {@code null} is allowed
+     */
+    protected static EntityTag createEntityTag(Object... values) {
+        final StringBuilder state = new StringBuilder();
+        for (Object value : values) {
+            // Separator avoids the same ETag for e.g. ("ab", "c") and ("a", "bc").
+            state.append(value).append('\u0000');
+        }
+        return new EntityTag(Hashing.md5().hashBytes(state.toString().getBytes(Charsets.UTF_8)).toString());
+    }
+
+    /**
+     * Checks whether request contains {@code If-None-Match} header that matches to the {@code eTag}.
+     *
+     * @param request
+     *         current request
+     * @param eTag
+     *         {@code ETag} of requested entity
+     * @return response with status 304 (Not Modified) and without body or {@code null} if client doesn't have actual entity
+     * @see #createEntityTag(Object...)
+     * @see #okResponse(Object, EntityTag)
+     */
+    protected static Response notModified(Request request, EntityTag eTag) {
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(eTag);
+        if (notModified != null) {
+            return notModified.tag(eTag).cacheControl(revalidate()).build();
+        }
+        return null;
+    }
+
+    /**
+     * Creates response with specified {@code ETag}. If request contains {@code If-None-Match} header that matches to the {@code ETag}
+     * response with status 304 (Not Modified) and without body is returned. Response is marked with {@code Cache-Control: private,
+     * no-cache}, so client may cache it but must revalidate it before each usage.
+     *
+     * @param request
+     *         current request
+     * @param entity
+     *         entity to send to client
+     * @param eTag
+     *         {@code ETag} of entity
+     * @see #createEntityTag(Object...)
+     */
+    protected static Response conditionalResponse(Request request, Object entity, EntityTag eTag) {
+        final Response notModified = notModified(request, eTag);
+        if (notModified != null) {
+            return notModified;
+        }
+        return okResponse(entity, eTag);
+    }
+
+    /**
+     * Creates response with specified {@code ETag} without checking of request preconditions. Use it together with {@link
+     * #notModified(Request, EntityTag)} if entity is expensive to create and should not be created when client has actual copy of it.
+     * Response is marked with {@code Cache-Control: private, no-cache}.
+     *
+     * @param entity
+     *         entity to send to client
+     * @param eTag
+     *         {@code ETag} of entity
+     */
+    protected static Response okResponse(Object entity, EntityTag eTag) {
+        return Response.ok(entity).tag(eTag).cacheControl(revalidate()).build();
+    }
+
+    private static CacheControl revalidate() {
+        final CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        cacheControl.setNoTransform(false);
+        return cacheControl;
+    }
+
+    private static final ConcurrentMap<Class<?>, Boolean> STATIC_DESCRIPTORS = new ConcurrentHashMap<>();
+
+    /** Checks whether descriptor of service depends only on class of service, i.e. none of methods that create it is overridden. */
+    private static boolean isStaticServiceDescriptor(Class<?> service) {
+        Boolean result = STATIC_DESCRIPTORS.get(service);
+        if (result == null) {
+            result = isDeclaredInService(service, "getServiceDescriptor") && isDeclaredInService(service, "createServiceDescriptor");
+            STATIC_DESCRIPTORS.put(service, result);
+        }
+        return result;
+    }
+
+    private static boolean isDeclaredInService(Class<?> service, String methodName) {
+        for (Class<?> c = service; c != null && c != Service.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(methodName);
+                return false;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return true;
+    }
+
     //
 
     private static final Set<String> JAX_RS_ANNOTATIONS;
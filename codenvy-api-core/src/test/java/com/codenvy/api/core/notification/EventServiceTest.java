@@ -15,6 +15,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -157,4 +158,205 @@ public class EventServiceTest {
         bus.publish(new Event());
         Assert.assertEquals(events.size(), 0);
     }
+
+    @Test
+    public void testSubscribeAfterPublish() {
+        final List<String> events = new ArrayList<>();
+        bus.publish(new ExtEvent());
+        bus.subscribe(new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+            }
+        });
+        bus.publish(new ExtEvent());
+        Assert.assertEquals(events.size(), 1);
+        Assert.assertEquals(events.get(0), "ext_event");
+    }
+
+    @Test
+    public void testDuplicatedSubscriber() {
+        ExtListener listener = new ExtListener();
+        bus.subscribe(listener);
+        bus.subscribe(listener);
+        bus.publish("hello");
+        Assert.assertEquals(listener.events.size(), 1);
+    }
+
+    static class TaskEvent extends Event implements KeyedEvent {
+        final long taskId;
+
+        TaskEvent(long taskId) {
+            super("task_" + taskId);
+            this.taskId = taskId;
+        }
+
+        @Override
+        public long routingKey() {
+            return taskId;
+        }
+    }
+
+    @Test
+    public void testKeyedSubscriber() {
+        final List<String> events = new ArrayList<>();
+        final EventSubscriber<TaskEvent> subscriber = new EventSubscriber<TaskEvent>() {
+            @Override
+            public void onEvent(TaskEvent event) {
+                events.add(event.data);
+            }
+        };
+        bus.subscribe(1L, subscriber);
+        bus.publish(new TaskEvent(1));
+        bus.publish(new TaskEvent(2));
+        // not keyed event with the same type is ignored
+        bus.publish(new Event());
+        Assert.assertEquals(events.size(), 1);
+        Assert.assertEquals(events.get(0), "task_1");
+        bus.unsubscribe(1L, subscriber);
+        events.clear();
+        bus.publish(new TaskEvent(1));
+        Assert.assertEquals(events.size(), 0);
+    }
+
+    @Test
+    public void testKeyedSubscriberFiltersEventType() {
+        final List<String> events = new ArrayList<>();
+        bus.subscribe(1L, new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                events.add(event);
+            }
+        });
+        bus.publish(new TaskEvent(1));
+        Assert.assertEquals(events.size(), 0);
+        bus.unsubscribeAll(1L);
+    }
+
+    @Test
+    public void testManyKeyedSubscribers() {
+        final List<String> events = new ArrayList<>();
+        final EventSubscriber<TaskEvent> subscriber = new EventSubscriber<TaskEvent>() {
+            @Override
+            public void onEvent(TaskEvent event) {
+                events.add(event.data);
+            }
+        };
+        for (long i = 0; i < 100; i++) {
+            bus.subscribe(i, subscriber);
+        }
+        for (long i = 0; i < 100; i += 2) {
+            bus.unsubscribe(i, subscriber);
+        }
+        for (long i = 0; i < 100; i++) {
+            bus.publish(new TaskEvent(i));
+        }
+        Assert.assertEquals(events.size(), 50);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(events.get(i), "task_" + (i * 2 + 1));
+        }
+        for (long i = 0; i < 100; i++) {
+            bus.unsubscribeAll(i);
+        }
+        events.clear();
+        bus.publish(new TaskEvent(1));
+        Assert.assertEquals(events.size(), 0);
+    }
+
+    static class GroupEvent extends Event implements CompositeEvent {
+        final List<Event> events;
+
+        GroupEvent(List<Event> events) {
+            super("group");
+            this.events = events;
+        }
+
+        @Override
+        public List<?> getEvents() {
+            return events;
+        }
+    }
+
+    @Test
+    public void testCompositeEvent() {
+        final List<Object> groups = new ArrayList<>();
+        final List<Object> events = new ArrayList<>();
+        final List<Object> objects = new ArrayList<>();
+        bus.subscribe(new EventSubscriber<GroupEvent>() {
+            @Override
+            public void onEvent(GroupEvent event) {
+                groups.add(event);
+            }
+        });
+        bus.subscribe(new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event);
+            }
+        });
+        bus.subscribe(new EventSubscriber<Object>() {
+            @Override
+            public void onEvent(Object event) {
+                objects.add(event);
+            }
+        });
+        final Event event = new Event();
+        final ExtEvent extEvent = new ExtEvent();
+        final GroupEvent group = new GroupEvent(Arrays.asList(event, extEvent));
+        bus.publish(group);
+        // only subscriber of composite event gets it as is
+        Assert.assertEquals(groups, Arrays.<Object>asList(group));
+        // other subscribers get grouped events one by one
+        Assert.assertEquals(events, Arrays.<Object>asList(event, extEvent));
+        Assert.assertEquals(objects, Arrays.<Object>asList(event, extEvent));
+    }
+
+    @Test
+    public void testResolvedSubscribersAreReused() {
+        bus.subscribe(new EventSubscriber<Date>() {
+            @Override
+            public void onEvent(Date event) {
+            }
+        });
+        bus.publish(new Date());
+        final EventSubscriber[] subscribers = bus.getSubscribers(Date.class);
+        Assert.assertEquals(subscribers.length, 1);
+        bus.publish(new Date());
+        Assert.assertSame(bus.getSubscribers(Date.class), subscribers);
+        // subscribers of other events don't matter
+        bus.getSubscribers(String.class);
+        Assert.assertSame(bus.getSubscribers(Date.class), subscribers);
+    }
+
+    @Test
+    public void testResolvedSubscribersAreUpdatedOnSubscribeAndUnsubscribe() {
+        final List<Object> events = new ArrayList<>();
+        bus.subscribe(new EventSubscriber<Date>() {
+            @Override
+            public void onEvent(Date event) {
+                events.add(event);
+            }
+        });
+        bus.publish(new Date());
+        final EventSubscriber[] before = bus.getSubscribers(Date.class);
+        final EventSubscriber<Object> objectSubscriber = new EventSubscriber<Object>() {
+            @Override
+            public void onEvent(Object event) {
+                events.add(event);
+            }
+        };
+        bus.subscribe(objectSubscriber);
+        final EventSubscriber[] afterSubscribe = bus.getSubscribers(Date.class);
+        Assert.assertNotSame(afterSubscribe, before);
+        Assert.assertEquals(afterSubscribe.length, 2);
+        events.clear();
+        bus.publish(new Date());
+        Assert.assertEquals(events.size(), 2);
+
+        bus.unsubscribe(objectSubscriber);
+        Assert.assertEquals(bus.getSubscribers(Date.class).length, 1);
+        events.clear();
+        bus.publish(new Date());
+        Assert.assertEquals(events.size(), 1);
+    }
 }
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.core.notification;
+
+import org.everrest.core.impl.provider.json.JsonParser;
+import org.everrest.core.impl.provider.json.JsonValue;
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.everrest.websockets.message.RESTfulInputMessage;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author andrew00x
+ */
+public class MessagesTest {
+    @EventOrigin("test")
+    public static class TestEvent {
+        private String name;
+
+        public TestEvent() {
+        }
+
+        public TestEvent(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    public void testSingleEventIsSentAsObject() throws Exception {
+        final RESTfulInputMessage message =
+                (RESTfulInputMessage)Messages.clientMessage(Collections.singletonList(new TestEvent("a")));
+        final JsonValue json = parse(message.getBody());
+        Assert.assertTrue(json.isObject());
+        Assert.assertEquals(json.getElement("name").getStringValue(), "a");
+        Assert.assertEquals(json.getElement("$type").getStringValue(), TestEvent.class.getName());
+
+        final List<Object> events = Messages.restoreEventsFromClientMessage(message.getBody());
+        Assert.assertEquals(events.size(), 1);
+        Assert.assertEquals(((TestEvent)events.get(0)).getName(), "a");
+    }
+
+    @Test
+    public void testFewEventsAreSentAsArray() throws Exception {
+        final RESTfulInputMessage message =
+                (RESTfulInputMessage)Messages.clientMessage(Arrays.asList(new TestEvent("a"), new TestEvent("b")));
+        final JsonValue json = parse(message.getBody());
+        Assert.assertTrue(json.isArray());
+        Assert.assertEquals(json.size(), 2);
+
+        final List<Object> events = Messages.restoreEventsFromClientMessage(message.getBody());
+        Assert.assertEquals(events.size(), 2);
+        Assert.assertEquals(((TestEvent)events.get(0)).getName(), "a");
+        Assert.assertEquals(((TestEvent)events.get(1)).getName(), "b");
+    }
+
+    @Test
+    public void testBroadcastMessage() throws Exception {
+        final ChannelBroadcastMessage message =
+                Messages.broadcastMessage("test", Arrays.asList(new TestEvent("a"), new TestEvent("b")));
+        Assert.assertEquals(message.getChannel(), "test");
+        Assert.assertTrue(parse(message.getBody()).isArray());
+    }
+
+    @Test
+    public void testSkipEventsWithoutType() throws Exception {
+        final List<Object> events = Messages.restoreEventsFromClientMessage("[{\"name\":\"a\"}," +
+                                                                            "{\"name\":\"b\",\"$type\":\"" + TestEvent.class.getName() +
+                                                                            "\"}]");
+        Assert.assertEquals(events.size(), 1);
+        Assert.assertEquals(((TestEvent)events.get(0)).getName(), "b");
+    }
+
+    private JsonValue parse(String json) throws Exception {
+        final JsonParser parser = new JsonParser();
+        parser.parse(new StringReader(json));
+        return parser.getJsonObject();
+    }
+}
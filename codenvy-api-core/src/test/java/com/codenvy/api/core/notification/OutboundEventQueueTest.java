@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.core.notification;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author andrew00x
+ */
+public class OutboundEventQueueTest {
+    @Test
+    public void testBatch() throws Exception {
+        final OutboundEventQueue queue = new OutboundEventQueue("test", 10, 3, true);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertEquals(queue.take(), Arrays.<Object>asList(0, 1, 2));
+        Assert.assertEquals(queue.take(), Arrays.<Object>asList(3, 4));
+        Assert.assertEquals(queue.size(), 0);
+    }
+
+    @Test
+    public void testSingleEventIfBatchingDisabled() throws Exception {
+        final OutboundEventQueue queue = new OutboundEventQueue("test", 10, 3, false);
+        for (int i = 0; i < 3; i++) {
+            queue.offer(i);
+        }
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(queue.take(), Arrays.<Object>asList(i));
+        }
+    }
+
+    @Test
+    public void testDropEventsIfQueueIsFull() throws Exception {
+        final OutboundEventQueue queue = new OutboundEventQueue("test", 3, 10, true);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(3));
+        Assert.assertFalse(queue.offer(4));
+        Assert.assertEquals(queue.getDropped(), 2);
+        // oldest events are kept
+        Assert.assertEquals(queue.take(), Arrays.<Object>asList(0, 1, 2));
+        Assert.assertTrue(queue.offer(5));
+        Assert.assertEquals(queue.take(), Arrays.<Object>asList(5));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final OutboundEventQueue queue = new OutboundEventQueue("test", 10, 10, true);
+        queue.offer(1);
+        queue.offer(2);
+        queue.close();
+        Assert.assertTrue(queue.take().isEmpty());
+        Assert.assertFalse(queue.offer(3));
+    }
+
+    @Test(timeOut = 5000)
+    public void testCloseWakesUpWaitingThread() throws Exception {
+        final OutboundEventQueue queue = new OutboundEventQueue("test", 10, 10, true);
+        final List<?>[] result = new List<?>[1];
+        final Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result[0] = queue.take();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        t.start();
+        queue.close();
+        t.join();
+        Assert.assertNotNull(result[0]);
+        Assert.assertTrue(result[0].isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.core.rest;
+
+import com.codenvy.api.core.ApiException;
+import com.codenvy.api.core.NotFoundException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** @author andrew00x */
+public class CircuitBreakerTest {
+    private final CircuitBreaker.RemoteCall<String> failing = new CircuitBreaker.RemoteCall<String>() {
+        @Override
+        public String call() throws IOException {
+            throw new IOException("connection refused");
+        }
+    };
+
+    private final CircuitBreaker.RemoteCall<String> successful = new CircuitBreaker.RemoteCall<String>() {
+        @Override
+        public String call() {
+            return "ok";
+        }
+    };
+
+    @Test
+    public void testOpenAfterConsecutiveFailures() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 2, TimeUnit.MINUTES.toMillis(1), 0);
+        callAndIgnoreFailure(breaker, failing);
+        Assert.assertFalse(breaker.isOpen());
+        callAndIgnoreFailure(breaker, failing);
+        Assert.assertTrue(breaker.isOpen());
+        try {
+            breaker.execute(successful);
+            Assert.fail("OpenCircuitException expected");
+        } catch (CircuitBreaker.OpenCircuitException ignored) {
+        }
+    }
+
+    @Test
+    public void testServerErrorIsNotFailure() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 1, TimeUnit.MINUTES.toMillis(1), 0);
+        try {
+            breaker.execute(new CircuitBreaker.RemoteCall<String>() {
+                @Override
+                public String call() throws ApiException {
+                    throw new NotFoundException("not found");
+                }
+            });
+            Assert.fail("NotFoundException expected");
+        } catch (NotFoundException ignored) {
+        }
+        Assert.assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    public void testCloseAfterSuccessfulTrial() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 1, 100, 0);
+        callAndIgnoreFailure(breaker, failing);
+        Assert.assertTrue(breaker.isOpen());
+        Thread.sleep(200);
+        Assert.assertEquals(breaker.execute(successful), "ok");
+        Assert.assertFalse(breaker.isOpen());
+        Assert.assertEquals(breaker.getConsecutiveFailures(), 0);
+    }
+
+    @Test
+    public void testHedgedCall() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 3, TimeUnit.MINUTES.toMillis(1), 100);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final String result = breaker.executeIdempotent(new CircuitBreaker.RemoteCall<String>() {
+            @Override
+            public String call() throws IOException {
+                if (calls.incrementAndGet() == 1) {
+                    // first call stalls
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "stalled";
+                }
+                return "hedged";
+            }
+        });
+        release.countDown();
+        Assert.assertEquals(result, "hedged");
+        Assert.assertEquals(calls.get(), 2);
+    }
+
+    @Test
+    public void testCallInCurrentThreadWhenPoolIsBusy() throws Exception {
+        final ThreadPoolExecutor executor = CircuitBreaker.newHedgeExecutor(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            final CircuitBreaker breaker = new CircuitBreaker("test", 3, TimeUnit.MINUTES.toMillis(1), 100, executor);
+            final Thread caller = Thread.currentThread();
+            final String result = breaker.executeIdempotent(new CircuitBreaker.RemoteCall<String>() {
+                @Override
+                public String call() {
+                    return Thread.currentThread() == caller ? "caller" : "pool";
+                }
+            });
+            Assert.assertEquals(result, "caller");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNoHedgedCallWhenPoolIsBusy() throws Exception {
+        final ThreadPoolExecutor executor = CircuitBreaker.newHedgeExecutor(1);
+        try {
+            final CircuitBreaker breaker = new CircuitBreaker("test", 3, TimeUnit.MINUTES.toMillis(1), 10, executor);
+            final AtomicInteger calls = new AtomicInteger();
+            final String result = breaker.executeIdempotent(new CircuitBreaker.RemoteCall<String>() {
+                @Override
+                public String call() {
+                    calls.incrementAndGet();
+                    // slower than hedge delay, the only thread of pool is busy when hedged call is sent
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "ok";
+                }
+            });
+            Assert.assertEquals(result, "ok");
+            Assert.assertEquals(calls.get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void callAndIgnoreFailure(CircuitBreaker breaker, CircuitBreaker.RemoteCall<String> call) throws ApiException {
+        try {
+            breaker.execute(call);
+            Assert.fail("IOException expected");
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -39,9 +39,12 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Application;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /** @author <a href="mailto:andrew00x@gmail.com">Andrey Parfonov</a> */
@@ -135,6 +138,18 @@ public class ServiceDescriptorTest {
         Assert.assertTrue(valid.contains("b"));
     }
 
+    @Test
+    public void testNotModifiedDescriptor() throws Exception {
+        ContainerResponse response = launcher.service("OPTIONS", SERVICE_URI, BASE_URI, null, null, null, null);
+        Assert.assertEquals(response.getStatus(), 200);
+        Object eTag = response.getHttpHeaders().getFirst("ETag");
+        Assert.assertNotNull(eTag);
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Arrays.asList(eTag.toString()));
+        response = launcher.service("OPTIONS", SERVICE_URI, BASE_URI, headers, null, null, null);
+        Assert.assertEquals(response.getStatus(), 304);
+    }
+
     private Link getLink(String rel) throws Exception {
         List<Link> links = getDescriptor().getLinks();
         for (Link link : links) {
@@ -16,10 +16,11 @@ import com.codenvy.api.core.ServerException;
 import com.codenvy.api.core.notification.EventService;
 import com.codenvy.api.core.notification.EventSubscriber;
 import com.codenvy.api.vfs.server.VirtualFileSystemRegistry;
+import com.codenvy.api.vfs.server.observation.MoveEvent;
+import com.codenvy.api.vfs.server.observation.RenameEvent;
 import com.codenvy.api.vfs.server.observation.VirtualFileEvent;
 import com.codenvy.commons.lang.Pair;
-import com.codenvy.commons.lang.cache.Cache;
-import com.codenvy.commons.lang.cache.SLRUCache;
+import com.codenvy.commons.lang.NamedThreadFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,18 +28,23 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author andrew00x
@@ -47,12 +53,26 @@ import java.util.concurrent.locks.ReentrantLock;
 public final class DefaultProjectManager implements ProjectManager {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultProjectManager.class);
 
-    private static final int CACHE_NUM  = 1 << 2;
-    private static final int CACHE_MASK = CACHE_NUM - 1;
-    private static final int SEG_SIZE   = 32;
+    /** Name of configuration parameter that sets max number of ProjectMisc kept in memory. */
+    public static final String MISC_CACHE_SIZE   = "project.misc.cache_size";
+    /** Name of configuration parameter that sets period in seconds of writing updated ProjectMisc to the virtual file system. */
+    public static final String MISC_FLUSH_PERIOD = "project.misc.flush_period";
 
-    private final Lock[]                                     miscLocks;
-    private final Cache<Pair<String, String>, ProjectMisc>[] miscCaches;
+    /** Max number of parsed files .codenvy/project.json in cache. Cache is cleared when it becomes full. */
+    private static final int PROJECT_JSON_CACHE_SIZE = 1024;
+
+    private final ProjectMiscStore miscStore;
+
+    /**
+     * Parsed files .codenvy/project.json by workspace and path of project. Cache is used only when this manager gets events of virtual
+     * file system, otherwise it isn't possible to know when file is changed.
+     */
+    private final ConcurrentMap<Pair<String, String>, ProjectJson2> projectJsonCache;
+    /** Incremented each time when cache is invalidated. Prevents caching of file that is loaded concurrently with invalidation. */
+    private long             projectJsonCacheVersion;
+    /** Roots of projects by workspace, used for finding projects which are affected by events of virtual file system. */
+    private final ConcurrentMap<String, ProjectRootIndex> projectRoots;
+    private volatile boolean started;
 
     private final ProjectTypeDescriptionRegistry    typeDescriptionRegistry;
     private final Map<String, ValueProviderFactory> valueProviderFactories;
@@ -60,8 +80,17 @@ public final class DefaultProjectManager implements ProjectManager {
     private final EventService                      eventService;
     private final EventSubscriber<VirtualFileEvent> vfsSubscriber;
 
+    @com.google.inject.Inject(optional = true)
+    @Named(MISC_CACHE_SIZE)
+    private int miscCacheSize = 1024;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(MISC_FLUSH_PERIOD)
+    private int miscFlushPeriod = 30;
+
+    private volatile ScheduledExecutorService miscFlushScheduler;
+
     @Inject
-    @SuppressWarnings("unchecked")
     public DefaultProjectManager(ProjectTypeDescriptionRegistry typeDescriptionRegistry,
                                  Set<ValueProviderFactory> valueProviderFactories,
                                  VirtualFileSystemRegistry fileSystemRegistry,
@@ -73,28 +102,19 @@ public final class DefaultProjectManager implements ProjectManager {
         for (ValueProviderFactory valueProviderFactory : valueProviderFactories) {
             this.valueProviderFactories.put(valueProviderFactory.getName(), valueProviderFactory);
         }
-        this.miscCaches = new Cache[CACHE_NUM];
-        this.miscLocks = new Lock[CACHE_NUM];
-        for (int i = 0; i < CACHE_NUM; i++) {
-            miscLocks[i] = new ReentrantLock();
-            miscCaches[i] = new SLRUCache<Pair<String, String>, ProjectMisc>(SEG_SIZE, SEG_SIZE) {
-                @Override
-                protected void evict(Pair<String, String> key, ProjectMisc value) {
-                    if (value.isUpdated()) {
-                        final int index = key.hashCode() & CACHE_MASK;
-                        miscLocks[index].lock();
-                        try {
-                            writeProjectMisc(value.getProject(), value);
-                        } catch (Exception e) {
-                            LOG.error(e.getMessage(), e);
-                        } finally {
-                            miscLocks[index].unlock();
-                        }
-                        super.evict(key, value);
-                    }
-                }
-            };
-        }
+        this.projectJsonCache = new ConcurrentHashMap<>();
+        this.projectRoots = new ConcurrentHashMap<>();
+        this.miscStore = new ProjectMiscStore(miscCacheSize) {
+            @Override
+            protected ProjectMisc read(Project project) throws ServerException {
+                return readProjectMisc(project);
+            }
+
+            @Override
+            protected void write(Project project, Properties properties) throws ServerException {
+                writeProjectMisc(project, properties);
+            }
+        };
 
         vfsSubscriber = new EventSubscriber<VirtualFileEvent>() {
             @Override
@@ -104,23 +124,22 @@ public final class DefaultProjectManager implements ProjectManager {
                 if (path.endsWith(Constants.CODENVY_DIR + "/misc.xml")) {
                     return;
                 }
+                invalidateProjectJson(event);
+                invalidateProjectRoots(event);
+                invalidateProjectMisc(event);
                 switch (event.getType()) {
                     case CONTENT_UPDATED:
                     case CREATED:
                     case DELETED:
                     case MOVED:
                     case RENAMED: {
-                        final int length = path.length();
-                        for (int i = 1; i < length && (i = path.indexOf('/', i)) > 0; i++) {
-                            final String projectPath = path.substring(0, i);
-                            try {
-                                final Project project = getProject(workspace, projectPath);
-                                if (project != null) {
-                                    getProjectMisc(project).setModificationDate(System.currentTimeMillis());
-                                }
-                            } catch (Exception e) {
-                                LOG.error(e.getMessage(), e);
+                        try {
+                            final long now = System.currentTimeMillis();
+                            for (Project project : getProjectRootIndex(workspace).getProjects(path)) {
+                                getProjectMisc(project).setModificationDate(now);
                             }
+                        } catch (Exception e) {
+                            LOG.error(e.getMessage(), e);
                         }
                         break;
                     }
@@ -160,6 +179,9 @@ public final class DefaultProjectManager implements ProjectManager {
         final Project project = new Project(projectFolder, this);
         project.updateDescription(projectDescription);
         getProjectMisc(project).setCreationDate(System.currentTimeMillis());
+        if (started) {
+            getProjectRootIndex(workspace).put(project);
+        }
         return project;
     }
 
@@ -170,20 +192,12 @@ public final class DefaultProjectManager implements ProjectManager {
 
     @Override
     public ProjectMisc getProjectMisc(Project project) throws ServerException {
-        final String workspace = project.getWorkspace();
-        final String path = project.getPath();
-        final Pair<String, String> key = Pair.of(workspace, path);
-        final int index = key.hashCode() & CACHE_MASK;
-        miscLocks[index].lock();
-        try {
-            ProjectMisc misc = miscCaches[index].get(key);
-            if (misc == null) {
-                miscCaches[index].put(key, misc = readProjectMisc(project));
-            }
-            return misc;
-        } finally {
-            miscLocks[index].unlock();
+        final ProjectMisc misc = miscStore.get(project);
+        if (miscFlushScheduler == null) {
+            // Nobody writes updates periodically.
+            miscStore.flushEvicted();
         }
+        return misc;
     }
 
     private ProjectMisc readProjectMisc(Project project) throws ServerException {
@@ -210,27 +224,180 @@ public final class DefaultProjectManager implements ProjectManager {
 
     @Override
     public void saveProjectMisc(Project project, ProjectMisc misc) throws ServerException {
-        if (misc.isUpdated()) {
-            final String workspace = project.getWorkspace();
-            final String path = project.getPath();
-            final Pair<String, String> key = Pair.of(workspace, path);
-            final int index = key.hashCode() & CACHE_MASK;
-            miscLocks[index].lock();
-            try {
-                miscCaches[index].remove(key);
-                writeProjectMisc(project, misc);
-                miscCaches[index].put(key, misc);
-            } finally {
-                miscLocks[index].unlock();
+        miscStore.save(project, misc);
+    }
+
+    @Override
+    public ProjectJson2 getProjectJson(Project project) throws ServerException {
+        if (!started) {
+            return ProjectJson2.load(project);
+        }
+        final Pair<String, String> key = Pair.of(project.getWorkspace(), project.getPath());
+        ProjectJson2 projectJson = projectJsonCache.get(key);
+        if (projectJson == null) {
+            final long version;
+            synchronized (projectJsonCache) {
+                version = projectJsonCacheVersion;
+            }
+            projectJson = ProjectJson2.load(project);
+            synchronized (projectJsonCache) {
+                if (version == projectJsonCacheVersion) {
+                    if (projectJsonCache.size() >= PROJECT_JSON_CACHE_SIZE) {
+                        projectJsonCache.clear();
+                    }
+                    projectJsonCache.put(key, projectJson);
+                }
             }
         }
+        return new ProjectJson2(projectJson);
     }
 
-    private void writeProjectMisc(Project project, ProjectMisc misc) throws ServerException {
+    @Override
+    public void saveProjectJson(Project project, ProjectJson2 projectJson) throws ServerException {
+        final String workspace = project.getWorkspace();
+        final String path = project.getPath();
+        try {
+            projectJson.save(project);
+        } finally {
+            // Event about update of file may come in another thread or don't come at all if file was not changed.
+            invalidateProjectJson(workspace, path, false);
+        }
+    }
+
+    private void invalidateProjectJson(VirtualFileEvent event) {
+        final String workspace = event.getWorkspaceId();
+        final String path = event.getPath();
+        final String projectPath = getCodenvyDirOwner(path);
+        if (projectPath != null) {
+            invalidateProjectJson(workspace, projectPath, false);
+        }
+        if (event.isFolder()) {
+            switch (event.getType()) {
+                case CREATED:
+                case DELETED:
+                    invalidateProjectJson(workspace, path, true);
+                    break;
+                case MOVED:
+                case RENAMED:
+                    invalidateProjectJson(workspace, path, true);
+                    final String oldPath = getOldPath(event);
+                    if (oldPath != null) {
+                        invalidateProjectJson(workspace, oldPath, true);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private ProjectRootIndex getProjectRootIndex(String workspace) {
+        ProjectRootIndex index = projectRoots.get(workspace);
+        if (index == null) {
+            final ProjectRootIndex newIndex = new ProjectRootIndex(workspace, this);
+            index = projectRoots.putIfAbsent(workspace, newIndex);
+            if (index == null) {
+                index = newIndex;
+            }
+        }
+        return index;
+    }
+
+    /** Updates roots of projects when items which may add or remove project are created, deleted, moved or renamed. */
+    private void invalidateProjectRoots(VirtualFileEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case DELETED:
+            case MOVED:
+            case RENAMED:
+                final ProjectRootIndex index = projectRoots.get(event.getWorkspaceId());
+                if (index != null) {
+                    invalidateProjectRoots(index, event.getPath(), event.isFolder());
+                    final String oldPath = getOldPath(event);
+                    if (oldPath != null) {
+                        invalidateProjectRoots(index, oldPath, event.isFolder());
+                    }
+                }
+                break;
+        }
+    }
+
+    private void invalidateProjectRoots(ProjectRootIndex index, String path, boolean folder) {
+        final String projectPath = getCodenvyDirOwner(path);
+        if (projectPath != null) {
+            index.invalidate(projectPath, false);
+        }
+        if (folder) {
+            index.invalidate(path, true);
+        }
+    }
+
+    /** Forgets ProjectMisc of removed and moved projects. */
+    private void invalidateProjectMisc(VirtualFileEvent event) {
+        if (event.isFolder()) {
+            switch (event.getType()) {
+                case DELETED:
+                case MOVED:
+                case RENAMED:
+                    final String oldPath = getOldPath(event);
+                    miscStore.remove(event.getWorkspaceId(), oldPath == null ? event.getPath() : oldPath, true);
+                    break;
+            }
+        }
+    }
+
+    /** Gets path of folder which contains folder .codenvy if specified path points to .codenvy or any item inside it. */
+    private static String getCodenvyDirOwner(String path) {
+        final int codenvyDir = path.lastIndexOf('/' + Constants.CODENVY_DIR);
+        final int end = codenvyDir + Constants.CODENVY_DIR.length() + 1;
+        if (codenvyDir > 0 && (end == path.length() || path.charAt(end) == '/')) {
+            return path.substring(0, codenvyDir);
+        }
+        return null;
+    }
+
+    private static String getOldPath(VirtualFileEvent event) {
+        if (event instanceof MoveEvent) {
+            return ((MoveEvent)event).getOldPath();
+        }
+        if (event instanceof RenameEvent) {
+            return ((RenameEvent)event).getOldPath();
+        }
+        return null;
+    }
+
+    /**
+     * Removes parsed file .codenvy/project.json of project from cache.
+     *
+     * @param workspace
+     *         workspace
+     * @param path
+     *         path of project
+     * @param tree
+     *         if {@code true} remove also cached files of all projects (modules) under specified path
+     */
+    private void invalidateProjectJson(String workspace, String path, boolean tree) {
+        synchronized (projectJsonCache) {
+            projectJsonCacheVersion++;
+            if (projectJsonCache.isEmpty()) {
+                return;
+            }
+            projectJsonCache.remove(Pair.of(workspace, path));
+            if (tree) {
+                final String prefix = path.endsWith("/") ? path : (path + '/');
+                for (Iterator<Pair<String, String>> i = projectJsonCache.keySet().iterator(); i.hasNext(); ) {
+                    final Pair<String, String> key = i.next();
+                    if (workspace.equals(key.first) && key.second.startsWith(prefix)) {
+                        i.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeProjectMisc(Project project, Properties properties) throws ServerException {
         try {
             final ByteArrayOutputStream bout = new ByteArrayOutputStream();
             try {
-                misc.asProperties().storeToXML(bout, null);
+                properties.storeToXML(bout, null);
             } catch (IOException e) {
                 throw new ServerException(e.getMessage(), e);
             }
@@ -278,19 +445,38 @@ public final class DefaultProjectManager implements ProjectManager {
 
     @PostConstruct
     void start() {
+        miscStore.setMaxSize(miscCacheSize);
+        miscFlushScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("ProjectMiscFlusher-", true));
+        miscFlushScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                miscStore.flush();
+            }
+        }, miscFlushPeriod, miscFlushPeriod, TimeUnit.SECONDS);
         eventService.subscribe(vfsSubscriber);
+        started = true;
     }
 
     @PreDestroy
     void stop() {
         eventService.unsubscribe(vfsSubscriber);
-        for (int i = 0, length = miscLocks.length; i < length; i++) {
-            miscLocks[i].lock();
+        started = false;
+        projectRoots.clear();
+        synchronized (projectJsonCache) {
+            projectJsonCacheVersion++;
+            projectJsonCache.clear();
+        }
+        if (miscFlushScheduler != null) {
+            miscFlushScheduler.shutdownNow();
             try {
-                miscCaches[i].clear();
-            } finally {
-                miscLocks[i].unlock();
+                if (!miscFlushScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                    LOG.warn("Unable terminate writer of project misc files. ");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+            miscFlushScheduler = null;
         }
+        miscStore.close();
     }
 }
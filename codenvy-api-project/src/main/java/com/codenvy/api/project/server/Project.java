@@ -99,7 +99,7 @@ public class Project {
     }
 
     private ProjectDescription doGetDescription() throws ServerException {
-        final ProjectJson2 projectJson = ProjectJson2.load(this);
+        final ProjectJson2 projectJson = manager.getProjectJson(this);
         final String typeId = projectJson.getType();
         ProjectType projectType;
         if (typeId == null) {
@@ -181,7 +181,7 @@ public class Project {
                 }
             }
         }
-        projectJson.save(this);
+        manager.saveProjectJson(this, projectJson);
     }
 
     /**
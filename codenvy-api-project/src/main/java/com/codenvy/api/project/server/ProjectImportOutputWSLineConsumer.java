@@ -20,66 +20,192 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Send project import output to WS by skipping output messages written below the delay specified.
+ * Sends project import output to WS. Lines are collected in buffer and buffer is sent in one message periodically. Size of buffer is
+ * limited, if importer writes output faster than it is sent lines that don't fit in buffer are skipped and message gets line that tells
+ * how many lines are skipped. All lines are sent if size of output between two messages doesn't exceed size of buffer. Size of line is
+ * counted in bytes of its UTF-8 representation.
+ * <p/>
+ * Each message contains number of the last line, the last line and all lines from buffer:
+ * <pre>
+ *     {"num":5, "line":"line 5", "lines":["line 3", "line 4", "line 5"]}
+ * </pre>
+ * All consumers share one thread that sends messages.
  */
 public class ProjectImportOutputWSLineConsumer implements LineConsumer {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectImportOutputWSLineConsumer.class);
 
-    protected final AtomicInteger            lineCounter;
-    protected final String                   fPath;
-    protected final String                   fWorkspace;
-    protected final BlockingQueue<String>    lineToSendQueue;
-    protected final ScheduledExecutorService executor;
+    /** Default max size of output between two messages. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final class SchedulerHolder {
+        static final ScheduledThreadPoolExecutor SCHEDULER;
+
+        static {
+            SCHEDULER = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(
+                    ProjectImportOutputWSLineConsumer.class.getSimpleName(), true));
+            SCHEDULER.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    protected final AtomicInteger lineCounter;
+    protected final String        fPath;
+    protected final String        fWorkspace;
+
+    private final int                bufferSize;
+    private final List<String>       buffer;
+    /** Sends messages in order they are taken from buffer. */
+    private final Object             sendLock;
+    private final ScheduledFuture<?> sendTask;
+
+    private int     bufferedBytes;
+    private int     skippedLines;
+    private long    skippedBytes;
+    private boolean closed;
 
     public ProjectImportOutputWSLineConsumer(String fPath, String fWorkspace, int delayBetweenMessages) {
+        this(fPath, fWorkspace, delayBetweenMessages, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param fPath
+     *         path of imported project
+     * @param fWorkspace
+     *         workspace
+     * @param delayBetweenMessages
+     *         delay in milliseconds between two messages
+     * @param bufferSize
+     *         max size of output in bytes between two messages
+     */
+    public ProjectImportOutputWSLineConsumer(String fPath, String fWorkspace, int delayBetweenMessages, int bufferSize) {
         this.fPath = fPath;
         this.fWorkspace = fWorkspace;
-        lineToSendQueue = new ArrayBlockingQueue<>(1024);
-        executor = Executors.newSingleThreadScheduledExecutor(
-                new NamedThreadFactory(ProjectImportOutputWSLineConsumer.class.getSimpleName(), true));
-        executor.scheduleAtFixedRate(new Runnable() {
+        this.bufferSize = bufferSize;
+        lineCounter = new AtomicInteger(1);
+        buffer = new ArrayList<>();
+        sendLock = new Object();
+        sendTask = SchedulerHolder.SCHEDULER.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
-                String lineToSend = null;
-                while (!lineToSendQueue.isEmpty()) {
-                    lineToSend = lineToSendQueue.poll();
-                }
-                if (lineToSend == null) {
-                    return;
-                }
-                sendMessage(lineToSend);
+                sendBuffer();
             }
-        }, 0, delayBetweenMessages, TimeUnit.MILLISECONDS);
-        lineCounter = new AtomicInteger(1);
+        }, delayBetweenMessages, delayBetweenMessages, TimeUnit.MILLISECONDS);
     }
 
+    /** Sends lines that are not sent yet and stops sending of messages. */
     @Override
     public void close() throws IOException {
-        executor.shutdown();
+        synchronized (buffer) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        sendTask.cancel(false);
+        sendBuffer();
     }
 
     @Override
     public void writeLine(String line) throws IOException {
-        try {
-            lineToSendQueue.put(line);
-        } catch (InterruptedException ignored) {
-            // ignore if interrupted
+        if (line == null) {
+            return;
+        }
+        synchronized (buffer) {
+            if (closed) {
+                return;
+            }
+            final int size = utf8Length(line);
+            if (skippedLines > 0 || bufferedBytes + size > bufferSize) {
+                // Don't add new lines until buffer is sent, even if line is short enough, output has to be sent in order.
+                skippedLines++;
+                skippedBytes += size;
+            } else {
+                buffer.add(line);
+                bufferedBytes += size;
+            }
         }
     }
 
+    /** Counts bytes of UTF-8 representation of line without encoding it. */
+    static int utf8Length(String line) {
+        int length = 0;
+        for (int i = 0, size = line.length(); i < size; i++) {
+            final char c = line.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(line.charAt(i + 1))) {
+                // Supplementary character, pair of chars is encoded with four bytes.
+                length += 4;
+                i++;
+            } else {
+                // Unpaired surrogate is encoded as '?'.
+                length += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return length;
+    }
+
+    /** Sends lines which are collected in buffer. Called periodically by scheduler. */
+    // Switched to default for test.
+    // private
+    void sendBuffer() {
+        synchronized (sendLock) {
+            final List<String> lines;
+            final int lastLineNum;
+            synchronized (buffer) {
+                if (buffer.isEmpty() && skippedLines == 0) {
+                    return;
+                }
+                lines = new ArrayList<>(buffer);
+                lineCounter.addAndGet(buffer.size() + skippedLines);
+                lastLineNum = lineCounter.get() - 1;
+                if (skippedLines > 0) {
+                    lines.add(String.format("[Output is too fast, %d lines (%d bytes) are skipped]", skippedLines, skippedBytes));
+                }
+                buffer.clear();
+                bufferedBytes = 0;
+                skippedLines = 0;
+                skippedBytes = 0;
+            }
+            sendMessage(lines, lastLineNum);
+        }
+    }
+
+    /**
+     * Sends one line in separate message. Not used by this class anymore, lines are sent in batches with {@link #sendMessage(List, int)}.
+     *
+     * @deprecated override {@link #sendMessage(List, int)} instead
+     */
+    @Deprecated
     protected void sendMessage(String line) {
+        sendMessage(Collections.singletonList(line), lineCounter.getAndIncrement());
+    }
+
+    protected void sendMessage(List<String> lines, int lastLineNum) {
+        final StringBuilder body = new StringBuilder();
+        body.append("{\"num\":").append(lastLineNum)
+            .append(", \"line\":").append(JsonUtils.getJsonString(lines.get(lines.size() - 1)))
+            .append(", \"lines\":[");
+        for (int i = 0, size = lines.size(); i < size; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(JsonUtils.getJsonString(lines.get(i)));
+        }
+        body.append("]}");
         final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
         bm.setChannel("importProject:output:" + fWorkspace + ":" + fPath);
-        bm.setBody(String.format("{\"num\":%d, \"line\":%s}",
-                                 lineCounter.getAndIncrement(), JsonUtils.getJsonString(line)));
+        bm.setBody(body.toString());
         sendMessageToWS(bm);
     }
 
@@ -136,6 +136,21 @@ public class ProjectJson2 {
         this.attributes = attributes;
     }
 
+    /** Copy constructor. */
+    public ProjectJson2(ProjectJson2 other) {
+        this.type = other.type;
+        this.builders = other.builders == null ? null : new Builders(other.builders);
+        this.runners = other.runners == null ? null : new Runners(other.runners);
+        this.description = other.description;
+        if (other.attributes != null) {
+            this.attributes = new HashMap<>(other.attributes.size());
+            for (Map.Entry<String, List<String>> e : other.attributes.entrySet()) {
+                final List<String> value = e.getValue();
+                this.attributes.put(e.getKey(), value == null ? null : new ArrayList<>(value));
+            }
+        }
+    }
+
     public String getType() {
         return type;
     }
@@ -108,6 +108,32 @@ public interface ProjectManager {
      */
     void saveProjectMisc(Project project, ProjectMisc misc) throws ServerException;
 
+    /**
+     * Gets content of file .codenvy/project.json of project. Implementation may cache parsed file, caller gets own copy of it and may
+     * modify it freely. Changes must be saved with {@link #saveProjectJson(Project, ProjectJson2)}.
+     *
+     * @param project
+     *         project
+     * @return ProjectJson2
+     * @throws ServerException
+     *         if an error occurs
+     * @see ProjectJson2
+     */
+    ProjectJson2 getProjectJson(Project project) throws ServerException;
+
+    /**
+     * Saves content of file .codenvy/project.json of project.
+     *
+     * @param project
+     *         project
+     * @param projectJson
+     *         ProjectJson2
+     * @throws ServerException
+     *         if an error occurs
+     * @see ProjectJson2
+     */
+    void saveProjectJson(Project project, ProjectJson2 projectJson) throws ServerException;
+
     /**
      * Gets ProjectTypeDescriptionRegistry.
      *
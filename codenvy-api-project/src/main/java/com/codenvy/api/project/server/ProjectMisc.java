@@ -65,8 +65,13 @@ public class ProjectMisc {
         return data.isUpdated();
     }
 
-    Properties asProperties() {
-        return data.properties;
+    /**
+     * Gets copy of properties if this ProjectMisc is updated and resets flag {@link #isUpdated()}.
+     *
+     * @return copy of properties or {@code null} if there is nothing to save
+     */
+    Properties getUpdates() {
+        return data.getUpdates();
     }
 
     private static class InternalMisc {
@@ -79,6 +84,18 @@ public class ProjectMisc {
             }
         }
 
+        Properties getUpdates() {
+            synchronized (properties) {
+                if (!updated) {
+                    return null;
+                }
+                updated = false;
+                final Properties copy = new Properties();
+                copy.putAll(properties);
+                return copy;
+            }
+        }
+
         InternalMisc() {
             this(new Properties());
         }
@@ -95,12 +112,12 @@ public class ProjectMisc {
             if (name == null) {
                 throw new IllegalArgumentException("The name of property may not be null. ");
             }
-            if (value == null) {
-                properties.remove(name);
-            } else {
-                properties.setProperty(name, value);
-            }
             synchronized (properties) {
+                if (value == null) {
+                    properties.remove(name);
+                } else {
+                    properties.setProperty(name, value);
+                }
                 updated = true;
             }
         }
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.project.server;
+
+import com.codenvy.api.core.ServerException;
+import com.codenvy.commons.env.EnvironmentContext;
+import com.codenvy.commons.lang.Pair;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind store of {@link ProjectMisc}. Updates of ProjectMisc are kept in memory and written to the virtual file system with {@link
+ * #flush()}, so many updates of the same ProjectMisc between two flushes end up in one write. Store keeps at most configured number of
+ * ProjectMisc, least recently used ProjectMisc is removed from store when limit is exceeded. Removed ProjectMisc that has updates which
+ * aren't written yet is kept in store until the next flush.
+ * <p/>
+ * Updates are written in context of the thread that used ProjectMisc last time, so flush may be done in any thread.
+ *
+ * @author andrew00x
+ */
+abstract class ProjectMiscStore {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectMiscStore.class);
+
+    private static final class Entry {
+        final ProjectMisc misc;
+        EnvironmentContext context;
+
+        Entry(ProjectMisc misc) {
+            this.misc = misc;
+            this.context = EnvironmentContext.getCurrent();
+        }
+    }
+
+    private final    LinkedHashMap<Pair<String, String>, Entry> entries;
+    /** Removed from {@link #entries} with updates that aren't written yet. */
+    private final    Map<Pair<String, String>, Entry>           evicted;
+    /** Don't let write the same ProjectMisc concurrently or read it while its updates are written. Locks are shared by projects. */
+    private final    Lock[]                                     projectLocks;
+    private final    int                                        projectLocksMask;
+    private volatile int                                        maxSize;
+
+    ProjectMiscStore(int maxSize) {
+        setMaxSize(maxSize);
+        final int partitions = 1 << 5;
+        projectLocksMask = partitions - 1;
+        projectLocks = new Lock[partitions];
+        for (int i = 0; i < partitions; i++) {
+            projectLocks[i] = new ReentrantLock();
+        }
+        evicted = new HashMap<>();
+        entries = new LinkedHashMap<Pair<String, String>, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Pair<String, String>, Entry> eldest) {
+                if (size() > ProjectMiscStore.this.maxSize) {
+                    final Entry entry = eldest.getValue();
+                    if (entry.misc.isUpdated()) {
+                        evicted.put(eldest.getKey(), entry);
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Reads ProjectMisc from the virtual file system. */
+    protected abstract ProjectMisc read(Project project) throws ServerException;
+
+    /** Writes properties of ProjectMisc to the virtual file system. */
+    protected abstract void write(Project project, Properties properties) throws ServerException;
+
+    /** Sets max number of ProjectMisc in this store. New limit is applied when next ProjectMisc is added in store. */
+    void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid size of store: %d", maxSize));
+        }
+        this.maxSize = maxSize;
+    }
+
+    /** Gets ProjectMisc of project. ProjectMisc is read from the virtual file system if this store doesn't contain it. */
+    ProjectMisc get(Project project) throws ServerException {
+        final Pair<String, String> key = Pair.of(project.getWorkspace(), project.getPath());
+        synchronized (this) {
+            final Entry entry = getEntry(key);
+            if (entry != null) {
+                return entry.misc;
+            }
+        }
+        final Lock lock = getLock(key);
+        // Don't read file while updates of the same project are written or the same project is read in another thread.
+        lock.lock();
+        try {
+            synchronized (this) {
+                final Entry entry = getEntry(key);
+                if (entry != null) {
+                    // Loaded concurrently in another thread.
+                    return entry.misc;
+                }
+            }
+            final ProjectMisc misc = read(project);
+            synchronized (this) {
+                entries.put(key, new Entry(misc));
+            }
+            return misc;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock getLock(Pair<String, String> key) {
+        return projectLocks[key.hashCode() & projectLocksMask];
+    }
+
+    private Entry getEntry(Pair<String, String> key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = evicted.remove(key);
+            if (entry != null) {
+                entries.put(key, entry);
+            }
+        }
+        if (entry != null) {
+            entry.context = EnvironmentContext.getCurrent();
+        }
+        return entry;
+    }
+
+    /** Writes updates of ProjectMisc of project immediately. */
+    void save(Project project, ProjectMisc misc) throws ServerException {
+        final Pair<String, String> key = Pair.of(project.getWorkspace(), project.getPath());
+        synchronized (this) {
+            evicted.remove(key);
+            entries.put(key, new Entry(misc));
+        }
+        final Lock lock = getLock(key);
+        lock.lock();
+        try {
+            final Properties properties = misc.getUpdates();
+            if (properties != null) {
+                write(project, properties);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes ProjectMisc from store without writing its updates, e.g. if project is removed.
+     *
+     * @param workspace
+     *         workspace
+     * @param path
+     *         path of project
+     * @param tree
+     *         if {@code true} remove also ProjectMisc of all projects (modules) under specified path
+     */
+    synchronized void remove(String workspace, String path, boolean tree) {
+        final Pair<String, String> key = Pair.of(workspace, path);
+        entries.remove(key);
+        evicted.remove(key);
+        if (tree) {
+            final String prefix = path.endsWith("/") ? path : (path + '/');
+            removeTree(entries, workspace, prefix);
+            removeTree(evicted, workspace, prefix);
+        }
+    }
+
+    private static void removeTree(Map<Pair<String, String>, Entry> map, String workspace, String prefix) {
+        for (Iterator<Pair<String, String>> i = map.keySet().iterator(); i.hasNext(); ) {
+            final Pair<String, String> key = i.next();
+            if (workspace.equals(key.first) && key.second.startsWith(prefix)) {
+                i.remove();
+            }
+        }
+    }
+
+    /** Writes all updates of ProjectMisc to the virtual file system. */
+    void flush() {
+        final List<Entry> updated = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                if (entry.misc.isUpdated()) {
+                    updated.add(entry);
+                }
+            }
+            updated.addAll(evicted.values());
+        }
+        write(updated);
+        synchronized (this) {
+            removeWritten();
+        }
+    }
+
+    /** Writes updates of ProjectMisc that are removed from store because limit of store is exceeded. */
+    void flushEvicted() {
+        final List<Entry> updated;
+        synchronized (this) {
+            if (evicted.isEmpty()) {
+                return;
+            }
+            updated = new ArrayList<>(evicted.values());
+        }
+        write(updated);
+        synchronized (this) {
+            removeWritten();
+        }
+    }
+
+    /** Writes all updates of ProjectMisc and removes everything from this store. */
+    void close() {
+        flush();
+        synchronized (this) {
+            entries.clear();
+            evicted.clear();
+        }
+    }
+
+    private void removeWritten() {
+        for (Iterator<Entry> i = evicted.values().iterator(); i.hasNext(); ) {
+            if (!i.next().misc.isUpdated()) {
+                i.remove();
+            }
+        }
+    }
+
+    private void write(List<Entry> updated) {
+        if (updated.isEmpty()) {
+            return;
+        }
+        final EnvironmentContext current = EnvironmentContext.getCurrent();
+        for (Entry entry : updated) {
+            final ProjectMisc misc = entry.misc;
+            final Project project = misc.getProject();
+            final Lock lock = getLock(Pair.of(project.getWorkspace(), project.getPath()));
+            lock.lock();
+            try {
+                final Properties properties = misc.getUpdates();
+                if (properties == null) {
+                    continue;
+                }
+                if (entry.context != null) {
+                    EnvironmentContext.setCurrent(entry.context);
+                }
+                try {
+                    write(project, properties);
+                } catch (Exception e) {
+                    // Updates are lost, don't try to write them again, e.g. project may be removed already.
+                    LOG.error(e.getMessage(), e);
+                } finally {
+                    EnvironmentContext.setCurrent(current);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.project.server;
+
+import com.codenvy.api.core.ForbiddenException;
+import com.codenvy.api.core.ServerException;
+import com.codenvy.api.vfs.server.Path;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of roots of projects in one workspace. Index is a tree of paths, each node of tree remembers whether folder with the same path is
+ * root of project. Nodes are resolved lazily, index asks {@link ProjectManager} only about paths which it doesn't know yet, so after the
+ * first lookup of path, finding projects that contain item with this path doesn't touch virtual file system. Changes of virtual file
+ * system that may add or remove projects must be reported with {@link #invalidate(String, boolean)}.
+ *
+ * @author andrew00x
+ */
+final class ProjectRootIndex {
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>(4);
+        /** {@code true} if it is known whether folder with path of this node is root of project. */
+        boolean resolved;
+        /** Project with path of this node or {@code null} if folder isn't root of project. */
+        Project project;
+    }
+
+    private final String         workspace;
+    private final ProjectManager manager;
+    private final Node           root;
+    /** Incremented each time when index is invalidated. Prevents caching of project that is resolved concurrently with invalidation. */
+    private       long           version;
+
+    ProjectRootIndex(String workspace, ProjectManager manager) {
+        this.workspace = workspace;
+        this.manager = manager;
+        root = new Node();
+        root.resolved = true;
+    }
+
+    /**
+     * Gets all projects which contain item with specified path. Item itself isn't checked. Parent projects go first in result list.
+     *
+     * @param path
+     *         path of item
+     * @return projects that contain item, empty list if item doesn't belong to any project
+     */
+    List<Project> getProjects(String path) throws ForbiddenException, ServerException {
+        final String[] elements = Path.fromString(path).elements();
+        final List<Project> projects = new ArrayList<>(2);
+        final StringBuilder projectPath = new StringBuilder();
+        Node node = root;
+        for (int i = 0, length = elements.length - 1; i < length; i++) {
+            projectPath.append('/').append(elements[i]);
+            final Node child;
+            final long myVersion;
+            Project project = null;
+            boolean resolved;
+            synchronized (this) {
+                Node myChild = node.children.get(elements[i]);
+                if (myChild == null) {
+                    node.children.put(elements[i], myChild = new Node());
+                }
+                child = myChild;
+                resolved = child.resolved;
+                if (resolved) {
+                    project = child.project;
+                }
+                myVersion = version;
+            }
+            if (!resolved) {
+                project = manager.getProject(workspace, projectPath.toString());
+                synchronized (this) {
+                    // Don't remember result if index was changed while project was resolved, node may be even removed from the tree.
+                    if (myVersion == version) {
+                        child.project = project;
+                        child.resolved = true;
+                    }
+                }
+            }
+            if (project != null) {
+                projects.add(project);
+            }
+            node = child;
+        }
+        return projects;
+    }
+
+    /** Remembers new project. */
+    synchronized void put(Project project) {
+        Node node = root;
+        for (String element : Path.fromString(project.getPath()).elements()) {
+            Node child = node.children.get(element);
+            if (child == null) {
+                node.children.put(element, child = new Node());
+            }
+            node = child;
+        }
+        node.project = project;
+        node.resolved = true;
+        version++;
+    }
+
+    /**
+     * Forgets what index knows about path.
+     *
+     * @param path
+     *         path of folder
+     * @param tree
+     *         if {@code true} forget also all paths under specified path, e.g. if folder is removed or moved
+     */
+    synchronized void invalidate(String path, boolean tree) {
+        version++;
+        final String[] elements = Path.fromString(path).elements();
+        if (elements.length == 0) {
+            if (tree) {
+                root.children.clear();
+            }
+            return;
+        }
+        Node parent = root;
+        for (int i = 0, length = elements.length - 1; i < length && parent != null; i++) {
+            parent = parent.children.get(elements[i]);
+        }
+        if (parent == null) {
+            return;
+        }
+        final String name = elements[elements.length - 1];
+        if (tree) {
+            parent.children.remove(name);
+        } else {
+            final Node node = parent.children.get(name);
+            if (node != null) {
+                node.project = null;
+                node.resolved = false;
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@ import com.codenvy.api.core.NotFoundException;
 import com.codenvy.api.core.ServerException;
 import com.codenvy.api.core.UnauthorizedException;
 import com.codenvy.api.core.notification.EventService;
+import com.codenvy.api.core.notification.EventSubscriber;
 import com.codenvy.api.core.rest.Service;
 import com.codenvy.api.core.rest.annotations.Description;
 import com.codenvy.api.core.rest.annotations.GenerateLink;
@@ -40,12 +41,21 @@ import com.codenvy.api.project.shared.dto.TreeElement;
 import com.codenvy.api.vfs.server.ContentStream;
 import com.codenvy.api.vfs.server.VirtualFile;
 import com.codenvy.api.vfs.server.VirtualFileSystemImpl;
+import com.codenvy.api.vfs.server.VirtualFileSystemUser;
+import com.codenvy.api.vfs.server.VirtualFileSystemUserContext;
+import com.codenvy.api.vfs.server.observation.MoveEvent;
+import com.codenvy.api.vfs.server.observation.RenameEvent;
+import com.codenvy.api.vfs.server.observation.VirtualFileEvent;
+import com.codenvy.api.vfs.server.observation.VirtualFileEventBuffer;
+import com.codenvy.api.vfs.server.search.DeferredIndexing;
 import com.codenvy.api.vfs.server.search.QueryExpression;
+import com.codenvy.api.vfs.server.search.SearchResult;
 import com.codenvy.api.vfs.server.search.SearcherProvider;
 import com.codenvy.api.vfs.shared.dto.AccessControlEntry;
 import com.codenvy.api.vfs.shared.dto.Principal;
 import com.codenvy.commons.env.EnvironmentContext;
 import com.codenvy.commons.lang.NamedThreadFactory;
+import com.codenvy.commons.user.User;
 import com.codenvy.dto.server.DtoFactory;
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.annotations.ApiOperation;
@@ -57,6 +67,7 @@ import org.apache.commons.fileupload.FileItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.security.RolesAllowed;
 import javax.inject.Inject;
@@ -72,7 +83,11 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
@@ -85,8 +100,19 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author andrew00x
@@ -100,6 +126,9 @@ import java.util.concurrent.Executors;
 public class ProjectService extends Service {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectService.class);
 
+    /** Max number of cached lists of projects. Cache is cleared when it becomes full. */
+    private static final int PROJECTS_CACHE_SIZE = 256;
+
     @Inject
     private ProjectManager              projectManager;
     @Inject
@@ -115,10 +144,189 @@ public class ProjectService extends Service {
 
     private final ExecutorService executor = Executors.newFixedThreadPool(1 + Runtime.getRuntime().availableProcessors(),
                                                                           new NamedThreadFactory("ProjectService-IndexingThread-", true));
+    /**
+     * Builds references of projects in parallel when list of projects isn't found in cache. Number of threads and size of queue are
+     * bounded, if pool is saturated request thread builds reference itself.
+     */
+    private final ExecutorService listingExecutor = createListingExecutor();
+    /** Gives the same user and groups that virtual file system uses for checking ACLs. */
+    private final VirtualFileSystemUserContext userContext = VirtualFileSystemUserContext.newInstance();
+
+    /**
+     * Lists of projects by workspace and user, different users may see different projects in the same workspace. Cache is used only
+     * when this service gets events about changes of projects, otherwise it isn't possible to know when list becomes stale.
+     */
+    private final ConcurrentMap<ProjectsKey, ProjectReferences> projectsCache = new ConcurrentHashMap<>();
+    /** Incremented each time when cache is invalidated. Prevents caching of list that is built concurrently with invalidation. */
+    private       long                                         projectsCacheVersion;
+    private final EventSubscriber<VirtualFileEvent>            vfsSubscriber;
+    private final EventSubscriber<ProjectCreatedEvent>         projectCreatedSubscriber;
+    private volatile boolean started;
+
+    public ProjectService() {
+        vfsSubscriber = new EventSubscriber<VirtualFileEvent>() {
+            @Override
+            public void onEvent(VirtualFileEvent event) {
+                if (affectsProjects(event)) {
+                    invalidateProjects(event.getWorkspaceId());
+                }
+            }
+        };
+        projectCreatedSubscriber = new EventSubscriber<ProjectCreatedEvent>() {
+            @Override
+            public void onEvent(ProjectCreatedEvent event) {
+                invalidateProjects(event.getWorkspaceId());
+            }
+        };
+    }
+
+    @PostConstruct
+    void start() {
+        eventService.subscribe(vfsSubscriber);
+        eventService.subscribe(projectCreatedSubscriber);
+        started = true;
+    }
 
     @PreDestroy
     void stop() {
+        if (started) {
+            eventService.unsubscribe(vfsSubscriber);
+            eventService.unsubscribe(projectCreatedSubscriber);
+            started = false;
+        }
+        invalidateProjects(null);
         executor.shutdownNow();
+        listingExecutor.shutdownNow();
+    }
+
+    private static ExecutorService createListingExecutor() {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ThreadPoolExecutor listingExecutor =
+                new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(threads * 32),
+                                       new NamedThreadFactory("ProjectService-ListingThread-", true),
+                                       new RejectedExecutionHandler() {
+                                           @Override
+                                           public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+                                               if (executor.isShutdown()) {
+                                                   throw new RejectedExecutionException("Service is stopped. ");
+                                               }
+                                               // Pool is busy with other listings, don't wait for it.
+                                               task.run();
+                                           }
+                                       });
+        listingExecutor.allowCoreThreadTimeOut(true);
+        return listingExecutor;
+    }
+
+    /** Key of cached list of projects: workspace, user and groups of user, the same data that virtual file system uses for ACLs. */
+    private static final class ProjectsKey {
+        final String      workspace;
+        final String      userId;
+        final Set<String> groups;
+
+        ProjectsKey(String workspace, VirtualFileSystemUser user) {
+            this.workspace = workspace;
+            this.userId = user.getUserId();
+            this.groups = new TreeSet<>(user.getGroups());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ProjectsKey)) {
+                return false;
+            }
+            final ProjectsKey other = (ProjectsKey)o;
+            return workspace.equals(other.workspace) && userId.equals(other.userId) && groups.equals(other.groups);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 31 * hash + workspace.hashCode();
+            hash = 31 * hash + userId.hashCode();
+            hash = 31 * hash + groups.hashCode();
+            return hash;
+        }
+    }
+
+    /**
+     * Cached list of projects. References are valid only for base URI and name of workspace they were built with. References are shared
+     * between requests and must not be modified.
+     */
+    private static final class ProjectReferences {
+        final String                 baseUri;
+        final String                 workspaceName;
+        final List<ProjectReference> references;
+        final EntityTag              eTag;
+
+        ProjectReferences(String baseUri, String workspaceName, List<ProjectReference> references, EntityTag eTag) {
+            this.baseUri = baseUri;
+            this.workspaceName = workspaceName;
+            this.references = Collections.unmodifiableList(references);
+            this.eTag = eTag;
+        }
+
+        boolean matches(String baseUri, String workspaceName) {
+            return this.baseUri.equals(baseUri)
+                   && (this.workspaceName == null ? workspaceName == null : this.workspaceName.equals(workspaceName));
+        }
+    }
+
+    /**
+     * Checks whether event may change list of projects. Projects are direct children of root folder and list contains only data of
+     * project's folder (name, ACL) and data stored in folder {@code .codenvy} of project (type, description, dates). Changes of other
+     * files, e.g. saving of source files, don't affect list. Modification date of project is taken from {@code .codenvy} folder, so list
+     * is updated when project's metadata is flushed there.
+     */
+    // Switched to default for test.
+    // private
+    static boolean affectsProjects(VirtualFileEvent event) {
+        if (affectsProjects(event.getPath())) {
+            return true;
+        }
+        if (event instanceof MoveEvent) {
+            return affectsProjects(((MoveEvent)event).getOldPath());
+        }
+        if (event instanceof RenameEvent) {
+            return affectsProjects(((RenameEvent)event).getOldPath());
+        }
+        return false;
+    }
+
+    private static boolean affectsProjects(String path) {
+        if (path == null) {
+            return false;
+        }
+        final String[] segments = path.startsWith("/") ? path.substring(1).split("/") : path.split("/");
+        // root folder, project's folder or anything inside folder .codenvy of project
+        return segments.length < 2 || Constants.CODENVY_DIR.equals(segments[1]);
+    }
+
+    /**
+     * Removes cached lists of projects.
+     *
+     * @param workspace
+     *         workspace, if {@code null} remove lists of projects of all workspaces
+     */
+    private void invalidateProjects(String workspace) {
+        synchronized (projectsCache) {
+            projectsCacheVersion++;
+            if (projectsCache.isEmpty()) {
+                return;
+            }
+            if (workspace == null) {
+                projectsCache.clear();
+                return;
+            }
+            for (Iterator<ProjectsKey> i = projectsCache.keySet().iterator(); i.hasNext(); ) {
+                if (workspace.equals(i.next().workspace)) {
+                    i.remove();
+                }
+            }
+        }
     }
 
 
@@ -148,33 +356,139 @@ public class ProjectService extends Service {
     @GenerateLink(rel = Constants.LINK_REL_GET_PROJECTS)
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ProjectReference> getProjects(@ApiParam(value = "ID of workspace to get projects", required = true)
-                                              @PathParam("ws-id") String workspace) throws IOException, ServerException, ConflictException {
-        final List<Project> projects = projectManager.getProjects(workspace);
-        final List<ProjectReference> projectReferences = new ArrayList<>(projects.size());
-        for (Project project : projects) {
-            try {
-                projectReferences.add(DtoConverter.toReferenceDto(project, getServiceContext().getServiceUriBuilder()));
-            } catch (RuntimeException e) {
-                // Ignore known error for single project.
-                // In result we won't have them in explorer tree but at least 'bad' projects won't prevent to show 'good' projects.
-                LOG.error(e.getMessage(), e);
+    public Response getProjects(@ApiParam(value = "ID of workspace to get projects", required = true)
+                                @PathParam("ws-id") String workspace,
+                                @Context Request request) throws IOException, ServerException, ConflictException {
+        final String workspaceName = EnvironmentContext.getCurrent().getWorkspaceName();
+        final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+        final String baseUri = getServiceContext().getBaseUriBuilder().build().toString();
+        final ProjectsKey key = new ProjectsKey(workspace, userContext.getVirtualFileSystemUser());
+        ProjectReferences projects = started ? projectsCache.get(key) : null;
+        if (projects == null || !projects.matches(baseUri, workspaceName)) {
+            final long myVersion;
+            synchronized (projectsCache) {
+                myVersion = projectsCacheVersion;
+            }
+            final List<ProjectReference> references = buildProjectReferences(workspace, uriBuilder);
+            projects = new ProjectReferences(baseUri, workspaceName, references, createProjectsTag(references));
+            if (started) {
+                synchronized (projectsCache) {
+                    // Don't cache list if any project was changed while list was built.
+                    if (myVersion == projectsCacheVersion) {
+                        if (projectsCache.size() >= PROJECTS_CACHE_SIZE) {
+                            projectsCache.clear();
+                        }
+                        projectsCache.put(key, projects);
+                    }
+                }
             }
         }
+        return conditionalResponse(request, new GenericEntity<List<ProjectReference>>(projects.references) {
+        }, projects.eTag);
+    }
+
+    private List<ProjectReference> buildProjectReferences(String workspace, final UriBuilder uriBuilder) throws ServerException {
+        final List<Project> projects = new ArrayList<>(projectManager.getProjects(workspace));
         FolderEntry projectsRoot = projectManager.getProjectsRoot(workspace);
         List<VirtualFileEntry> children = projectsRoot.getChildren();
         for(VirtualFileEntry child : children) {
             if (child.isFolder()) {
                 FolderEntry folderEntry = (FolderEntry)child;
                 if (!folderEntry.isProjectFolder()) {
-                    NotValidProject notValidProject = new NotValidProject(folderEntry, projectManager);
-                    projectReferences.add(DtoConverter.toReferenceDto(notValidProject, getServiceContext().getServiceUriBuilder()));
+                    projects.add(new NotValidProject(folderEntry, projectManager));
+                }
+            }
+        }
+        final List<ProjectReference> projectReferences = new ArrayList<>(projects.size());
+        if (projects.size() < 2) {
+            for (Project project : projects) {
+                final ProjectReference reference = toReferenceDto(project, uriBuilder);
+                if (reference != null) {
+                    projectReferences.add(reference);
+                }
+            }
+            return projectReferences;
+        }
+        // Reading of description, dates and visibility of each project touches virtual file system, do that for all projects at once.
+        // Virtual file system gets user for checking ACLs from EnvironmentContext (see VirtualFileSystemUserContext), so worker threads
+        // must run with context of current request.
+        final EnvironmentContext context = EnvironmentContext.getCurrent();
+        final List<Future<ProjectReference>> futures = new ArrayList<>(projects.size());
+        try {
+            for (final Project project : projects) {
+                futures.add(listingExecutor.submit(new Callable<ProjectReference>() {
+                    @Override
+                    public ProjectReference call() {
+                        final EnvironmentContext current = EnvironmentContext.getCurrent();
+                        EnvironmentContext.setCurrent(context);
+                        try {
+                            return toReferenceDto(project, uriBuilder);
+                        } finally {
+                            EnvironmentContext.setCurrent(current);
+                        }
+                    }
+                }));
+            }
+            for (Future<ProjectReference> future : futures) {
+                final ProjectReference reference = future.get();
+                if (reference != null) {
+                    projectReferences.add(reference);
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while getting list of projects. ");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        } catch (RejectedExecutionException e) {
+            throw new ServerException("Service is stopped. ");
+        } finally {
+            for (Future<ProjectReference> future : futures) {
+                future.cancel(true);
+            }
         }
         return projectReferences;
     }
 
+    /** Creates ETag from all fields of references that are sent to client. */
+    private static EntityTag createProjectsTag(List<ProjectReference> references) {
+        final List<Object> values = new ArrayList<>();
+        for (ProjectReference reference : references) {
+            values.add(reference.getName());
+            values.add(reference.getPath());
+            values.add(reference.getWorkspaceId());
+            values.add(reference.getWorkspaceName());
+            values.add(reference.getType());
+            values.add(reference.getTypeName());
+            values.add(reference.getDescription());
+            values.add(reference.getCreationDate());
+            values.add(reference.getModificationDate());
+            values.add(reference.getVisibility());
+            values.add(reference.getUrl());
+            values.add(reference.getIdeUrl());
+            for (ProjectProblem problem : reference.getProblems()) {
+                values.add(problem.getCode());
+                values.add(problem.getMessage());
+            }
+        }
+        return createEntityTag(values.toArray());
+    }
+
+    private ProjectReference toReferenceDto(Project project, UriBuilder uriBuilder) {
+        try {
+            return DtoConverter.toReferenceDto(project, uriBuilder);
+        } catch (RuntimeException e) {
+            // Ignore known error for single project.
+            // In result we won't have them in explorer tree but at least 'bad' projects won't prevent to show 'good' projects.
+            LOG.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
     @ApiOperation(value = "Gets project by ID of workspace and project's path",
                   response = ProjectDescriptor.class,
                   position = 2)
@@ -186,25 +500,77 @@ public class ProjectService extends Service {
     @GET
     @Path("/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
-    public ProjectDescriptor getProject(@ApiParam(value = "ID of workspace to get projects", required = true)
-                                        @PathParam("ws-id") String workspace,
-                                        @ApiParam(value = "Path to requested project", required = true)
-                                        @PathParam("path") String path)
+    public Response getProject(@ApiParam(value = "ID of workspace to get projects", required = true)
+                               @PathParam("ws-id") String workspace,
+                               @ApiParam(value = "Path to requested project", required = true)
+                               @PathParam("path") String path,
+                               @Context Request request)
             throws NotFoundException, ForbiddenException, ServerException, ConflictException {
         final Project project = projectManager.getProject(workspace, path);
         if (project == null) {
-            FolderEntry projectsRoot = projectManager.getProjectsRoot(workspace);
-            VirtualFileEntry child = projectsRoot.getChild(path);
-            if (child != null && child.isFolder()  && child.getParent().isRoot()) {
-                NotValidProject notValidProject = new NotValidProject((FolderEntry)child, projectManager);
-                return DtoConverter.toDescriptorDto(notValidProject, getServiceContext().getServiceUriBuilder());
-            } else {
-                throw new NotFoundException(String.format("Project '%s' doesn't exist in workspace '%s'.", path, workspace));
-            }
+            return Response.ok(getNotValidProject(workspace, path)).build();
+        }
+        final EntityTag eTag = getProjectTag(project);
+        final Response notModified = notModified(request, eTag);
+        if (notModified != null) {
+            return notModified;
+        }
+        return okResponse(DtoConverter.toDescriptorDto(project, getServiceContext().getServiceUriBuilder()), eTag);
+    }
+
+    /**
+     * Gets project by ID of workspace and project's path.
+     *
+     * @see #getProject(String, String, Request)
+     */
+    public ProjectDescriptor getProject(String workspace, String path)
+            throws NotFoundException, ForbiddenException, ServerException, ConflictException {
+        final Project project = projectManager.getProject(workspace, path);
+        if (project == null) {
+            return getNotValidProject(workspace, path);
         }
         return DtoConverter.toDescriptorDto(project, getServiceContext().getServiceUriBuilder());
     }
 
+    private ProjectDescriptor getNotValidProject(String workspace, String path)
+            throws NotFoundException, ForbiddenException, ServerException {
+        FolderEntry projectsRoot = projectManager.getProjectsRoot(workspace);
+        VirtualFileEntry child = projectsRoot.getChild(path);
+        if (child != null && child.isFolder()  && child.getParent().isRoot()) {
+            NotValidProject notValidProject = new NotValidProject((FolderEntry)child, projectManager);
+            return DtoConverter.toDescriptorDto(notValidProject, getServiceContext().getServiceUriBuilder());
+        } else {
+            throw new NotFoundException(String.format("Project '%s' doesn't exist in workspace '%s'.", path, workspace));
+        }
+    }
+
+    /**
+     * Gets ETag of descriptor of project. Any change inside project updates its modification date, so there is no need to build
+     * descriptor to get its ETag. Links and permissions in descriptor depend on base URI and on current user, they are counted as well.
+     */
+    private EntityTag getProjectTag(Project project) throws ServerException {
+        final EnvironmentContext context = EnvironmentContext.getCurrent();
+        final User user = context.getUser();
+        final List<Object> state = new ArrayList<>();
+        state.add(getServiceContext().getBaseUriBuilder().build());
+        state.add(context.getWorkspaceName());
+        state.add(user == null ? null : user.getName());
+        state.add(project.getWorkspace());
+        state.add(project.getPath());
+        state.add(project.getCreationDate());
+        state.add(project.getModificationDate());
+        for (AccessControlEntry ace : project.getPermissions()) {
+            final Principal principal = ace.getPrincipal();
+            state.add(principal.getType());
+            state.add(principal.getName());
+            state.add(ace.getPermissions());
+            if (user != null && Principal.Type.GROUP == principal.getType()) {
+                state.add(user.isMemberOf(principal.getName()));
+            }
+        }
+        return createEntityTag(state.toArray());
+    }
+
     @ApiOperation(value = "Creates new project",
                   response = ProjectDescriptor.class,
                   position = 3)
@@ -657,115 +1023,126 @@ public class ProjectService extends Service {
             }
         };
 
-        // Not all importers uses virtual file system API. In this case virtual file system API doesn't get events and isn't able to set
-        // correct creation time. Need do it manually.
-        long creationDate = -1;
-        VirtualFileEntry virtualFile = projectManager.getProjectsRoot(workspace).getChild(path);
-        if (virtualFile != null && virtualFile.isFile()) {
-            // File with same name exist already exists.
-            throw new ConflictException(String.format("File with the name '%s' already exists.", path));
-        } else {
-            if (virtualFile == null) {
-                creationDate = System.currentTimeMillis();
-                virtualFile = projectManager.getProjectsRoot(workspace).createFolder(path);
-            } else if (!force) {
-                // Project already exists.
-                throw new ConflictException(String.format("Project with the name '%s' already exists.", path));
-            }
-        }
-
-        final FolderEntry baseProjectFolder = (FolderEntry)virtualFile;
-        importer.importSources(baseProjectFolder, projectSource.getLocation(), projectSource.getParameters(), outputOutputConsumerFactory);
-
+        final FolderEntry projectsRoot = projectManager.getProjectsRoot(workspace);
+        Project project;
         // Use resolver only if project type not set
         ProjectProblem resolved = null;
+        FolderEntry baseProjectFolder = null;
+        // Events about imported files are published at once when import is done. Imported files aren't indexed one by one, whole
+        // project is indexed when import is done.
+        try (VirtualFileEventBuffer ignoredEvents =
+                     VirtualFileEventBuffer.begin(projectsRoot.getVirtualFile().getMountPoint().getEventService());
+             DeferredIndexing ignoredIndexing = DeferredIndexing.begin()) {
+            // Not all importers uses virtual file system API. In this case virtual file system API doesn't get events and isn't able to
+            // set correct creation time. Need do it manually.
+            long creationDate = -1;
+            VirtualFileEntry virtualFile = projectsRoot.getChild(path);
+            if (virtualFile != null && virtualFile.isFile()) {
+                // File with same name exist already exists.
+                throw new ConflictException(String.format("File with the name '%s' already exists.", path));
+            } else {
+                if (virtualFile == null) {
+                    creationDate = System.currentTimeMillis();
+                    virtualFile = projectsRoot.createFolder(path);
+                } else if (!force) {
+                    // Project already exists.
+                    throw new ConflictException(String.format("Project with the name '%s' already exists.", path));
+                }
+            }
 
-        String visibility = null;
+            baseProjectFolder = (FolderEntry)virtualFile;
+            importer.importSources(baseProjectFolder, projectSource.getLocation(), projectSource.getParameters(),
+                                   outputOutputConsumerFactory);
 
-        Project project = projectManager.getProject(workspace, path);
+            String visibility = null;
 
-        if (importProject.getProject() != null) {  //project configuration set in Source we will use it
-            visibility = importProject.getProject().getVisibility();
-            if (project == null) {
-                project = new Project(baseProjectFolder, projectManager);
-                project.updateDescription(DtoConverter.fromDto(importProject.getProject(), projectManager.getTypeDescriptionRegistry()));
-            } else {
+            project = projectManager.getProject(workspace, path);
+
+            if (importProject.getProject() != null) {  //project configuration set in Source we will use it
+                visibility = importProject.getProject().getVisibility();
+                if (project == null) {
+                    project = new Project(baseProjectFolder, projectManager);
+                }
                 project.updateDescription(DtoConverter.fromDto(importProject.getProject(), projectManager.getTypeDescriptionRegistry()));
-            }
-        } else { //project not configure so we try resolve it
-            if (project == null) {
-                Set<ProjectTypeResolver> resolvers = resolverRegistry.getResolvers();
-                for (ProjectTypeResolver resolver : resolvers) {
-                    if (resolver.resolve((FolderEntry)virtualFile)) {
-                        resolved = DtoFactory.getInstance().createDto(ProjectProblem.class).withCode(300)
-                                             .withMessage("Project type detect via ProjectResolver");
-                        break;
+            } else { //project not configure so we try resolve it
+                if (project == null) {
+                    Set<ProjectTypeResolver> resolvers = resolverRegistry.getResolvers();
+                    for (ProjectTypeResolver resolver : resolvers) {
+                        if (resolver.resolve((FolderEntry)virtualFile)) {
+                            resolved = DtoFactory.getInstance().createDto(ProjectProblem.class).withCode(300)
+                                                 .withMessage("Project type detect via ProjectResolver");
+                            break;
+                        }
+                    }
+                    // Try get project again after trying resolve it
+                    project = projectManager.getProject(workspace, path);
+                    if (project == null) { //resolver can't resolve project type
+                        project = new Project(baseProjectFolder, projectManager); //create BLANK project type
+                        project.updateDescription(new ProjectDescription());
+                        resolved = DtoFactory.getInstance().createDto(ProjectProblem.class).withCode(301)
+                                             .withMessage("Project type not detect so we set it as blank");
                     }
-                }
-                // Try get project again after trying resolve it
-                project = projectManager.getProject(workspace, path);
-                if (project == null) { //resolver can't resolve project type
-                    project = new Project(baseProjectFolder, projectManager); //create BLANK project type
-                    project.updateDescription(new ProjectDescription());
-                    resolved = DtoFactory.getInstance().createDto(ProjectProblem.class).withCode(301)
-                                         .withMessage("Project type not detect so we set it as blank");
                 }
             }
-        }
-        // Some importers don't use virtual file system API and changes are not indexed.
-        // Force searcher to reindex project to fix such issues.
-        final VirtualFile file = project.getBaseFolder().getVirtualFile();
-        executor.execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    searcherProvider.getSearcher(file.getMountPoint(), true).add(file);
-                } catch (ServerException e) {
-                    LOG.error(e.getMessage());
-                }
+            if (creationDate > 0) {
+                final ProjectMisc misc = project.getMisc();
+                misc.setCreationDate(creationDate);
             }
-        });
-        if (creationDate > 0) {
-            final ProjectMisc misc = project.getMisc();
-            misc.setCreationDate(creationDate);
-        }
 
-        VirtualFileEntry environmentsFolder = baseProjectFolder.getChild(Constants.CODENVY_RUNNER_ENVIRONMENTS_DIR);
-        if (environmentsFolder != null && environmentsFolder.isFile()) {
-            throw new ConflictException(String.format("Unable import runner environments. File with the name '%s' already exists.",
-                                                      Constants.CODENVY_RUNNER_ENVIRONMENTS_DIR));
-        } else if (environmentsFolder == null) {
-            environmentsFolder = baseProjectFolder.createFolder(Constants.CODENVY_RUNNER_ENVIRONMENTS_DIR);
-        }
+            VirtualFileEntry environmentsFolder = baseProjectFolder.getChild(Constants.CODENVY_RUNNER_ENVIRONMENTS_DIR);
+            if (environmentsFolder != null && environmentsFolder.isFile()) {
+                throw new ConflictException(
+                        String.format("Unable import runner environments. File with the name '%s' already exists.",
+                                      Constants.CODENVY_RUNNER_ENVIRONMENTS_DIR));
+            } else if (environmentsFolder == null) {
+                environmentsFolder = baseProjectFolder.createFolder(Constants.CODENVY_RUNNER_ENVIRONMENTS_DIR);
+            }
 
-        for (Map.Entry<String, RunnerSource> runnerSource : importProject.getSource().getRunners().entrySet()) {
-            final String runnerSourceKey = runnerSource.getKey();
-            if (runnerSourceKey.startsWith("/docker/")) {
-                final RunnerSource runnerSourceValue = runnerSource.getValue();
-                if (runnerSourceValue != null) {
-                    String name = runnerSourceKey.substring(8);
-                    String runnerSourceLocation = runnerSourceValue.getLocation();
-                    if (runnerSourceLocation.startsWith("https") || runnerSourceLocation.startsWith("http")) {
-                        try (InputStream in = new java.net.URL(runnerSourceLocation).openStream()) {
-                            // Add file without mediatype to avoid creation useless metadata files on virtual file system level.
-                            // Dockerfile add in list of known files, see com.codenvy.api.core.util.ContentTypeGuesser
-                            // and content-types.properties file.
-                            ((FolderEntry)environmentsFolder).createFolder(name).createFile("Dockerfile", in, null);
+            for (Map.Entry<String, RunnerSource> runnerSource : importProject.getSource().getRunners().entrySet()) {
+                final String runnerSourceKey = runnerSource.getKey();
+                if (runnerSourceKey.startsWith("/docker/")) {
+                    final RunnerSource runnerSourceValue = runnerSource.getValue();
+                    if (runnerSourceValue != null) {
+                        String name = runnerSourceKey.substring(8);
+                        String runnerSourceLocation = runnerSourceValue.getLocation();
+                        if (runnerSourceLocation.startsWith("https") || runnerSourceLocation.startsWith("http")) {
+                            try (InputStream in = new java.net.URL(runnerSourceLocation).openStream()) {
+                                // Add file without mediatype to avoid creation useless metadata files on virtual file system level.
+                                // Dockerfile add in list of known files, see com.codenvy.api.core.util.ContentTypeGuesser
+                                // and content-types.properties file.
+                                ((FolderEntry)environmentsFolder).createFolder(name).createFile("Dockerfile", in, null);
+                            }
+                        } else {
+                            LOG.warn(
+                                    "ProjectService.importProject :: not valid runner source location available only http or https scheme" +
+                                    " but we get :" +
+                                    runnerSourceLocation);
                         }
-                    } else {
-                        LOG.warn(
-                                "ProjectService.importProject :: not valid runner source location available only http or https scheme but" +
-                                " we get :" +
-                                runnerSourceLocation);
-                    }
 
+                    }
                 }
             }
-        }
 
-        //set project visibility if needed
-        if (visibility != null) {
-            project.setVisibility(visibility);
+            //set project visibility if needed
+            if (visibility != null) {
+                project.setVisibility(visibility);
+            }
+        } finally {
+            if (baseProjectFolder != null) {
+                // Index all imported files at once, even if import failed, files which are already imported stay in project. Some
+                // importers don't use virtual file system API at all, so this is the only indexing of their files.
+                final VirtualFile file = baseProjectFolder.getVirtualFile();
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            searcherProvider.getSearcher(file.getMountPoint(), true).add(file);
+                        } catch (ServerException e) {
+                            LOG.error(e.getMessage());
+                        }
+                    }
+                });
+            }
         }
 
         eventService.publish(new ProjectCreatedEvent(project.getWorkspace(), project.getPath()));
@@ -893,11 +1270,34 @@ public class ProjectService extends Service {
         return VirtualFileSystemImpl.exportZipMultipart(folder.getVirtualFile(), in);
     }
 
+    @ApiOperation(value = "Get hashes of children",
+                  notes = "Get hashes of content of children items of a folder. Each line contains hash and name of item, names of " +
+                          "folders end with '/'. Hash of folder is sent as ETag, response may be validated with If-None-Match header",
+                  position = 20)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Not modified"),
+            @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+            @ApiResponse(code = 404, message = "Not found"),
+            @ApiResponse(code = 500, message = "Internal Server Error")})
+    @GET
+    @Path("/hashes/{path:.*}")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response getHashes(@ApiParam(value = "Workspace ID", required = true)
+                              @PathParam("ws-id") String workspace,
+                              @ApiParam(value = "Path to a project or folder", required = true)
+                              @PathParam("path") String path,
+                              @Context Request request)
+            throws NotFoundException, ForbiddenException, ServerException {
+        final FolderEntry folder = asFolder(workspace, path);
+        return VirtualFileSystemImpl.getHashes(folder.getVirtualFile(), request);
+    }
+
     @ApiOperation(value = "Get project children items",
                   notes = "Request all children items for a project, such as files and folders",
                   response = ItemReference.class,
                   responseContainer = "List",
-                  position = 20)
+                  position = 21)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 403, message = "User not authorized to call this operation"),
@@ -929,7 +1329,7 @@ public class ProjectService extends Service {
                   notes = "Get project tree. Depth is specified in a query parameter",
                   response = TreeElement.class,
                   responseContainer = "List",
-                  position = 21)
+                  position = 22)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 403, message = "User not authorized to call this operation"),
@@ -971,7 +1371,7 @@ public class ProjectService extends Service {
                   notes = "Search for resources applying a number of search filters as query parameters",
                   response = ItemReference.class,
                   responseContainer = "List",
-                  position = 22)
+                  position = 23)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 403, message = "User not authorized to call this operation"),
@@ -987,6 +1387,9 @@ public class ProjectService extends Service {
                                       @PathParam("path") String path,
                                       @ApiParam(value = "Resource name")
                                       @QueryParam("name") String name,
+                                      @ApiParam(value = "How resource name is matched",
+                                                allowableValues = "wildcard,substring,fuzzy")
+                                      @QueryParam("nameMatch") @DefaultValue("wildcard") String nameMatch,
                                       @ApiParam(value = "Media type")
                                       @QueryParam("mediatype") String mediatype,
                                       @ApiParam(value = "Search keywords")
@@ -1001,28 +1404,37 @@ public class ProjectService extends Service {
             if (skipCount < 0) {
                 throw new ConflictException(String.format("Invalid 'skipCount' parameter: %d.", skipCount));
             }
+            final QueryExpression.NameMatch match;
+            try {
+                match = QueryExpression.NameMatch.valueOf(nameMatch.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new ConflictException(String.format("Invalid 'nameMatch' parameter: %s.", nameMatch));
+            }
             final QueryExpression expr = new QueryExpression()
                     .setPath(path.startsWith("/") ? path : ('/' + path))
                     .setName(name)
+                    .setNameMatch(match)
                     .setMediaType(mediatype)
-                    .setText(text);
+                    .setText(text)
+                    .setSkipCount(skipCount)
+                    .setMaxItems(maxItems);
 
-            final String[] result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).search(expr);
+            final SearchResult result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).search(expr);
             if (skipCount > 0) {
-                if (skipCount > result.length) {
+                if (skipCount > result.getTotalHits()) {
                     throw new ConflictException(
                             String.format("'skipCount' parameter: %d is greater then total number of items in result: %d.",
-                                          skipCount, result.length));
+                                          skipCount, result.getTotalHits()));
                 }
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<ItemReference> items = new ArrayList<>(length);
+            final String[] paths = result.getPaths();
+            final List<ItemReference> items = new ArrayList<>(paths.length);
             final FolderEntry root = projectManager.getProjectsRoot(workspace);
             final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
-            for (int i = skipCount; i < length; i++) {
+            for (String itemPath : paths) {
                 VirtualFileEntry child = null;
                 try {
-                    child = root.getChild(result[i]);
+                    child = root.getChild(itemPath);
                 } catch (ForbiddenException ignored) {
                     // Ignore item that user can't access
                 }
@@ -1040,7 +1452,7 @@ public class ProjectService extends Service {
                           "run etc. ID of a user is set in a query parameter of a request URL.",
                   response = AccessControlEntry.class,
                   responseContainer = "List",
-                  position = 23)
+                  position = 24)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 403, message = "User not authorized to call this operation"),
@@ -1076,7 +1488,7 @@ public class ProjectService extends Service {
 
     @ApiOperation(value = "Set project visibility",
                   notes = "Set project visibility. Projects can be private or public",
-                  position = 24)
+                  position = 25)
     @ApiResponses(value = {
             @ApiResponse(code = 204, message = "OK"),
             @ApiResponse(code = 403, message = "User not authorized to call this operation"),
@@ -1107,7 +1519,7 @@ public class ProjectService extends Service {
                           "run etc. ID of a user is set in a query parameter of a request URL.",
                   response = AccessControlEntry.class,
                   responseContainer = "List",
-                  position = 25)
+                  position = 26)
     @ApiResponses(value = {
             @ApiResponse(code = 204, message = "OK"),
             @ApiResponse(code = 403, message = "User not authorized to call this operation"),
@@ -1134,7 +1546,7 @@ public class ProjectService extends Service {
     @ApiOperation(value = "Get available project-scoped runner environments",
                   notes = "Get available project-scoped runner environments.",
                   response = RunnerEnvironmentTree.class,
-                  position = 26)
+                  position = 27)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 403, message = "User not authorized to call this operation"),
@@ -36,9 +36,16 @@ public class Runners {
         setConfigs(new LinkedHashMap<>(configs));
     }
 
-    /** Copy constructor. */
+    /** Copy constructor. Configurations are copied as well. */
     public Runners(Runners other) {
         this._default = other._default;
+        if (other.configs != null) {
+            final Map<String, Config> myConfigs = getConfigs();
+            for (Map.Entry<String, Config> e : other.configs.entrySet()) {
+                final Config config = e.getValue();
+                myConfigs.put(e.getKey(), config == null ? null : new Config(config));
+            }
+        }
     }
 
     /** Gets default runner identifier. */
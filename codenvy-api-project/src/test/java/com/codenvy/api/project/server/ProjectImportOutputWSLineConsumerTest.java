@@ -11,76 +11,150 @@
 package com.codenvy.api.project.server;
 
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.everrest.websockets.message.ChannelBroadcastMessage;
 import org.junit.Assert;
 import org.junit.Test;
 
 /**
- * Testing {@link ProjectImportOutputWSLineConsumer}. To avoid output overflow of sent messages, this line consumer should not send all the
- * lines but skip some if needed. This test is checking that for a delay of 300ms between each messages, the messages would be delayed if
- * needed or overridden if newer messages are sent before the delay count down.
+ * Testing {@link ProjectImportOutputWSLineConsumer}. To avoid output overflow, this line consumer sends lines in batches, one message per
+ * delay. All lines are sent while output between two messages fits in buffer, lines that don't fit are replaced with line that tells how
+ * many lines are skipped. Delay between messages in tests is long enough to never send messages by scheduler, messages are sent by
+ * explicit call of {@link ProjectImportOutputWSLineConsumer#sendBuffer()} or when consumer is closed.
  */
 public class ProjectImportOutputWSLineConsumerTest {
+    private static final int NEVER = 3600000;
 
+    @Test
+    public void testMessageFormat() throws IOException {
+        final List<ChannelBroadcastMessage> messages = new ArrayList<>();
+        ProjectImportOutputWSLineConsumer lineConsumer = new ProjectImportOutputWSLineConsumer("test", "test", NEVER) {
+            @Override
+            protected void sendMessageToWS(ChannelBroadcastMessage bm) {
+                messages.add(bm);
+            }
+        };
+        try {
+            lineConsumer.writeLine("line1");
+            lineConsumer.writeLine("line \"2\"");
+        } finally {
+            lineConsumer.close();
+        }
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("importProject:output:test:test", messages.get(0).getChannel());
+        Assert.assertEquals("{\"num\":2, \"line\":\"line \\\"2\\\"\", \"lines\":[\"line1\",\"line \\\"2\\\"\"]}", messages.get(0).getBody());
+    }
 
-    protected String lastSentLine;
+    @Test
+    public void testAllLinesAreSent() throws IOException {
+        final List<String> sentLines = new ArrayList<>();
+        final List<Integer> lineNumbers = new ArrayList<>();
+        ProjectImportOutputWSLineConsumer lineConsumer = new ProjectImportOutputWSLineConsumer("test", "test", NEVER) {
+            @Override
+            protected void sendMessage(List<String> lines, int lastLineNum) {
+                sentLines.addAll(lines);
+                lineNumbers.add(lastLineNum);
+            }
+        };
+        final List<String> lines = new ArrayList<>();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                final String line = "line" + i;
+                lines.add(line);
+                lineConsumer.writeLine(line);
+                if (i % 100 == 99) {
+                    lineConsumer.sendBuffer();
+                }
+            }
+            // nothing to send
+            lineConsumer.sendBuffer();
+        } finally {
+            lineConsumer.close();
+        }
+        Assert.assertEquals(lines, sentLines);
+        Assert.assertEquals(10, lineNumbers.size());
+        Assert.assertEquals(Integer.valueOf(100), lineNumbers.get(0));
+        Assert.assertEquals(Integer.valueOf(1000), lineNumbers.get(9));
+    }
 
     @Test
-    public void testSkippingLinesInLineConsumer() throws IOException, InterruptedException {
-        ProjectImportOutputWSLineConsumer lineConsumer = new ProjectImportOutputWSLineConsumer("test", "test", 300) {
+    public void testSkippingLinesWhenBufferIsFull() throws IOException {
+        final List<String> sentLines = new ArrayList<>();
+        final List<Integer> lineNumbers = new ArrayList<>();
+        ProjectImportOutputWSLineConsumer lineConsumer = new ProjectImportOutputWSLineConsumer("test", "test", NEVER, 20) {
+            @Override
+            protected void sendMessage(List<String> lines, int lastLineNum) {
+                sentLines.addAll(lines);
+                lineNumbers.add(lastLineNum);
+            }
+        };
+        try {
+            for (int i = 0; i < 10; i++) {
+                lineConsumer.writeLine("line" + i); // 5 bytes
+            }
+            lineConsumer.sendBuffer();
+            // buffer is empty after sending, new lines are accepted again
+            lineConsumer.writeLine("line10");
+        } finally {
+            lineConsumer.close();
+        }
+        Assert.assertEquals(6, sentLines.size());
+        Assert.assertEquals("line0", sentLines.get(0));
+        Assert.assertEquals("line3", sentLines.get(3));
+        Assert.assertEquals("[Output is too fast, 6 lines (30 bytes) are skipped]", sentLines.get(4));
+        Assert.assertEquals("line10", sentLines.get(5));
+        // skipped lines are counted
+        Assert.assertEquals(Integer.valueOf(10), lineNumbers.get(0));
+        Assert.assertEquals(Integer.valueOf(11), lineNumbers.get(1));
+    }
 
+    @Test
+    public void testBufferSizeCountedInBytes() throws IOException {
+        final List<String> sentLines = new ArrayList<>();
+        ProjectImportOutputWSLineConsumer lineConsumer = new ProjectImportOutputWSLineConsumer("test", "test", NEVER, 20) {
             @Override
-            protected void sendMessageToWS(ChannelBroadcastMessage bm) {
-                Matcher m = Pattern.compile("^.*line\":\"(.+)\".*").matcher(bm.getBody());
-                if (m.find()) {
-                    lastSentLine = m.group(1);
-                }
+            protected void sendMessage(List<String> lines, int lastLineNum) {
+                sentLines.addAll(lines);
             }
         };
         try {
-            lineConsumer.writeLine("line1");
-            Thread.sleep(30); // let some time to the first thread to do his job ...
-            lineConsumer.writeLine("line1.1");
-            lineConsumer.writeLine("line1.2");
-            // at this point should send line1 because it's the first message
-            Assert.assertEquals("after 0ms, sent line", "line1", lastSentLine);
-            Thread.sleep(200);
-            lineConsumer.writeLine("line2");
-            Assert.assertEquals("after 200ms, sent line", "line1", lastSentLine);
-            Thread.sleep(100);
-            // at this point, sending message line2: after 300ms
-            Assert.assertEquals("after 300ms, sent line", "line2", lastSentLine);
-            Thread.sleep(100);
-            lineConsumer.writeLine("line1");
-            Assert.assertEquals("after 400ms since the last sent message, sent line", "line2", lastSentLine);
-            Thread.sleep(200);
-            // at this point, should sent the last message: line1
-            Assert.assertEquals("after 600ms, sent line", "line1", lastSentLine);
-            Thread.sleep(800);
+            lineConsumer.writeLine("\u0444\u0430\u0439\u043b1"); // 5 characters, 9 bytes
+            lineConsumer.writeLine("\u0444\u0430\u0439\u043b2"); // 5 characters, 9 bytes
+            lineConsumer.writeLine("\u0444\u0430\u0439\u043b3"); // 5 characters, 9 bytes
+        } finally {
+            lineConsumer.close();
+        }
+        Assert.assertEquals(3, sentLines.size());
+        Assert.assertEquals("[Output is too fast, 1 lines (9 bytes) are skipped]", sentLines.get(2));
+    }
+
+    @Test
+    public void testUtf8Length() {
+        Assert.assertEquals(0, ProjectImportOutputWSLineConsumer.utf8Length(""));
+        Assert.assertEquals(5, ProjectImportOutputWSLineConsumer.utf8Length("line1"));
+        Assert.assertEquals(2, ProjectImportOutputWSLineConsumer.utf8Length("\u00e9"));
+        Assert.assertEquals(3, ProjectImportOutputWSLineConsumer.utf8Length("\u20ac"));
+        Assert.assertEquals(4, ProjectImportOutputWSLineConsumer.utf8Length("\ud83d\ude00"));
+    }
 
-            // if last message has been sent > 300, reset the counter, redoing the previous tests should work from now
-            lineConsumer.writeLine("line21");
-            Thread.sleep(100);
-            // at this point should send line1 because it's the first message
-            Assert.assertEquals("after 0ms, sent line", "line21", lastSentLine);
-            // sleep 230 to let 30ms to write the message
-            Thread.sleep(200);
-            lineConsumer.writeLine("line22");
-            Assert.assertEquals("after 200ms, sent line", "line21", lastSentLine);
-            Thread.sleep(100);
-            // at this point, sending message line2: after 300ms
-            Assert.assertEquals("after 300ms, sent line", "line22", lastSentLine);
-            Thread.sleep(100);
-            lineConsumer.writeLine("line21");
-            Assert.assertEquals("after 400ms since the last sent message, sent line", "line22", lastSentLine);
-            Thread.sleep(200);
-            // at this point, should sent the last message: line1
-            Assert.assertEquals("after 600ms, sent line", "line21", lastSentLine);
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testSendSingleLine() throws IOException {
+        final List<ChannelBroadcastMessage> messages = new ArrayList<>();
+        ProjectImportOutputWSLineConsumer lineConsumer = new ProjectImportOutputWSLineConsumer("test", "test", NEVER) {
+            @Override
+            protected void sendMessageToWS(ChannelBroadcastMessage bm) {
+                messages.add(bm);
+            }
+        };
+        try {
+            lineConsumer.sendMessage("line1");
         } finally {
             lineConsumer.close();
         }
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("{\"num\":1, \"line\":\"line1\", \"lines\":[\"line1\"]}", messages.get(0).getBody());
     }
 }
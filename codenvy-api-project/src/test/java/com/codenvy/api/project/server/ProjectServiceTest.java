@@ -15,6 +15,7 @@ import com.codenvy.api.core.ForbiddenException;
 import com.codenvy.api.core.ServerException;
 import com.codenvy.api.core.UnauthorizedException;
 import com.codenvy.api.core.notification.EventService;
+import com.codenvy.api.core.notification.EventSubscriber;
 import com.codenvy.api.core.rest.ApiExceptionMapper;
 import com.codenvy.api.core.rest.CodenvyJsonProvider;
 import com.codenvy.api.core.rest.shared.dto.Link;
@@ -41,6 +42,11 @@ import com.codenvy.api.vfs.server.VirtualFileSystemUser;
 import com.codenvy.api.vfs.server.VirtualFileSystemUserContext;
 import com.codenvy.api.vfs.server.impl.memory.MemoryFileSystemProvider;
 import com.codenvy.api.vfs.server.impl.memory.MemoryMountPoint;
+import com.codenvy.api.vfs.server.observation.CreateEvent;
+import com.codenvy.api.vfs.server.observation.MoveEvent;
+import com.codenvy.api.vfs.server.observation.UpdateACLEvent;
+import com.codenvy.api.vfs.server.observation.UpdateContentEvent;
+import com.codenvy.api.vfs.server.observation.VirtualFileEvent;
 import com.codenvy.api.vfs.server.search.SearcherProvider;
 import com.codenvy.api.vfs.shared.dto.AccessControlEntry;
 import com.codenvy.api.vfs.shared.dto.Principal;
@@ -75,6 +81,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -225,6 +232,73 @@ public class ProjectServiceTest {
         Assert.assertEquals(1, badProject.getProblems().get(0).getCode());
     }
 
+    @Test
+    public void testGetProjectsNotModified() throws Exception {
+        ContainerResponse response =
+                launcher.service("GET", "http://localhost:8080/api/project/my_ws", "http://localhost:8080/api", null, null, null);
+        Assert.assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        Object eTag = response.getHttpHeaders().getFirst("ETag");
+        Assert.assertNotNull(eTag);
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Arrays.asList(eTag.toString()));
+        response = launcher.service("GET", "http://localhost:8080/api/project/my_ws", "http://localhost:8080/api", headers, null, null);
+        Assert.assertEquals(response.getStatus(), 304);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetProjectsAfterChanges() throws Exception {
+        ContainerResponse response =
+                launcher.service("GET", "http://localhost:8080/api/project/my_ws", "http://localhost:8080/api", null, null, null);
+        Assert.assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        Assert.assertEquals(((List<ProjectReference>)response.getEntity()).size(), 1);
+        Object eTag = response.getHttpHeaders().getFirst("ETag");
+
+        ProjectDescription pd = new ProjectDescription(new ProjectType("my_project_type", "my project type", "my_category"));
+        pd.setDescription("my second project");
+        pm.createProject(workspace, "my_project_2", pd);
+        pm.getProject(workspace, "my_project").getBaseFolder().remove();
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Arrays.asList(eTag.toString()));
+        response = launcher.service("GET", "http://localhost:8080/api/project/my_ws", "http://localhost:8080/api", headers, null, null);
+        Assert.assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ProjectReference> result = (List<ProjectReference>)response.getEntity();
+        Assert.assertEquals(result.size(), 1);
+        Assert.assertEquals(result.get(0).getName(), "my_project_2");
+        Assert.assertEquals(result.get(0).getDescription(), "my second project");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetProjectsAfterVisibilityChanged() throws Exception {
+        ContainerResponse response =
+                launcher.service("GET", "http://localhost:8080/api/project/my_ws", "http://localhost:8080/api", null, null, null);
+        Assert.assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        Object eTag = response.getHttpHeaders().getFirst("ETag");
+
+        pm.getProject(workspace, "my_project").setVisibility("private");
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Arrays.asList(eTag.toString()));
+        response = launcher.service("GET", "http://localhost:8080/api/project/my_ws", "http://localhost:8080/api", headers, null, null);
+        Assert.assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ProjectReference> result = (List<ProjectReference>)response.getEntity();
+        Assert.assertEquals(result.size(), 1);
+        Assert.assertEquals(result.get(0).getVisibility(), "private");
+    }
+
+    @Test
+    public void testProjectsAffectedByEvents() throws Exception {
+        Assert.assertTrue(ProjectService.affectsProjects(new CreateEvent(workspace, "/my_project_2", true)));
+        Assert.assertTrue(ProjectService.affectsProjects(new UpdateACLEvent(workspace, "/my_project", true)));
+        Assert.assertTrue(ProjectService.affectsProjects(new UpdateContentEvent(workspace, "/my_project/.codenvy/project.json")));
+        Assert.assertTrue(ProjectService.affectsProjects(new MoveEvent(workspace, "/my_project_2/my_project", "/my_project", true)));
+        Assert.assertFalse(ProjectService.affectsProjects(new UpdateContentEvent(workspace, "/my_project/src/a.txt")));
+        Assert.assertFalse(ProjectService.affectsProjects(new CreateEvent(workspace, "/my_project/module/.codenvy", true)));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testGetModules() throws Exception {
@@ -283,6 +357,26 @@ public class ProjectServiceTest {
     }
 
 
+    @Test
+    public void testGetProjectNotModified() throws Exception {
+        ContainerResponse response = launcher.service("GET", String.format("http://localhost:8080/api/project/%s/my_project", workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        Assert.assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        Object eTag = response.getHttpHeaders().getFirst("ETag");
+        Assert.assertNotNull(eTag);
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Arrays.asList(eTag.toString()));
+        response = launcher.service("GET", String.format("http://localhost:8080/api/project/%s/my_project", workspace),
+                                    "http://localhost:8080/api", headers, null, null);
+        Assert.assertEquals(response.getStatus(), 304);
+
+        pm.getProject(workspace, "my_project").setVisibility("private");
+        response = launcher.service("GET", String.format("http://localhost:8080/api/project/%s/my_project", workspace),
+                                    "http://localhost:8080/api", headers, null, null);
+        Assert.assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+    }
+
     @Test
     public void testGetNotValidProject() throws Exception {
         MountPoint mountPoint = pm.getProjectsRoot(workspace).getVirtualFile().getMountPoint();
@@ -924,6 +1018,75 @@ public class ProjectServiceTest {
     }
 
 
+    @Test
+    public void testImportProjectPublishesEventsAtOnce() throws Exception {
+        final String importType = "_123_";
+        importerRegistry.register(new ProjectImporter() {
+            @Override
+            public String getId() {
+                return importType;
+            }
+
+            @Override
+            public boolean isInternal() {
+                return false;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Chuck importer";
+            }
+
+            @Override
+            public void importSources(FolderEntry baseFolder, String location, Map<String, String> parameters)
+                    throws ConflictException, ServerException, ForbiddenException {
+                importSources(baseFolder, location, parameters, LineConsumerFactory.NULL);
+            }
+
+            @Override
+            public void importSources(FolderEntry baseFolder, String location, Map<String, String> parameters,
+                                      LineConsumerFactory importOutputConsumerFactory)
+                    throws ConflictException, ServerException, ForbiddenException {
+                FolderEntry folder = baseFolder.createFolder("folder1");
+                for (int i = 0; i < 10; i++) {
+                    folder.createFile("file" + i + ".txt", "to be or not to be".getBytes(), "text/plain");
+                }
+            }
+
+            @Override
+            public ImporterCategory getCategory() {
+                return ImporterCategory.ARCHIVE;
+            }
+        });
+        final List<VirtualFileEvent> events = new ArrayList<>();
+        EventSubscriber<VirtualFileEvent> subscriber = new EventSubscriber<VirtualFileEvent>() {
+            @Override
+            public void onEvent(VirtualFileEvent event) {
+                events.add(event);
+            }
+        };
+        EventService eventService = pm.getProjectsRoot(workspace).getVirtualFile().getMountPoint().getEventService();
+        eventService.subscribe(subscriber);
+        try {
+            Map<String, List<String>> headers = new HashMap<>();
+            headers.put("Content-Type", Arrays.asList("application/json"));
+            byte[] b = String.format("{\"source\":{\"project\":{\"location\":null,\"type\":\"%s\",\"parameters\":{}},\"runners\":{}}}",
+                                     importType).getBytes();
+            ContainerResponse response = launcher.service("POST",
+                                                          String.format("http://localhost:8080/api/project/%s/import/new_project",
+                                                                        workspace),
+                                                          "http://localhost:8080/api", headers, b, null);
+            Assert.assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        } finally {
+            eventService.unsubscribe(subscriber);
+        }
+        // Everything is inside of created folder.
+        Assert.assertEquals(events.size(), 1);
+        Assert.assertEquals(events.get(0).getType(), VirtualFileEvent.ChangeType.CREATED);
+        Assert.assertEquals(events.get(0).getPath(), "/new_project");
+        Assert.assertNotNull(pm.getProject(workspace, "new_project").getBaseFolder().getChild("folder1/file9.txt"));
+    }
+
     @Test
     public void testImportProjectWithVisibility() throws Exception {
         ByteArrayOutputStream bout = new ByteArrayOutputStream();
@@ -23,12 +23,14 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
 /**
@@ -160,6 +162,67 @@ public class ProjectTest {
         Assert.assertEquals(pm.get("new_my_property_2"), Arrays.asList("new value 2"));
     }
 
+    @Test
+    public void testCachedProjectDescriptor() throws Exception {
+        Project myProject = pm.getProject("my_ws", "my_project");
+        new ProjectJson2().withType("my_project_type").withDescription("description 1").save(myProject);
+        Assert.assertEquals(myProject.getDescription().getDescription(), "description 1");
+
+        // copy of cached project.json must not be visible for other callers
+        pm.getProjectJson(myProject).setDescription("not saved");
+        Assert.assertEquals(myProject.getDescription().getDescription(), "description 1");
+
+        // file is updated directly, cache must be invalidated by event
+        new ProjectJson2().withType("my_project_type").withDescription("description 2").save(myProject);
+        Assert.assertEquals(myProject.getDescription().getDescription(), "description 2");
+
+        ProjectDescription myProjectDescription = myProject.getDescription();
+        myProjectDescription.setDescription("description 3");
+        myProject.updateDescription(myProjectDescription);
+        Assert.assertEquals(myProject.getDescription().getDescription(), "description 3");
+
+        myProject.getBaseFolder().getChild(Constants.CODENVY_DIR).remove();
+        Assert.assertNull(myProject.getDescription().getDescription());
+    }
+
+    @Test
+    public void testCachedProjectDescriptorKeepsRunnerConfigs() throws Exception {
+        Project myProject = pm.getProject("my_ws", "my_project");
+        Map<String, String> options = new HashMap<>(1);
+        options.put("option", "value");
+        Map<String, String> variables = new HashMap<>(1);
+        variables.put("VARIABLE", "value");
+        Map<String, Runners.Config> configs = new HashMap<>(1);
+        configs.put("my_runner", new Runners.Config(256, options, variables));
+        new ProjectJson2().withType("my_project_type")
+                          .withRunners(new Runners("my_runner", configs))
+                          .withBuilders(new Builders("my_builder"))
+                          .save(myProject);
+
+        ProjectDescription myProjectDescription = myProject.getDescription();
+        checkRunnerConfig(myProjectDescription.getRunners());
+        Assert.assertEquals(myProjectDescription.getBuilders().getDefault(), "my_builder");
+
+        // modification of copy must not affect cached project.json
+        myProjectDescription.getRunners().getConfig("my_runner").getOptions().put("option", "not saved");
+        checkRunnerConfig(myProject.getDescription().getRunners());
+
+        myProjectDescription = myProject.getDescription();
+        myProjectDescription.setDescription("updated");
+        myProject.updateDescription(myProjectDescription);
+        checkRunnerConfig(myProject.getDescription().getRunners());
+        checkRunnerConfig(ProjectJson2.load(myProject).getRunners());
+    }
+
+    private void checkRunnerConfig(Runners runners) {
+        Assert.assertEquals(runners.getDefault(), "my_runner");
+        Runners.Config config = runners.getConfig("my_runner");
+        Assert.assertNotNull(config);
+        Assert.assertEquals(config.getRam(), 256);
+        Assert.assertEquals(config.getOptions().get("option"), "value");
+        Assert.assertEquals(config.getVariables().get("VARIABLE"), "value");
+    }
+
     @Test
     public void testModificationDate() throws Exception {
         Project myProject = pm.getProject("my_ws", "my_project");
@@ -169,4 +232,40 @@ public class ProjectTest {
         long modificationDate2 = myProject.getModificationDate();
         Assert.assertTrue(modificationDate2 > modificationDate1);
     }
+
+    @Test
+    public void testModificationDateOfNewProject() throws Exception {
+        FolderEntry folder = pm.getProjectsRoot("my_ws").createFolder("my_project_2");
+        // Folder isn't project yet.
+        folder.createFile("test.txt", "test".getBytes(), "text/plain");
+        folder.createFolder(Constants.CODENVY_DIR).createFile(Constants.CODENVY_PROJECT_FILE, null, null);
+        Project myProject = pm.getProject("my_ws", "my_project_2");
+        Assert.assertNotNull(myProject);
+        Assert.assertTrue(myProject.getModificationDate() > 0);
+
+        folder.rename("my_project_3");
+        folder.createFile("test2.txt", "test".getBytes(), "text/plain");
+        myProject = pm.getProject("my_ws", "my_project_3");
+        Assert.assertNotNull(myProject);
+        Assert.assertTrue(myProject.getModificationDate() > 0);
+    }
+
+    @Test
+    public void testWriteMiscOnStop() throws Exception {
+        Project myProject = pm.getProject("my_ws", "my_project");
+        myProject.getBaseFolder().createFile("test.txt", "test".getBytes(), "text/plain");
+        long modificationDate = myProject.getModificationDate();
+        Assert.assertTrue(modificationDate > 0);
+        // Modification date is updated in memory only.
+        Assert.assertNull(myProject.getBaseFolder().getChild(Constants.CODENVY_DIR + "/misc.xml"));
+
+        ((DefaultProjectManager)pm).stop();
+        FileEntry miscFile = (FileEntry)myProject.getBaseFolder().getChild(Constants.CODENVY_DIR + "/misc.xml");
+        Assert.assertNotNull(miscFile);
+        Properties properties = new Properties();
+        try (InputStream in = miscFile.getInputStream()) {
+            properties.loadFromXML(in);
+        }
+        Assert.assertEquals(properties.getProperty(ProjectMisc.UPDATED), String.valueOf(modificationDate));
+    }
 }
@@ -10,11 +10,8 @@
  *******************************************************************************/
 package com.codenvy.api.runner;
 
-import com.codenvy.api.core.ConflictException;
-import com.codenvy.api.core.ForbiddenException;
-import com.codenvy.api.core.NotFoundException;
-import com.codenvy.api.core.ServerException;
-import com.codenvy.api.core.UnauthorizedException;
+import com.codenvy.api.core.ApiException;
+import com.codenvy.api.core.rest.CircuitBreaker;
 import com.codenvy.api.core.rest.HttpJsonHelper;
 import com.codenvy.api.core.rest.shared.dto.Link;
 import com.codenvy.api.project.shared.dto.RunnerEnvironment;
@@ -53,12 +50,18 @@ public class RemoteRunner {
     private final RunnerDescriptor descriptor;
     private final int              hashCode;
     private final List<Link>       links;
+    private final CircuitBreaker   circuitBreaker;
 
     private volatile long lastUsage = -1;
 
     /* Package visibility, not expected to be created by api users. They should use RemoteRunnerServer to get an instance of RemoteRunner. */
     RemoteRunner(String baseUrl, RunnerDescriptor descriptor, List<Link> links) {
+        this(baseUrl, descriptor, links, new CircuitBreaker(baseUrl));
+    }
+
+    RemoteRunner(String baseUrl, RunnerDescriptor descriptor, List<Link> links, CircuitBreaker circuitBreaker) {
         this.baseUrl = baseUrl;
+        this.circuitBreaker = circuitBreaker;
         this.name = descriptor.getName();
         this.descriptor = DtoFactory.getInstance().clone(descriptor);
         this.links = new ArrayList<>(links);
@@ -91,6 +94,16 @@ public class RemoteRunner {
         return lastUsage;
     }
 
+    /**
+     * Checks whether remote server of this runner is considered available. Calls to unavailable server fail immediately.
+     *
+     * @return {@code false} if remote server of this runner doesn't respond
+     * @see CircuitBreaker
+     */
+    public boolean isAvailable() {
+        return !circuitBreaker.isOpen();
+    }
+
     public RunnerDescriptor getDescriptor() {
         return DtoFactory.getInstance().clone(descriptor);
     }
@@ -113,21 +126,27 @@ public class RemoteRunner {
      * @throws RunnerException
      *         if an error occurs
      */
-    public RemoteRunnerProcess run(RunRequest request) throws RunnerException {
+    public RemoteRunnerProcess run(final RunRequest request) throws RunnerException {
         final Link link = getLink(com.codenvy.api.runner.internal.Constants.LINK_REL_RUN);
         if (link == null) {
             throw new RunnerException("Unable get URL for starting application's process");
         }
         final ApplicationProcessDescriptor process;
         try {
-            process = HttpJsonHelper.request(ApplicationProcessDescriptor.class, link, request);
+            // not idempotent, never hedge it
+            process = circuitBreaker.execute(new CircuitBreaker.RemoteCall<ApplicationProcessDescriptor>() {
+                @Override
+                public ApplicationProcessDescriptor call() throws IOException, ApiException {
+                    return HttpJsonHelper.request(ApplicationProcessDescriptor.class, link, request);
+                }
+            });
         } catch (IOException e) {
             throw new RunnerException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
+        } catch (ApiException e) {
             throw new RunnerException(e.getServiceError());
         }
         lastUsage = System.currentTimeMillis();
-        return new RemoteRunnerProcess(baseUrl, name, process.getProcessId());
+        return new RemoteRunnerProcess(baseUrl, name, process.getProcessId(), circuitBreaker);
     }
 
     /**
@@ -144,10 +163,15 @@ public class RemoteRunner {
                     String.format("Unable get URL for getting state of a remote runner '%s' at '%s'", name, baseUrl));
         }
         try {
-            return HttpJsonHelper.request(RunnerState.class, stateLink, Pair.of("runner", name));
+            return circuitBreaker.executeIdempotent(new CircuitBreaker.RemoteCall<RunnerState>() {
+                @Override
+                public RunnerState call() throws IOException, ApiException {
+                    return HttpJsonHelper.request(RunnerState.class, stateLink, Pair.of("runner", name));
+                }
+            });
         } catch (IOException e) {
             throw new RunnerException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
+        } catch (ApiException e) {
             throw new RunnerException(e.getServiceError());
         }
     }
@@ -10,11 +10,9 @@
  *******************************************************************************/
 package com.codenvy.api.runner;
 
-import com.codenvy.api.core.ConflictException;
-import com.codenvy.api.core.ForbiddenException;
+import com.codenvy.api.core.ApiException;
 import com.codenvy.api.core.NotFoundException;
-import com.codenvy.api.core.ServerException;
-import com.codenvy.api.core.UnauthorizedException;
+import com.codenvy.api.core.rest.CircuitBreaker;
 import com.codenvy.api.core.rest.HttpJsonHelper;
 import com.codenvy.api.core.rest.HttpOutputMessage;
 import com.codenvy.api.core.rest.OutputProvider;
@@ -42,16 +40,22 @@ import java.net.URL;
 public class RemoteRunnerProcess {
     private static final Logger LOG = LoggerFactory.getLogger(RemoteRunnerProcess.class);
 
-    private final String baseUrl;
-    private final String runner;
+    private final String         baseUrl;
+    private final String         runner;
+    private final CircuitBreaker circuitBreaker;
 
     private final Long processId;
     private final long created;
 
     RemoteRunnerProcess(String baseUrl, String runner, Long processId) {
+        this(baseUrl, runner, processId, new CircuitBreaker(baseUrl));
+    }
+
+    RemoteRunnerProcess(String baseUrl, String runner, Long processId, CircuitBreaker circuitBreaker) {
         this.baseUrl = baseUrl;
         this.runner = runner;
         this.processId = processId;
+        this.circuitBreaker = circuitBreaker;
         created = System.currentTimeMillis();
     }
 
@@ -79,10 +83,17 @@ public class RemoteRunnerProcess {
      */
     public ApplicationProcessDescriptor getApplicationProcessDescriptor() throws RunnerException, NotFoundException {
         try {
-            return HttpJsonHelper.get(ApplicationProcessDescriptor.class, baseUrl + "/status/" + runner + '/' + processId);
+            return circuitBreaker.executeIdempotent(new CircuitBreaker.RemoteCall<ApplicationProcessDescriptor>() {
+                @Override
+                public ApplicationProcessDescriptor call() throws IOException, ApiException {
+                    return HttpJsonHelper.get(ApplicationProcessDescriptor.class, baseUrl + "/status/" + runner + '/' + processId);
+                }
+            });
         } catch (IOException e) {
             throw new RunnerException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | ConflictException e) {
+        } catch (NotFoundException e) {
+            throw e;
+        } catch (ApiException e) {
             throw new RunnerException(e.getServiceError());
         }
     }
@@ -110,10 +121,17 @@ public class RemoteRunnerProcess {
             }
         }
         try {
-            return HttpJsonHelper.request(ApplicationProcessDescriptor.class, DtoFactory.getInstance().clone(link));
+            return circuitBreaker.execute(new CircuitBreaker.RemoteCall<ApplicationProcessDescriptor>() {
+                @Override
+                public ApplicationProcessDescriptor call() throws IOException, ApiException {
+                    return HttpJsonHelper.request(ApplicationProcessDescriptor.class, DtoFactory.getInstance().clone(link));
+                }
+            });
         } catch (IOException e) {
             throw new RunnerException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | ConflictException e) {
+        } catch (NotFoundException e) {
+            throw e;
+        } catch (ApiException e) {
             throw new RunnerException(e.getServiceError());
         }
     }
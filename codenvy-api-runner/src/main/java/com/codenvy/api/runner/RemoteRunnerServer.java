@@ -10,11 +10,9 @@
  *******************************************************************************/
 package com.codenvy.api.runner;
 
-import com.codenvy.api.core.ConflictException;
-import com.codenvy.api.core.ForbiddenException;
-import com.codenvy.api.core.NotFoundException;
+import com.codenvy.api.core.ApiException;
 import com.codenvy.api.core.ServerException;
-import com.codenvy.api.core.UnauthorizedException;
+import com.codenvy.api.core.rest.CircuitBreaker;
 import com.codenvy.api.core.rest.HttpJsonHelper;
 import com.codenvy.api.core.rest.RemoteServiceDescriptor;
 import com.codenvy.api.core.rest.shared.dto.Link;
@@ -33,6 +31,8 @@ import java.util.List;
  * @author andrew00x
  */
 public class RemoteRunnerServer extends RemoteServiceDescriptor {
+    private final CircuitBreaker circuitBreaker;
+
     /** Name of IDE workspace this server is used for. */
     private String assignedWorkspace;
     /** Name of project inside IDE workspace this server is used for. */
@@ -41,7 +41,23 @@ public class RemoteRunnerServer extends RemoteServiceDescriptor {
     private String infra = "community";
 
     public RemoteRunnerServer(String baseUrl) {
+        this(baseUrl, new CircuitBreaker(baseUrl));
+    }
+
+    /**
+     * @param baseUrl
+     *         URL of remote server
+     * @param circuitBreaker
+     *         tracks health of remote server. The same instance is shared with all runners and processes of this server, so if server
+     *         stops responding all calls to it fail fast.
+     */
+    public RemoteRunnerServer(String baseUrl, CircuitBreaker circuitBreaker) {
         super(baseUrl);
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
     public String getInfra() {
@@ -94,7 +110,7 @@ public class RemoteRunnerServer extends RemoteServiceDescriptor {
         try {
             for (RunnerDescriptor runnerDescriptor : getRunnerDescriptors()) {
                 if (name.equals(runnerDescriptor.getName())) {
-                    return new RemoteRunner(baseUrl, runnerDescriptor, getLinks());
+                    return new RemoteRunner(baseUrl, runnerDescriptor, getLinks(), circuitBreaker);
                 }
             }
         } catch (IOException e) {
@@ -107,7 +123,7 @@ public class RemoteRunnerServer extends RemoteServiceDescriptor {
 
     RemoteRunner createRemoteRunner(RunnerDescriptor descriptor) throws RunnerException {
         try {
-            return new RemoteRunner(baseUrl, descriptor, getLinks());
+            return new RemoteRunner(baseUrl, descriptor, getLinks(), circuitBreaker);
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException e) {
@@ -121,10 +137,15 @@ public class RemoteRunnerServer extends RemoteServiceDescriptor {
             if (link == null) {
                 throw new RunnerException("Unable get URL for retrieving list of remote runners");
             }
-            return HttpJsonHelper.requestArray(RunnerDescriptor.class, link);
+            return circuitBreaker.executeIdempotent(new CircuitBreaker.RemoteCall<List<RunnerDescriptor>>() {
+                @Override
+                public List<RunnerDescriptor> call() throws IOException, ApiException {
+                    return HttpJsonHelper.requestArray(RunnerDescriptor.class, link);
+                }
+            });
         } catch (IOException e) {
             throw new RunnerException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
+        } catch (ApiException e) {
             throw new RunnerException(e.getServiceError());
         }
     }
@@ -135,10 +156,15 @@ public class RemoteRunnerServer extends RemoteServiceDescriptor {
             if (stateLink == null) {
                 throw new RunnerException(String.format("Unable get URL for getting state of a remote server '%s'", baseUrl));
             }
-            return HttpJsonHelper.request(ServerState.class, stateLink);
+            return circuitBreaker.executeIdempotent(new CircuitBreaker.RemoteCall<ServerState>() {
+                @Override
+                public ServerState call() throws IOException, ApiException {
+                    return HttpJsonHelper.request(ServerState.class, stateLink);
+                }
+            });
         } catch (IOException e) {
             throw new RunnerException(e);
-        } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
+        } catch (ApiException e) {
             throw new RunnerException(e.getServiceError());
         }
     }
@@ -21,7 +21,9 @@ import com.codenvy.api.core.ServerException;
 import com.codenvy.api.core.UnauthorizedException;
 import com.codenvy.api.core.notification.EventService;
 import com.codenvy.api.core.notification.EventSubscriber;
+import com.codenvy.api.core.rest.CircuitBreaker;
 import com.codenvy.api.core.rest.HttpJsonHelper;
+import com.codenvy.api.core.rest.HttpResponseCache;
 import com.codenvy.api.core.rest.RemoteServiceDescriptor;
 import com.codenvy.api.core.rest.ServiceContext;
 import com.codenvy.api.core.rest.shared.dto.Link;
@@ -49,6 +51,9 @@ import com.codenvy.api.workspace.shared.dto.WorkspaceDescriptor;
 import com.codenvy.commons.env.EnvironmentContext;
 import com.codenvy.commons.lang.NamedThreadFactory;
 import com.codenvy.commons.lang.Pair;
+import com.codenvy.commons.lang.cache.Cache;
+import com.codenvy.commons.lang.cache.SLRUCache;
+import com.codenvy.commons.lang.cache.SynchronizedCache;
 import com.codenvy.commons.lang.concurrent.ThreadLocalPropagateContext;
 import com.codenvy.commons.user.User;
 import com.codenvy.dto.server.DtoFactory;
@@ -113,6 +118,10 @@ public class RunQueue {
     private static final int APPLICATION_CHECK_URL_TIMEOUT = 2000;
     private static final int APPLICATION_CHECK_URL_COUNT   = 30;
 
+    private static final int DESCRIPTORS_CACHE_SIZE = 256;
+    // Service descriptor keeps links of remote service once they are downloaded. Re-create it periodically to pick up remote changes.
+    private static final long SERVICE_DESCRIPTOR_TTL = TimeUnit.MINUTES.toMillis(1);
+
     private static final AtomicLong sequence = new AtomicLong(1);
 
     private final ConcurrentMap<String, RemoteRunnerServer>       runnerServers;
@@ -128,6 +137,10 @@ public class RunQueue {
     private final long                                            maxWaitingTimeMillis;
     private final AtomicBoolean                                   started;
     private final long                                            appCleanupTime;
+    /** Cache of project, workspace and builder service descriptors. Descriptors are revalidated but don't get downloaded if unchanged. */
+    private final HttpResponseCache                               descriptorsCache;
+    /** Builder service descriptors with time when they get stale. */
+    private final Cache<String, Pair<RemoteServiceDescriptor, Long>> builderServices;
     // Helps to reduce lock contentions when check available resources.
     private final Lock[]                                          resourceCheckerLocks;
     private final int                                             resourceCheckerMask;
@@ -150,6 +163,11 @@ public class RunQueue {
     @Named(Constants.RUNNER_SLAVE_RUNNER_URLS_ALWAYS_ON)
     private String[] slavesAlwaysOn = new String[0];
 
+    /** Optional delay in milliseconds after that idempotent request to a slave runner is sent again. Hedging is disabled by default. */
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.SLAVE_HEDGE_DELAY)
+    private long slaveHedgeDelay = 0;
+
     @com.google.inject.Inject(optional = true)
     @Named(Constants.RUNNER_WS_MAX_MEMORY_SIZE)
     private int defMaxMemorySize = DEFAULT_MAX_MEMORY_SIZE;
@@ -213,6 +231,9 @@ public class RunQueue {
         runnerServers = new ConcurrentHashMap<>();
         tasks = new ConcurrentHashMap<>();
         runnerListMapping = new ConcurrentHashMap<>();
+        descriptorsCache = new HttpResponseCache(DESCRIPTORS_CACHE_SIZE);
+        builderServices = new SynchronizedCache<>(new SLRUCache<String, Pair<RemoteServiceDescriptor, Long>>(DESCRIPTORS_CACHE_SIZE / 2,
+                                                                                                            DESCRIPTORS_CACHE_SIZE / 2));
         started = new AtomicBoolean(false);
         final int partitions = 1 << 4;
         resourceCheckerMask = partitions - 1;
@@ -394,6 +415,8 @@ public class RunQueue {
             }
             tasks.clear();
             runnerListMapping.clear();
+            descriptorsCache.clear();
+            builderServices.clear();
             if (interrupted) {
                 Thread.currentThread().interrupt();
             }
@@ -602,7 +625,7 @@ public class RunQueue {
                                                            .path(WorkspaceService.class, "getById")
                                                            .build(workspace).toString();
         try {
-            return HttpJsonHelper.get(WorkspaceDescriptor.class, workspaceUrl);
+            return HttpJsonHelper.get(WorkspaceDescriptor.class, descriptorsCache, workspaceUrl);
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -621,7 +644,7 @@ public class RunQueue {
                                                        .build(workspace, project.startsWith("/") ? project.substring(1) : project)
                                                        .toString();
         try {
-            return HttpJsonHelper.get(ProjectDescriptor.class, projectUrl);
+            return HttpJsonHelper.get(ProjectDescriptor.class, descriptorsCache, projectUrl);
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -735,7 +758,13 @@ public class RunQueue {
                                                  ? serviceContext.getBaseUriBuilder()
                                                  : UriBuilder.fromUri(baseBuilderApiUrl);
         final String builderUrl = baseBuilderUriBuilder.path(BuilderService.class).build(workspace).toString();
-        return new RemoteServiceDescriptor(builderUrl);
+        final Pair<RemoteServiceDescriptor, Long> cached = builderServices.get(builderUrl);
+        if (cached != null && System.currentTimeMillis() < cached.second) {
+            return cached.first;
+        }
+        final RemoteServiceDescriptor builderService = new RemoteServiceDescriptor(builderUrl, descriptorsCache);
+        builderServices.put(builderUrl, new Pair<>(builderService, System.currentTimeMillis() + SERVICE_DESCRIPTOR_TTL));
+        return builderService;
     }
 
     // Switched to default for test.
@@ -829,9 +858,14 @@ public class RunQueue {
                         }
                         RunnerState runnerState;
                         try {
+                            // fails immediately if server of runner doesn't respond
                             runnerState = runner.getRemoteRunnerState();
                         } catch (Exception e) {
-                            LOG.error(e.getMessage(), e);
+                            if (runner.isAvailable()) {
+                                LOG.error(e.getMessage(), e);
+                            } else {
+                                LOG.debug(e.getMessage(), e);
+                            }
                             continue;
                         }
                         if (runnerState.getServerState().getFreeMemory() >= request.getMemorySize()) {
@@ -945,7 +979,10 @@ public class RunQueue {
     // Switched to default for test.
     // private
     RemoteRunnerServer createRemoteRunnerServer(String url) {
-        return new RemoteRunnerServer(url);
+        return new RemoteRunnerServer(url, new CircuitBreaker(url,
+                                                             CircuitBreaker.DEFAULT_FAILURE_THRESHOLD,
+                                                             CircuitBreaker.DEFAULT_OPEN_TIME,
+                                                             slaveHedgeDelay));
     }
 
     // Switched to default for test.
@@ -1300,6 +1337,10 @@ public class RunQueue {
 
         @Override
         public void onEvent(RunnerEvent event) {
+            if (event.getType() == RunnerEvent.EventType.MESSAGE_LOGGED) {
+                // Logged lines aren't interesting for analytics, don't look up task for each of them.
+                return;
+            }
             try {
                 final long id = event.getProcessId();
                 final RunQueueTask task = getTask(id);
@@ -61,6 +61,11 @@ public class Constants {
     public static final String APP_LIFETIME                       = "runner.app_lifetime";
     /** Name of configuration parameter that sets amount of memory (in megabytes) for running applications. */
     public static final String TOTAL_APPS_MEM_SIZE                = "runner.total_apps_mem_size_mb";
+    /**
+     * Delay in milliseconds after that idempotent request (e.g. get status of application) to a slave runner is sent again if there is no
+     * response yet. Zero or negative value disables such hedged requests.
+     */
+    public static final String SLAVE_HEDGE_DELAY                  = "runner.slave_hedge_delay";
 
     public static final String RUNNER_ASSIGNED_TO_WORKSPACE = "runner.assigned_to_workspace";
     public static final String RUNNER_ASSIGNED_TO_PROJECT   = "runner.assigned_to_project";
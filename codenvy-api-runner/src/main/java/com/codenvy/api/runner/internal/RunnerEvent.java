@@ -11,12 +11,13 @@
 package com.codenvy.api.runner.internal;
 
 import com.codenvy.api.core.notification.EventOrigin;
+import com.codenvy.api.core.notification.KeyedEvent;
 
 /**
  * @author andrew00x
  */
 @EventOrigin("runner")
-public class RunnerEvent {
+public class RunnerEvent implements KeyedEvent {
     public enum EventType {
         /** Application started. */
         STARTED("started"),
@@ -199,6 +200,12 @@ public class RunnerEvent {
         this.error = error;
     }
 
+    /** Id of application process is used as routing key of event. */
+    @Override
+    public long routingKey() {
+        return processId;
+    }
+
     @Override
     public String toString() {
         return "RunnerEvent{" +
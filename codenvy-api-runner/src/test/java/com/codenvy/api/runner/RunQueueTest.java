@@ -78,7 +78,9 @@ import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -546,6 +548,15 @@ public class RunQueueTest {
         verify(runQueue, never()).startBuild(any(RemoteBuilderServer.class), eq(pPath), any(BuildOptions.class));
     }
 
+    @Test
+    public void testBuilderServiceDescriptorIsReused() throws Exception {
+        ServiceContext serviceContext = newServiceContext();
+        RemoteServiceDescriptor builderService = runQueue.getBuilderServiceDescriptor(wsId, serviceContext);
+        assertTrue(builderService.getBaseUrl().endsWith("/builder/" + wsId));
+        assertSame(runQueue.getBuilderServiceDescriptor(wsId, serviceContext), builderService);
+        assertNotSame(runQueue.getBuilderServiceDescriptor("another_" + wsId, serviceContext), builderService);
+    }
+
     @Test
     public void testTimeOutWhileWaitingForLongBuildProcess() throws Exception {
         RemoteRunnerServer runnerServer = registerDefaultRunnerServer();
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server;
+
+import com.codenvy.api.core.ServerException;
+
+/**
+ * {@link VirtualFile} that keeps its children sorted and hashes of its subtree up to date, so getting page of children or hash of not
+ * modified folder is cheap. Implementation of this interface is optional. For other implementations of VirtualFile {@link
+ * VirtualFileSystemImpl} lists all children to get a page of them and calculates hashes from content of files.
+ *
+ * @author andrew00x
+ */
+public interface IndexedVirtualFile extends VirtualFile {
+    /**
+     * Gets iterator over files in this folder that follow the child pointed by {@code cursor}. Children are returned in the same order as
+     * by method {@link #getChildren(VirtualFileFilter)} but they are fetched lazily, while iterator is read, so getting a page of children
+     * costs proportionally to size of page but not to number of children in folder. If folder is changed while iterator is read, the
+     * iterator doesn't fail, it returns children that follow the cursor at the moment when they are fetched. Returned iterator doesn't
+     * know total number of children and its method {@link LazyIterator#size()} returns {@code -1}.
+     *
+     * @param filter
+     *         virtual files filter
+     * @param cursor
+     *         value returned by method {@link #getCursor()} of last child from the previous page or {@code null} to start from the first
+     *         child
+     * @throws ServerException
+     *         if an error occurs
+     */
+    LazyIterator<VirtualFile> getChildren(VirtualFileFilter filter, String cursor) throws ServerException;
+
+    /**
+     * Gets opaque position of this item among children of its parent. Position isn't changed while item isn't renamed, even if other
+     * children are added or removed.
+     *
+     * @see #getChildren(VirtualFileFilter, String)
+     */
+    String getCursor();
+
+    /**
+     * Gets hash of this item. Hash of file is md5sum of its content represented as HEX String. Hash of folder is calculated from names and
+     * hashes of all its children as described in {@link com.codenvy.api.vfs.server.util.HashTree}, folders that don't contain any files
+     * don't have hash. Implementation should keep hashes of folders up to date while tree is modified, so getting hash of not modified
+     * folder is cheap.
+     *
+     * @return hash of this item or {@code null} if this item is a folder that doesn't contain any files
+     * @throws ServerException
+     *         if any error occurs
+     */
+    String getHash() throws ServerException;
+}
@@ -540,7 +540,7 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      *     pair.second // Path of file that is relative to this file
      * </pre>
      * If this VirtualFile isn't a folder this method returns empty iterator. Note: any order of items in the returned iterator isn't
-     * guaranteed.
+     * guaranteed. Implementation should keep md5sum of file together with its content rather than read content of all files on each call.
      *
      * @throws ServerException
      *         if any error occurs
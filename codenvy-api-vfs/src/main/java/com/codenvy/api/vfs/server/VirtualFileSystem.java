@@ -35,6 +35,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.InputStream;
 import java.util.Iterator;
@@ -244,6 +245,10 @@ public interface VirtualFileSystem {
      *         max number of items in response. If {@code -1} then no limit of max items in result set
      * @param skipCount
      *         skip items. Must be equals or greater then {@code 0}
+     * @param cursor
+     *         cursor returned in {@link ItemList#getNextCursor()} of the previous page. If cursor is set response contains items that
+     *         follow the last item of the previous page, even if folder is changed after the previous page was got, and total number
+     *         of items isn't calculated. If {@code skipCount} is set together with cursor, items are skipped after the cursor.
      * @param itemType
      *         item type filter. If not null then only item of specified type returned in result list. Expected one of type (case
      *         insensitive):
@@ -275,7 +280,7 @@ public interface VirtualFileSystem {
     @GET
     @Path("children")
     @Produces({MediaType.APPLICATION_JSON})
-    ItemList getChildren(String folderId, int maxItems, int skipCount, String itemType, Boolean includePermissions,
+    ItemList getChildren(String folderId, int maxItems, int skipCount, String cursor, String itemType, Boolean includePermissions,
                          PropertyFilter propertyFilter) throws NotFoundException, ForbiddenException, ConflictException, ServerException;
 
     // For local usage. This method isn't accessible over REST interface.
@@ -453,6 +458,40 @@ public interface VirtualFileSystem {
     Item getItemByPath(String path, String versionId, boolean includePermissions)
             throws NotFoundException, ForbiddenException, ServerException;
 
+    /**
+     * Get many items in one request. Request body is JSON array of ids of items, or of paths of items if {@code byPath} is {@code
+     * true}. Multipart/form-data response contains:
+     * <ul>
+     * <li>field 'items' with JSON description of found items in format of {@link ItemList}, items are in the same order as in
+     * request</li>
+     * <li>field 'not-found' with JSON array of requested ids or paths that don't exist or can't be read by current user, this field is
+     * absent if all items are found</li>
+     * <li>field for each found file which length doesn't exceed {@code maxContentLength}, name of field is id of file and its value is
+     * content of file</li>
+     * </ul>
+     *
+     * @param items
+     *         ids or paths of items
+     * @param byPath
+     *         if {@code true} then {@code items} contains paths of items, otherwise ids of items
+     * @param includePermissions
+     *         if {@code true} add permissions for current user in item description. If parameter isn't set then result is implementation
+     *         specific
+     * @param propertyFilter
+     *         only properties which are accepted by filter should be included in response. See {@link PropertyFilter#accept(String)}
+     * @param maxContentLength
+     *         max length of file which content is included in response. Content of files isn't included if this parameter is 0
+     * @return multipart response, see above about its format
+     * @throws ServerException
+     *         if any errors occur
+     */
+    @POST
+    @Path("items")
+    @Consumes({MediaType.APPLICATION_JSON})
+    @Produces({"multipart/form-data"})
+    Response getItems(List<String> items, Boolean byPath, Boolean includePermissions, PropertyFilter propertyFilter, long maxContentLength)
+            throws ServerException;
+
     /**
      * Get content of version of File item.
      *
@@ -972,6 +1011,38 @@ public interface VirtualFileSystem {
     @Consumes({"text/plain"})
     Response exportZipMultipart(String folderId, InputStream in) throws NotFoundException, ForbiddenException, ServerException;
 
+    /**
+     * Get hashes of children of {@code folderId}. Response contains one line for each child that has hash in next format:
+     * <pre>
+     * &lt;hash&gt;&lt;space&gt;&lt;name of child, name of folder ends with '/'&gt;
+     * ...
+     * </pre>
+     * Hash of file is md5sum of its content, hash of folder is calculated from hashes of its children as described in {@link
+     * com.codenvy.api.vfs.server.util.HashTree}. Hash of {@code folderId} itself is sent as entity tag of response. Caller that has copy of
+     * folder stored remotely may compare hashes top-down and request only subfolders which hashes don't match. If caller sends hash of
+     * its copy of folder in header <i>If-None-Match</i> and it matches this method returns response with status: 304 Not Modified.
+     *
+     * @param folderId
+     *         folder
+     * @param request
+     *         request, it is used for evaluation of preconditions
+     * @return hashes of children of folder
+     * @throws NotFoundException
+     *         if {@code folderId} doesn't exist
+     * @throws ForbiddenException
+     *         if any of following conditions are met:
+     *         <ul>
+     *         <li>{@code folderId} item isn't a folder</li>
+     *         <li>user which perform operation has no permissions</li>
+     *         </ul>
+     * @throws ServerException
+     *         if any other errors occur
+     */
+    @GET
+    @Path("hashes")
+    @Produces({MediaType.TEXT_PLAIN})
+    Response getHashes(String folderId, Request request) throws NotFoundException, ForbiddenException, ServerException;
+
     /**
      * Import ZIP content.
      *
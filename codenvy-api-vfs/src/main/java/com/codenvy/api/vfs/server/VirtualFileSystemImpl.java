@@ -14,9 +14,13 @@ import com.codenvy.api.core.ConflictException;
 import com.codenvy.api.core.ForbiddenException;
 import com.codenvy.api.core.NotFoundException;
 import com.codenvy.api.core.ServerException;
+import com.codenvy.api.vfs.server.observation.VirtualFileEventBuffer;
 import com.codenvy.api.vfs.server.search.QueryExpression;
+import com.codenvy.api.vfs.server.search.SearchResult;
 import com.codenvy.api.vfs.server.search.SearcherProvider;
+import com.codenvy.api.vfs.server.util.HashTree;
 import com.codenvy.api.vfs.server.util.LinksHelper;
+import com.codenvy.api.vfs.server.util.TextReplacer;
 import com.codenvy.api.vfs.shared.ItemType;
 import com.codenvy.api.vfs.shared.PropertyFilter;
 import com.codenvy.api.vfs.shared.dto.AccessControlEntry;
@@ -33,11 +37,13 @@ import com.codenvy.api.vfs.shared.dto.Variable;
 import com.codenvy.api.vfs.shared.dto.VirtualFileSystemInfo;
 import com.codenvy.api.vfs.shared.dto.VirtualFileSystemInfo.ACLCapability;
 import com.codenvy.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
-import com.codenvy.commons.lang.Deserializer;
-import com.codenvy.commons.lang.IoUtil;
 import com.codenvy.commons.lang.NameGenerator;
 import com.codenvy.commons.lang.Pair;
 import com.codenvy.dto.server.DtoFactory;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 
 import org.apache.commons.fileupload.FileItem;
 import org.everrest.core.impl.provider.multipart.OutputItem;
@@ -48,10 +54,13 @@ import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
@@ -62,8 +71,6 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -205,6 +212,7 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
     public ItemList getChildren(@PathParam("id") String folderId,
                                 @DefaultValue("-1") @QueryParam("maxItems") int maxItems,
                                 @QueryParam("skipCount") int skipCount,
+                                @QueryParam("cursor") String cursor,
                                 @QueryParam("itemType") String itemType,
                                 @DefaultValue("false") @QueryParam("includePermissions") Boolean includePermissions,
                                 @DefaultValue(PropertyFilter.NONE) @QueryParam("propertyFilter") PropertyFilter propertyFilter)
@@ -245,27 +253,50 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
                 }
             };
         }
-        final LazyIterator<VirtualFile> children = virtualFile.getChildren(filter);
+        final boolean indexed = virtualFile instanceof IndexedVirtualFile;
+        final LazyIterator<VirtualFile> children;
+        int offset = skipCount;
+        if (cursor == null) {
+            children = virtualFile.getChildren(filter);
+        } else if (indexed) {
+            // With cursor children are fetched lazily, so getting of page doesn't depend on number of children in folder.
+            children = ((IndexedVirtualFile)virtualFile).getChildren(filter, cursor);
+        } else {
+            // Folder doesn't keep sorted children, cursor is offset of the next page.
+            children = virtualFile.getChildren(filter);
+            try {
+                offset += Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw new ConflictException(String.format("Invalid cursor: %s. ", cursor));
+            }
+        }
         try {
-            if (skipCount > 0) {
-                children.skip(skipCount);
+            if (offset > 0) {
+                children.skip(offset);
             }
         } catch (NoSuchElementException nse) {
             throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
         }
 
         final List<Item> items = new ArrayList<>();
+        VirtualFile last = null;
         for (int count = 0; children.hasNext() && (maxItems < 0 || count < maxItems); count++) {
-            items.add(fromVirtualFile(children.next(), includePermissions, propertyFilter));
+            last = children.next();
+            items.add(fromVirtualFile(last, includePermissions, propertyFilter));
+        }
+        final boolean hasMoreItems = children.hasNext();
+        String nextCursor = null;
+        if (hasMoreItems && last != null) {
+            nextCursor = indexed ? ((IndexedVirtualFile)last).getCursor() : String.valueOf(offset + items.size());
         }
         return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(children.size())
-                         .withHasMoreItems(children.hasNext());
+                         .withHasMoreItems(hasMoreItems).withNextCursor(nextCursor);
     }
 
     @Override
     public ItemList getChildren(String folderId, int maxItems, int skipCount, String itemType, boolean includePermissions)
             throws NotFoundException, ForbiddenException, ConflictException, ServerException {
-        return getChildren(folderId, maxItems, skipCount, itemType, includePermissions, PropertyFilter.ALL_FILTER);
+        return getChildren(folderId, maxItems, skipCount, null, itemType, includePermissions, PropertyFilter.ALL_FILTER);
     }
 
     @Path("tree/{id}")
@@ -361,6 +392,55 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         return getItemByPath(path, versionId, includePermissions, PropertyFilter.ALL_FILTER);
     }
 
+    @Path("items")
+    @Override
+    public Response getItems(List<String> items,
+                             @DefaultValue("false") @QueryParam("byPath") Boolean byPath,
+                             @DefaultValue("false") @QueryParam("includePermissions") Boolean includePermissions,
+                             @DefaultValue(PropertyFilter.ALL) @QueryParam("propertyFilter") PropertyFilter propertyFilter,
+                             @DefaultValue("0") @QueryParam("maxContentLength") long maxContentLength) throws ServerException {
+        final List<Item> found = new ArrayList<>(items.size());
+        final List<String> notFound = new ArrayList<>();
+        final List<OutputItem> multipart = new ArrayList<>();
+        for (String item : items) {
+            final VirtualFile virtualFile;
+            try {
+                virtualFile = byPath ? mountPoint.getVirtualFile(item) : mountPoint.getVirtualFileById(item);
+            } catch (NotFoundException | ForbiddenException e) {
+                notFound.add(item);
+                continue;
+            }
+            final ContentStream content;
+            try {
+                content = virtualFile.isFile() && virtualFile.getLength() <= maxContentLength ? virtualFile.getContent() : null;
+            } catch (ForbiddenException e) {
+                notFound.add(item);
+                continue;
+            }
+            found.add(fromVirtualFile(virtualFile, includePermissions, propertyFilter));
+            if (content != null) {
+                final String mediaType = content.getMimeType();
+                final OutputItem contentItem = OutputItem.create(virtualFile.getId(), content.getStream(),
+                                                                 mediaType == null ? MediaType.APPLICATION_OCTET_STREAM_TYPE
+                                                                                   : MediaType.valueOf(mediaType),
+                                                                 content.getFileName());
+                contentItem.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(content.getLength()));
+                multipart.add(contentItem);
+            }
+        }
+        final ItemList itemList = DtoFactory.getInstance().createDto(ItemList.class)
+                                            .withItems(found)
+                                            .withNumItems(found.size())
+                                            .withHasMoreItems(false);
+        multipart.add(0, OutputItem.create("items", itemList, MediaType.APPLICATION_JSON_TYPE));
+        if (!notFound.isEmpty()) {
+            multipart.add(1, OutputItem.create("not-found", notFound, MediaType.APPLICATION_JSON_TYPE));
+        }
+        final String boundary = NameGenerator.generate(null, 8);
+        return Response.ok(new GenericEntity<List<OutputItem>>(multipart) {
+        }, "multipart/form-data; boundary=" + boundary).build();
+    }
+
     @Path("version/{id}/{versionId}")
     @Override
     public ContentStream getVersion(@PathParam("id") String id, @PathParam("versionId") String versionId)
@@ -455,70 +535,96 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
                        List<ReplacementSet> replacements,
                        @QueryParam("lockToken") String lockToken)
             throws NotFoundException, ForbiddenException, ConflictException, ServerException {
-        VirtualFile projectRoot = mountPoint.getVirtualFile(path);
+        final VirtualFile projectRoot = mountPoint.getVirtualFile(path);
         if (!projectRoot.isFolder()) {
             throw new ConflictException("Given path must be an project root folder. ");
         }
-        final Map<String, ReplacementContainer> changesPerFile = new HashMap<>();
-        // fill changes matrix first
-        for (final ReplacementSet replacement : replacements) {
-            for (final String regex : replacement.getFiles()) {
-                Pattern pattern  = Pattern.compile(regex);
-                ItemNode rootNode = getTree(projectRoot.getId(), -1, false, PropertyFilter.ALL_FILTER);
-                LinkedList<ItemNode> q = new LinkedList<>();
-                q.add(rootNode);
-                while (!q.isEmpty()) {
-                    ItemNode node = q.pop();
-                    Item item = node.getItem();
-                    if (item.getItemType().equals(ItemType.FOLDER)) {
-                        q.addAll(node.getChildren());
-                    } else if (item.getItemType().equals(ItemType.FILE)) {
-                        // for cases like:  src/main/java/(.*)
-                        String itemInternalPath = item.getPath().substring(projectRoot.getPath().length() + 1);
-                        if (pattern.matcher(item.getName()).matches() || pattern.matcher(itemInternalPath).matches()) {
-                            ReplacementContainer container =
-                                    (changesPerFile.get(item.getPath()) != null) ? changesPerFile.get(item.getPath())
-                                                                                 : new ReplacementContainer();
-                            for (Variable variable : replacement.getEntries()) {
-                                String replaceMode  = variable.getReplacemode();
-                                if (replaceMode == null || "variable_singlepass".equals(replaceMode)) {
-                                    container.getVariableProps().put(variable.getFind(), variable.getReplace());
-                                } else if ("text_multipass".equals(replaceMode)) {
-                                    container.getTextProps().put(variable.getFind(), variable.getReplace());
-                                }
-                            }
-                            changesPerFile.put(item.getPath(), container);
-                        }
-                    }
-                }
+        // Compile all expressions once.
+        final List<Pair<Pattern, ReplacementSet>> expressions = new ArrayList<>();
+        for (ReplacementSet replacement : replacements) {
+            for (String regex : replacement.getFiles()) {
+                expressions.add(Pair.of(Pattern.compile(regex), replacement));
             }
         }
-        //now apply changes matrix
-        for (Map.Entry<String, ReplacementContainer> entry : changesPerFile.entrySet()) {
-            try {
-                if (entry.getValue().hasReplacements()) {
-                    ContentStream cs = mountPoint.getVirtualFile(entry.getKey()).getContent();
-                    String content = IoUtil.readAndCloseQuietly(cs.getStream());
-                    String modified =
-                            Deserializer.resolveVariables(content, entry.getValue().getVariableProps(), false);
-                    for (Map.Entry<String, String> replacement : entry.getValue().getTextProps().entrySet()) {
-                        if (modified.contains(replacement.getKey())) {
-                            modified = modified.replace(replacement.getKey(), replacement.getValue());
+        // Files matched by the same expressions share replacer.
+        final Map<String, TextReplacer> replacers = new HashMap<>();
+        final int rootPathLength = projectRoot.getPath().length() + 1;
+        // Subscribers get one event for all updated files.
+        try (VirtualFileEventBuffer ignored = VirtualFileEventBuffer.begin(mountPoint.getEventService())) {
+            // Walk the tree once, for each file find all expressions that match it and apply all replacements together.
+            final LinkedList<VirtualFile> q = new LinkedList<>();
+            q.add(projectRoot);
+            while (!q.isEmpty()) {
+                final LazyIterator<VirtualFile> children = q.pop().getChildren(VirtualFileFilter.ALL);
+                while (children.hasNext()) {
+                    final VirtualFile child = children.next();
+                    if (child.isFolder()) {
+                        q.add(child);
+                        continue;
+                    }
+                    // for cases like:  src/main/java/(.*)
+                    final String name = child.getName();
+                    final String relPath = child.getPath().substring(rootPathLength);
+                    final StringBuilder key = new StringBuilder();
+                    for (int i = 0, size = expressions.size(); i < size; i++) {
+                        final Pattern pattern = expressions.get(i).first;
+                        if (pattern.matcher(name).matches() || pattern.matcher(relPath).matches()) {
+                            key.append(i).append(',');
                         }
                     }
-                    //better to compare big strings by hash codes first
-                    if (!(content.hashCode() == modified.hashCode()) || !content.equals(modified)) {
-                        mountPoint.getVirtualFile(entry.getKey())
-                                  .updateContent(new ByteArrayInputStream(modified.getBytes(
-                                          StandardCharsets.UTF_8)), lockToken);
+                    if (key.length() == 0) {
+                        continue;
+                    }
+                    TextReplacer replacer = replacers.get(key.toString());
+                    if (replacer == null) {
+                        replacers.put(key.toString(), replacer = createReplacer(expressions, key.toString()));
+                    }
+                    if (!replacer.isEmpty()) {
+                        replace(child, replacer, lockToken);
                     }
                 }
-            } catch (IOException e) {
-                //LOG.warn(e.getMessage(), e);
             }
         }
     }
 
+    /** Merges replacements of expressions which indexes are listed in {@code key}. Latest expression wins for the same text. */
+    private static TextReplacer createReplacer(List<Pair<Pattern, ReplacementSet>> expressions, String key) {
+        final ReplacementContainer container = new ReplacementContainer();
+        for (String index : key.split(",")) {
+            for (Variable variable : expressions.get(Integer.parseInt(index)).second.getEntries()) {
+                final String replaceMode = variable.getReplacemode();
+                if (replaceMode == null || "variable_singlepass".equals(replaceMode)) {
+                    container.getVariableProps().put(variable.getFind(), variable.getReplace());
+                } else if ("text_multipass".equals(replaceMode)) {
+                    container.getTextProps().put(variable.getFind(), variable.getReplace());
+                }
+            }
+        }
+        return new TextReplacer(container.getVariableProps(), container.getTextProps());
+    }
+
+    private static void replace(VirtualFile file, TextReplacer replacer, String lockToken) throws ForbiddenException, ServerException {
+        final String content;
+        try {
+            // Most of files don't contain anything to replace, check them without reading whole content in memory.
+            try (InputStream in = file.getContent().getStream()) {
+                if (!replacer.mayReplace(in)) {
+                    return;
+                }
+            }
+            try (InputStream in = file.getContent().getStream()) {
+                content = new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        final String modified = replacer.replace(content);
+        // null if nothing is replaced
+        if (modified != null && !modified.equals(content)) {
+            file.updateContent(new ByteArrayInputStream(modified.getBytes(StandardCharsets.UTF_8)), lockToken);
+        }
+    }
+
     @Consumes({MediaType.APPLICATION_FORM_URLENCODED})
     @Override
     public ItemList search(MultivaluedMap<String, String> query,
@@ -530,30 +636,51 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
             if (skipCount < 0) {
                 throw new ConflictException("'skipCount' parameter is negative. ");
             }
+            // Cursor and sort order are passed together with other parameters of query, 'sortBy' is one of 'relevance', 'path', 'name'.
+            // 'nameMatch' is one of 'wildcard', 'substring', 'fuzzy'.
+            final String cursor = query.getFirst("cursor");
+            final String sortBy = query.getFirst("sortBy");
+            final String nameMatch = query.getFirst("nameMatch");
             final QueryExpression expr = new QueryExpression()
                     .setPath(query.getFirst("path"))
                     .setName(query.getFirst("name"))
                     .setMediaType(query.getFirst("mediaType"))
-                    .setText(query.getFirst("text"));
-
-            final String[] result = searcherProvider.getSearcher(mountPoint, true).search(expr);
-            if (skipCount > 0) {
-                if (skipCount > result.length) {
-                    throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
+                    .setText(query.getFirst("text"))
+                    .setSkipCount(skipCount)
+                    .setMaxItems(maxItems)
+                    .setCursor(cursor);
+            if (sortBy != null) {
+                try {
+                    expr.setSortBy(QueryExpression.SortBy.valueOf(sortBy.toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    throw new ConflictException(String.format("Unsupported sort order: %s. ", sortBy));
+                }
+            }
+            if (nameMatch != null) {
+                try {
+                    expr.setNameMatch(QueryExpression.NameMatch.valueOf(nameMatch.toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    throw new ConflictException(String.format("Unsupported name match: %s. ", nameMatch));
                 }
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<Item> items = new ArrayList<>(length);
-            for (int i = skipCount; i < length; i++) {
-                String path = result[i];
+
+            final SearchResult result = searcherProvider.getSearcher(mountPoint, true).search(expr);
+            if (cursor == null && skipCount > 0 && skipCount > result.getTotalHits()) {
+                throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
+            }
+            final String[] paths = result.getPaths();
+            final List<Item> items = new ArrayList<>(paths.length);
+            for (String path : paths) {
                 try {
                     items.add(fromVirtualFile(mountPoint.getVirtualFile(path), false, propertyFilter));
                 } catch (NotFoundException | ForbiddenException ignored) {
                 }
             }
 
-            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(result.length)
-                             .withHasMoreItems(length < result.length);
+            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items)
+                             .withNumItems(cursor == null ? result.getTotalHits() : -1)
+                             .withHasMoreItems(result.getNextCursor() != null)
+                             .withNextCursor(result.getNextCursor());
         }
         throw new ServerException("Not supported. ");
     }
@@ -659,7 +786,10 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         final List<OutputItem> multipart = new LinkedList<>();
         // String name, Object entity, MediaType mediaType, String fileName
         final OutputItem updates = OutputItem.create("updates", zip.getStream(), MediaType.valueOf("application/zip"), zip.getFileName());
-        updates.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        if (zip.getLength() >= 0) {
+            // zip may be streamed while it is created, its length is unknown in this case
+            updates.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
         multipart.add(updates);
 
         if (!deleted.isEmpty()) {
@@ -685,8 +815,10 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         final Response.ResponseBuilder responseBuilder = Response
                 .ok(zip.getStream(), zip.getMimeType())
                 .lastModified(zip.getLastModificationDate())
-                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()))
                 .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"');
+        if (zip.getLength() >= 0) {
+            responseBuilder.header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
         if (!deleted.isEmpty()) {
             final StringBuilder buff = new StringBuilder();
             for (String str : deleted) {
@@ -700,6 +832,46 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         return responseBuilder.build();
     }
 
+    @Path("hashes/{folderId}")
+    @Override
+    public Response getHashes(@PathParam("folderId") String folderId, @Context Request request)
+            throws NotFoundException, ForbiddenException, ServerException {
+        return getHashes(mountPoint.getVirtualFileById(folderId), request);
+    }
+
+    // For usage from Project API.
+    public static Response getHashes(VirtualFile folder, Request request) throws ForbiddenException, ServerException {
+        if (!folder.isFolder()) {
+            throw new ForbiddenException(String.format("Unable get hashes. Item '%s' is not a folder. ", folder.getPath()));
+        }
+        final String folderHash = getHash(folder);
+        final EntityTag entityTag = folderHash == null ? null : new EntityTag(folderHash);
+        if (entityTag != null && request != null) {
+            final Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+            if (notModified != null) {
+                return notModified.build();
+            }
+        }
+        final StringBuilder body = new StringBuilder();
+        final LazyIterator<VirtualFile> children = folder.getChildren(VirtualFileFilter.ALL);
+        while (children.hasNext()) {
+            final VirtualFile child = children.next();
+            final String hash = getHash(child);
+            if (hash != null) {
+                body.append(hash).append(' ').append(child.getName());
+                if (child.isFolder()) {
+                    body.append('/');
+                }
+                body.append('\n');
+            }
+        }
+        final Response.ResponseBuilder responseBuilder = Response.ok(body.toString(), MediaType.TEXT_PLAIN_TYPE);
+        if (entityTag != null) {
+            responseBuilder.tag(entityTag);
+        }
+        return responseBuilder.build();
+    }
+
     // For usage from Project API.
     protected static ContentStream exportZip(VirtualFile folder, InputStream in, List<String> deleted)
             throws ForbiddenException, ServerException {
@@ -723,77 +895,117 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         if (remote.isEmpty()) {
             return folder.zip(VirtualFileFilter.ALL);
         }
-        final LazyIterator<Pair<String, String>> md5Sums = folder.countMd5Sums();
-        final int size = md5Sums.size();
-        final List<Pair<String, String>> local =
-                size > 0 ? new ArrayList<Pair<String, String>>(size) : new ArrayList<Pair<String, String>>();
-        while (md5Sums.hasNext()) {
-            local.add(md5Sums.next());
-        }
-        final Comparator<Pair<String, String>> comp = new Comparator<Pair<String, String>>() {
-            @Override
-            public int compare(Pair<String, String> o1, Pair<String, String> o2) {
-                return o1.second.compareTo(o2.second);
-            }
-        };
-        Collections.sort(remote, comp);
-        Collections.sort(local, comp);
-        int remoteIndex = 0;
-        int localIndex = 0;
-        final List<Pair<String, com.codenvy.api.vfs.server.Path>> diff = new LinkedList<>();
-        while (remoteIndex < remote.size() && localIndex < local.size()) {
-            final Pair<String, String> remoteItem = remote.get(remoteIndex);
-            final Pair<String, String> localItem = local.get(localIndex);
-            // compare path
-            int r = remoteItem.second.compareTo(localItem.second);
-            if (r == 0) {
-                // remote and local file exist, compare md5sum
-                if (!remoteItem.first.equals(localItem.first)) {
-                    diff.add(Pair.of(remoteItem.second, folder.getVirtualFilePath().newPath(localItem.second)));
-                }
-                remoteIndex++;
-                localIndex++;
-            } else if (r > 0) {
-                // new file
-                diff.add(Pair.of((String)null, folder.getVirtualFilePath().newPath(localItem.second)));
-                localIndex++;
-            } else {
-                // deleted file
-                diff.add(Pair.of(remoteItem.second, (com.codenvy.api.vfs.server.Path)null));
-                remoteIndex++;
-            }
-        }
-        while (remoteIndex < remote.size()) {
-            diff.add(Pair.of(remote.get(remoteIndex++).second, (com.codenvy.api.vfs.server.Path)null));
-        }
-        while (localIndex < local.size()) {
-            diff.add(Pair.of((String)null, folder.getVirtualFilePath().newPath(local.get(localIndex++).second)));
+        final HashTree remoteTree = HashTree.fromMd5Sums(remote);
+        final String remoteHash = remoteTree.getHash();
+        if (remoteHash != null && remoteHash.equals(getHash(folder))) {
+            // Hashes of root folders are the same, nothing changed.
+            return null;
         }
-
-        if (diff.isEmpty()) {
+        final Set<com.codenvy.api.vfs.server.Path> changed = new HashSet<>();
+        deleted.clear();
+        diff(folder, remoteTree, "", changed, deleted);
+        if (changed.isEmpty() && deleted.isEmpty()) {
             return null;
         }
-
-        final ContentStream zip = folder.zip(new VirtualFileFilter() {
+        // Need to accept parents of changed items to be able to get to them when archive is created.
+        final Set<com.codenvy.api.vfs.server.Path> parents = new HashSet<>();
+        final com.codenvy.api.vfs.server.Path folderPath = folder.getVirtualFilePath();
+        for (com.codenvy.api.vfs.server.Path path : changed) {
+            com.codenvy.api.vfs.server.Path parent = path.getParent();
+            while (parent.isChild(folderPath) && parents.add(parent)) {
+                parent = parent.getParent();
+            }
+        }
+        return folder.zip(new VirtualFileFilter() {
             @Override
             public boolean accept(VirtualFile file) {
-                for (Pair<String, com.codenvy.api.vfs.server.Path> pair : diff) {
-                    if (pair.second != null
-                        && (pair.second.equals(file.getVirtualFilePath()) || pair.second.isChild(file.getVirtualFilePath()))) {
+                final com.codenvy.api.vfs.server.Path path = file.getVirtualFilePath();
+                if (parents.contains(path)) {
+                    return true;
+                }
+                for (com.codenvy.api.vfs.server.Path current = path; current != null && current.isChild(folderPath);
+                     current = current.getParent()) {
+                    if (changed.contains(current)) {
                         return true;
                     }
                 }
                 return false;
             }
         });
+    }
 
-        deleted.clear();
-        for (Pair<String, com.codenvy.api.vfs.server.Path> pair : diff) {
-            if (pair.first != null && pair.second == null) {
-                deleted.add(pair.first);
+    /**
+     * Compares local folder with its remote copy top-down. Descends only into subfolders which hashes don't match, so subtrees that are
+     * not changed are skipped at cost of comparison of one hash.
+     *
+     * @param local
+     *         local folder
+     * @param remote
+     *         remote copy of folder
+     * @param relPath
+     *         path of folder relative to the root of comparison, empty string or path that ends with '/'
+     * @param changed
+     *         paths of new and updated local items. Folder is added as whole if there is no remote copy of it.
+     * @param deleted
+     *         paths of remote files that don't exist locally, relative to the root of comparison
+     */
+    private static void diff(VirtualFile local, HashTree remote, String relPath, Set<com.codenvy.api.vfs.server.Path> changed,
+                             List<String> deleted) throws ForbiddenException, ServerException {
+        final Set<String> localNames = new HashSet<>();
+        final LazyIterator<VirtualFile> children = local.getChildren(VirtualFileFilter.ALL);
+        while (children.hasNext()) {
+            final VirtualFile child = children.next();
+            final String name = child.isFolder() ? (child.getName() + '/') : child.getName();
+            localNames.add(name);
+            final HashTree remoteChild = remote.getChild(name);
+            final String hash = getHash(child);
+            if (child.isFile()) {
+                if (remoteChild == null || hash == null || !hash.equals(remoteChild.getHash())) {
+                    changed.add(child.getVirtualFilePath());
+                }
+            } else if (remoteChild == null) {
+                // Folders without files are not sent by client, see VirtualFile.countMd5Sums().
+                if (hash != null) {
+                    changed.add(child.getVirtualFilePath());
+                }
+            } else if (hash == null || !hash.equals(remoteChild.getHash())) {
+                diff(child, remoteChild, relPath + name, changed, deleted);
             }
         }
-        return zip;
+        for (Map.Entry<String, HashTree> e : remote.getChildren().entrySet()) {
+            if (!localNames.contains(e.getKey())) {
+                if (e.getValue().isFolder()) {
+                    e.getValue().collectFiles(relPath + e.getKey(), deleted);
+                } else {
+                    deleted.add(relPath + e.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets hash of item as described in {@link IndexedVirtualFile#getHash()}. If item doesn't keep its hash, hash is calculated from
+     * content of file or from md5sums of all files in folder.
+     */
+    private static String getHash(VirtualFile file) throws ForbiddenException, ServerException {
+        if (file instanceof IndexedVirtualFile) {
+            return ((IndexedVirtualFile)file).getHash();
+        }
+        if (file.isFile()) {
+            final Hasher hasher = Hashing.md5().newHasher();
+            try (InputStream in = file.getContent().getStream()) {
+                ByteStreams.copy(in, Funnels.asOutputStream(hasher));
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+            return hasher.hash().toString();
+        }
+        final List<Pair<String, String>> md5Sums = new ArrayList<>();
+        final LazyIterator<Pair<String, String>> files = file.countMd5Sums();
+        while (files.hasNext()) {
+            md5Sums.add(files.next());
+        }
+        return HashTree.fromMd5Sums(md5Sums).getHash();
     }
 
     @Path("import/{parentId}")
@@ -896,12 +1108,14 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
     @Override
     public Response downloadZip(@PathParam("folderId") String folderId) throws NotFoundException, ForbiddenException, ServerException {
         final ContentStream zip = exportZip(folderId);
-        return Response //
+        final Response.ResponseBuilder responseBuilder = Response //
                 .ok(zip.getStream(), zip.getMimeType()) //
                 .lastModified(zip.getLastModificationDate()) //
-                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength())) //
-                .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"') //
-                .build();
+                .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"');
+        if (zip.getLength() >= 0) {
+            responseBuilder.header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
+        return responseBuilder.build();
     }
 
     @Path("uploadzip/{parentId}")
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.impl.memory;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Content-addressed store of content of files of in-memory virtual file system. Files with the same content share one copy of it. By
+ * default each mount point has own store, so content is never shared between workspaces. Content is looked up by its md5sum, but it is
+ * shared only if bytes are equal too, content with colliding md5sum is stored separately. Each copy of content has counter of files which
+ * refer to it, copy is removed from store when the last file releases it. Content which size is over threshold is kept in direct byte buffers out of
+ * java heap, so big files don't increase amount of memory that garbage collector must walk through.
+ * <p/>
+ * Released content is not destroyed, it just may not be shared anymore. Memory of content is freed when nothing refers to it.
+ *
+ * @author andrew00x
+ */
+public final class MemoryContentStore {
+    /** Content over this size is stored out of java heap. */
+    public static final int DEFAULT_OFF_HEAP_THRESHOLD = 16 * 1024; // 16k
+
+    /** Content of file. Content is never modified. */
+    public static final class Blob {
+        private final String        hash;
+        private final ByteBuffer    data;
+        private final AtomicInteger references;
+
+        private Blob(String hash, ByteBuffer data) {
+            this.hash = hash;
+            this.data = data;
+            this.references = new AtomicInteger(1);
+        }
+
+        /** Gets md5sum of content. */
+        public String getHash() {
+            return hash;
+        }
+
+        public int getLength() {
+            return data.capacity();
+        }
+
+        /** Opens new stream to read content. */
+        public InputStream openStream() {
+            return new ByteBufferInputStream(data.duplicate());
+        }
+
+        /** Adds reference to this content. Returns {@code false} if content is already released by all files. */
+        private boolean retain() {
+            for (; ; ) {
+                final int current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private boolean contentEquals(byte[] content) {
+            return data.equals(ByteBuffer.wrap(content));
+        }
+
+        /** Removes reference to this content. Returns {@code true} if this is the last reference. */
+        private boolean release() {
+            return references.decrementAndGet() == 0;
+        }
+    }
+
+    private final ConcurrentMap<String, Blob> blobs;
+    private final int                         offHeapThreshold;
+
+    /**
+     * @param offHeapThreshold
+     *         content over this size is kept out of java heap
+     */
+    public MemoryContentStore(int offHeapThreshold) {
+        if (offHeapThreshold < 0) {
+            throw new IllegalArgumentException(String.format("Invalid off-heap threshold: %d", offHeapThreshold));
+        }
+        this.offHeapThreshold = offHeapThreshold;
+        blobs = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Puts content in store. If store already contains the same content it is shared, otherwise content is copied. If store contains
+     * different content with the same md5sum new content is not shared with any other file. Caller must not modify {@code content} after
+     * call of this method and must call {@link #release(Blob)} when content is not used anymore.
+     *
+     * @param content
+     *         content
+     * @param hash
+     *         md5sum of content
+     * @return stored content
+     */
+    public Blob put(byte[] content, String hash) {
+        for (; ; ) {
+            Blob blob = blobs.get(hash);
+            if (blob == null) {
+                final Blob newBlob = new Blob(hash, toBuffer(content));
+                blob = blobs.putIfAbsent(hash, newBlob);
+                if (blob == null) {
+                    return newBlob;
+                }
+            }
+            if (!blob.contentEquals(content)) {
+                // md5sum collision, don't let this content be replaced by the stored one
+                return new Blob(hash, toBuffer(content));
+            }
+            if (blob.retain()) {
+                return blob;
+            }
+            // Content is released by the last file but isn't removed from store yet.
+            blobs.remove(hash, blob);
+        }
+    }
+
+    /**
+     * Adds one more reference to content which is already stored. Caller must call {@link #release(Blob)} when content is not used
+     * anymore.
+     */
+    public Blob retain(Blob blob) {
+        if (blob.retain()) {
+            return blob;
+        }
+        // Content is released already, put it in store again.
+        final byte[] content = new byte[blob.getLength()];
+        blob.data.duplicate().get(content);
+        return put(content, blob.hash);
+    }
+
+    /** Removes reference to the content. Content is removed from store when the last reference is removed. */
+    public void release(Blob blob) {
+        if (blob.release()) {
+            blobs.remove(blob.hash, blob);
+        }
+    }
+
+    /** Gets number of different contents in store. */
+    public int size() {
+        return blobs.size();
+    }
+
+    private ByteBuffer toBuffer(byte[] content) {
+        if (content.length > offHeapThreshold) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content);
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        }
+        return ByteBuffer.wrap(content).asReadOnlyBuffer();
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        private       int        mark;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            final int skipped = (int)Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            mark = buffer.position();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.position(mark);
+        }
+    }
+}
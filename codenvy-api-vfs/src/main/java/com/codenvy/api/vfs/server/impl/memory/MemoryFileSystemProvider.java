@@ -23,12 +23,17 @@ import com.codenvy.api.vfs.server.search.Searcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Named;
 import java.net.URI;
+import java.util.zip.Deflater;
 
 /** @author andrew00x */
 public class MemoryFileSystemProvider extends VirtualFileSystemProvider {
     private static final Logger LOG = LoggerFactory.getLogger(MemoryFileSystemProvider.class);
 
+    /** Name of optional setting of compression level from 0 to 9 that is used for export of folders to zip archive. */
+    public static final String ZIP_COMPRESSION_LEVEL = "vfs.memory.zip_compression_level";
+
     public static class SimpleLuceneSearcherProvider extends LuceneSearcherProvider {
         MemoryLuceneSearcher searcher;
 
@@ -48,16 +53,30 @@ public class MemoryFileSystemProvider extends VirtualFileSystemProvider {
     private final SimpleLuceneSearcherProvider searcherProvider;
     private final VirtualFileSystemRegistry    vfsRegistry;
 
+    @com.google.inject.Inject(optional = true)
+    @Named(ZIP_COMPRESSION_LEVEL)
+    private int zipCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
     private MemoryMountPoint memoryMountPoint;
 
+    /**
+     * @param zipCompressionLevel
+     *         compression level from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION} that is used for export of folders to zip archive
+     */
     public MemoryFileSystemProvider(String workspaceId, EventService eventService, VirtualFileSystemUserContext userContext,
-                                    VirtualFileSystemRegistry vfsRegistry) {
+                                    VirtualFileSystemRegistry vfsRegistry, int zipCompressionLevel) {
         super(workspaceId);
         this.workspaceId = workspaceId;
         this.eventService = eventService;
         this.userContext = userContext;
         searcherProvider = new SimpleLuceneSearcherProvider();
         this.vfsRegistry = vfsRegistry;
+        this.zipCompressionLevel = zipCompressionLevel;
+    }
+
+    public MemoryFileSystemProvider(String workspaceId, EventService eventService, VirtualFileSystemUserContext userContext,
+                                    VirtualFileSystemRegistry vfsRegistry) {
+        this(workspaceId, eventService, userContext, vfsRegistry, Deflater.DEFAULT_COMPRESSION);
     }
 
     public MemoryFileSystemProvider(String workspaceId, EventService eventService, VirtualFileSystemRegistry vfsRegistry) {
@@ -79,7 +98,7 @@ public class MemoryFileSystemProvider extends VirtualFileSystemProvider {
     @Override
     public MountPoint getMountPoint(boolean create) throws ServerException {
         if (memoryMountPoint == null && create) {
-            memoryMountPoint = new MemoryMountPoint(workspaceId, eventService, searcherProvider, userContext);
+            memoryMountPoint = new MemoryMountPoint(workspaceId, eventService, searcherProvider, userContext, zipCompressionLevel);
         }
         return memoryMountPoint;
     }
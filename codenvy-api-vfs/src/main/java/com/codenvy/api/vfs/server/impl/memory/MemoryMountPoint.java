@@ -27,11 +27,13 @@ import com.codenvy.api.vfs.shared.dto.VirtualFileSystemInfo;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
 
 /**
  * In-memory implementation of MountPoint.
  * <p/>
- * NOTE: This implementation is not thread safe.
+ * This implementation is thread safe, see {@link MemoryVirtualFile} about locking of items.
  *
  * @author andrew00x
  */
@@ -42,22 +44,59 @@ public class MemoryMountPoint implements MountPoint {
     private final VirtualFileSystemUserContext userContext;
     private final Map<String, VirtualFile>     entries;
     private final VirtualFile                  root;
+    private final int                          zipCompressionLevel;
+    private final MemoryContentStore           contentStore;
 
+    /**
+     * @param zipCompressionLevel
+     *         compression level from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION} that is used for export of folders to zip archive
+     * @param contentStore
+     *         store of content of files, mount points that use the same store share the same content of files. Store should not be shared
+     *         between mount points of different workspaces
+     */
     public MemoryMountPoint(String workspaceId, EventService eventService, SearcherProvider searcherProvider,
-                            VirtualFileSystemUserContext userContext) {
+                            VirtualFileSystemUserContext userContext, int zipCompressionLevel, MemoryContentStore contentStore) {
+        if ((zipCompressionLevel < 0 || zipCompressionLevel > 9) && zipCompressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException(String.format("Invalid compression level: %d", zipCompressionLevel));
+        }
         this.workspaceId = workspaceId;
         this.eventService = eventService;
         this.searcherProvider = searcherProvider;
         this.userContext = userContext;
-        entries = new HashMap<>();
+        this.zipCompressionLevel = zipCompressionLevel;
+        this.contentStore = contentStore;
+        entries = new ConcurrentHashMap<>();
         root = new MemoryVirtualFile(this);
     }
 
+    /**
+     * @param zipCompressionLevel
+     *         compression level from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION} that is used for export of folders to zip archive
+     */
+    public MemoryMountPoint(String workspaceId, EventService eventService, SearcherProvider searcherProvider,
+                            VirtualFileSystemUserContext userContext, int zipCompressionLevel) {
+        this(workspaceId, eventService, searcherProvider, userContext, zipCompressionLevel,
+             new MemoryContentStore(MemoryContentStore.DEFAULT_OFF_HEAP_THRESHOLD));
+    }
+
+    public MemoryMountPoint(String workspaceId, EventService eventService, SearcherProvider searcherProvider,
+                            VirtualFileSystemUserContext userContext) {
+        this(workspaceId, eventService, searcherProvider, userContext, Deflater.DEFAULT_COMPRESSION);
+    }
+
     @Override
     public String getWorkspaceId() {
         return workspaceId;
     }
 
+    public int getZipCompressionLevel() {
+        return zipCompressionLevel;
+    }
+
+    public MemoryContentStore getContentStore() {
+        return contentStore;
+    }
+
     @Override
     public VirtualFile getRoot() {
         return root;
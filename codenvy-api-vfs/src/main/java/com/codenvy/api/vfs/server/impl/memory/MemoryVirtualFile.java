@@ -16,6 +16,7 @@ import com.codenvy.api.core.ServerException;
 import com.codenvy.api.core.util.ContentTypeGuesser;
 import com.codenvy.api.core.util.ValueHolder;
 import com.codenvy.api.vfs.server.ContentStream;
+import com.codenvy.api.vfs.server.IndexedVirtualFile;
 import com.codenvy.api.vfs.server.LazyIterator;
 import com.codenvy.api.vfs.server.MountPoint;
 import com.codenvy.api.vfs.server.Path;
@@ -30,9 +31,13 @@ import com.codenvy.api.vfs.server.observation.RenameEvent;
 import com.codenvy.api.vfs.server.observation.UpdateACLEvent;
 import com.codenvy.api.vfs.server.observation.UpdateContentEvent;
 import com.codenvy.api.vfs.server.observation.UpdatePropertiesEvent;
+import com.codenvy.api.vfs.server.observation.VirtualFileEvent;
+import com.codenvy.api.vfs.server.observation.VirtualFileEventBuffer;
+import com.codenvy.api.vfs.server.search.Searcher;
 import com.codenvy.api.vfs.server.search.SearcherProvider;
-import com.codenvy.api.vfs.server.util.NotClosableInputStream;
+import com.codenvy.api.vfs.server.util.HashTree;
 import com.codenvy.api.vfs.server.util.ZipContent;
+import com.codenvy.api.vfs.server.util.ZipExportInputStream;
 import com.codenvy.api.vfs.shared.PropertyFilter;
 import com.codenvy.api.vfs.shared.dto.AccessControlEntry;
 import com.codenvy.api.vfs.shared.dto.Folder;
@@ -43,20 +48,15 @@ import com.codenvy.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
 import com.codenvy.commons.lang.NameGenerator;
 import com.codenvy.commons.lang.Pair;
 import com.codenvy.dto.server.DtoFactory;
-import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
-import com.google.common.io.InputSupplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -67,29 +67,44 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 /**
  * In-memory implementation of VirtualFile.
  * <p/>
- * NOTE: This implementation is not thread safe.
+ * This implementation is thread safe. Each item has its own read-write lock. Changes of item and changes of set of children of folder
+ * are done under write lock of item. Content of file, permissions and values of properties are never modified, they are replaced on
+ * update, so they are read without locking. Changes of tree that affect two folders, e.g. move, lock both folders in order of their ids.
  *
  * @author andrew00x
  */
-public class MemoryVirtualFile implements VirtualFile {
+public class MemoryVirtualFile implements IndexedVirtualFile {
     private static final Logger  LOG    = LoggerFactory.getLogger(MemoryVirtualFile.class);
     private static final boolean FILE   = false;
     private static final boolean FOLDER = true;
 
     private static MemoryVirtualFile newFile(MemoryVirtualFile parent, String name, InputStream content, String mediaType)
             throws IOException {
-        return new MemoryVirtualFile(parent, ObjectIdGenerator.generateId(), name, content, mediaType);
+        return newFile(parent, name, content == null ? new byte[0] : ByteStreams.toByteArray(content), null, mediaType);
+    }
+
+    private static MemoryVirtualFile newFile(MemoryVirtualFile parent, String name, byte[] content, String contentHash,
+                                             String mediaType) {
+        final String hash = contentHash == null ? Hashing.md5().hashBytes(content).toString() : contentHash;
+        return newFile(parent, name, parent.mountPoint.getContentStore().put(content, hash), mediaType);
     }
 
-    private static MemoryVirtualFile newFile(MemoryVirtualFile parent, String name, byte[] content, String mediaType) {
+    private static MemoryVirtualFile newFile(MemoryVirtualFile parent, String name, MemoryContentStore.Blob content, String mediaType) {
         return new MemoryVirtualFile(parent, ObjectIdGenerator.generateId(), name, content, mediaType);
     }
 
@@ -104,36 +119,42 @@ public class MemoryVirtualFile implements VirtualFile {
     private final Map<String, List<String>> properties;
     private final long                      creationDate;
     private final Map<String, VirtualFile>  children;
+    /** Children of folder in order in which they are returned by getChildren, see {@link #getCursor()}. */
+    private final NavigableMap<String, VirtualFile> sortedChildren;
     private final MemoryMountPoint          mountPoint;
-
-    private String                      name;
-    private MemoryVirtualFile           parent;
-    private byte[]                      content;
-    private long                        lastModificationDate;
-    private LockHolder                  lock;
-    private Map<Principal, Set<String>> permissionsMap;
-    private boolean exists = true;
+    private final ReadWriteLock             rwLock;
+    /** Counter of changes of subtree of folder. It is used for checking whether cached hash of folder is still valid. */
+    private final AtomicLong                treeModifications;
+
+    private volatile String                      name;
+    private volatile MemoryVirtualFile           parent;
+    /** Content of file, it is shared with other files that have the same content, see {@link MemoryContentStore}. */
+    private volatile MemoryContentStore.Blob     content;
+    private volatile long                        lastModificationDate;
+    private volatile LockHolder                  lock;
+    private volatile Map<Principal, Set<String>> permissionsMap;
+    private volatile boolean exists = true;
+    /** Cached hash of folder. */
+    private volatile FolderHash                  folderHash;
 
     // --- File ---
-    private MemoryVirtualFile(MemoryVirtualFile parent, String id, String name, InputStream content, String mediaType)
-            throws IOException {
-        this(parent, id, name, content == null ? null : ByteStreams.toByteArray(content), mediaType);
-    }
-
-    private MemoryVirtualFile(MemoryVirtualFile parent, String id, String name, byte[] content, String mediaType) {
+    private MemoryVirtualFile(MemoryVirtualFile parent, String id, String name, MemoryContentStore.Blob content, String mediaType) {
         this.mountPoint = (MemoryMountPoint)parent.getMountPoint();
         this.parent = parent;
         this.type = FILE;
         this.id = id;
         this.name = name;
-        this.permissionsMap = new HashMap<>();
-        this.properties = new HashMap<>();
+        this.permissionsMap = Collections.emptyMap();
+        this.properties = new ConcurrentHashMap<>();
         this.creationDate = this.lastModificationDate = System.currentTimeMillis();
-        this.content = content == null ? new byte[0] : content;
+        this.rwLock = new ReentrantReadWriteLock();
+        this.treeModifications = null;
+        this.content = content;
         if (mediaType != null) {
             setMediaType(mediaType);
         }
         children = Collections.emptyMap();
+        sortedChildren = null;
     }
 
     // -- Folder ---
@@ -143,10 +164,13 @@ public class MemoryVirtualFile implements VirtualFile {
         this.type = FOLDER;
         this.id = id;
         this.name = name;
-        this.permissionsMap = new HashMap<>();
-        this.properties = new HashMap<>();
+        this.permissionsMap = Collections.emptyMap();
+        this.properties = new ConcurrentHashMap<>();
         this.creationDate = this.lastModificationDate = System.currentTimeMillis();
-        children = new HashMap<>();
+        this.rwLock = new ReentrantReadWriteLock();
+        this.treeModifications = new AtomicLong();
+        children = new ConcurrentHashMap<>();
+        sortedChildren = new ConcurrentSkipListMap<>();
     }
 
     /* root folder */ MemoryVirtualFile(MountPoint mountPoint) {
@@ -154,7 +178,7 @@ public class MemoryVirtualFile implements VirtualFile {
         this.type = FOLDER;
         this.id = ObjectIdGenerator.generateId();
         this.name = "";
-        this.permissionsMap = new HashMap<>();
+        final Map<Principal, Set<String>> permissionsMap = new HashMap<>(2);
         final Principal groupPrincipal = DtoFactory.getInstance().createDto(Principal.class);
         groupPrincipal.setName("workspace/developer");
         groupPrincipal.setType(Principal.Type.GROUP);
@@ -163,13 +187,17 @@ public class MemoryVirtualFile implements VirtualFile {
 
         final Set<String> groupPermissions = new HashSet<>(4);
         groupPermissions.add(BasicPermissions.ALL.value());
-        this.permissionsMap.put(groupPrincipal, groupPermissions);
+        permissionsMap.put(groupPrincipal, groupPermissions);
         final Set<String> anyPermissions = new HashSet<>(4);
         anyPermissions.add(BasicPermissions.READ.value());
-        this.permissionsMap.put(anyPrincipal, anyPermissions);
-        this.properties = new HashMap<>();
+        permissionsMap.put(anyPrincipal, anyPermissions);
+        this.permissionsMap = permissionsMap;
+        this.properties = new ConcurrentHashMap<>();
         this.creationDate = this.lastModificationDate = System.currentTimeMillis();
-        children = new HashMap<>();
+        this.rwLock = new ReentrantReadWriteLock();
+        this.treeModifications = new AtomicLong();
+        children = new ConcurrentHashMap<>();
+        sortedChildren = new ConcurrentSkipListMap<>();
     }
 
     @Override
@@ -275,7 +303,7 @@ public class MemoryVirtualFile implements VirtualFile {
         if (mediaType == null) {
             properties.remove("vfs:mimeType");
         } else {
-            properties.put("vfs:mimeType", Arrays.asList(mediaType));
+            properties.put("vfs:mimeType", Collections.singletonList(mediaType));
         }
         return this;
     }
@@ -285,12 +313,24 @@ public class MemoryVirtualFile implements VirtualFile {
         if (!hasPermission(BasicPermissions.UPDATE_ACL.value(), true)) {
             throw new ForbiddenException(String.format("Unable update ACL for '%s'. Operation not permitted. ", getPath()));
         }
-        if (isFile() && !validateLockTokenIfLocked(lockToken)) {
-            throw new ForbiddenException(String.format("Unable update ACL of item '%s'. Item is locked. ", getPath()));
-        }
         if (acl.isEmpty() && !override) {
             return this;
         }
+        rwLock.writeLock().lock();
+        try {
+            if (isFile() && !validateLockTokenIfLocked(lockToken)) {
+                throw new ForbiddenException(String.format("Unable update ACL of item '%s'. Item is locked. ", getPath()));
+            }
+            updatePermissions(acl, override);
+        } finally {
+            rwLock.writeLock().unlock();
+        }
+        publishEvent(new UpdateACLEvent(mountPoint.getWorkspaceId(), getPath(), isFolder()));
+        return this;
+    }
+
+    /** Replaces map of permissions, the map is never modified after that. Must be called under write lock. */
+    private void updatePermissions(List<AccessControlEntry> acl, boolean override) {
         final Map<Principal, Set<String>> update = override ? new HashMap<Principal, Set<String>>(acl.size()) : getPermissions();
         for (AccessControlEntry ace : acl) {
             final Principal principal = ace.getPrincipal();
@@ -312,8 +352,6 @@ public class MemoryVirtualFile implements VirtualFile {
 
         permissionsMap = update;
         lastModificationDate = System.currentTimeMillis();
-        mountPoint.getEventService().publish(new UpdateACLEvent(mountPoint.getWorkspaceId(), getPath(), isFolder()));
-        return this;
     }
 
     @Override
@@ -389,21 +427,26 @@ public class MemoryVirtualFile implements VirtualFile {
         if (!hasPermission(BasicPermissions.UPDATE_ACL.value(), true)) {
             throw new ForbiddenException(String.format("Unable update properties for '%s'. Operation not permitted. ", getPath()));
         }
-        if (isFile() && !validateLockTokenIfLocked(lockToken)) {
-            throw new ForbiddenException(String.format("Unable update properties of item '%s'. Item is locked. ", getPath()));
-        }
-        for (Property p : update) {
-            String name = p.getName();
-            List<String> value = p.getValue();
-            if (value != null) {
-                List<String> copy = new ArrayList<>(value);
-                properties.put(name, copy);
-            } else {
-                properties.remove(name);
+        rwLock.writeLock().lock();
+        try {
+            if (isFile() && !validateLockTokenIfLocked(lockToken)) {
+                throw new ForbiddenException(String.format("Unable update properties of item '%s'. Item is locked. ", getPath()));
+            }
+            for (Property p : update) {
+                String name = p.getName();
+                List<String> value = p.getValue();
+                if (value != null) {
+                    // Values of properties are never modified, they are replaced on update.
+                    properties.put(name, Collections.unmodifiableList(new ArrayList<>(value)));
+                } else {
+                    properties.remove(name);
+                }
             }
+            lastModificationDate = System.currentTimeMillis();
+        } finally {
+            rwLock.writeLock().unlock();
         }
-        lastModificationDate = System.currentTimeMillis();
-        mountPoint.getEventService().publish(new UpdatePropertiesEvent(mountPoint.getWorkspaceId(), getPath(), isFolder()));
+        publishEvent(new UpdatePropertiesEvent(mountPoint.getWorkspaceId(), getPath(), isFolder()));
         return this;
     }
 
@@ -421,46 +464,90 @@ public class MemoryVirtualFile implements VirtualFile {
 
         final List<Pair<String, String>> hashes = new ArrayList<>();
         final int trimPathLength = getPath().length() + 1;
-        final HashFunction hashFunction = Hashing.md5();
-        final ValueHolder<ServerException> errorHolder = new ValueHolder<>();
-        accept(new VirtualFileVisitor() {
-            @Override
-            public void visit(final VirtualFile virtualFile) {
-                try {
-                    if (virtualFile.isFile()) {
-                        try {
-                            final InputStream stream = virtualFile.getContent().getStream();
-                            final String hexHash = ByteStreams.hash(new InputSupplier<InputStream>() {
-                                @Override
-                                public InputStream getInput() throws IOException {
-                                    return stream;
-                                }
-                            }, hashFunction).toString();
-
-                            hashes.add(Pair.of(hexHash, virtualFile.getPath().substring(trimPathLength)));
-                        } catch (ForbiddenException e) {
-                            throw new ServerException(e.getServiceError());
-                        } catch (IOException e) {
-                            throw new ServerException(e);
-                        }
-                    } else {
-                        final LazyIterator<VirtualFile> children = virtualFile.getChildren(VirtualFileFilter.ALL);
-                        while (children.hasNext()) {
-                            children.next().accept(this);
-                        }
-                    }
-                } catch (ServerException e) {
-                    errorHolder.set(e);
+        // md5sums of files are updated together with content, so don't need to read content of files here
+        final LinkedList<MemoryVirtualFile> q = new LinkedList<>();
+        q.add(this);
+        while (!q.isEmpty()) {
+            for (VirtualFile child : q.pop().children.values()) {
+                final MemoryVirtualFile memoryChild = (MemoryVirtualFile)child;
+                if (!memoryChild.hasPermission(BasicPermissions.READ.value(), false)) {
+                    continue;
+                }
+                if (memoryChild.isFile()) {
+                    hashes.add(Pair.of(memoryChild.content.getHash(), memoryChild.getPath().substring(trimPathLength)));
+                } else {
+                    q.add(memoryChild);
                 }
             }
-        });
-        final ServerException error = errorHolder.get();
-        if (error != null) {
-            throw error;
         }
         return LazyIterator.fromList(hashes);
     }
 
+    @Override
+    public String getHash() throws ServerException {
+        checkExist();
+        if (isFile()) {
+            return content.getHash();
+        }
+        // Read counter before calculation. If tree is changed while hash is calculated counter is changed after that and hash is
+        // recalculated next time.
+        final long modifications = treeModifications.get();
+        final FolderHash cached = folderHash;
+        if (cached != null && cached.modifications == modifications) {
+            return cached.hash;
+        }
+        final SortedMap<String, String> childrenHashes = new TreeMap<>();
+        for (VirtualFile child : children.values()) {
+            final String childHash = ((MemoryVirtualFile)child).getHash();
+            if (childHash != null) {
+                childrenHashes.put(child.isFolder() ? (child.getName() + '/') : child.getName(), childHash);
+            }
+        }
+        final String myHash = HashTree.folderHash(childrenHashes);
+        folderHash = new FolderHash(myHash, modifications);
+        return myHash;
+    }
+
+    /**
+     * Invalidates cached hashes of this folder and all its parents. Must be called after any change of content or structure of tree. Hash
+     * of file is never invalidated, it is updated together with content of file.
+     */
+    private void invalidateHash() {
+        for (MemoryVirtualFile current = this; current != null; current = current.parent) {
+            if (current.treeModifications != null) {
+                current.treeModifications.incrementAndGet();
+            }
+        }
+    }
+
+    /** Publishes event through buffer of events of current thread, if any. See {@link VirtualFileEventBuffer}. */
+    private void publishEvent(VirtualFileEvent event) {
+        VirtualFileEventBuffer.publish(mountPoint.getEventService(), event);
+    }
+
+    /**
+     * Sets content of file and its md5sum. Content is never modified after that, it is replaced when file is updated. Thanks to that
+     * content may be shared between files and may be read without locking. Must be called under write lock.
+     *
+     * @param content
+     *         content of file
+     */
+    private void setContent(byte[] content) {
+        setContent(content, Hashing.md5().hashBytes(content).toString());
+    }
+
+    /** Sets content of file which md5sum is already known. Must be called under write lock. */
+    private void setContent(byte[] content, String contentHash) {
+        final MemoryContentStore contentStore = mountPoint.getContentStore();
+        final MemoryContentStore.Blob oldContent = this.content;
+        this.content = contentStore.put(content, contentHash);
+        contentStore.release(oldContent);
+        final MemoryVirtualFile myParent = parent;
+        if (myParent != null) {
+            myParent.invalidateHash();
+        }
+    }
+
     @Override
     public LazyIterator<VirtualFile> getChildren(VirtualFileFilter filter) {
         checkExist();
@@ -476,17 +563,56 @@ public class MemoryVirtualFile implements VirtualFile {
             }
         }
 
-        List<VirtualFile> children = doGetChildren(this);
-        for (Iterator<VirtualFile> i = children.iterator(); i.hasNext(); ) {
-            VirtualFile virtualFile = i.next();
-            if (!((MemoryVirtualFile)virtualFile).hasPermission(BasicPermissions.READ.value(), false) || !filter.accept(virtualFile)) {
-                i.remove();
+        // children are sorted already
+        final List<VirtualFile> children = new ArrayList<>(sortedChildren.size());
+        for (VirtualFile virtualFile : sortedChildren.values()) {
+            if (((MemoryVirtualFile)virtualFile).hasPermission(BasicPermissions.READ.value(), false) && filter.accept(virtualFile)) {
+                children.add(virtualFile);
             }
         }
-        Collections.sort(children);
         return LazyIterator.fromList(children);
     }
 
+    @Override
+    public LazyIterator<VirtualFile> getChildren(final VirtualFileFilter filter, String cursor) {
+        checkExist();
+        if (isFile()) {
+            return LazyIterator.emptyIterator();
+        }
+        if (isRoot() && !hasPermission(BasicPermissions.READ.value(), false)) {
+            return LazyIterator.emptyIterator();
+        }
+        final Iterator<VirtualFile> delegate =
+                (cursor == null ? sortedChildren : sortedChildren.tailMap(cursor, false)).values().iterator();
+        return new LazyIterator<VirtualFile>() {
+            {
+                fetchNext();
+            }
+
+            @Override
+            protected void fetchNext() {
+                next = null;
+                while (next == null && delegate.hasNext()) {
+                    final VirtualFile virtualFile = delegate.next();
+                    if (((MemoryVirtualFile)virtualFile).hasPermission(BasicPermissions.READ.value(), false) && filter.accept(virtualFile)) {
+                        next = virtualFile;
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public String getCursor() {
+        checkExist();
+        return cursor(type, name);
+    }
+
+    /** Folders go before files, items of the same type are sorted by name, see {@link #compareTo(VirtualFile)}. */
+    private static String cursor(boolean type, String name) {
+        return (type == FOLDER ? '0' : '1') + name;
+    }
+
     private List<VirtualFile> doGetChildren(VirtualFile folder) {
         return new ArrayList<>(((MemoryVirtualFile)folder).children.values());
     }
@@ -519,13 +645,32 @@ public class MemoryVirtualFile implements VirtualFile {
     }
 
     private boolean addChild(VirtualFile child) {
+        rwLock.writeLock().lock();
+        try {
+            return doAddChild(child);
+        } finally {
+            rwLock.writeLock().unlock();
+        }
+    }
+
+    /** Adds child to this folder. Must be called under write lock of this folder. */
+    private boolean doAddChild(VirtualFile child) {
+        // Check under lock, folder that is removed must not get new children.
         checkExist();
-        final String childName = child.getName();
-        if (children.get(childName) == null) {
-            children.put(childName, child);
-            return true;
+        if (children.containsKey(child.getName())) {
+            return false;
         }
-        return false;
+        children.put(child.getName(), child);
+        sortedChildren.put(((MemoryVirtualFile)child).getCursor(), child);
+        invalidateHash();
+        return true;
+    }
+
+    /** Removes child from this folder. Must be called under write lock of this folder. */
+    private void doRemoveChild(MemoryVirtualFile child) {
+        children.remove(child.name);
+        sortedChildren.remove(cursor(child.type, child.name));
+        invalidateHash();
     }
 
     @Override
@@ -534,10 +679,18 @@ public class MemoryVirtualFile implements VirtualFile {
         if (!isFile()) {
             throw new ForbiddenException(String.format("We were unable to retrieve the content. Item '%s' is not a file. ", getPath()));
         }
-        if (content == null) {
-            content = new byte[0];
+        final MemoryContentStore.Blob myContent;
+        final String mediaType;
+        final long lastModificationDate;
+        rwLock.readLock().lock();
+        try {
+            myContent = content;
+            mediaType = getMediaType();
+            lastModificationDate = this.lastModificationDate;
+        } finally {
+            rwLock.readLock().unlock();
         }
-        return new ContentStream(getName(), new ByteArrayInputStream(content), getMediaType(), content.length,
+        return new ContentStream(getName(), myContent.openStream(), mediaType, myContent.getLength(),
                                  new Date(lastModificationDate));
     }
 
@@ -567,19 +720,26 @@ public class MemoryVirtualFile implements VirtualFile {
                                                            getPath()));
             }
         }
-        if (isFile() && !validateLockTokenIfLocked(lockToken)) {
-            throw new ForbiddenException(
-                    String.format("We were unable to update the content of file '%s'. The file is locked. ", getPath()));
-        }
-
+        // Read content before taking lock, reading of stream may be slow.
+        final byte[] bytes;
         try {
-            this.content = ByteStreams.toByteArray(content);
+            bytes = ByteStreams.toByteArray(content);
         } catch (IOException e) {
             throw new ServerException(String.format("We were unable to set the content of '%s'. ", getPath()));
         }
-
-        if (updateMediaType) {
-            setMediaType(mediaType);
+        rwLock.writeLock().lock();
+        try {
+            if (!validateLockTokenIfLocked(lockToken)) {
+                throw new ForbiddenException(
+                        String.format("We were unable to update the content of file '%s'. The file is locked. ", getPath()));
+            }
+            setContent(bytes);
+            if (updateMediaType) {
+                setMediaType(mediaType);
+            }
+            lastModificationDate = System.currentTimeMillis();
+        } finally {
+            rwLock.writeLock().unlock();
         }
 
         SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
@@ -590,8 +750,7 @@ public class MemoryVirtualFile implements VirtualFile {
                 LOG.error(e.getMessage(), e);
             }
         }
-        lastModificationDate = System.currentTimeMillis();
-        mountPoint.getEventService().publish(new UpdateContentEvent(mountPoint.getWorkspaceId(), getPath()));
+        publishEvent(new UpdateContentEvent(mountPoint.getWorkspaceId(), getPath()));
         return this;
     }
 
@@ -601,7 +760,7 @@ public class MemoryVirtualFile implements VirtualFile {
         if (!isFile()) {
             return 0;
         }
-        return content.length;
+        return content.getLength();
     }
 
     @Override
@@ -655,14 +814,20 @@ public class MemoryVirtualFile implements VirtualFile {
                 LOG.error(e.getMessage(), e);
             }
         }
-        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), copy.getPath(), copy.isFolder()));
+        publishEvent(new CreateEvent(mountPoint.getWorkspaceId(), copy.getPath(), copy.isFolder()));
         return copy;
     }
 
     private VirtualFile doCopy(VirtualFile parent) throws ConflictException {
-        VirtualFile virtualFile;
+        MemoryVirtualFile virtualFile;
         if (isFile()) {
-            virtualFile = newFile((MemoryVirtualFile)parent, name, Arrays.copyOf(content, content.length), getMediaType());
+            rwLock.readLock().lock();
+            try {
+                // content is never modified, so copy shares it and its md5sum with original file
+                virtualFile = newFile((MemoryVirtualFile)parent, name, mountPoint.getContentStore().retain(content), getMediaType());
+            } finally {
+                rwLock.readLock().unlock();
+            }
         } else {
             virtualFile = newFolder((MemoryVirtualFile)parent, name);
             LazyIterator<VirtualFile> children = getChildren(VirtualFileFilter.ALL);
@@ -670,15 +835,11 @@ public class MemoryVirtualFile implements VirtualFile {
                 ((MemoryVirtualFile)children.next()).doCopy(virtualFile);
             }
         }
-        for (Map.Entry<String, List<String>> e : properties.entrySet()) {
-            String name = e.getKey();
-            List<String> value = e.getValue();
-            if (value != null) {
-                List<String> copy = new ArrayList<>(value);
-                ((MemoryVirtualFile)virtualFile).properties.put(name, copy);
-            }
-        }
+        // values of properties are never modified, so copy shares them with original item
+        virtualFile.properties.putAll(properties);
         if (!((MemoryVirtualFile)parent).addChild(virtualFile)) {
+            // release content of files that are not added
+            virtualFile.markRemoved();
             throw new ConflictException(String.format("Item '%s' already exists. ", (parent.getPath() + '/' + name)));
         }
         return virtualFile;
@@ -746,11 +907,25 @@ public class MemoryVirtualFile implements VirtualFile {
                 throw new ForbiddenException(String.format("Unable move item %s. Item is locked. ", myPath));
             }
         }
-        if (!((MemoryVirtualFile)parent).addChild(this)) {
-            throw new ConflictException(String.format("Item '%s' already exists. ", (parent.getPath() + '/' + name)));
+        final MemoryVirtualFile newParent = (MemoryVirtualFile)parent;
+        final MemoryVirtualFile oldParent = this.parent;
+        // Lock both folders in the same order to avoid deadlock with concurrent move in opposite direction.
+        final boolean newParentFirst = newParent.id.compareTo(oldParent.id) < 0;
+        final Lock first = (newParentFirst ? newParent : oldParent).rwLock.writeLock();
+        final Lock second = (newParentFirst ? oldParent : newParent).rwLock.writeLock();
+        first.lock();
+        second.lock();
+        try {
+            checkExist();
+            if (!newParent.doAddChild(this)) {
+                throw new ConflictException(String.format("Item '%s' already exists. ", (parent.getPath() + '/' + name)));
+            }
+            oldParent.doRemoveChild(this);
+            this.parent = newParent;
+        } finally {
+            second.unlock();
+            first.unlock();
         }
-        this.parent.children.remove(getName());
-        this.parent = (MemoryVirtualFile)parent;
         SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
         if (searcherProvider != null) {
             try {
@@ -764,7 +939,7 @@ public class MemoryVirtualFile implements VirtualFile {
                 LOG.error(e.getMessage(), e);
             }
         }
-        mountPoint.getEventService().publish(new MoveEvent(mountPoint.getWorkspaceId(), getPath(), myPath, folder));
+        publishEvent(new MoveEvent(mountPoint.getWorkspaceId(), getPath(), myPath, folder));
         return this;
     }
 
@@ -827,12 +1002,19 @@ public class MemoryVirtualFile implements VirtualFile {
             }
         }
 
-        if (parent.getChild(newName) != null) {
-            throw new ConflictException(String.format("Item '%s' already exists. ", newName));
+        final MemoryVirtualFile myParent = parent;
+        myParent.rwLock.writeLock().lock();
+        try {
+            checkExist();
+            if (myParent.children.containsKey(newName)) {
+                throw new ConflictException(String.format("Item '%s' already exists. ", newName));
+            }
+            myParent.doRemoveChild(this);
+            name = newName;
+            myParent.doAddChild(this);
+        } finally {
+            myParent.rwLock.writeLock().unlock();
         }
-        parent.children.remove(name);
-        parent.children.put(newName, this);
-        name = newName;
 
         if (newMediaType != null) {
             setMediaType(newMediaType);
@@ -851,7 +1033,7 @@ public class MemoryVirtualFile implements VirtualFile {
                 LOG.error(e.getMessage(), e);
             }
         }
-        mountPoint.getEventService().publish(new RenameEvent(mountPoint.getWorkspaceId(), getPath(), myPath, folder));
+        publishEvent(new RenameEvent(mountPoint.getWorkspaceId(), getPath(), myPath, folder));
         return this;
     }
 
@@ -869,7 +1051,6 @@ public class MemoryVirtualFile implements VirtualFile {
         final boolean folder = isFolder();
         if (folder) {
             final ValueHolder<Exception> errorHolder = new ValueHolder<>();
-            final List<VirtualFile> toDelete = new ArrayList<>();
             accept(new VirtualFileVisitor() {
                 @Override
                 public void visit(VirtualFile virtualFile) {
@@ -890,7 +1071,6 @@ public class MemoryVirtualFile implements VirtualFile {
                             throw new ForbiddenException(String.format("Unable delete item '%s'. Child item '%s' is locked. ",
                                                                        getPath(), virtualFile.getPath()));
                         }
-                        toDelete.add(virtualFile);
                     } catch (ServerException | ForbiddenException e) {
                         errorHolder.set(e);
                     }
@@ -906,19 +1086,20 @@ public class MemoryVirtualFile implements VirtualFile {
                     throw new ServerException(error.getMessage(), error);
                 }
             }
-            for (VirtualFile virtualFile : toDelete) {
-                mountPoint.deleteItem(virtualFile.getId());
-                ((MemoryVirtualFile)virtualFile).exists = false;
-            }
         } else {
             if (!validateLockTokenIfLocked(lockToken)) {
                 throw new ForbiddenException(String.format("Unable delete item '%s'. Item is locked. ", getPath()));
             }
-            mountPoint.deleteItem(getId());
         }
-        parent.children.remove(name);
-        exists = false;
-        parent = null;
+        final MemoryVirtualFile myParent = parent;
+        myParent.rwLock.writeLock().lock();
+        try {
+            checkExist();
+            myParent.doRemoveChild(this);
+        } finally {
+            myParent.rwLock.writeLock().unlock();
+        }
+        markRemoved();
         SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
         if (searcherProvider != null) {
             try {
@@ -927,7 +1108,33 @@ public class MemoryVirtualFile implements VirtualFile {
                 LOG.error(e.getMessage(), e);
             }
         }
-        mountPoint.getEventService().publish(new DeleteEvent(mountPoint.getWorkspaceId(), myPath, folder));
+        publishEvent(new DeleteEvent(mountPoint.getWorkspaceId(), myPath, folder));
+    }
+
+    /**
+     * Marks this item and all its children as removed and removes them from index of mount point. Each folder is marked under its write
+     * lock, so nothing can be added in folder after that and all its children are visited.
+     */
+    private void markRemoved() {
+        final LinkedList<MemoryVirtualFile> q = new LinkedList<>();
+        q.add(this);
+        while (!q.isEmpty()) {
+            final MemoryVirtualFile current = q.pop();
+            current.rwLock.writeLock().lock();
+            try {
+                // content is released once even if item is removed twice
+                if (current.exists && current.type == FILE) {
+                    mountPoint.getContentStore().release(current.content);
+                }
+                current.exists = false;
+                for (VirtualFile child : current.children.values()) {
+                    q.add((MemoryVirtualFile)child);
+                }
+            } finally {
+                current.rwLock.writeLock().unlock();
+            }
+            mountPoint.deleteItem(current.id);
+        }
     }
 
     @Override
@@ -936,38 +1143,44 @@ public class MemoryVirtualFile implements VirtualFile {
         if (!isFolder()) {
             throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder. ", getPath()));
         }
-        final ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try {
-            final ZipOutputStream zipOut = new ZipOutputStream(out);
-            final LinkedList<VirtualFile> q = new LinkedList<>();
-            q.add(this);
-            final int rootZipPathLength = isRoot() ? 1 : (getPath().length() + 1);
-            while (!q.isEmpty()) {
-                final LazyIterator<VirtualFile> children = q.pop().getChildren(filter);
-                while (children.hasNext()) {
-                    VirtualFile current = children.next();
-                    final String zipEntryName = current.getPath().substring(rootZipPathLength);
-                    if (current.isFile()) {
-                        final ZipEntry zipEntry = new ZipEntry(zipEntryName);
-                        zipEntry.setTime(current.getLastModificationDate());
-                        zipOut.putNextEntry(zipEntry);
-                        zipOut.write(((MemoryVirtualFile)current).content);
-                        zipOut.closeEntry();
-                    } else if (current.isFolder()) {
-                        final ZipEntry zipEntry = new ZipEntry(zipEntryName + '/');
-                        zipEntry.setTime(0);
-                        zipOut.putNextEntry(zipEntry);
-                        q.add(current);
-                        zipOut.closeEntry();
+        // Collect entries before return. Content of file is never modified (it is replaced on update) and it is taken together with
+        // modification date under read lock of file, so each file is archived in consistent state even if it is updated while archive is
+        // read. Tree isn't locked as whole, items which are added, removed or moved while entries are collected may be missed or archived.
+        final List<ZipExportInputStream.Entry> zipEntries = new ArrayList<>();
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(this);
+        final int rootZipPathLength = isRoot() ? 1 : (getPath().length() + 1);
+        while (!q.isEmpty()) {
+            final LazyIterator<VirtualFile> children = q.pop().getChildren(filter);
+            while (children.hasNext()) {
+                VirtualFile current = children.next();
+                final String zipEntryName = current.getPath().substring(rootZipPathLength);
+                if (current.isFile()) {
+                    final MemoryVirtualFile file = (MemoryVirtualFile)current;
+                    final MemoryContentStore.Blob content;
+                    final long lastModificationDate;
+                    file.rwLock.readLock().lock();
+                    try {
+                        content = file.content;
+                        lastModificationDate = file.lastModificationDate;
+                    } finally {
+                        file.rwLock.readLock().unlock();
                     }
+                    zipEntries.add(new ZipExportInputStream.Entry(zipEntryName, lastModificationDate) {
+                        @Override
+                        protected InputStream openContent() {
+                            return content.openStream();
+                        }
+                    });
+                } else if (current.isFolder()) {
+                    zipEntries.add(ZipExportInputStream.Entry.folder(zipEntryName, 0));
+                    q.add(current);
                 }
             }
-            zipOut.close();
-        } catch (IOException e) {
-            throw new ServerException(e.getMessage(), e);
         }
-        final byte[] zipContent = out.toByteArray();
-        return new ContentStream(getName() + ".zip", new ByteArrayInputStream(zipContent), "application/zip", zipContent.length,
+        return new ContentStream(getName() + ".zip",
+                                 new ZipExportInputStream(zipEntries.iterator(), mountPoint.getZipCompressionLevel()),
+                                 "application/zip",
                                  new Date());
     }
 
@@ -979,15 +1192,25 @@ public class MemoryVirtualFile implements VirtualFile {
                                                        " You do not have the correct permissions to complete this operation.", getPath()));
         }
 
-        ZipInputStream zip = null;
+        // Files which are created or updated, they are added in index when archive is unpacked.
+        final List<VirtualFile> unzipped = new ArrayList<>();
+        // Items which are created directly in this folder and files which content is overwritten, events are published for them.
+        final List<VirtualFile> created = new ArrayList<>();
+        final List<VirtualFile> updated = new ArrayList<>();
+        ZipContent zipContent = null;
         try {
-            final ZipContent zipContent = ZipContent.newInstance(zipped);
-            zip = new ZipInputStream(zipContent.zippedData);
-            // Wrap zip stream to prevent close it. We can pass stream to other method and it can read content of current
-            // ZipEntry but not able to close original stream of ZIPed data.
-            InputStream noCloseZip = new NotClosableInputStream(zip);
-            ZipEntry zipEntry;
-            while ((zipEntry = zip.getNextEntry()) != null) {
+            zipContent = ZipContent.spool(zipped);
+            // Entries are inflated and their md5sums are calculated in parallel, then tree is built at once.
+            final List<Pair<ZipEntry, Pair<byte[], String>>> entries =
+                    zipContent.readEntries(new ZipContent.EntryReader<Pair<byte[], String>>() {
+                        @Override
+                        public Pair<byte[], String> read(ZipEntry entry, InputStream content) throws IOException {
+                            final byte[] bytes = ByteStreams.toByteArray(content);
+                            return Pair.of(bytes, Hashing.md5().hashBytes(bytes).toString());
+                        }
+                    });
+            for (Pair<ZipEntry, Pair<byte[], String>> entry : entries) {
+                final ZipEntry zipEntry = entry.first;
                 VirtualFile current = this;
                 final Path relPath = Path.fromString(zipEntry.getName());
                 final String name = relPath.getName();
@@ -996,6 +1219,9 @@ public class MemoryVirtualFile implements VirtualFile {
                     for (int i = 0, stop = relPath.length() - 1; i < stop; i++) {
                         MemoryVirtualFile folder = newFolder((MemoryVirtualFile)current, relPath.element(i));
                         if (((MemoryVirtualFile)current).addChild(folder)) {
+                            if (current == this) {
+                                created.add(folder);
+                            }
                             current = folder;
                             mountPoint.putItem(folder);
                         } else {
@@ -1006,17 +1232,26 @@ public class MemoryVirtualFile implements VirtualFile {
                 if (zipEntry.isDirectory()) {
                     if (current.getChild(name) == null) {
                         MemoryVirtualFile folder = newFolder((MemoryVirtualFile)current, name);
-                        ((MemoryVirtualFile)current).addChild(folder);
-                        mountPoint.putItem(folder);
+                        if (((MemoryVirtualFile)current).addChild(folder)) {
+                            if (current == this) {
+                                created.add(folder);
+                            }
+                            mountPoint.putItem(folder);
+                        }
                     }
                 } else {
-                    current.getChild(name);
-                    VirtualFile file = current.getChild(name);
+                    final byte[] content = entry.second.first;
+                    final String contentHash = entry.second.second;
+                    MemoryVirtualFile file = (MemoryVirtualFile)current.getChild(name);
                     if (file != null) {
+                        if (!file.isFile()) {
+                            throw new ForbiddenException(String.format("We were unable to update the content. Item '%s' is not a file. ",
+                                                                       file.getPath()));
+                        }
                         if (file.isLocked()) {
                             throw new ForbiddenException(String.format("File '%s' already exists and locked. ", file.getPath()));
                         }
-                        if (!((MemoryVirtualFile)file).hasPermission(BasicPermissions.WRITE.value(), true)) {
+                        if (!file.hasPermission(BasicPermissions.WRITE.value(), true)) {
                             throw new ForbiddenException(
                                     String.format("We were unable to update file '%s' as part of the import." +
                                                   " You do not have the correct permissions to complete this operation.", file.getPath()));
@@ -1024,34 +1259,68 @@ public class MemoryVirtualFile implements VirtualFile {
                         if (!overwrite) {
                             throw new ForbiddenException(String.format("File '%s' already exists. ", file.getPath()));
                         }
-                        file.updateContent(noCloseZip, null);
+                        file.replaceContent(content, contentHash);
+                        updated.add(file);
                     } else {
-                        file = newFile((MemoryVirtualFile)current, name, noCloseZip, ContentTypeGuesser.guessContentType(name));
-                        ((MemoryVirtualFile)current).addChild(file);
-                        mountPoint.putItem((MemoryVirtualFile)file);
+                        file = newFile((MemoryVirtualFile)current, name, content, contentHash, ContentTypeGuesser.guessContentType(name));
+                        if (!((MemoryVirtualFile)current).addChild(file)) {
+                            // file with the same name is created concurrently
+                            file.markRemoved();
+                            continue;
+                        }
+                        if (current == this) {
+                            created.add(file);
+                        }
+                        mountPoint.putItem(file);
                     }
-                }
-                zip.closeEntry();
-            }
-            SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
-            if (searcherProvider != null) {
-                try {
-                    searcherProvider.getSearcher(mountPoint, true).add(this);
-                } catch (ServerException e) {
-                    LOG.error(e.getMessage(), e);
+                    unzipped.add(file);
                 }
             }
-
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         } finally {
-            if (zip != null) {
+            if (zipContent != null) {
                 try {
-                    zip.close();
+                    zipContent.zippedData.close();
                 } catch (IOException ignored) {
                 }
             }
         }
+
+        SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
+        if (searcherProvider != null) {
+            try {
+                final Searcher searcher = searcherProvider.getSearcher(mountPoint, true);
+                for (VirtualFile file : unzipped) {
+                    searcher.add(file);
+                }
+            } catch (ServerException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+        // Event for each new item of the top level, items inside new folders are created with them. Event buffer of the caller, if any,
+        // may coalesce these events.
+        for (VirtualFile item : created) {
+            publishEvent(new CreateEvent(mountPoint.getWorkspaceId(), item.getPath(), item.isFolder()));
+        }
+        for (VirtualFile file : updated) {
+            publishEvent(new UpdateContentEvent(mountPoint.getWorkspaceId(), file.getPath()));
+        }
+    }
+
+    /** Sets content of file that is unpacked from archive over existed file. */
+    private void replaceContent(byte[] content, String contentHash) throws ForbiddenException {
+        rwLock.writeLock().lock();
+        try {
+            if (!validateLockTokenIfLocked(null)) {
+                throw new ForbiddenException(
+                        String.format("We were unable to update the content of file '%s'. The file is locked. ", getPath()));
+            }
+            setContent(content, contentHash);
+            lastModificationDate = System.currentTimeMillis();
+        } finally {
+            rwLock.writeLock().unlock();
+        }
     }
 
     @Override
@@ -1066,11 +1335,16 @@ public class MemoryVirtualFile implements VirtualFile {
         }
         final String lockToken = NameGenerator.generate(null, 32);
         final LockHolder lock = new LockHolder(lockToken, timeout);
-        if (this.lock != null) {
-            throw new ConflictException("File already locked. ");
+        rwLock.writeLock().lock();
+        try {
+            if (!validateLockTokenIfLocked(null)) {
+                throw new ConflictException("File already locked. ");
+            }
+            this.lock = lock;
+            lastModificationDate = System.currentTimeMillis();
+        } finally {
+            rwLock.writeLock().unlock();
         }
-        this.lock = lock;
-        lastModificationDate = System.currentTimeMillis();
         return lockToken;
     }
 
@@ -1080,20 +1354,24 @@ public class MemoryVirtualFile implements VirtualFile {
         if (!isFile()) {
             throw new ForbiddenException(String.format("Unable unlock '%s'. Locking allowed for files only. ", getPath()));
         }
-        final LockHolder myLock = lock;
-        if (myLock == null) {
-            throw new ConflictException("File is not locked. ");
-        } else if (myLock.expired < System.currentTimeMillis()) {
-            lock = null;
-            throw new ConflictException("File is not locked. ");
-        }
-        if (myLock.lockToken.equals(lockToken)) {
-            lock = null;
+        rwLock.writeLock().lock();
+        try {
+            final LockHolder myLock = lock;
+            if (myLock == null) {
+                throw new ConflictException("File is not locked. ");
+            } else if (myLock.expired < System.currentTimeMillis()) {
+                lock = null;
+                throw new ConflictException("File is not locked. ");
+            }
+            if (myLock.lockToken.equals(lockToken)) {
+                lock = null;
+            } else {
+                throw new ForbiddenException("Unable remove lock from file. Lock token does not match. ");
+            }
             lastModificationDate = System.currentTimeMillis();
-        } else {
-            throw new ForbiddenException("Unable remove lock from file. Lock token does not match. ");
+        } finally {
+            rwLock.writeLock().unlock();
         }
-        lastModificationDate = System.currentTimeMillis();
         return this;
     }
 
@@ -1101,15 +1379,8 @@ public class MemoryVirtualFile implements VirtualFile {
     public boolean isLocked() {
         checkExist();
         final LockHolder myLock = lock;
-        if (lock != null) {
-            if (myLock.expired < System.currentTimeMillis()) {
-                // replace lock
-                lock = null;
-                return false;
-            }
-            return true;
-        }
-        return false;
+        // Expired lock is removed under write lock when item is modified, don't remove it here.
+        return myLock != null && myLock.expired >= System.currentTimeMillis();
     }
 
     @Override
@@ -1134,6 +1405,8 @@ public class MemoryVirtualFile implements VirtualFile {
             throw new ServerException(String.format("Unable set content of '%s'. ", getPath() + e.getMessage()));
         }
         if (!addChild(newFile)) {
+            // release content of file that is not added
+            newFile.markRemoved();
             throw new ConflictException(String.format("Item with the name '%s' already exists. ", name));
         }
         mountPoint.putItem(newFile);
@@ -1145,7 +1418,7 @@ public class MemoryVirtualFile implements VirtualFile {
                 LOG.error(e.getMessage(), e);
             }
         }
-        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), newFile.getPath(), false));
+        publishEvent(new CreateEvent(mountPoint.getWorkspaceId(), newFile.getPath(), false));
         return newFile;
     }
 
@@ -1184,7 +1457,7 @@ public class MemoryVirtualFile implements VirtualFile {
             }
         }
         mountPoint.putItem(newFolder);
-        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), newFolder.getPath(), true));
+        publishEvent(new CreateEvent(mountPoint.getWorkspaceId(), newFolder.getPath(), true));
         return newFolder;
     }
 
@@ -1214,7 +1487,8 @@ public class MemoryVirtualFile implements VirtualFile {
         final VirtualFileSystemUser user = mountPoint.getUserContext().getVirtualFileSystemUser();
         MemoryVirtualFile current = this;
         while (current != null) {
-            final Map<Principal, Set<String>> objectPermissions = current.getPermissions();
+            // map of permissions is never modified, it is replaced on update, so don't need to copy it
+            final Map<Principal, Set<String>> objectPermissions = current.permissionsMap;
             if (!objectPermissions.isEmpty()) {
                 final Principal userPrincipal =
                         DtoFactory.getInstance().createDto(Principal.class).withName(user.getUserId()).withType(Principal.Type.USER);
@@ -1240,7 +1514,7 @@ public class MemoryVirtualFile implements VirtualFile {
                        && (userPermissions.contains(permission) || userPermissions.contains(BasicPermissions.ALL.value()));
             }
             if (checkParent) {
-                current = (MemoryVirtualFile)current.getParent();
+                current = current.parent;
             } else {
                 break;
             }
@@ -1260,12 +1534,27 @@ public class MemoryVirtualFile implements VirtualFile {
         }
     }
 
+    /** Must be called under write lock if item is going to be modified. */
     private boolean validateLockTokenIfLocked(String lockToken) {
-        if (!isLocked()) {
+        final LockHolder myLock = lock;
+        if (myLock == null) {
             return true;
         }
-        final LockHolder myLock = lock;
-        return myLock == null || myLock.lockToken.equals(lockToken);
+        if (myLock.expired < System.currentTimeMillis()) {
+            lock = null;
+            return true;
+        }
+        return myLock.lockToken.equals(lockToken);
+    }
+
+    private static class FolderHash {
+        final String hash;
+        final long   modifications;
+
+        FolderHash(String hash, long modifications) {
+            this.hash = hash;
+            this.modifications = modifications;
+        }
     }
 
     private static class LockHolder {
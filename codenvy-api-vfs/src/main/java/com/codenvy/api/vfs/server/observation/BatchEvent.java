@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.observation;
+
+import com.codenvy.api.core.notification.CompositeEvent;
+
+import java.util.List;
+
+/**
+ * Set of events caused by one logical operation, e.g. import of project or replacing of text in many files. Path of this event is the
+ * closest common folder of all changed items. Events in batch are already coalesced: each item is mentioned once per type of change and
+ * items inside created or deleted folders are not mentioned at all.
+ * <p/>
+ * Only subscribers of {@code BatchEvent} get batch itself, e.g. to process changes of one operation at once. All other subscribers, e.g. of
+ * {@link CreateEvent} or {@link VirtualFileEvent}, and remote peers get events from batch one by one, see {@link CompositeEvent}.
+ *
+ * @author andrew00x
+ * @see VirtualFileEventBuffer
+ */
+public class BatchEvent extends VirtualFileEvent implements CompositeEvent {
+    private List<VirtualFileEvent> events;
+
+    public BatchEvent(String workspaceId, String path, List<VirtualFileEvent> events) {
+        super(workspaceId, path, ChangeType.BATCH, true);
+        this.events = events;
+    }
+
+    public BatchEvent() {
+    }
+
+    /** Gets events in order they happened. */
+    @Override
+    public List<VirtualFileEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<VirtualFileEvent> events) {
+        this.events = events;
+    }
+}
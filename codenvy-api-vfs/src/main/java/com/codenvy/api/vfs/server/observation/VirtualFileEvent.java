@@ -21,7 +21,9 @@ public abstract class VirtualFileEvent {
         DELETED("deleted"),
         MOVED("moved"),
         PROPERTIES_UPDATED("properties_updated"),
-        RENAMED("renamed");
+        RENAMED("renamed"),
+        /** Set of changes made by one operation, see {@link BatchEvent}. */
+        BATCH("batch");
 
         private final String value;
 
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.observation;
+
+import com.codenvy.api.core.notification.EventService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects events of virtual file system published in current thread and publishes them at once when buffer is closed. Usage example:
+ * <pre>
+ *     try (VirtualFileEventBuffer ignored = VirtualFileEventBuffer.begin(eventService)) {
+ *         // modify many items
+ *     }
+ * </pre>
+ * Events are coalesced before they are published:
+ * <ul>
+ * <li>repeated changes of the same type of the same item are reported once</li>
+ * <li>changes of item which is created in the same buffer are not reported, changes of items inside created folder are not reported
+ * either</li>
+ * <li>changes of items inside deleted folder are not reported, item that is created and then deleted in the same buffer is not reported at
+ * all</li>
+ * </ul>
+ * If just one event is left after coalescing it is published as is, otherwise all events are published in one {@link BatchEvent}. If
+ * buffer is started when another buffer for the same EventService is active in current thread, events are added to the outer buffer.
+ * Implementations of virtual file system must publish events with {@link #publish(EventService, VirtualFileEvent)} to let them be
+ * buffered. Only events published in the thread that started buffer are buffered, events published by other threads are delivered
+ * immediately.
+ * <p/>
+ * Subscribers of {@code BatchEvent} get the whole batch. Then all other subscribers, e.g. {@code EventSubscriber<CreateEvent>}, get
+ * coalesced events from batch one by one.
+ *
+ * @author andrew00x
+ */
+public final class VirtualFileEventBuffer implements AutoCloseable {
+    private static final ThreadLocal<VirtualFileEventBuffer> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Starts buffering of events which are published in current thread.
+     *
+     * @param eventService
+     *         EventService to publish events to when buffer is closed
+     * @return buffer, caller must close it
+     */
+    public static VirtualFileEventBuffer begin(EventService eventService) {
+        final VirtualFileEventBuffer current = CURRENT.get();
+        if (current != null && current.eventService == eventService) {
+            current.depth++;
+            return current;
+        }
+        final VirtualFileEventBuffer buffer = new VirtualFileEventBuffer(eventService, current);
+        CURRENT.set(buffer);
+        return buffer;
+    }
+
+    /**
+     * Publishes event. Event is added to the buffer if buffer for {@code eventService} is started in current thread, otherwise event is
+     * published immediately.
+     */
+    public static void publish(EventService eventService, VirtualFileEvent event) {
+        final VirtualFileEventBuffer current = CURRENT.get();
+        if (current != null && current.eventService == eventService) {
+            current.add(event);
+        } else {
+            eventService.publish(event);
+        }
+    }
+
+    private final EventService           eventService;
+    private final VirtualFileEventBuffer parent;
+    /** Events in order they are added, {@code null} for events which are discarded. */
+    private final List<VirtualFileEvent> events;
+    /** Positions of creation events by paths of created items. */
+    private final Map<String, Integer>   created;
+    /** Type and path of update events which are added already. */
+    private final Set<String>            updated;
+
+    private int depth;
+
+    private VirtualFileEventBuffer(EventService eventService, VirtualFileEventBuffer parent) {
+        this.eventService = eventService;
+        this.parent = parent;
+        events = new ArrayList<>();
+        created = new HashMap<>();
+        updated = new HashSet<>();
+    }
+
+    /** Publishes collected events if this is the outermost usage of buffer. */
+    @Override
+    public void close() {
+        if (depth > 0) {
+            depth--;
+            return;
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+        final List<VirtualFileEvent> coalesced = new ArrayList<>(events.size());
+        for (VirtualFileEvent event : events) {
+            if (event != null) {
+                coalesced.add(event);
+            }
+        }
+        if (coalesced.size() == 1) {
+            eventService.publish(coalesced.get(0));
+        } else if (coalesced.size() > 1) {
+            eventService.publish(new BatchEvent(coalesced.get(0).getWorkspaceId(), commonFolder(coalesced), coalesced));
+        }
+    }
+
+    private void add(VirtualFileEvent event) {
+        final String path = event.getPath();
+        switch (event.getType()) {
+            case CREATED:
+                if (!isCreated(path)) {
+                    created.put(path, events.size());
+                    events.add(event);
+                }
+                break;
+            case CONTENT_UPDATED:
+            case PROPERTIES_UPDATED:
+            case ACL_UPDATED:
+                if (!isCreated(path) && updated.add(event.getType().value() + ' ' + path)) {
+                    events.add(event);
+                }
+                break;
+            case DELETED: {
+                final boolean wasCreated = created.containsKey(path);
+                discardTree(path);
+                // nothing to report if item is created and deleted in the same buffer
+                if (!wasCreated) {
+                    events.add(event);
+                }
+                break;
+            }
+            default:
+                // Move and rename change paths, keep them as is.
+                events.add(event);
+        }
+    }
+
+    /** Checks is item or any of its parents created in this buffer. */
+    private boolean isCreated(String path) {
+        for (String current = path; !current.isEmpty(); current = current.substring(0, Math.max(current.lastIndexOf('/'), 0))) {
+            if (created.containsKey(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Discards events of item and items inside it. */
+    private void discardTree(String path) {
+        final String prefix = path.endsWith("/") ? path : (path + '/');
+        for (int i = 0; i < events.size(); i++) {
+            final VirtualFileEvent event = events.get(i);
+            if (event != null && event.getType() != VirtualFileEvent.ChangeType.MOVED
+                && event.getType() != VirtualFileEvent.ChangeType.RENAMED) {
+                final String eventPath = event.getPath();
+                if (eventPath.equals(path) || eventPath.startsWith(prefix)) {
+                    events.set(i, null);
+                    if (event.getType() == VirtualFileEvent.ChangeType.CREATED) {
+                        created.remove(eventPath);
+                    } else {
+                        updated.remove(event.getType().value() + ' ' + eventPath);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Gets the closest folder which contains all changed items. */
+    private static String commonFolder(List<VirtualFileEvent> events) {
+        String common = null;
+        for (VirtualFileEvent event : events) {
+            common = commonFolder(common, parentOf(event.getPath()));
+            if (event instanceof MoveEvent) {
+                common = commonFolder(common, parentOf(((MoveEvent)event).getOldPath()));
+            } else if (event instanceof RenameEvent) {
+                common = commonFolder(common, parentOf(((RenameEvent)event).getOldPath()));
+            }
+        }
+        return common;
+    }
+
+    private static String commonFolder(String folder1, String folder2) {
+        if (folder1 == null) {
+            return folder2;
+        }
+        String common = folder1;
+        while (!(folder2.equals(common) || folder2.startsWith(common.endsWith("/") ? common : (common + '/')))) {
+            common = parentOf(common);
+        }
+        return common;
+    }
+
+    private static String parentOf(String path) {
+        final int slash = path.lastIndexOf('/');
+        return slash > 0 ? path.substring(0, slash) : "/";
+    }
+}
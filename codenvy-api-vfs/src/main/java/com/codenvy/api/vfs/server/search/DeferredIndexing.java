@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.search;
+
+/**
+ * Suspends indexing of items which are added or updated in current thread. Usage example:
+ * <pre>
+ *     try (DeferredIndexing ignored = DeferredIndexing.begin()) {
+ *         // create or update many files
+ *     }
+ *     searcher.add(folder);
+ * </pre>
+ * Caller is responsible for indexing of changed items when scope is closed, typically with one {@link Searcher#add(
+ * com.codenvy.api.vfs.server.VirtualFile)} of folder which contains all changes. Removing of items from index isn't deferred, otherwise
+ * caller would have to remember all deleted items. Scopes may be nested, indexing is resumed when the outermost scope is closed.
+ *
+ * @author andrew00x
+ */
+public final class DeferredIndexing implements AutoCloseable {
+    private static final ThreadLocal<DeferredIndexing> CURRENT = new ThreadLocal<>();
+
+    /** Suspends indexing of items which are added or updated in current thread. Caller must close returned scope. */
+    public static DeferredIndexing begin() {
+        final DeferredIndexing current = CURRENT.get();
+        if (current != null) {
+            current.depth++;
+            return current;
+        }
+        final DeferredIndexing scope = new DeferredIndexing();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /** Checks whether indexing of added and updated items is suspended in current thread. */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    private int depth;
+
+    private DeferredIndexing() {
+    }
+
+    /** Resumes indexing if this is the outermost scope. */
+    @Override
+    public void close() {
+        if (depth > 0) {
+            depth--;
+            return;
+        }
+        CURRENT.remove();
+    }
+}
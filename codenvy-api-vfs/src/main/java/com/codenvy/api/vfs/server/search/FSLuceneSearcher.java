@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.search;
+
+import com.codenvy.api.core.ServerException;
+import com.codenvy.api.vfs.server.LazyIterator;
+import com.codenvy.api.vfs.server.MountPoint;
+import com.codenvy.api.vfs.server.VirtualFile;
+import com.codenvy.api.vfs.server.VirtualFileFilter;
+import com.codenvy.api.vfs.server.util.MediaTypeFilter;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lucene searcher which keeps index in file system, so index survives restart and doesn't take java heap. Time of commit is saved together
+ * with index. When searcher is initialized with existed index only files which are modified after the last commit are indexed again and
+ * files which don't exist anymore are removed from index.
+ *
+ * @author andrew00x
+ */
+public class FSLuceneSearcher extends LuceneSearcher {
+    private static final Logger LOG = LoggerFactory.getLogger(FSLuceneSearcher.class);
+
+    /** Key of commit user data, value is time when the last commit was started. */
+    private static final String INDEXED_AT = "indexedAt";
+
+    private final File indexDir;
+
+    public FSLuceneSearcher(File indexDir, Set<String> indexedMediaTypes) {
+        this(indexDir, new MediaTypeFilter(indexedMediaTypes));
+    }
+
+    public FSLuceneSearcher(File indexDir, VirtualFileFilter filter) {
+        super(filter);
+        this.indexDir = indexDir;
+    }
+
+    public File getIndexDir() {
+        return indexDir;
+    }
+
+    /** {@link FSDirectory#open(File)} picks memory mapped directory on platforms which support it. */
+    @Override
+    protected Directory makeDirectory() throws ServerException {
+        try {
+            return FSDirectory.open(indexDir);
+        } catch (IOException e) {
+            throw new ServerException(e);
+        }
+    }
+
+    /**
+     * Init lucene index. If index directory is clean all files of virtual filesystem are added to index, otherwise index is reconciled
+     * with virtual filesystem.
+     *
+     * @param mountPoint
+     *         MountPoint
+     * @throws ServerException
+     *         if any virtual filesystem error
+     */
+    @Override
+    public void init(MountPoint mountPoint) throws ServerException {
+        doInit();
+        final long start = System.currentTimeMillis();
+        final long indexedAt = getIndexedAt();
+        if (indexedAt > 0) {
+            reconcile(mountPoint.getRoot(), indexedAt);
+        } else {
+            addTree(mountPoint.getRoot());
+        }
+        commit(start);
+    }
+
+    /**
+     * Commits all changes of index to the file system. Files modified after this point are indexed again on next initialization if
+     * searcher is not closed properly.
+     *
+     * @throws ServerException
+     *         if an i/o error occurs
+     */
+    public void commit() throws ServerException {
+        commit(System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void close() {
+        // writer isn't created if initialization failed
+        if (!isClosed() && getIndexWriter() != null) {
+            try {
+                commit();
+            } catch (ServerException | RuntimeException e) {
+                // Nothing is lost, not committed files are indexed again on next start.
+                LOG.error(e.getMessage(), e);
+            }
+        }
+        super.close();
+    }
+
+    private void commit(long indexedAt) throws ServerException {
+        try {
+            getIndexWriter().commit(Collections.singletonMap(INDEXED_AT, Long.toString(indexedAt)));
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    /** Gets time of the last commit of index or {@code -1} if index is new. */
+    private long getIndexedAt() throws ServerException {
+        final Map<String, String> commitData;
+        try {
+            commitData = IndexReader.getCommitUserData(getIndexWriter().getDirectory());
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        final String indexedAt = commitData == null ? null : commitData.get(INDEXED_AT);
+        if (indexedAt != null) {
+            try {
+                return Long.parseLong(indexedAt);
+            } catch (NumberFormatException e) {
+                LOG.warn("Invalid time of commit of index {}: {}", indexDir, indexedAt);
+            }
+        }
+        return -1;
+    }
+
+    private void reconcile(VirtualFile root, long indexedAt) throws ServerException {
+        final long start = System.currentTimeMillis();
+        final Set<String> indexed = getIndexedPaths();
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(root);
+        int indexedFiles = 0;
+        while (!q.isEmpty()) {
+            final VirtualFile folder = q.pop();
+            if (folder.exists()) {
+                LazyIterator<VirtualFile> children = folder.getChildren(VirtualFileFilter.ALL);
+                while (children.hasNext()) {
+                    final VirtualFile child = children.next();
+                    if (child.isFolder()) {
+                        q.push(child);
+                    } else if (!indexed.remove(child.getPath()) || child.getLastModificationDate() >= indexedAt) {
+                        addFile(child);
+                        indexedFiles++;
+                    } else {
+                        // index of names isn't persisted
+                        getFileNameIndex().add(child.getPath());
+                    }
+                }
+            }
+        }
+        // Files which are left in set are removed from virtual filesystem after the last commit.
+        for (String path : indexed) {
+            try {
+                getIndexWriter().deleteDocuments(new Term("path", path));
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        }
+        final long end = System.currentTimeMillis();
+        LOG.debug("Reconciled index of {}, indexed {} files, removed {} files, time: {} ms",
+                  root.getPath(), indexedFiles, indexed.size(), (end - start));
+    }
+
+    private Set<String> getIndexedPaths() throws ServerException {
+        final Set<String> paths = new HashSet<>();
+        IndexSearcher luceneSearcher = null;
+        try {
+            luceneSearcher = getLuceneSearcher();
+            final IndexReader reader = luceneSearcher.getIndexReader();
+            final TermEnum terms = reader.terms(new Term("path", ""));
+            final TermDocs termDocs = reader.termDocs();
+            try {
+                do {
+                    final Term term = terms.term();
+                    if (term == null || !"path".equals(term.field())) {
+                        break;
+                    }
+                    termDocs.seek(term);
+                    // deleted documents are skipped
+                    if (termDocs.next()) {
+                        paths.add(term.text());
+                    }
+                } while (terms.next());
+            } finally {
+                termDocs.close();
+                terms.close();
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            if (luceneSearcher != null) {
+                try {
+                    releaseLuceneSearcher(luceneSearcher);
+                } catch (IOException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.search;
+
+import com.codenvy.api.core.ServerException;
+import com.codenvy.api.vfs.server.MountPoint;
+import com.codenvy.commons.lang.IoUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * SearcherProvider which keeps index of each workspace in separate directory in file system. See {@link FSLuceneSearcher}.
+ *
+ * @author andrew00x
+ */
+public class FSLuceneSearcherProvider extends LuceneSearcherProvider {
+    private static final Logger LOG = LoggerFactory.getLogger(FSLuceneSearcherProvider.class);
+
+    private final File                                   indexRoot;
+    private final ConcurrentMap<String, FSLuceneSearcher> searchers;
+
+    /**
+     * @param indexRoot
+     *         parent directory for directories of indexes of workspaces
+     */
+    public FSLuceneSearcherProvider(File indexRoot) {
+        this.indexRoot = indexRoot;
+        searchers = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Searcher getSearcher(MountPoint mountPoint, boolean create) throws ServerException {
+        final String workspaceId = mountPoint.getWorkspaceId();
+        FSLuceneSearcher searcher = searchers.get(workspaceId);
+        if (searcher == null && create) {
+            synchronized (this) {
+                searcher = searchers.get(workspaceId);
+                if (searcher == null) {
+                    searcher = createSearcher(mountPoint);
+                    searchers.put(workspaceId, searcher);
+                }
+            }
+        }
+        return searcher;
+    }
+
+    /** Commits and closes index of workspace. Index is reused next time when searcher for the workspace is requested. */
+    public void close(String workspaceId) {
+        final FSLuceneSearcher searcher = searchers.remove(workspaceId);
+        if (searcher != null) {
+            searcher.close();
+        }
+    }
+
+    /** Commits and closes indexes of all workspaces. */
+    public void close() {
+        for (String workspaceId : searchers.keySet()) {
+            close(workspaceId);
+        }
+    }
+
+    private FSLuceneSearcher createSearcher(MountPoint mountPoint) throws ServerException {
+        final File indexDir = new File(indexRoot, mountPoint.getWorkspaceId());
+        if (!(indexDir.isDirectory() || indexDir.mkdirs())) {
+            throw new ServerException(String.format("Unable create index directory %s. ", indexDir));
+        }
+        FSLuceneSearcher searcher = new FSLuceneSearcher(indexDir, getIndexedMediaTypes());
+        try {
+            searcher.init(mountPoint);
+        } catch (ServerException e) {
+            // Index may be broken, e.g. if server was killed while index was written. Build it from scratch.
+            LOG.warn(String.format("Unable open index %s, it is going to be rebuilt. %s", indexDir, e.getMessage()), e);
+            searcher.close();
+            if (!IoUtil.deleteRecursive(indexDir) || !indexDir.mkdirs()) {
+                throw new ServerException(String.format("Unable clean index directory %s. ", indexDir));
+            }
+            searcher = new FSLuceneSearcher(indexDir, getIndexedMediaTypes());
+            searcher.init(mountPoint);
+        }
+        return searcher;
+    }
+}
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index of names of files. Each name is split in overlapped sequences of three characters (trigrams), for each trigram
+ * index keeps sorted list of files which names contain it. Candidates for substring match are found as intersection of lists of trigrams
+ * of query, so finding of file doesn't enumerate all names like wildcard query with leading '*' does. Fuzzy match ranks files by number
+ * of trigrams which are common for the name and query, so it tolerates typos and missed characters.
+ * <p/>
+ * Removed files are only marked as removed, index is compacted when the most part of it is removed.
+ *
+ * @author andrew00x
+ */
+public final class FileNameIndex {
+    /** Marks start and end of name, it makes short names searchable and gives more weight to prefix and suffix of name. */
+    private static final char BOUNDARY = '\u0000';
+
+    private static final Comparator<Hit> BEST_FIRST = new Comparator<Hit>() {
+        @Override
+        public int compare(Hit o1, Hit o2) {
+            final int r = Double.compare(o2.score, o1.score);
+            if (r != 0) {
+                return r;
+            }
+            if (o1.nameLength != o2.nameLength) {
+                return o1.nameLength - o2.nameLength;
+            }
+            return o1.path.compareTo(o2.path);
+        }
+    };
+
+    private static final Comparator<Hit> WORST_FIRST = Collections.reverseOrder(BEST_FIRST);
+
+    private final ReadWriteLock            lock;
+    /** Identifiers of files by paths. */
+    private final TreeMap<String, Integer> ids;
+    /** Trigrams and sorted identifiers of files which names contain them. */
+    private final Map<String, Postings>    grams;
+    /** Paths of files by identifiers, {@code null} if file is removed. */
+    private       List<String>             paths;
+    /** Number of distinct trigrams of names of files by identifiers. */
+    private       int[]                    gramCounts;
+    private       int                      removed;
+
+    public FileNameIndex() {
+        lock = new ReentrantReadWriteLock();
+        ids = new TreeMap<>();
+        grams = new HashMap<>();
+        paths = new ArrayList<>();
+        gramCounts = new int[16];
+    }
+
+    /** Adds file to index. Nothing happens if file is already indexed. */
+    public void add(String path) {
+        lock.writeLock().lock();
+        try {
+            if (!ids.containsKey(path)) {
+                doAdd(path);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes file or all files inside folder with specified {@code path}. Files which names only start with the same name are kept. */
+    public void remove(String path) {
+        lock.writeLock().lock();
+        try {
+            final Integer id = ids.remove(path);
+            if (id != null) {
+                paths.set(id, null);
+                removed++;
+            }
+            final String folder = path.endsWith("/") ? path : (path + '/');
+            final Map<String, Integer> children = ids.subMap(folder, true, folder + Character.MAX_VALUE, false);
+            for (int childId : children.values()) {
+                paths.set(childId, null);
+                removed++;
+            }
+            children.clear();
+            if (removed > 1024 && removed > paths.size() / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ids.clear();
+            grams.clear();
+            paths = new ArrayList<>();
+            removed = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Gets number of indexed files. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds files by name. Result is ranked, the best matched files go first. Exact match of name is better than match of prefix of name,
+     * match of prefix is better than match of any other part of name, shorter names are better than longer ones.
+     *
+     * @param name
+     *         name or part of name to find, case insensitive. Wildcard characters '*' and '?' are ignored, e.g. '*Service*' finds the same
+     *         files as 'Service'
+     * @param fuzzy
+     *         if {@code false} names of files must contain {@code name}, otherwise files which names are similar to {@code name} are
+     *         found as well
+     * @param pathPrefix
+     *         if not {@code null} only files which paths start with this prefix are found
+     * @param accepted
+     *         if not {@code null} only files which paths are in this set are found
+     * @param skipCount
+     *         number of the best matched files to skip
+     * @param maxItems
+     *         max number of files in result or {@code -1} if number isn't limited
+     * @return page of matched files
+     */
+    public SearchResult find(String name, boolean fuzzy, String pathPrefix, Set<String> accepted, int skipCount, int maxItems) {
+        final String query = stripWildcards(name).toLowerCase();
+        lock.readLock().lock();
+        try {
+            final int limit = (int)(maxItems > 0 ? Math.min((long)skipCount + maxItems, Integer.MAX_VALUE) : Integer.MAX_VALUE);
+            final PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, 64), WORST_FIRST);
+            int totalHits = 0;
+            final Collector collector = new Collector(query, pathPrefix, accepted);
+            if (fuzzy) {
+                final Set<String> queryGrams = grams(query);
+                final int[] common = new int[paths.size()];
+                for (String gram : queryGrams) {
+                    final Postings postings = grams.get(gram);
+                    if (postings != null) {
+                        for (int i = 0; i < postings.size; i++) {
+                            common[postings.ids[i]]++;
+                        }
+                    }
+                }
+                for (int id = 0; id < common.length; id++) {
+                    // at least third of trigrams of query must be found in name
+                    if (common[id] > 0 && common[id] * 3 >= queryGrams.size()) {
+                        final double similarity = 2.0 * common[id] / (queryGrams.size() + gramCounts[id]);
+                        final Hit hit = collector.hit(id, similarity);
+                        if (hit != null) {
+                            totalHits++;
+                            offer(top, hit, limit);
+                        }
+                    }
+                }
+            } else if (query.length() < 3) {
+                // too short for trigrams, check all names
+                for (int id = 0; id < paths.size(); id++) {
+                    final Hit hit = collector.hit(id, 0);
+                    if (hit != null) {
+                        totalHits++;
+                        offer(top, hit, limit);
+                    }
+                }
+            } else {
+                for (int id : intersect(query)) {
+                    final Hit hit = collector.hit(id, 0);
+                    if (hit != null) {
+                        totalHits++;
+                        offer(top, hit, limit);
+                    }
+                }
+            }
+            final Hit[] hits = top.toArray(new Hit[top.size()]);
+            Arrays.sort(hits, BEST_FIRST);
+            final int from = Math.min(skipCount, hits.length);
+            final String[] result = new String[hits.length - from];
+            for (int i = from; i < hits.length; i++) {
+                result[i - from] = hits[i].path;
+            }
+            final String nextCursor = result.length > 0 && skipCount + result.length < totalHits
+                                      ? Integer.toString(skipCount + result.length) : null;
+            return new SearchResult(result, totalHits, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Clients often send the same pattern as for wildcard search, e.g. '*Service*', such characters never match name of file. */
+    private static String stripWildcards(String name) {
+        if (name.indexOf('*') < 0 && name.indexOf('?') < 0) {
+            return name;
+        }
+        final StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (c != '*' && c != '?') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // MUST CALL UNDER WRITE LOCK
+    private void doAdd(String path) {
+        final int id = paths.size();
+        paths.add(path);
+        ids.put(path, id);
+        final Set<String> nameGrams = grams(nameOf(path).toLowerCase());
+        if (id == gramCounts.length) {
+            gramCounts = Arrays.copyOf(gramCounts, id * 2);
+        }
+        gramCounts[id] = nameGrams.size();
+        for (String gram : nameGrams) {
+            Postings postings = grams.get(gram);
+            if (postings == null) {
+                grams.put(gram, postings = new Postings());
+            }
+            // identifiers grow, so postings stay sorted
+            postings.add(id);
+        }
+    }
+
+    // MUST CALL UNDER WRITE LOCK
+    private void compact() {
+        final List<String> live = new ArrayList<>(ids.keySet());
+        clear();
+        for (String path : live) {
+            doAdd(path);
+        }
+    }
+
+    // MUST CALL UNDER LOCK
+    /** Gets identifiers of files which names contain all trigrams of query. */
+    private int[] intersect(String query) {
+        final List<Postings> all = new ArrayList<>();
+        for (int i = 0, last = query.length() - 3; i <= last; i++) {
+            final Postings postings = grams.get(query.substring(i, i + 3));
+            if (postings == null) {
+                return new int[0];
+            }
+            all.add(postings);
+        }
+        Postings smallest = all.get(0);
+        for (Postings postings : all) {
+            if (postings.size < smallest.size) {
+                smallest = postings;
+            }
+        }
+        final int[] result = new int[smallest.size];
+        int size = 0;
+        candidates:
+        for (int i = 0; i < smallest.size; i++) {
+            final int id = smallest.ids[i];
+            for (Postings postings : all) {
+                if (postings != smallest && Arrays.binarySearch(postings.ids, 0, postings.size, id) < 0) {
+                    continue candidates;
+                }
+            }
+            result[size++] = id;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static void offer(PriorityQueue<Hit> top, Hit hit, int limit) {
+        if (top.size() < limit) {
+            top.add(hit);
+        } else if (BEST_FIRST.compare(hit, top.peek()) < 0) {
+            top.poll();
+            top.add(hit);
+        }
+    }
+
+    private static Set<String> grams(String name) {
+        final String padded = BOUNDARY + name + BOUNDARY;
+        final Set<String> result = new LinkedHashSet<>();
+        for (int i = 0, last = padded.length() - 3; i <= last; i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static String nameOf(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /** Checks candidates and calculates their scores. */
+    private final class Collector {
+        final String      query;
+        final String      pathPrefix;
+        final Set<String> accepted;
+
+        Collector(String query, String pathPrefix, Set<String> accepted) {
+            this.query = query;
+            this.pathPrefix = pathPrefix;
+            this.accepted = accepted;
+        }
+
+        /** Returns {@code null} if file doesn't match. */
+        Hit hit(int id, double similarity) {
+            final String path = paths.get(id);
+            if (path == null
+                || (pathPrefix != null && !path.startsWith(pathPrefix))
+                || (accepted != null && !accepted.contains(path))) {
+                return null;
+            }
+            final String name = nameOf(path).toLowerCase();
+            final int index = name.indexOf(query);
+            if (index < 0 && similarity == 0) {
+                return null;
+            }
+            double score = similarity;
+            if (index == 0) {
+                score += name.length() == query.length() ? 3 : 2;
+            } else if (index > 0) {
+                score += 1;
+            }
+            return new Hit(path, name.length(), score);
+        }
+    }
+
+    private static final class Hit {
+        final String path;
+        final int    nameLength;
+        final double score;
+
+        Hit(String path, int nameLength, double score) {
+            this.path = path;
+            this.nameLength = nameLength;
+            this.score = score;
+        }
+    }
+
+    private static final class Postings {
+        int[] ids = new int[4];
+        int   size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -29,9 +29,14 @@ import org.apache.lucene.queryParser.ParseException;
 import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldCache;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
@@ -43,7 +48,11 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -52,10 +61,10 @@ import java.util.Set;
  * @author andrew00x
  */
 public abstract class LuceneSearcher implements Searcher {
-    private static final Logger LOG          = LoggerFactory.getLogger(LuceneSearcher.class);
-    private static final int    RESULT_LIMIT = 1000;
+    private static final Logger LOG = LoggerFactory.getLogger(LuceneSearcher.class);
 
     private final VirtualFileFilter filter;
+    private final FileNameIndex     nameIndex;
 
     private IndexWriter   luceneIndexWriter;
     private IndexSearcher luceneIndexSearcher;
@@ -68,6 +77,7 @@ public abstract class LuceneSearcher implements Searcher {
 
     public LuceneSearcher(VirtualFileFilter filter) {
         this.filter = filter;
+        nameIndex = new FileNameIndex();
     }
 
     protected Analyzer makeAnalyzer() {
@@ -105,10 +115,20 @@ public abstract class LuceneSearcher implements Searcher {
             closeQuietly(luceneIndexSearcher);
             closeQuietly(indexWriter);
             closeQuietly(directory);
+            nameIndex.clear();
             closed = true;
         }
     }
 
+    protected synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /** Gets index of names of files which is used for {@link QueryExpression.NameMatch#SUBSTRING substring} and fuzzy search by name. */
+    protected FileNameIndex getFileNameIndex() {
+        return nameIndex;
+    }
+
     public synchronized IndexWriter getIndexWriter() {
         return luceneIndexWriter;
     }
@@ -174,7 +194,10 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     @Override
-    public String[] search(QueryExpression query) throws ServerException {
+    public SearchResult search(QueryExpression query) throws ServerException {
+        if (query.getName() != null && query.getNameMatch() != QueryExpression.NameMatch.WILDCARD) {
+            return searchByName(query);
+        }
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
         final String path = query.getPath();
@@ -197,18 +220,35 @@ public abstract class LuceneSearcher implements Searcher {
                 throw new ServerException(e.getMessage());
             }
         }
+        final QueryExpression.SortBy sortBy = query.getSortBy();
+        final String cursor = query.getCursor();
+        int offset = query.getSkipCount();
+        if (cursor != null) {
+            if (sortBy == QueryExpression.SortBy.PATH) {
+                // Cursor is path of the last item of previous page. Next page doesn't shift if items are added or removed before cursor.
+                luceneQuery.add(new TermRangeQuery("path", cursor, null, false, false), BooleanClause.Occur.MUST);
+            } else {
+                offset += parseOffset(cursor);
+            }
+        }
         IndexSearcher luceneSearcher = null;
         try {
             luceneSearcher = getLuceneSearcher();
-            final TopDocs topDocs = luceneSearcher.search(luceneQuery, RESULT_LIMIT);
-            if (topDocs.totalHits > RESULT_LIMIT) {
-                throw new ServerException(String.format("Too many (%d) matched results found. ", topDocs.totalHits));
+            final IndexReader reader = luceneSearcher.getIndexReader();
+            final int maxItems = query.getMaxItems();
+            // Lucene keeps top hits in priority queue, don't let it be bigger than index.
+            final int numHits = (int)Math.max(1, maxItems > 0 ? Math.min((long)offset + maxItems, reader.maxDoc()) : reader.maxDoc());
+            final TopDocs topDocs = sortBy == QueryExpression.SortBy.RELEVANCE
+                                    ? luceneSearcher.search(luceneQuery, numHits)
+                                    : luceneSearcher.search(luceneQuery, null, numHits, new Sort(new SortField(
+                                            sortBy == QueryExpression.SortBy.PATH ? "path" : "name", SortField.STRING)));
+            final ScoreDoc[] hits = topDocs.scoreDocs;
+            final String[] paths = getPaths(reader, hits, Math.min(offset, hits.length), hits.length);
+            String nextCursor = null;
+            if (paths.length > 0 && offset + paths.length < topDocs.totalHits) {
+                nextCursor = sortBy == QueryExpression.SortBy.PATH ? paths[paths.length - 1] : Integer.toString(offset + paths.length);
             }
-            final String[] result = new String[topDocs.scoreDocs.length];
-            for (int i = 0, length = result.length; i < length; i++) {
-                result[i] = luceneSearcher.doc(topDocs.scoreDocs[i].doc).getField("path").stringValue();
-            }
-            return result;
+            return new SearchResult(paths, topDocs.totalHits, nextCursor);
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         } finally {
@@ -222,8 +262,82 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /** Finds files by name in {@link FileNameIndex}, other criteria of query are checked with lucene index. */
+    private SearchResult searchByName(QueryExpression query) throws ServerException {
+        Set<String> accepted = null;
+        if (query.getMediaType() != null || query.getText() != null) {
+            final SearchResult matched = search(new QueryExpression().setPath(query.getPath())
+                                                                     .setMediaType(query.getMediaType())
+                                                                     .setText(query.getText()));
+            accepted = new HashSet<>(Arrays.asList(matched.getPaths()));
+        }
+        int offset = query.getSkipCount();
+        if (query.getCursor() != null) {
+            offset += parseOffset(query.getCursor());
+        }
+        return nameIndex.find(query.getName(), query.getNameMatch() == QueryExpression.NameMatch.FUZZY, query.getPath(), accepted, offset,
+                              query.getMaxItems());
+    }
+
+    /** Cursor of result which isn't sorted by path is offset of the next page. */
+    private static int parseOffset(String cursor) throws ServerException {
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new ServerException(String.format("Invalid cursor: %s. ", cursor));
+        }
+    }
+
+    /**
+     * Gets paths of hits from field cache. Cache is built per segment of index and is reused until segment is merged, so paths are read
+     * without loading of stored documents.
+     */
+    private static String[] getPaths(IndexReader reader, ScoreDoc[] hits, int from, int to) throws IOException {
+        final List<IndexReader> segments = new ArrayList<>();
+        gatherSegments(reader, segments);
+        final int[] starts = new int[segments.size()];
+        for (int i = 0, start = 0; i < starts.length; i++) {
+            starts[i] = start;
+            start += segments.get(i).maxDoc();
+        }
+        final String[][] segmentPaths = new String[starts.length][];
+        final String[] paths = new String[to - from];
+        for (int i = from; i < to; i++) {
+            final int doc = hits[i].doc;
+            int segment = Arrays.binarySearch(starts, doc);
+            if (segment < 0) {
+                segment = -segment - 2;
+            } else {
+                // skip empty segments which start at the same document
+                while (segment + 1 < starts.length && starts[segment + 1] == doc) {
+                    segment++;
+                }
+            }
+            if (segmentPaths[segment] == null) {
+                segmentPaths[segment] = FieldCache.DEFAULT.getStrings(segments.get(segment), "path");
+            }
+            paths[i - from] = segmentPaths[segment][doc - starts[segment]];
+        }
+        return paths;
+    }
+
+    private static void gatherSegments(IndexReader reader, List<IndexReader> segments) {
+        final IndexReader[] subReaders = reader.getSequentialSubReaders();
+        if (subReaders == null) {
+            segments.add(reader);
+        } else {
+            for (IndexReader subReader : subReaders) {
+                gatherSegments(subReader, segments);
+            }
+        }
+    }
+
+    /** Adds item to index. Does nothing if indexing is deferred in current thread, see {@link DeferredIndexing}. */
     @Override
     public final void add(VirtualFile virtualFile) throws ServerException {
+        if (DeferredIndexing.isActive()) {
+            return;
+        }
         doAdd(virtualFile);
     }
 
@@ -266,6 +380,7 @@ public abstract class LuceneSearcher implements Searcher {
                 fContentReader =
                         filter.accept(virtualFile) ? new BufferedReader(new InputStreamReader(virtualFile.getContent().getStream())) : null;
                 getIndexWriter().updateDocument(new Term("path", virtualFile.getPath()), createDocument(virtualFile, fContentReader));
+                nameIndex.add(virtualFile.getPath());
             } catch (OutOfMemoryError oome) {
                 close();
                 throw oome;
@@ -291,7 +406,11 @@ public abstract class LuceneSearcher implements Searcher {
 
     protected void doDelete(Term deleteTerm) throws ServerException {
         try {
-            getIndexWriter().deleteDocuments(new PrefixQuery(deleteTerm));
+            // file itself or files inside folder but not files which names only start with the same name
+            final String path = deleteTerm.text();
+            getIndexWriter().deleteDocuments(new TermQuery(deleteTerm));
+            getIndexWriter().deleteDocuments(new PrefixQuery(deleteTerm.createTerm(path.endsWith("/") ? path : (path + '/'))));
+            nameIndex.remove(path);
         } catch (OutOfMemoryError oome) {
             close();
             throw oome;
@@ -300,8 +419,12 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /** Updates item in index. Does nothing if indexing is deferred in current thread, see {@link DeferredIndexing}. */
     @Override
     public final void update(VirtualFile virtualFile) throws ServerException {
+        if (DeferredIndexing.isActive()) {
+            return;
+        }
         doUpdate(new Term("path", virtualFile.getPath()), virtualFile);
     }
 
@@ -311,6 +434,10 @@ public abstract class LuceneSearcher implements Searcher {
             fContentReader =
                     filter.accept(virtualFile) ? new BufferedReader(new InputStreamReader(virtualFile.getContent().getStream())) : null;
             getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
+            if (!deleteTerm.text().equals(virtualFile.getPath())) {
+                nameIndex.remove(deleteTerm.text());
+            }
+            nameIndex.add(virtualFile.getPath());
         } catch (OutOfMemoryError oome) {
             close();
             throw oome;
@@ -12,10 +12,38 @@ package com.codenvy.api.vfs.server.search;
 
 /** @author andrew00x */
 public class QueryExpression {
-    private String name;
-    private String path;
-    private String mediaType;
-    private String text;
+    /** Order of items in result of search. */
+    public enum SortBy {
+        /** Most relevant items go first. */
+        RELEVANCE,
+        /** Items are sorted by path. */
+        PATH,
+        /** Items are sorted by name. */
+        NAME
+    }
+
+    /** How {@link #getName() name} is matched. */
+    public enum NameMatch {
+        /** Name is pattern, '*' matches any sequence of characters and '?' matches any single character. */
+        WILDCARD,
+        /**
+         * Name of file contains name from query, case insensitive. Wildcard characters in name from query are ignored. Result is ranked by
+         * quality of match.
+         */
+        SUBSTRING,
+        /** Like {@link #SUBSTRING} but files which names are similar to name from query, e.g. name with typo, are found as well. */
+        FUZZY
+    }
+
+    private String    name;
+    private String    path;
+    private String    mediaType;
+    private String    text;
+    private int       skipCount;
+    private int       maxItems  = -1;
+    private SortBy    sortBy    = SortBy.RELEVANCE;
+    private String    cursor;
+    private NameMatch nameMatch = NameMatch.WILDCARD;
 
     public String getPath() {
         return path;
@@ -35,6 +63,16 @@ public class QueryExpression {
         return this;
     }
 
+    public NameMatch getNameMatch() {
+        return nameMatch;
+    }
+
+    /** Sets how name is matched. Result of {@link NameMatch#SUBSTRING} and {@link NameMatch#FUZZY} match is ordered by rank. */
+    public QueryExpression setNameMatch(NameMatch nameMatch) {
+        this.nameMatch = nameMatch == null ? NameMatch.WILDCARD : nameMatch;
+        return this;
+    }
+
     public String getMediaType() {
         return mediaType;
     }
@@ -53,13 +91,57 @@ public class QueryExpression {
         return this;
     }
 
+    public int getSkipCount() {
+        return skipCount;
+    }
+
+    /** Sets number of matched items to skip. If cursor is set items are skipped after the cursor. */
+    public QueryExpression setSkipCount(int skipCount) {
+        this.skipCount = skipCount;
+        return this;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /** Sets max number of items in result. If {@code -1} then number of items isn't limited. */
+    public QueryExpression setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+        return this;
+    }
+
+    public SortBy getSortBy() {
+        return sortBy;
+    }
+
+    public QueryExpression setSortBy(SortBy sortBy) {
+        this.sortBy = sortBy == null ? SortBy.RELEVANCE : sortBy;
+        return this;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    /** Sets cursor returned in {@link SearchResult#getNextCursor()} of the previous page of the same query. */
+    public QueryExpression setCursor(String cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
                "name='" + name + '\'' +
+               ", nameMatch=" + nameMatch +
                ", path='" + path + '\'' +
                ", mediaType='" + mediaType + '\'' +
                ", text='" + text + '\'' +
+               ", skipCount=" + skipCount +
+               ", maxItems=" + maxItems +
+               ", sortBy=" + sortBy +
+               ", cursor='" + cursor + '\'' +
                '}';
     }
 }
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.search;
+
+/**
+ * Page of search result.
+ *
+ * @author andrew00x
+ */
+public class SearchResult {
+    private final String[] paths;
+    private final int      totalHits;
+    private final String   nextCursor;
+
+    public SearchResult(String[] paths, int totalHits, String nextCursor) {
+        this.paths = paths;
+        this.totalHits = totalHits;
+        this.nextCursor = nextCursor;
+    }
+
+    /** Gets paths of matched items in the current page. */
+    public String[] getPaths() {
+        return paths;
+    }
+
+    /**
+     * Gets total number of matched items. If query has cursor this is number of items matched after the cursor, items which are skipped
+     * with {@link QueryExpression#setSkipCount(int)} are counted.
+     */
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    /** Gets cursor to get the next page of result or {@code null} if this is the last page. */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -15,7 +15,7 @@ import com.codenvy.api.vfs.server.VirtualFile;
 
 public interface Searcher {
     /**
-     * Return paths of matched items on virtual filesystem.
+     * Return page of paths of matched items on virtual filesystem. Offset, size and order of page are set in {@code query}.
      *
      * @param query
      *         query expression
@@ -23,7 +23,7 @@ public interface Searcher {
      * @throws ServerException
      *         if an error occurs
      */
-    String[] search(QueryExpression query) throws ServerException;
+    SearchResult search(QueryExpression query) throws ServerException;
 
     /**
      * Add VirtualFile to index.
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.util;
+
+import com.codenvy.api.vfs.server.Path;
+import com.codenvy.commons.lang.Pair;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Tree of hashes of files and folders (Merkle tree). Hash of file is MD5 sum of its content. Hash of folder is calculated from names and
+ * hashes of its children, see {@link #folderHash(java.util.SortedMap)}. Folders without files don't have hash and aren't taken into
+ * account, since lists of MD5 sums of files don't contain folders at all. Two folders have the same hash only if they contain the same
+ * files with the same content, so caller that has copy of folder may compare hashes of folders top-down and descend only into subfolders
+ * which hashes don't match.
+ * <p/>
+ * Instance of this class represents remote copy of folder restored from list of MD5 sums of its files, see {@link
+ * #fromMd5Sums(Iterable)}.
+ *
+ * @author andrew00x
+ */
+public final class HashTree {
+    /**
+     * Calculates hash of folder.
+     *
+     * @param children
+     *         hashes of children by names of children, names of folders must end with '/'. Children without hash must not be added in map
+     * @return hash of folder or {@code null} if {@code children} is empty
+     */
+    public static String folderHash(SortedMap<String, String> children) {
+        if (children.isEmpty()) {
+            return null;
+        }
+        final Hasher hasher = Hashing.md5().newHasher();
+        for (Map.Entry<String, String> e : children.entrySet()) {
+            hasher.putString(e.getKey(), Charsets.UTF_8).putByte((byte)0).putString(e.getValue(), Charsets.UTF_8).putByte((byte)'\n');
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Restores tree from list of MD5 sums of files.
+     *
+     * @param md5Sums
+     *         pairs of MD5 sum of file and path of file relative to the root of tree
+     */
+    public static HashTree fromMd5Sums(Iterable<Pair<String, String>> md5Sums) {
+        final HashTree root = new HashTree(null);
+        for (Pair<String, String> md5Sum : md5Sums) {
+            final String[] elements = Path.fromString(md5Sum.second).elements();
+            if (elements.length == 0) {
+                continue;
+            }
+            HashTree current = root;
+            for (int i = 0, last = elements.length - 1; i < last; i++) {
+                final String name = elements[i] + '/';
+                HashTree folder = current.children.get(name);
+                if (folder == null) {
+                    current.children.put(name, folder = new HashTree(null));
+                }
+                current = folder;
+            }
+            current.children.put(elements[elements.length - 1], new HashTree(md5Sum.first));
+        }
+        return root;
+    }
+
+    /** Children of folder, {@code null} for file. */
+    private final SortedMap<String, HashTree> children;
+
+    private String hash;
+
+    private HashTree(String fileHash) {
+        hash = fileHash;
+        children = fileHash == null ? new TreeMap<String, HashTree>() : null;
+    }
+
+    public boolean isFolder() {
+        return children != null;
+    }
+
+    /** Gets hash of this file or folder. Hash of folder is calculated when this method is called first time. */
+    public String getHash() {
+        if (hash == null && isFolder()) {
+            final SortedMap<String, String> childrenHashes = new TreeMap<>();
+            for (Map.Entry<String, HashTree> e : children.entrySet()) {
+                final String childHash = e.getValue().getHash();
+                if (childHash != null) {
+                    childrenHashes.put(e.getKey(), childHash);
+                }
+            }
+            hash = folderHash(childrenHashes);
+        }
+        return hash;
+    }
+
+    /**
+     * Gets child by name.
+     *
+     * @param name
+     *         name of child, name of folder must end with '/'
+     * @return child or {@code null} if there is no such child
+     */
+    public HashTree getChild(String name) {
+        return children == null ? null : children.get(name);
+    }
+
+    /** Gets children of this folder by names, names of folders end with '/'. Returns empty map if this item is a file. */
+    public SortedMap<String, HashTree> getChildren() {
+        return children == null ? new TreeMap<String, HashTree>() : Collections.unmodifiableSortedMap(children);
+    }
+
+    /**
+     * Adds paths of all files in this tree to the list.
+     *
+     * @param prefix
+     *         path of this tree, it is added to the path of each file
+     * @param files
+     *         list of paths
+     */
+    public void collectFiles(String prefix, List<String> files) {
+        if (children == null) {
+            return;
+        }
+        for (Map.Entry<String, HashTree> e : children.entrySet()) {
+            final HashTree child = e.getValue();
+            if (child.isFolder()) {
+                child.collectFiles(prefix + e.getKey(), files);
+            } else {
+                files.add(prefix + e.getKey());
+            }
+        }
+    }
+}
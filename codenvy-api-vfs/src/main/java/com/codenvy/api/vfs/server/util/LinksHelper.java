@@ -19,6 +19,8 @@ import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Helper class for creation links. See {@link com.codenvy.api.vfs.shared.dto.Item#getLinks()}
@@ -26,6 +28,12 @@ import java.util.Map;
  * @author <a href="mailto:andrew00x@gmail.com">Andrey Parfonov</a>
  */
 public class LinksHelper {
+    /** Max number of cached link templates. Usually there are few different base URIs, so cache is cleaned rarely. */
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
+    /** Link templates by base URI and name of workspace. */
+    private static final ConcurrentMap<String, Templates> TEMPLATES = new ConcurrentHashMap<>();
+
     public static Map<String, Link> createFileLinks(URI baseUri,
                                                     String wsName,
                                                     String itemId,
@@ -37,70 +45,41 @@ public class LinksHelper {
         // This method is used extremely actively so it is imported to set size of map directly
         // and prevent unnecessary growth of map.
         final Map<String, Link> links = new HashMap<>(16, 1.0f);
-        final UriBuilder baseUriBuilder = UriBuilder.fromUri(baseUri).path(VirtualFileSystemFactory.class)
-                                                    .path(VirtualFileSystemFactory.class, "getFileSystem");
+        final Templates templates = getTemplates(baseUri, wsName);
 
-        links.put(Link.REL_SELF, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "item", itemId), Link.REL_SELF, MediaType.APPLICATION_JSON));
+        links.put(Link.REL_SELF, templates.item.createLink(itemId, Link.REL_SELF, MediaType.APPLICATION_JSON));
 
-        links.put(Link.REL_ACL, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "acl", itemId), Link.REL_ACL, MediaType.APPLICATION_JSON));
+        links.put(Link.REL_ACL, templates.acl.createLink(itemId, Link.REL_ACL, MediaType.APPLICATION_JSON));
 
-        links.put(Link.REL_CONTENT, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "content", itemId), Link.REL_CONTENT, mediaType));
+        links.put(Link.REL_CONTENT, templates.content.createLink(itemId, Link.REL_CONTENT, mediaType));
 
-        links.put(Link.REL_DOWNLOAD_FILE, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "downloadfile", itemId), Link.REL_DOWNLOAD_FILE, mediaType));
+        links.put(Link.REL_DOWNLOAD_FILE, templates.downloadFile.createLink(itemId, Link.REL_DOWNLOAD_FILE, mediaType));
 
-        links.put(Link.REL_CONTENT_BY_PATH, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "contentbypath", itemPath.substring(1)),
-                               Link.REL_CONTENT_BY_PATH, mediaType));
+        links.put(Link.REL_CONTENT_BY_PATH, templates.contentByPath.createLink(itemPath.substring(1), Link.REL_CONTENT_BY_PATH, mediaType));
 
-        links.put(Link.REL_VERSION_HISTORY, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "version-history", itemId), Link.REL_VERSION_HISTORY,
-                               MediaType.APPLICATION_JSON));
+        links.put(Link.REL_VERSION_HISTORY,
+                  templates.versionHistory.createLink(itemId, Link.REL_VERSION_HISTORY, MediaType.APPLICATION_JSON));
 
-        links.put(Link.REL_CURRENT_VERSION, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "item", latestVersionId), Link.REL_CURRENT_VERSION,
-                               MediaType.APPLICATION_JSON));
+        links.put(Link.REL_CURRENT_VERSION,
+                  templates.item.createLink(latestVersionId, Link.REL_CURRENT_VERSION, MediaType.APPLICATION_JSON));
 
         if (locked) {
-            links.put(Link.REL_UNLOCK, //
-                      createLink(createURI(baseUriBuilder.clone(), wsName, "unlock", itemId, "lockToken", "[lockToken]"),
-                                   Link.REL_UNLOCK, null));
+            links.put(Link.REL_UNLOCK, templates.unlock.createLink(itemId, Link.REL_UNLOCK, null));
         } else {
-            links.put(Link.REL_LOCK, //
-                      createLink(createURI(baseUriBuilder.clone(), wsName, "lock", itemId, "timeout", "[timeout]"),
-                                   Link.REL_LOCK, MediaType.APPLICATION_JSON));
+            links.put(Link.REL_LOCK, templates.lock.createLink(itemId, Link.REL_LOCK, MediaType.APPLICATION_JSON));
         }
 
-        links.put(Link.REL_DELETE, //
-                  createLink(locked
-                               ? createURI(baseUriBuilder.clone(), wsName, "delete", itemId, "lockToken", "[lockToken]")
-                               : createURI(baseUriBuilder.clone(), wsName, "delete", itemId),
-                               Link.REL_DELETE, null));
-
-        links.put(Link.REL_COPY, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "copy", itemId, "parentId", "[parentId]"), Link.REL_COPY,
-                               MediaType.APPLICATION_JSON));
-
-        links.put(Link.REL_MOVE, //
-                  createLink(locked
-                               ? createURI(baseUriBuilder.clone(), wsName, "move", itemId, "parentId", "[parentId]", "lockToken",
-                                           "[lockToken]")
-                               : createURI(baseUriBuilder.clone(), wsName, "move", itemId, "parentId", "[parentId]"),
-                               Link.REL_MOVE, MediaType.APPLICATION_JSON));
-
-        links.put(Link.REL_PARENT, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "item", parentId), Link.REL_PARENT, MediaType.APPLICATION_JSON));
-
-        links.put(Link.REL_RENAME, //
-                  createLink(locked
-                               ? createURI(baseUriBuilder.clone(), wsName, "rename", itemId, "newname", "[newname]", "mediaType",
-                                           "[mediaType]", "lockToken", "[lockToken]")
-                               : createURI(baseUriBuilder.clone(), wsName, "rename", itemId, "newname", "[newname]", "mediaType",
-                                           "[mediaType]"),
-                               Link.REL_RENAME, MediaType.APPLICATION_JSON));
+        links.put(Link.REL_DELETE, (locked ? templates.deleteLocked : templates.delete).createLink(itemId, Link.REL_DELETE, null));
+
+        links.put(Link.REL_COPY, templates.copy.createLink(itemId, Link.REL_COPY, MediaType.APPLICATION_JSON));
+
+        links.put(Link.REL_MOVE,
+                  (locked ? templates.moveLocked : templates.move).createLink(itemId, Link.REL_MOVE, MediaType.APPLICATION_JSON));
+
+        links.put(Link.REL_PARENT, templates.item.createLink(parentId, Link.REL_PARENT, MediaType.APPLICATION_JSON));
+
+        links.put(Link.REL_RENAME,
+                  (locked ? templates.renameLocked : templates.rename).createLink(itemId, Link.REL_RENAME, MediaType.APPLICATION_JSON));
 
         return links;
     }
@@ -110,75 +89,65 @@ public class LinksHelper {
                                                       String itemId,
                                                       boolean isRoot,
                                                       String parentId) {
-        final UriBuilder baseUriBuilder = UriBuilder.fromUri(baseUri).path(VirtualFileSystemFactory.class)
-                                                    .path(VirtualFileSystemFactory.class, "getFileSystem");
         final Map<String, Link> links = new HashMap<>(32, 1.0f);
-        addBaseFolderLinks(links, baseUriBuilder, wsName, itemId, isRoot, parentId);
+        addBaseFolderLinks(links, getTemplates(baseUri, wsName), itemId, isRoot, parentId);
         return links;
     }
 
     private static void addBaseFolderLinks(Map<String, Link> links,
-                                           UriBuilder baseUriBuilder,
-                                           String wsName,
+                                           Templates templates,
                                            String id,
                                            boolean isRoot,
                                            String parentId) {
-        links.put(Link.REL_SELF, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "item", id), Link.REL_SELF, MediaType.APPLICATION_JSON));
+        links.put(Link.REL_SELF, templates.item.createLink(id, Link.REL_SELF, MediaType.APPLICATION_JSON));
 
-        links.put(Link.REL_ACL, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "acl", id), Link.REL_ACL, MediaType.APPLICATION_JSON));
+        links.put(Link.REL_ACL, templates.acl.createLink(id, Link.REL_ACL, MediaType.APPLICATION_JSON));
 
         if (!isRoot) {
-            links.put(Link.REL_PARENT, //
-                      createLink(createURI(baseUriBuilder.clone(), wsName, "item", parentId), Link.REL_PARENT,
-                                   MediaType.APPLICATION_JSON));
+            links.put(Link.REL_PARENT, templates.item.createLink(parentId, Link.REL_PARENT, MediaType.APPLICATION_JSON));
 
-            links.put(Link.REL_DELETE, //
-                      createLink(createURI(baseUriBuilder.clone(), wsName, "delete", id), Link.REL_DELETE, null));
+            links.put(Link.REL_DELETE, templates.delete.createLink(id, Link.REL_DELETE, null));
 
-            links.put(Link.REL_COPY, //
-                      createLink(createURI(baseUriBuilder.clone(), wsName, "copy", id, "parentId", "[parentId]"), Link.REL_COPY,
-                                   MediaType.APPLICATION_JSON));
+            links.put(Link.REL_COPY, templates.copy.createLink(id, Link.REL_COPY, MediaType.APPLICATION_JSON));
 
-            links.put(Link.REL_MOVE, //
-                      createLink(createURI(baseUriBuilder.clone(), wsName, "move", id, "parentId", "[parentId]"), Link.REL_MOVE,
-                                   MediaType.APPLICATION_JSON));
+            links.put(Link.REL_MOVE, templates.move.createLink(id, Link.REL_MOVE, MediaType.APPLICATION_JSON));
 
-            links.put(
-                    Link.REL_RENAME, //
-                    createLink(createURI(baseUriBuilder.clone(), wsName, "rename", id, "newname", "[newname]", "mediaType", "[mediaType]"),
-                                 Link.REL_RENAME, MediaType.APPLICATION_JSON));
+            links.put(Link.REL_RENAME, templates.rename.createLink(id, Link.REL_RENAME, MediaType.APPLICATION_JSON));
         }
 
-        links.put(Link.REL_CHILDREN, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "children", id), Link.REL_CHILDREN, MediaType.APPLICATION_JSON));
+        links.put(Link.REL_CHILDREN, templates.children.createLink(id, Link.REL_CHILDREN, MediaType.APPLICATION_JSON));
+
+        links.put(Link.REL_TREE, templates.tree.createLink(id, Link.REL_TREE, MediaType.APPLICATION_JSON));
 
-        links.put(Link.REL_TREE, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "tree", id), Link.REL_TREE, MediaType.APPLICATION_JSON));
+        links.put(Link.REL_CREATE_FOLDER, templates.createFolder.createLink(id, Link.REL_CREATE_FOLDER, MediaType.APPLICATION_JSON));
 
-        links.put(Link.REL_CREATE_FOLDER, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "folder", id, "name", "[name]"), Link.REL_CREATE_FOLDER,
-                               MediaType.APPLICATION_JSON));
+        links.put(Link.REL_CREATE_FILE, templates.createFile.createLink(id, Link.REL_CREATE_FILE, MediaType.APPLICATION_JSON));
 
-        links.put(Link.REL_CREATE_FILE, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "file", id, "name", "[name]"), Link.REL_CREATE_FILE,
-                               MediaType.APPLICATION_JSON));
+        links.put(Link.REL_UPLOAD_FILE, templates.uploadFile.createLink(id, Link.REL_UPLOAD_FILE, MediaType.TEXT_HTML));
 
-        links.put(Link.REL_UPLOAD_FILE, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "uploadfile", id), Link.REL_UPLOAD_FILE, MediaType.TEXT_HTML));
+        links.put(Link.REL_EXPORT, templates.export.createLink(id, Link.REL_EXPORT, "application/zip"));
 
-        links.put(Link.REL_EXPORT, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "export", id), Link.REL_EXPORT, "application/zip"));
+        links.put(Link.REL_IMPORT, templates.importZip.createLink(id, Link.REL_IMPORT, "application/zip"));
 
-        links.put(Link.REL_IMPORT, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "import", id), Link.REL_IMPORT, "application/zip"));
+        links.put(Link.REL_DOWNLOAD_ZIP, templates.downloadZip.createLink(id, Link.REL_DOWNLOAD_ZIP, "application/zip"));
 
-        links.put(Link.REL_DOWNLOAD_ZIP, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "downloadzip", id), Link.REL_DOWNLOAD_ZIP, "application/zip"));
+        links.put(Link.REL_UPLOAD_ZIP, templates.uploadZip.createLink(id, Link.REL_UPLOAD_ZIP, MediaType.TEXT_HTML));
+    }
 
-        links.put(Link.REL_UPLOAD_ZIP, //
-                  createLink(createURI(baseUriBuilder.clone(), wsName, "uploadzip", id), Link.REL_UPLOAD_ZIP, MediaType.TEXT_HTML));
+    /** Gets templates of links for base URI and workspace. Templates are created once and reused for all items. */
+    private static Templates getTemplates(URI baseUri, String wsName) {
+        // space may not be used in URI, so it separates parts of key
+        final String key = baseUri.toString() + ' ' + wsName;
+        Templates templates = TEMPLATES.get(key);
+        if (templates == null) {
+            templates = new Templates(UriBuilder.fromUri(baseUri).path(VirtualFileSystemFactory.class)
+                                                .path(VirtualFileSystemFactory.class, "getFileSystem"), wsName);
+            if (TEMPLATES.size() >= MAX_CACHED_TEMPLATES) {
+                TEMPLATES.clear();
+            }
+            TEMPLATES.put(key, templates);
+        }
+        return templates;
     }
 
     public static Map<String, Link> createUrlTemplates(URI baseUri, String wsName) {
@@ -262,6 +231,103 @@ public class LinksHelper {
         return myUriBuilder.build(wsName).toString();
     }
 
+    /** Links of one kind for all items. URI of link is expanded with id of item. */
+    private static final class Template {
+        /** URI before id of item. */
+        final String uri;
+        /** Query string with leading '?' or empty string if there is no query. */
+        final String query;
+
+        Template(UriBuilder baseUriBuilder, String wsName, String rel, String... query) {
+            this.uri = createURI(baseUriBuilder.clone(), wsName, rel, null);
+            this.query = createURI(baseUriBuilder.clone(), wsName, rel, null, query).substring(uri.length());
+        }
+
+        Link createLink(String id, String rel, String type) {
+            return LinksHelper.createLink(expand(id), rel, type);
+        }
+
+        String expand(String id) {
+            if (!isSafePath(id)) {
+                // let UriBuilder encode path
+                return UriBuilder.fromUri(uri).path(id).build().toString() + query;
+            }
+            return new StringBuilder(uri.length() + id.length() + query.length() + 1).append(uri).append('/').append(id).append(query)
+                                                                                       .toString();
+        }
+
+        /** Checks whether path may be added to URI as is, without encoding. */
+        static boolean isSafePath(String path) {
+            if (path.isEmpty() || path.charAt(0) == '/') {
+                return false;
+            }
+            for (int i = 0, length = path.length(); i < length; i++) {
+                final char c = path.charAt(i);
+                if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                      || c == '-' || c == '.' || c == '_' || c == '~' || c == '/')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** All link templates for one base URI and workspace. */
+    private static final class Templates {
+        final Template item;
+        final Template acl;
+        final Template content;
+        final Template downloadFile;
+        final Template contentByPath;
+        final Template versionHistory;
+        final Template lock;
+        final Template unlock;
+        final Template delete;
+        final Template deleteLocked;
+        final Template copy;
+        final Template move;
+        final Template moveLocked;
+        final Template rename;
+        final Template renameLocked;
+        final Template children;
+        final Template tree;
+        final Template createFolder;
+        final Template createFile;
+        final Template uploadFile;
+        final Template export;
+        final Template importZip;
+        final Template downloadZip;
+        final Template uploadZip;
+
+        Templates(UriBuilder baseUriBuilder, String wsName) {
+            item = new Template(baseUriBuilder, wsName, "item");
+            acl = new Template(baseUriBuilder, wsName, "acl");
+            content = new Template(baseUriBuilder, wsName, "content");
+            downloadFile = new Template(baseUriBuilder, wsName, "downloadfile");
+            contentByPath = new Template(baseUriBuilder, wsName, "contentbypath");
+            versionHistory = new Template(baseUriBuilder, wsName, "version-history");
+            lock = new Template(baseUriBuilder, wsName, "lock", "timeout", "[timeout]");
+            unlock = new Template(baseUriBuilder, wsName, "unlock", "lockToken", "[lockToken]");
+            delete = new Template(baseUriBuilder, wsName, "delete");
+            deleteLocked = new Template(baseUriBuilder, wsName, "delete", "lockToken", "[lockToken]");
+            copy = new Template(baseUriBuilder, wsName, "copy", "parentId", "[parentId]");
+            move = new Template(baseUriBuilder, wsName, "move", "parentId", "[parentId]");
+            moveLocked = new Template(baseUriBuilder, wsName, "move", "parentId", "[parentId]", "lockToken", "[lockToken]");
+            rename = new Template(baseUriBuilder, wsName, "rename", "newname", "[newname]", "mediaType", "[mediaType]");
+            renameLocked = new Template(baseUriBuilder, wsName, "rename", "newname", "[newname]", "mediaType", "[mediaType]",
+                                        "lockToken", "[lockToken]");
+            children = new Template(baseUriBuilder, wsName, "children");
+            tree = new Template(baseUriBuilder, wsName, "tree");
+            createFolder = new Template(baseUriBuilder, wsName, "folder", "name", "[name]");
+            createFile = new Template(baseUriBuilder, wsName, "file", "name", "[name]");
+            uploadFile = new Template(baseUriBuilder, wsName, "uploadfile");
+            export = new Template(baseUriBuilder, wsName, "export");
+            importZip = new Template(baseUriBuilder, wsName, "import");
+            downloadZip = new Template(baseUriBuilder, wsName, "downloadzip");
+            uploadZip = new Template(baseUriBuilder, wsName, "uploadzip");
+        }
+    }
+
     private LinksHelper() {
     }
 }
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies set of replacements to text. Two kinds of replacements are supported:
+ * <ul>
+ * <li>variables, each occurrence of <i>${name}</i> is replaced with value of variable <i>name</i>, unknown variables are left as is.
+ * Variables are replaced in one pass, values of variables aren't scanned again</li>
+ * <li>text, replacements are applied one after another in order they are given to result of replacement of variables and previous text
+ * replacements, so text which is produced by one replacement may be replaced by the next one</li>
+ * </ul>
+ * Content that doesn't contain anything to replace may be skipped with {@link #mayReplace(InputStream)} without decoding it to string.
+ * Instance of this class is immutable and may be shared between threads.
+ *
+ * @author andrew00x
+ */
+public final class TextReplacer {
+    private final Map<String, String> variables;
+    private final Map<String, String> texts;
+    /** UTF-8 bytes of literals which must be present in content to be changed, grouped by the first byte. */
+    private final byte[][][]          literalsByFirstByte;
+    private final int                 maxLiteralLength;
+
+    /**
+     * @param variables
+     *         values of variables by names
+     * @param texts
+     *         replacements by text to find, replacements are applied in iteration order of this map
+     */
+    public TextReplacer(Map<String, String> variables, Map<String, String> texts) {
+        this.variables = new HashMap<>(variables);
+        this.texts = new LinkedHashMap<>();
+        final List<byte[]> literals = new ArrayList<>();
+        for (String name : variables.keySet()) {
+            literals.add(("${" + name + '}').getBytes(StandardCharsets.UTF_8));
+        }
+        for (Map.Entry<String, String> e : texts.entrySet()) {
+            final String find = e.getKey();
+            if (find == null || find.isEmpty()) {
+                continue;
+            }
+            this.texts.put(find, e.getValue() == null ? "" : e.getValue());
+            literals.add(find.getBytes(StandardCharsets.UTF_8));
+        }
+        literalsByFirstByte = new byte[256][][];
+        int maxLength = 0;
+        for (byte[] literal : literals) {
+            final int first = literal[0] & 0xFF;
+            final byte[][] group = literalsByFirstByte[first];
+            if (group == null) {
+                literalsByFirstByte[first] = new byte[][]{literal};
+            } else {
+                final byte[][] newGroup = new byte[group.length + 1][];
+                System.arraycopy(group, 0, newGroup, 0, group.length);
+                newGroup[group.length] = literal;
+                literalsByFirstByte[first] = newGroup;
+            }
+            maxLength = Math.max(maxLength, literal.length);
+        }
+        maxLiteralLength = maxLength;
+    }
+
+    public boolean isEmpty() {
+        return variables.isEmpty() && texts.isEmpty();
+    }
+
+    /**
+     * Scans UTF-8 content for any variable or text to replace. Content is read in small chunks and isn't decoded. If this method returns
+     * {@code false} {@link #replace(String)} doesn't change the content. Stream isn't closed.
+     *
+     * @return {@code true} if content contains at least one variable or text to replace
+     */
+    public boolean mayReplace(InputStream in) throws IOException {
+        if (maxLiteralLength == 0) {
+            return false;
+        }
+        final byte[] buf = new byte[8192 + maxLiteralLength];
+        // tail of previous chunk, literal may start there
+        int kept = 0;
+        int read;
+        while ((read = in.read(buf, kept, buf.length - kept)) != -1) {
+            final int end = kept + read;
+            if (containsLiteral(buf, end)) {
+                return true;
+            }
+            kept = Math.min(maxLiteralLength - 1, end);
+            System.arraycopy(buf, end - kept, buf, 0, kept);
+        }
+        return false;
+    }
+
+    private boolean containsLiteral(byte[] buf, int end) {
+        for (int i = 0; i < end; i++) {
+            final byte[][] group = literalsByFirstByte[buf[i] & 0xFF];
+            if (group != null) {
+                for (byte[] literal : group) {
+                    if (startsWith(buf, end, i, literal)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] buf, int end, int offset, byte[] literal) {
+        if (offset + literal.length > end) {
+            return false;
+        }
+        for (int i = 1; i < literal.length; i++) {
+            if (buf[offset + i] != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies replacements to the text.
+     *
+     * @return text after replacement or {@code null} if nothing is replaced
+     */
+    public String replace(String text) {
+        String result = variables.isEmpty() ? text : replaceVariables(text);
+        for (Map.Entry<String, String> e : texts.entrySet()) {
+            if (result.contains(e.getKey())) {
+                result = result.replace(e.getKey(), e.getValue());
+            }
+        }
+        return result == text ? null : result;
+    }
+
+    /** Replaces variables in one pass. Returns the same instance of string if there is no known variable in text. */
+    private String replaceVariables(String text) {
+        StringBuilder result = null;
+        // start of the part of text that isn't copied in result yet
+        int copied = 0;
+        int i = text.indexOf("${");
+        while (i >= 0) {
+            final int close = text.indexOf('}', i + 2);
+            if (close < 0) {
+                break;
+            }
+            final String value = variables.get(text.substring(i + 2, close));
+            if (value == null) {
+                i = text.indexOf("${", i + 1);
+            } else {
+                if (result == null) {
+                    result = new StringBuilder(text.length() + 16);
+                }
+                result.append(text, copied, i).append(value);
+                copied = close + 1;
+                i = text.indexOf("${", copied);
+            }
+        }
+        if (result == null) {
+            return text;
+        }
+        return result.append(text, copied, text.length()).toString();
+    }
+}
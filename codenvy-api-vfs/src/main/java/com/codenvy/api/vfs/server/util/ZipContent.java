@@ -10,15 +10,31 @@
  *******************************************************************************/
 package com.codenvy.api.vfs.server.util;
 
+import com.codenvy.commons.lang.NamedThreadFactory;
+import com.codenvy.commons.lang.Pair;
+
 import org.apache.commons.io.input.CountingInputStream;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 /** @author andrew00x */
@@ -35,39 +51,38 @@ public final class ZipContent {
      */
     private static final int  ZIP_RATIO     = 100;
 
-    public static ZipContent newInstance(InputStream in) throws IOException {
-        java.io.File file = null;
-        byte[] inMemory = null;
-
-        int count = 0;
-        ByteArrayOutputStream inMemorySpool = new ByteArrayOutputStream(BUFFER);
-
-        int bytes;
-        final byte[] buff = new byte[BUFFER_SIZE];
-        while (count <= BUFFER && (bytes = in.read(buff)) != -1) {
-            inMemorySpool.write(buff, 0, bytes);
-            count += bytes;
-        }
+    private static final int             INFLATE_THREADS  = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService INFLATE_EXECUTOR =
+            Executors.newFixedThreadPool(INFLATE_THREADS, new NamedThreadFactory("ZipContent-Inflater-", true));
 
-        InputStream spool;
-        if (count > BUFFER) {
-            file = java.io.File.createTempFile("import", ".zip");
-            try (FileOutputStream fileSpool = new FileOutputStream(file)) {
-                inMemorySpool.writeTo(fileSpool);
-                while ((bytes = in.read(buff)) != -1) {
-                    fileSpool.write(buff, 0, bytes);
-                }
-            }
-            spool = new FileInputStream(file);
-        } else {
-            inMemory = inMemorySpool.toByteArray();
-            spool = new ByteArrayInputStream(inMemory);
-        }
+    /** Reads content of entry of archive. */
+    public interface EntryReader<T> {
+        /**
+         * Reads content of entry. Called for entries that aren't folders. May be called concurrently for different entries.
+         *
+         * @param entry
+         *         entry of archive
+         * @param content
+         *         inflated content of entry, stream is closed after this method returns
+         * @return result of reading
+         */
+        T read(ZipEntry entry, InputStream content) throws IOException;
+    }
 
+    /**
+     * Saves ZIP stream in memory or in temporary file if stream is over 100 kb and checks it for zip bomb. Entries of archive are inflated
+     * once for checking.
+     *
+     * @see #spool(java.io.InputStream)
+     */
+    public static ZipContent newInstance(InputStream in) throws IOException {
+        final ZipContent spool = spool(in);
         ZipInputStream zip = null;
         try {
             // Counts numbers of compressed data.
-            final CountingInputStream compressedCounter = new CountingInputStream(spool);
+            final CountingInputStream compressedCounter = new CountingInputStream(spool.file == null
+                                                                                  ? new ByteArrayInputStream(spool.inMemoryData)
+                                                                                  : new FileInputStream(spool.file));
             zip = new ZipInputStream(compressedCounter);
             // Counts number of uncompressed data.
             CountingInputStream uncompressedCounter = new CountingInputStream(zip) {
@@ -110,6 +125,7 @@ public final class ZipContent {
                 }
             };
 
+            final byte[] buff = new byte[BUFFER_SIZE];
             ZipEntry zipEntry;
             while ((zipEntry = zip.getNextEntry()) != null) {
                 if (!zipEntry.isDirectory()) {
@@ -118,9 +134,10 @@ public final class ZipContent {
                     }
                 }
             }
-
-            return new ZipContent(inMemory != null ? new ByteArrayInputStream(inMemory) : new DeleteOnCloseFileInputStream(file),
-                                  file == null);
+            return spool;
+        } catch (IOException | RuntimeException e) {
+            spool.zippedData.close();
+            throw e;
         } finally {
             if (zip != null) {
                 zip.close();
@@ -128,11 +145,210 @@ public final class ZipContent {
         }
     }
 
+    /**
+     * Saves ZIP stream in memory or in temporary file if stream is over 100 kb. Unlike to {@link #newInstance(java.io.InputStream)} this
+     * method doesn't inflate entries of archive, zip bomb is detected when entries are read with {@link #readEntries(EntryReader)}.
+     */
+    public static ZipContent spool(InputStream in) throws IOException {
+        int count = 0;
+        ByteArrayOutputStream inMemorySpool = new ByteArrayOutputStream(BUFFER);
+
+        int bytes;
+        final byte[] buff = new byte[BUFFER_SIZE];
+        while (count <= BUFFER && (bytes = in.read(buff)) != -1) {
+            inMemorySpool.write(buff, 0, bytes);
+            count += bytes;
+        }
+
+        if (count > BUFFER) {
+            final java.io.File file = java.io.File.createTempFile("import", ".zip");
+            try (FileOutputStream fileSpool = new FileOutputStream(file)) {
+                inMemorySpool.writeTo(fileSpool);
+                while ((bytes = in.read(buff)) != -1) {
+                    fileSpool.write(buff, 0, bytes);
+                }
+            } catch (IOException e) {
+                file.delete();
+                throw e;
+            }
+            return new ZipContent(null, file);
+        }
+        return new ZipContent(inMemorySpool.toByteArray(), null);
+    }
+
+    /** Stream of ZIP data. Temporary file, if any, is removed when stream is closed. */
     public final InputStream zippedData;
     public final boolean     inMemory;
 
-    private ZipContent(InputStream zippedData, boolean inMemory) {
-        this.zippedData = zippedData;
-        this.inMemory = inMemory;
+    private final byte[]       inMemoryData;
+    private final java.io.File file;
+
+    private ZipContent(byte[] inMemoryData, java.io.File file) throws IOException {
+        this.inMemoryData = inMemoryData;
+        this.file = file;
+        this.zippedData = file == null ? new ByteArrayInputStream(inMemoryData) : new DeleteOnCloseFileInputStream(file);
+        this.inMemory = file == null;
+    }
+
+    /**
+     * Reads all entries of archive except folders. If archive is saved in temporary file entries are inflated in parallel with random
+     * access to the file, otherwise entries are inflated one by one in the current thread. Total number of inflated bytes is checked
+     * against size of archive to detect zip bomb.
+     *
+     * @param reader
+     *         reader of content of entries
+     * @return entries in order in which they are stored in archive together with results of {@code reader}, result is {@code null} for
+     * folders
+     * @throws IOException
+     *         if an i/o error occurs, zip bomb is detected or {@code reader} throws IOException
+     */
+    public <T> List<Pair<ZipEntry, T>> readEntries(EntryReader<T> reader) throws IOException {
+        if (file == null) {
+            return readSequentially(reader);
+        }
+        return readInParallel(reader);
+    }
+
+    private <T> List<Pair<ZipEntry, T>> readSequentially(EntryReader<T> reader) throws IOException {
+        final List<Pair<ZipEntry, T>> result = new ArrayList<>();
+        final InflatedCounter counter = new InflatedCounter(inMemoryData.length);
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(inMemoryData))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                if (zipEntry.isDirectory()) {
+                    result.add(Pair.<ZipEntry, T>of(zipEntry, null));
+                } else {
+                    result.add(Pair.of(zipEntry, reader.read(zipEntry, new CheckedInputStream(new NotClosableInputStream(zip), counter))));
+                }
+                zip.closeEntry();
+            }
+        }
+        return result;
+    }
+
+    private <T> List<Pair<ZipEntry, T>> readInParallel(final EntryReader<T> reader) throws IOException {
+        try (ZipFile zipFile = new ZipFile(file)) {
+            final List<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+            final AtomicReferenceArray<T> values = new AtomicReferenceArray<>(entries.size());
+            final InflatedCounter counter = new InflatedCounter(file.length());
+            final AtomicInteger next = new AtomicInteger();
+            final List<Future<Void>> tasks = new ArrayList<>(INFLATE_THREADS);
+            for (int i = 0, n = Math.min(INFLATE_THREADS, entries.size()); i < n; i++) {
+                tasks.add(INFLATE_EXECUTOR.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        int index;
+                        // Each task takes next entry until all entries are read or any task fails.
+                        while (!counter.failed && (index = next.getAndIncrement()) < entries.size()) {
+                            final ZipEntry zipEntry = entries.get(index);
+                            if (zipEntry.isDirectory()) {
+                                continue;
+                            }
+                            try (InputStream content = new CheckedInputStream(zipFile.getInputStream(zipEntry), counter)) {
+                                values.set(index, reader.read(zipEntry, content));
+                            } catch (IOException | RuntimeException e) {
+                                counter.failed = true;
+                                throw e;
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            // Wait for all tasks before closing of ZipFile.
+            Throwable error = null;
+            boolean interrupted = false;
+            for (Future<Void> task : tasks) {
+                while (true) {
+                    try {
+                        task.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        counter.failed = true;
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        if (error == null) {
+                            error = e.getCause();
+                        }
+                        break;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+                if (error == null) {
+                    throw new IOException("Interrupted while reading ZIP content. ");
+                }
+            }
+            if (error instanceof IOException) {
+                throw (IOException)error;
+            } else if (error instanceof RuntimeException) {
+                throw (RuntimeException)error;
+            } else if (error != null) {
+                throw new IOException(error.getMessage(), error);
+            }
+            final List<Pair<ZipEntry, T>> result = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                result.add(Pair.<ZipEntry, T>of(entries.get(i), values.get(i)));
+            }
+            return result;
+        }
+    }
+
+    /** Counts inflated bytes of all entries of archive and checks compression ratio. */
+    private static final class InflatedCounter {
+        final    long       compressed;
+        final    AtomicLong inflated;
+        volatile boolean    failed;
+
+        InflatedCounter(long compressed) {
+            this.compressed = compressed;
+            this.inflated = new AtomicLong();
+        }
+
+        void add(long bytes) throws IOException {
+            final long total = inflated.addAndGet(bytes);
+            if (total > ZIP_THRESHOLD && total > (ZIP_RATIO * compressed)) {
+                failed = true;
+                throw new IOException("Zip bomb detected. ");
+            }
+        }
+    }
+
+    /** Stream of content of entry that reports number of read bytes to {@code InflatedCounter}. */
+    private static final class CheckedInputStream extends FilterInputStream {
+        final InflatedCounter counter;
+
+        CheckedInputStream(InputStream in, InflatedCounter counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                counter.add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int r = super.read(b, off, len);
+            if (r > 0) {
+                counter.add(r);
+            }
+            return r;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long r = super.skip(n);
+            if (r > 0) {
+                counter.add(r);
+            }
+            return r;
+        }
     }
 }
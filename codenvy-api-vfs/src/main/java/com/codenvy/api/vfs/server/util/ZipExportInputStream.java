@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Stream of ZIP archive that is built while stream is read. Only small chunk of archive is kept in memory, so size of archive doesn't
+ * affect amount of memory required for export. Entries that are already compressed (archives, images, etc) are stored in archive without
+ * compression.
+ *
+ * @author andrew00x
+ */
+public final class ZipExportInputStream extends InputStream {
+    private static final int BUFFER_SIZE = 8 * 1024; // 8k
+
+    /** Extensions of files which content is compressed already. Such files are stored in archive as is. */
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "zip", "jar", "war", "ear", "gz", "tgz", "bz2", "xz", "7z", "rar",
+            "png", "jpg", "jpeg", "gif", "ico", "webp", "mp3", "mp4", "avi", "mov", "woff", "woff2"));
+
+    /** Entry of archive. */
+    public static abstract class Entry {
+        private final String name;
+        private final long   time;
+
+        /**
+         * @param name
+         *         name of entry, name of folder must end with '/'
+         * @param time
+         *         modification time of entry
+         */
+        protected Entry(String name, long time) {
+            this.name = name;
+            this.time = time;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public boolean isFolder() {
+            return name.endsWith("/");
+        }
+
+        /** Opens content of entry. Not called for folders. Content of entry may be opened twice if entry is stored without compression. */
+        protected abstract InputStream openContent() throws IOException;
+
+        /** Creates folder entry. Slash is added at the end of {@code name} if need. */
+        public static Entry folder(String name, long time) {
+            return new Entry(name.endsWith("/") ? name : (name + '/'), time) {
+                @Override
+                protected InputStream openContent() {
+                    return null;
+                }
+            };
+        }
+
+        /** Creates file entry. Content array must not be modified until entry is written in archive. */
+        public static Entry file(String name, long time, final byte[] content) {
+            return new Entry(name, time) {
+                @Override
+                protected InputStream openContent() {
+                    return new ByteArrayInputStream(content);
+                }
+            };
+        }
+    }
+
+    private final Iterator<Entry> entries;
+    private final Buffer          buffer;
+    private final ZipOutputStream zipOut;
+    private final byte[]          copyBuffer;
+    private final byte[]          singleByte;
+
+    private InputStream content;
+    private int         position;
+    private boolean     finished;
+    private boolean     closed;
+
+    /**
+     * @param entries
+     *         entries of archive. Iterator is used lazily, while stream is read
+     * @param compressionLevel
+     *         compression level from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public ZipExportInputStream(Iterator<Entry> entries, int compressionLevel) {
+        this.entries = entries;
+        buffer = new Buffer();
+        zipOut = new ZipOutputStream(buffer);
+        zipOut.setLevel(compressionLevel);
+        copyBuffer = new byte[BUFFER_SIZE];
+        singleByte = new byte[1];
+    }
+
+    public ZipExportInputStream(Iterator<Entry> entries) {
+        this(entries, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(singleByte, 0, 1) == -1 ? -1 : (singleByte[0] & 0xFF);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed. ");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= buffer.size()) {
+            buffer.reset();
+            position = 0;
+            if (!fill()) {
+                return -1;
+            }
+        }
+        final int n = Math.min(len, buffer.size() - position);
+        System.arraycopy(buffer.array(), position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return buffer.size() - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (content != null) {
+                content.close();
+            }
+        } finally {
+            // releases native resources of deflater
+            zipOut.close();
+        }
+    }
+
+    /** Writes next portion of archive in buffer. Returns {@code false} if there is nothing to write anymore. */
+    private boolean fill() throws IOException {
+        while (buffer.size() == 0) {
+            if (content != null) {
+                final int r = content.read(copyBuffer);
+                if (r == -1) {
+                    content.close();
+                    content = null;
+                    zipOut.closeEntry();
+                } else {
+                    zipOut.write(copyBuffer, 0, r);
+                }
+            } else if (entries.hasNext()) {
+                startEntry(entries.next());
+            } else if (!finished) {
+                // writes central directory
+                zipOut.finish();
+                finished = true;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void startEntry(Entry entry) throws IOException {
+        final ZipEntry zipEntry = new ZipEntry(entry.getName());
+        zipEntry.setTime(entry.getTime());
+        if (entry.isFolder()) {
+            zipOut.putNextEntry(zipEntry);
+            zipOut.closeEntry();
+            return;
+        }
+        if (isCompressed(entry.getName())) {
+            // size and checksum of stored entry must be known before its content is written
+            final CRC32 crc = new CRC32();
+            long size = 0;
+            try (InputStream in = entry.openContent()) {
+                int r;
+                while ((r = in.read(copyBuffer)) != -1) {
+                    crc.update(copyBuffer, 0, r);
+                    size += r;
+                }
+            }
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(size);
+            zipEntry.setCompressedSize(size);
+            zipEntry.setCrc(crc.getValue());
+        }
+        zipOut.putNextEntry(zipEntry);
+        content = entry.openContent();
+    }
+
+    private static boolean isCompressed(String name) {
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+    }
+
+    /** Gives direct access to written bytes to avoid copying of them. */
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(BUFFER_SIZE * 2);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -45,4 +45,14 @@ public interface ItemList {
     ItemList withHasMoreItems(boolean hasMoreItems);
 
     void setHasMoreItems(boolean hasMoreItems);
+
+    /**
+     * @return cursor that may be used for getting of the next page of items or {@code null} if this is last sub-set of items in paging or
+     *         cursors are not supported
+     */
+    String getNextCursor();
+
+    ItemList withNextCursor(String nextCursor);
+
+    void setNextCursor(String nextCursor);
 }
@@ -169,6 +169,33 @@ public class ChildrenTest extends MemoryFileSystemTest {
         checkPage(path, "GET", Item.class.getMethod("getName"), all);
     }
 
+    public void testGetChildrenPagingCursor() throws Exception {
+        String path = SERVICE_URI + "children/" + folderId + "?" + "maxItems=" + 1;
+        ContainerResponse response = launcher.service("GET", path, BASE_URI, null, null, null);
+        assertEquals(200, response.getStatus());
+        ItemList children = (ItemList)response.getEntity();
+        assertEquals(1, children.getItems().size());
+        assertEquals("ChildrenTest_FOLDER01", children.getItems().get(0).getName());
+        assertTrue(children.isHasMoreItems());
+        String cursor = children.getNextCursor();
+        assertNotNull(cursor);
+
+        // Item added before cursor must not shift the next page.
+        mountPoint.getVirtualFileById(folderId).createFolder("ChildrenTest_FOLDER00");
+
+        path = SERVICE_URI + "children/" + folderId + "?" + "cursor=" + cursor;
+        response = launcher.service("GET", path, BASE_URI, null, null, null);
+        assertEquals(200, response.getStatus());
+        children = (ItemList)response.getEntity();
+        List<String> names = new ArrayList<>(2);
+        for (Item i : children.getItems()) {
+            names.add(i.getName());
+        }
+        assertEquals(Arrays.asList("ChildrenTest_FOLDER02", "ChildrenTest_FILE01"), names);
+        assertFalse(children.isHasMoreItems());
+        assertNull(children.getNextCursor());
+    }
+
     @SuppressWarnings("unchecked")
     public void testGetChildrenNoPropertyFilter() throws Exception {
         ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
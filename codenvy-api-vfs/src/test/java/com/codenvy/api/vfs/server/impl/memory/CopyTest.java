@@ -15,6 +15,7 @@ import com.codenvy.api.vfs.server.VirtualFile;
 import com.codenvy.api.vfs.shared.dto.Item;
 import com.codenvy.api.vfs.shared.dto.Principal;
 import com.codenvy.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
+import com.codenvy.commons.lang.IoUtil;
 import com.google.common.collect.Sets;
 
 import org.everrest.core.impl.ContainerResponse;
@@ -67,6 +68,25 @@ public class CopyTest extends MemoryFileSystemTest {
         }
     }
 
+    public void testCopyFileSharesContent() throws Exception {
+        MemoryContentStore contentStore = mountPoint.getContentStore();
+        String content = "testCopyFileSharesContent " + System.nanoTime();
+        VirtualFile file = folderForCopy.createFile("CopyTest_SHARED", "text/plain", new ByteArrayInputStream(content.getBytes()));
+        int size = contentStore.size();
+        String path = SERVICE_URI + "copy/" + file.getId() + '?' + "parentId=" + copyTestDestinationFolder.getId();
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, null, null, null);
+        assertEquals(200, response.getStatus());
+        // copy doesn't add new content in store
+        assertEquals(size, contentStore.size());
+        VirtualFile copy = mountPoint.getVirtualFileById(((Item)response.getEntity()).getId());
+        assertEquals(content, IoUtil.readAndCloseQuietly(copy.getContent().getStream()));
+        file.delete(null);
+        assertEquals(size, contentStore.size());
+        // content is removed from store when the last file that refers to it is removed
+        copy.delete(null);
+        assertEquals(size - 1, contentStore.size());
+    }
+
     public void testCopyFileAlreadyExist() throws Exception {
         final String originPath = fileForCopy.getPath();
         copyTestDestinationFolder.createFile("CopyTest_FILE", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT.getBytes()));
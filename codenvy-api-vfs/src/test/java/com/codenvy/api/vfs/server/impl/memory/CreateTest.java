@@ -10,23 +10,31 @@
  *******************************************************************************/
 package com.codenvy.api.vfs.server.impl.memory;
 
+import com.codenvy.api.core.ConflictException;
 import com.codenvy.api.core.NotFoundException;
 import com.codenvy.api.vfs.server.ContentStream;
 import com.codenvy.api.vfs.server.VirtualFile;
+import com.codenvy.api.vfs.server.VirtualFileFilter;
 import com.codenvy.api.vfs.shared.dto.Item;
 import com.codenvy.api.vfs.shared.dto.Principal;
 import com.codenvy.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
+import com.codenvy.commons.env.EnvironmentContext;
+import com.codenvy.commons.user.User;
 import com.google.common.collect.Sets;
 
 import org.everrest.core.impl.ContainerResponse;
 import org.everrest.core.tools.ByteArrayContainerResponseWriter;
 
 import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** @author andrew00x */
 public class CreateTest extends MemoryFileSystemTest {
@@ -293,4 +301,47 @@ public class CreateTest extends MemoryFileSystemTest {
             fail("Created folder not accessible by id. ");
         }
     }
+
+    public void testCreateFilesConcurrently() throws Exception {
+        final int threads = 8;
+        final int filesPerThread = 50;
+        final User user = EnvironmentContext.getCurrent().getUser();
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger conflicts = new AtomicInteger();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            Thread worker = new Thread() {
+                @Override
+                public void run() {
+                    EnvironmentContext.getCurrent().setUser(user);
+                    try {
+                        start.await();
+                        for (int i = 0; i < filesPerThread; i++) {
+                            createTestFolder.createFile("file_" + thread + '_' + i, "text/plain",
+                                                        new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+                        }
+                        try {
+                            createTestFolder.createFile("same", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+                        } catch (ConflictException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            };
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(threads - 1, conflicts.get());
+        assertEquals(threads * filesPerThread + 1, createTestFolder.getChildren(VirtualFileFilter.ALL).size());
+        assertEquals(threads * filesPerThread + 1, createTestFolder.countMd5Sums().size());
+    }
 }
@@ -12,6 +12,7 @@ package com.codenvy.api.vfs.server.impl.memory;
 
 import com.codenvy.api.core.notification.EventSubscriber;
 import com.codenvy.api.vfs.server.VirtualFile;
+import com.codenvy.api.vfs.server.observation.BatchEvent;
 import com.codenvy.api.vfs.server.observation.CreateEvent;
 import com.codenvy.api.vfs.server.observation.DeleteEvent;
 import com.codenvy.api.vfs.server.observation.MoveEvent;
@@ -20,6 +21,7 @@ import com.codenvy.api.vfs.server.observation.UpdateACLEvent;
 import com.codenvy.api.vfs.server.observation.UpdateContentEvent;
 import com.codenvy.api.vfs.server.observation.UpdatePropertiesEvent;
 import com.codenvy.api.vfs.server.observation.VirtualFileEvent;
+import com.codenvy.api.vfs.server.observation.VirtualFileEventBuffer;
 
 import org.everrest.core.impl.ContainerResponse;
 
@@ -97,6 +99,39 @@ public class EventsTest extends MemoryFileSystemTest {
                 events.add(event);
             }
         });
+        mountPoint.getEventService().subscribe(new EventSubscriber<BatchEvent>() {
+            @Override
+            public void onEvent(BatchEvent event) {
+                events.add(event);
+            }
+        });
+    }
+
+    public void testBufferedEvents() throws Exception {
+        VirtualFile testFile = mountPoint.getVirtualFile(testFilePath);
+        try (VirtualFileEventBuffer ignored = VirtualFileEventBuffer.begin(mountPoint.getEventService())) {
+            VirtualFile folder = testEventsFolder.createFolder("buffered");
+            VirtualFile file = folder.createFile("file", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+            file.updateContent(new ByteArrayInputStream("updated".getBytes()), null);
+            testFile.updateContent(new ByteArrayInputStream("updated".getBytes()), null);
+            testFile.updateContent(new ByteArrayInputStream("updated twice".getBytes()), null);
+            testEventsFolder.createFile("temp", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES)).delete(null);
+            assertTrue(events.isEmpty());
+        }
+        // batch for subscriber of BatchEvent, then events from batch for subscribers of particular types of events
+        assertEquals(3, events.size());
+        BatchEvent batch = (BatchEvent)events.get(0);
+        assertEquals(VirtualFileEvent.ChangeType.BATCH, batch.getType());
+        assertEquals(testFolderPath, batch.getPath());
+        assertEquals(MY_WORKSPACE_ID, batch.getWorkspaceId());
+        List<VirtualFileEvent> batched = batch.getEvents();
+        assertEquals(2, batched.size());
+        assertEquals(VirtualFileEvent.ChangeType.CREATED, batched.get(0).getType());
+        assertEquals(testFolderPath + "/buffered", batched.get(0).getPath());
+        assertEquals(VirtualFileEvent.ChangeType.CONTENT_UPDATED, batched.get(1).getType());
+        assertEquals(testFilePath, batched.get(1).getPath());
+        assertSame(batched.get(0), events.get(1));
+        assertSame(batched.get(1), events.get(2));
     }
 
     public void testCreateFile() throws Exception {
@@ -10,14 +10,23 @@
  *******************************************************************************/
 package com.codenvy.api.vfs.server.impl.memory;
 
+import com.codenvy.api.core.notification.EventService;
+import com.codenvy.api.vfs.server.IndexedVirtualFile;
 import com.codenvy.api.vfs.server.VirtualFile;
+import com.codenvy.api.vfs.server.VirtualFileSystemUserContext;
+import com.google.common.hash.Hashing;
 
 import org.everrest.core.impl.ContainerResponse;
 import org.everrest.core.tools.ByteArrayContainerResponseWriter;
 
 import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -114,6 +123,108 @@ public class ExportTest extends MemoryFileSystemTest {
         assertEquals(403, response.getStatus());
     }
 
+    public void testExportStoresCompressedFiles() throws Exception {
+        VirtualFile folder = mountPoint.getVirtualFileById(exportFolderId).createFolder("compressed");
+        folder.createFile("lib.jar", "application/java-archive", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+        folder.createFile("file.txt", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String path = SERVICE_URI + "export/" + folder.getId();
+        ContainerResponse response = launcher.service("GET", path, BASE_URI, null, null, writer, null);
+        assertEquals(200, response.getStatus());
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(writer.getBody()));
+        ZipEntry zipEntry;
+        int entries = 0;
+        while ((zipEntry = zip.getNextEntry()) != null) {
+            if ("lib.jar".equals(zipEntry.getName())) {
+                assertEquals(ZipEntry.STORED, zipEntry.getMethod());
+            } else {
+                assertEquals(ZipEntry.DEFLATED, zipEntry.getMethod());
+            }
+            zip.closeEntry();
+            entries++;
+        }
+        zip.close();
+        assertEquals(2, entries);
+    }
+
+    public void testZipCompressionLevel() throws Exception {
+        MemoryFileSystemProvider provider = new MemoryFileSystemProvider(MY_WORKSPACE_ID, new EventService(),
+                                                                         VirtualFileSystemUserContext.newInstance(),
+                                                                         virtualFileSystemRegistry, Deflater.BEST_SPEED);
+        assertEquals(Deflater.BEST_SPEED, ((MemoryMountPoint)provider.getMountPoint(true)).getZipCompressionLevel());
+        assertEquals(Deflater.DEFAULT_COMPRESSION, mountPoint.getZipCompressionLevel());
+    }
+
+    public void testExportDiff() throws Exception {
+        String md5 = Hashing.md5().hashBytes(DEFAULT_CONTENT_BYTES).toString();
+        String body = md5 + "  folder1/file1.txt\n" +
+                      md5 + "  folder1/folder12/file12.txt\n" +
+                      "00000000000000000000000000000000  folder2/file2.txt\n" +
+                      md5 + "  folder2/folder22/file22.txt\n" +
+                      md5 + "  folder3/file3.txt\n" +
+                      md5 + "  folder3/folder32/file32.txt\n" +
+                      md5 + "  folder4/file4.txt\n";
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String path = SERVICE_URI + "export/" + exportFolderId;
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, exportDiffHeaders(), body.getBytes(), writer, null);
+        assertEquals(200, response.getStatus());
+        assertEquals("[folder4/file4.txt]", response.getHttpHeaders().getFirst("x-removed-paths").toString());
+        Set<String> expected = new HashSet<>();
+        expected.add("folder2/");
+        expected.add("folder2/file2.txt");
+        checkZipItems(expected, new ZipInputStream(new ByteArrayInputStream(writer.getBody())));
+    }
+
+    public void testExportDiffNotModified() throws Exception {
+        String md5 = Hashing.md5().hashBytes(DEFAULT_CONTENT_BYTES).toString();
+        StringBuilder body = new StringBuilder();
+        for (String item : expectedExportFolderZipItems) {
+            if (!item.endsWith("/")) {
+                body.append(md5).append("  ").append(item).append('\n');
+            }
+        }
+        String path = SERVICE_URI + "export/" + exportFolderId;
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, exportDiffHeaders(), body.toString().getBytes(), null);
+        assertEquals(204, response.getStatus());
+    }
+
+    public void testGetHashes() throws Exception {
+        VirtualFile folder = mountPoint.getVirtualFileById(exportFolderId);
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String path = SERVICE_URI + "hashes/" + exportFolderId;
+        ContainerResponse response = launcher.service("GET", path, BASE_URI, null, null, writer, null);
+        assertEquals(200, response.getStatus());
+        assertEquals('"' + hash(folder) + '"', response.getHttpHeaders().getFirst("ETag").toString());
+        String md5 = Hashing.md5().hashBytes(DEFAULT_CONTENT_BYTES).toString();
+        assertTrue(new String(writer.getBody()).contains(hash(folder.getChild("folder1")) + " folder1/\n"));
+        assertEquals(hash(folder.getChild("folder1")), hash(folder.getChild("folder2")));
+        assertEquals(md5, hash(folder.getChild("folder1").getChild("file1.txt")));
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Arrays.asList('"' + hash(folder) + '"'));
+        response = launcher.service("GET", path, BASE_URI, headers, null, null);
+        assertEquals(304, response.getStatus());
+
+        // Hash of folder must be updated when content of any file in it is updated.
+        String oldHash = hash(folder);
+        folder.getChild("folder1").getChild("folder12").getChild("file12.txt")
+              .updateContent("text/plain", new ByteArrayInputStream("updated".getBytes()), null);
+        assertFalse(oldHash.equals(hash(folder)));
+        response = launcher.service("GET", path, BASE_URI, headers, null, null);
+        assertEquals(200, response.getStatus());
+    }
+
+    private static String hash(VirtualFile file) throws Exception {
+        return ((IndexedVirtualFile)file).getHash();
+    }
+
+    private Map<String, List<String>> exportDiffHeaders() {
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Arrays.asList("text/plain"));
+        headers.put("Accept", Arrays.asList("application/zip"));
+        return headers;
+    }
+
     private void checkZipItems(Set<String> expected, ZipInputStream zip) throws Exception {
         ZipEntry zipEntry;
         while ((zipEntry = zip.getNextEntry()) != null) {
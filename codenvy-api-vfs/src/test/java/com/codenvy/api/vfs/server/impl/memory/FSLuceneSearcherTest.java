@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.impl.memory;
+
+import com.codenvy.api.vfs.server.VirtualFile;
+import com.codenvy.api.vfs.server.search.FSLuceneSearcherProvider;
+import com.codenvy.api.vfs.server.search.QueryExpression;
+import com.codenvy.api.vfs.server.search.Searcher;
+import com.codenvy.commons.lang.IoUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * @author andrew00x
+ */
+public class FSLuceneSearcherTest extends MemoryFileSystemTest {
+    private File                     indexRoot;
+    private FSLuceneSearcherProvider searcherProvider;
+    private VirtualFile              testFolder;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        indexRoot = Files.createTempDirectory("FSLuceneSearcherTest").toFile();
+        searcherProvider = new FSLuceneSearcherProvider(indexRoot);
+        testFolder = mountPoint.getRoot().createFolder("FSLuceneSearcherTest");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        searcherProvider.close();
+        IoUtil.deleteRecursive(indexRoot);
+        super.tearDown();
+    }
+
+    public void testReconcileIndexOnStart() throws Exception {
+        VirtualFile deleted = testFolder.createFile("deleted", "text/plain", new ByteArrayInputStream("to be".getBytes()));
+        VirtualFile updated = testFolder.createFile("updated", "text/plain", new ByteArrayInputStream("to be".getBytes()));
+        String deletedPath = deleted.getPath();
+        Searcher searcher = searcherProvider.getSearcher(mountPoint, true);
+        assertEquals(2, searcher.search(new QueryExpression().setPath(testFolder.getPath()).setText("be")).getTotalHits());
+        searcherProvider.close(MY_WORKSPACE_ID);
+        assertTrue(new File(indexRoot, MY_WORKSPACE_ID).isDirectory());
+
+        // Changes which are made while index is closed.
+        deleted.delete(null);
+        updated.updateContent(new ByteArrayInputStream("not to be".getBytes()), null);
+        VirtualFile created = testFolder.createFile("created", "text/plain", new ByteArrayInputStream("or not".getBytes()));
+
+        searcher = searcherProvider.getSearcher(mountPoint, true);
+        assertTrue(Arrays.asList(searcher.search(new QueryExpression().setName("created")).getPaths()).contains(created.getPath()));
+        assertEquals(0, searcher.search(new QueryExpression().setPath(deletedPath)).getTotalHits());
+        String[] paths = searcher.search(new QueryExpression().setPath(testFolder.getPath()).setText("not")).getPaths();
+        assertEquals(2, paths.length);
+        assertTrue(Arrays.asList(paths).containsAll(Arrays.asList(created.getPath(), updated.getPath())));
+    }
+}
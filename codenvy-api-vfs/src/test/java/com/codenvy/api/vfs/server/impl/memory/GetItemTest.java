@@ -182,4 +182,39 @@ public class GetItemTest extends MemoryFileSystemTest {
         log.info(new String(writer.getBody()));
         assertEquals(403, response.getStatus());
     }
+
+    public void testGetItems() throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String path = SERVICE_URI + "items?maxContentLength=1024";
+        Map<String, List<String>> headers = new HashMap<>(1);
+        headers.put("Content-Type", Arrays.asList("application/json"));
+        String body = String.format("[\"%s\",\"%s\",\"unknown\"]", fileId, folderId);
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, headers, body.getBytes(), writer, null);
+        assertEquals(200, response.getStatus());
+        assertTrue(writer.getHeaders().getFirst("Content-Type").toString().startsWith("multipart/form-data"));
+        String multipart = new String(writer.getBody());
+        assertTrue(multipart.contains("name=\"items\""));
+        assertTrue(multipart.contains(filePath));
+        assertTrue(multipart.contains(folderPath));
+        // content of file is included in response
+        assertTrue(multipart.contains("name=\"" + fileId + "\""));
+        assertTrue(multipart.contains(DEFAULT_CONTENT));
+        assertTrue(multipart.contains("name=\"not-found\""));
+        assertTrue(multipart.contains("unknown"));
+    }
+
+    public void testGetItemsByPath() throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String path = SERVICE_URI + "items?byPath=true";
+        Map<String, List<String>> headers = new HashMap<>(1);
+        headers.put("Content-Type", Arrays.asList("application/json"));
+        String body = String.format("[\"%s\"]", filePath);
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, headers, body.getBytes(), writer, null);
+        assertEquals(200, response.getStatus());
+        String multipart = new String(writer.getBody());
+        assertTrue(multipart.contains(fileId));
+        // content isn't requested
+        assertFalse(multipart.contains("name=\"" + fileId + "\""));
+        assertFalse(multipart.contains("name=\"not-found\""));
+    }
 }
@@ -10,11 +10,21 @@
  *******************************************************************************/
 package com.codenvy.api.vfs.server.impl.memory;
 
+import com.codenvy.api.core.notification.EventSubscriber;
 import com.codenvy.api.vfs.server.VirtualFile;
+import com.codenvy.api.vfs.server.observation.VirtualFileEvent;
+import com.codenvy.api.vfs.server.observation.VirtualFileEvent.ChangeType;
+import com.google.common.io.ByteStreams;
 
 import org.everrest.core.impl.ContainerResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -66,4 +76,66 @@ public class ImportTest extends MemoryFileSystemTest {
         assertNotNull(file3);
         checkFileContext(DEFAULT_CONTENT, "text/plain", file3);
     }
+
+    public void testImportFolderEvents() throws Exception {
+        final List<String> events = new ArrayList<>();
+        mountPoint.getEventService().subscribe(new EventSubscriber<VirtualFileEvent>() {
+            @Override
+            public void onEvent(VirtualFileEvent event) {
+                events.add(event.getType() + " " + event.getPath());
+            }
+        });
+        VirtualFile parent = mountPoint.getVirtualFileById(importTestRootId);
+        parent.unzip(new ByteArrayInputStream(zipFolder), false);
+        String parentPath = parent.getPath();
+        assertEquals(new HashSet<>(Arrays.asList(ChangeType.CREATED + " " + parentPath + "/folder1",
+                                                 ChangeType.CREATED + " " + parentPath + "/folder2",
+                                                 ChangeType.CREATED + " " + parentPath + "/folder3")),
+                     new HashSet<>(events));
+        assertEquals(3, events.size());
+
+        events.clear();
+        parent.unzip(new ByteArrayInputStream(zipFolder), true);
+        assertEquals(new HashSet<>(Arrays.asList(ChangeType.CONTENT_UPDATED + " " + parentPath + "/folder1/file1.txt",
+                                                 ChangeType.CONTENT_UPDATED + " " + parentPath + "/folder2/file2.txt",
+                                                 ChangeType.CONTENT_UPDATED + " " + parentPath + "/folder3/file3.txt")),
+                     new HashSet<>(events));
+        assertEquals(3, events.size());
+    }
+
+    public void testImportLargeFolder() throws Exception {
+        // Archive over 100 kb is saved in temporary file and its entries are inflated in parallel.
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ZipOutputStream zipOut = new ZipOutputStream(bout);
+        Random random = new Random();
+        byte[][] contents = new byte[64][];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = new byte[4096];
+            random.nextBytes(contents[i]);
+            zipOut.putNextEntry(new ZipEntry("folder" + (i % 4) + "/file" + i));
+            zipOut.write(contents[i]);
+        }
+        zipOut.close();
+        String path = SERVICE_URI + "import/" + importTestRootId;
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, null, bout.toByteArray(), null);
+        assertEquals(204, response.getStatus());
+        VirtualFile parent = mountPoint.getVirtualFileById(importTestRootId);
+        for (int i = 0; i < contents.length; i++) {
+            VirtualFile file = parent.getChild("folder" + (i % 4)).getChild("file" + i);
+            assertNotNull(file);
+            assertTrue(Arrays.equals(contents[i], ByteStreams.toByteArray(file.getContent().getStream())));
+        }
+    }
+
+    public void testImportZipBomb() throws Exception {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ZipOutputStream zipOut = new ZipOutputStream(bout);
+        zipOut.putNextEntry(new ZipEntry("bomb"));
+        zipOut.write(new byte[5 * 1024 * 1024]);
+        zipOut.close();
+        String path = SERVICE_URI + "import/" + importTestRootId;
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, null, bout.toByteArray(), null);
+        assertEquals(500, response.getStatus());
+        assertNull(mountPoint.getVirtualFileById(importTestRootId).getChild("bomb"));
+    }
 }
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.api.vfs.server.impl.memory;
+
+import junit.framework.TestCase;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import java.util.Arrays;
+
+/**
+ * @author andrew00x
+ */
+public class MemoryContentStoreTest extends TestCase {
+    private MemoryContentStore store;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        store = new MemoryContentStore(16);
+    }
+
+    public void testShareSameContent() throws Exception {
+        byte[] content = "hello".getBytes();
+        String hash = Hashing.md5().hashBytes(content).toString();
+        MemoryContentStore.Blob first = store.put(content, hash);
+        MemoryContentStore.Blob second = store.put("hello".getBytes(), hash);
+        assertSame(first, second);
+        assertEquals(1, store.size());
+        store.release(first);
+        assertEquals(1, store.size());
+        store.release(second);
+        assertEquals(0, store.size());
+    }
+
+    public void testDontShareContentWithSameHash() throws Exception {
+        byte[] content = "hello".getBytes();
+        String hash = Hashing.md5().hashBytes(content).toString();
+        MemoryContentStore.Blob first = store.put(content, hash);
+        // different content with the same hash must not be replaced by already stored content
+        byte[] colliding = "goodbye".getBytes();
+        MemoryContentStore.Blob second = store.put(colliding, hash);
+        assertNotSame(first, second);
+        assertTrue(Arrays.equals(content, ByteStreams.toByteArray(first.openStream())));
+        assertTrue(Arrays.equals(colliding, ByteStreams.toByteArray(second.openStream())));
+        store.release(second);
+        assertEquals(1, store.size());
+        assertSame(first, store.put("hello".getBytes(), hash));
+    }
+
+    public void testOffHeapContent() throws Exception {
+        byte[] content = new byte[64];
+        Arrays.fill(content, (byte)1);
+        String hash = Hashing.md5().hashBytes(content).toString();
+        MemoryContentStore.Blob blob = store.put(content, hash);
+        assertEquals(64, blob.getLength());
+        assertTrue(Arrays.equals(content, ByteStreams.toByteArray(blob.openStream())));
+        assertSame(blob, store.put(content.clone(), hash));
+    }
+}
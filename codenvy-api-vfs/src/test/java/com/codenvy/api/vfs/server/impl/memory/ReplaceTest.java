@@ -11,7 +11,9 @@
 package com.codenvy.api.vfs.server.impl.memory;
 
 
+import com.codenvy.api.core.notification.EventSubscriber;
 import com.codenvy.api.vfs.server.VirtualFile;
+import com.codenvy.api.vfs.server.observation.UpdateContentEvent;
 import com.codenvy.api.vfs.shared.dto.ReplacementSet;
 import com.codenvy.api.vfs.shared.dto.Variable;
 import com.codenvy.commons.lang.IoUtil;
@@ -231,4 +233,93 @@ public class ReplaceTest extends MemoryFileSystemTest {
         assertEquals(String.format(templateReplaced, replace1, replace2),
                      IoUtil.readAndCloseQuietly(mountPoint.getVirtualFileById(file.getId()).getContent().getStream()));
     }
+
+    public void testReplaceSeveralSetsInOneFile() throws Exception {
+        final String fileName = "test_file.txt";
+        VirtualFile file = replaceTestFolder
+                .createFile(fileName, "text/plain",
+                            new ByteArrayInputStream(String.format(template, find1, find2).getBytes()));
+        VirtualFile untouched = replaceTestFolder
+                .createFile("untouched.txt", "text/plain", new ByteArrayInputStream("nothing to replace".getBytes()));
+        ReplacementSet replacementSet1 = DtoFactory.getInstance().createDto(ReplacementSet.class)
+                                                   .withEntries(Arrays.asList(DtoFactory.getInstance().createDto(Variable.class)
+                                                                                        .withFind(find1).withReplace(replace1)))
+                                                   .withFiles(Arrays.asList("(.*)\\.txt"));
+        ReplacementSet replacementSet2 = DtoFactory.getInstance().createDto(ReplacementSet.class)
+                                                   .withEntries(Arrays.asList(DtoFactory.getInstance().createDto(Variable.class)
+                                                                                        .withFind(find2).withReplace(replace2)))
+                                                   .withFiles(Arrays.asList(fileName));
+        Map<String, List<String>> h = new HashMap<>(1);
+        h.put("Content-Type", Arrays.asList("application/json"));
+
+        String path = SERVICE_URI + "replace/" + replaceTestFolder.getName();
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, h,
+                                                      String.format("[%s,%s]",
+                                                                    DtoFactory.getInstance().toJson(replacementSet1),
+                                                                    DtoFactory.getInstance().toJson(replacementSet2))
+                                                            .getBytes(), null, null);
+        assertEquals(204, response.getStatus());
+        assertEquals(String.format(templateReplaced, replace1, replace2),
+                     IoUtil.readAndCloseQuietly(mountPoint.getVirtualFileById(file.getId()).getContent().getStream()));
+        assertEquals("nothing to replace",
+                     IoUtil.readAndCloseQuietly(mountPoint.getVirtualFileById(untouched.getId()).getContent().getStream()));
+    }
+
+    public void testVariablesReplacedBeforeMultipassText() throws Exception {
+        final String fileName = "test_file.txt";
+        VirtualFile file = replaceTestFolder
+                .createFile(fileName, "text/plain",
+                            new ByteArrayInputStream(String.format(template, find1, find2).getBytes()));
+        List<Variable> variables = new ArrayList<>(3);
+        variables.add(DtoFactory.getInstance().createDto(Variable.class).withFind(find1).withReplace(replace1));
+        variables.add(DtoFactory.getInstance().createDto(Variable.class).withFind(find2).withReplace(replace2));
+        // replaces result of variable replacement
+        variables.add(DtoFactory.getInstance().createDto(Variable.class).withFind(replace1).withReplace(replace2)
+                                .withReplacemode("text_multipass"));
+
+        ReplacementSet replacementSet = DtoFactory.getInstance().createDto(ReplacementSet.class).withEntries(variables)
+                                                  .withFiles(Arrays.asList(fileName));
+        Map<String, List<String>> h = new HashMap<>(1);
+        h.put("Content-Type", Arrays.asList("application/json"));
+
+        String path = SERVICE_URI + "replace/" + replaceTestFolder.getName();
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, h,
+                                                      String.format("[%s]",
+                                                                    DtoFactory.getInstance().toJson(replacementSet))
+                                                            .getBytes(), null, null);
+        assertEquals(204, response.getStatus());
+        assertEquals(String.format(templateReplaced, replace2, replace2),
+                     IoUtil.readAndCloseQuietly(mountPoint.getVirtualFileById(file.getId()).getContent().getStream()));
+    }
+
+    public void testFileWithoutMatchesNotUpdated() throws Exception {
+        VirtualFile file = replaceTestFolder
+                .createFile("test_file.txt", "text/plain",
+                            new ByteArrayInputStream(String.format(template, find1, find2).getBytes()));
+        final VirtualFile untouched = replaceTestFolder
+                .createFile("untouched.txt", "text/plain", new ByteArrayInputStream("nothing to replace".getBytes()));
+        final List<String> updated = new ArrayList<>();
+        mountPoint.getEventService().subscribe(new EventSubscriber<UpdateContentEvent>() {
+            @Override
+            public void onEvent(UpdateContentEvent event) {
+                updated.add(event.getPath());
+            }
+        });
+        ReplacementSet replacementSet = DtoFactory.getInstance().createDto(ReplacementSet.class)
+                                                  .withEntries(Arrays.asList(DtoFactory.getInstance().createDto(Variable.class)
+                                                                                       .withFind(find1).withReplace(replace1)))
+                                                  .withFiles(Arrays.asList("(.*)\\.txt"));
+        Map<String, List<String>> h = new HashMap<>(1);
+        h.put("Content-Type", Arrays.asList("application/json"));
+
+        String path = SERVICE_URI + "replace/" + replaceTestFolder.getName();
+        ContainerResponse response = launcher.service("POST", path, BASE_URI, h,
+                                                      String.format("[%s]",
+                                                                    DtoFactory.getInstance().toJson(replacementSet))
+                                                            .getBytes(), null, null);
+        assertEquals(204, response.getStatus());
+        assertEquals(Arrays.asList(file.getPath()), updated);
+        assertEquals("nothing to replace",
+                     IoUtil.readAndCloseQuietly(mountPoint.getVirtualFileById(untouched.getId()).getContent().getStream()));
+    }
 }
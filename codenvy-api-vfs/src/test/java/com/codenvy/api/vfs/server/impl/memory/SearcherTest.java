@@ -11,6 +11,7 @@
 package com.codenvy.api.vfs.server.impl.memory;
 
 import com.codenvy.api.vfs.server.VirtualFile;
+import com.codenvy.api.vfs.server.search.DeferredIndexing;
 import com.codenvy.api.vfs.server.search.LuceneSearcher;
 import com.codenvy.api.vfs.shared.dto.Item;
 import com.codenvy.api.vfs.shared.dto.ItemList;
@@ -111,6 +112,109 @@ public class SearcherTest extends MemoryFileSystemTest {
         }
     }
 
+    public void testSearchPaging() throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        Map<String, List<String>> h = new HashMap<>(1);
+        h.put("Content-Type", Arrays.asList("application/x-www-form-urlencoded"));
+        String query = "name=SearcherTest*&sortBy=path";
+        ContainerResponse response =
+                launcher.service("POST", SERVICE_URI + "search?maxItems=2", BASE_URI, h, query.getBytes(), writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        ItemList page = (ItemList)response.getEntity();
+        assertEquals(3, page.getNumItems());
+        assertTrue(page.isHasMoreItems());
+        assertEquals(2, page.getItems().size());
+        assertEquals(file1, page.getItems().get(0).getPath());
+        assertEquals(file2, page.getItems().get(1).getPath());
+        String cursor = page.getNextCursor();
+        assertNotNull(cursor);
+
+        // Item added before cursor must not shift the next page.
+        mountPoint.getVirtualFile(searchTestPath).createFile("SearcherTest_File00", "text/plain", new ByteArrayInputStream(new byte[0]));
+        writer.reset();
+        response = launcher.service("POST", SERVICE_URI + "search?maxItems=2", BASE_URI, h,
+                                    (query + "&cursor=" + cursor).getBytes(), writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        page = (ItemList)response.getEntity();
+        assertFalse(page.isHasMoreItems());
+        assertNull(page.getNextCursor());
+        assertEquals(1, page.getItems().size());
+        assertEquals(file3, page.getItems().get(0).getPath());
+
+        writer.reset();
+        response = launcher.service("POST", SERVICE_URI + "search?maxItems=2&skipCount=3", BASE_URI, h, query.getBytes(), writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        page = (ItemList)response.getEntity();
+        assertEquals(4, page.getNumItems());
+        assertEquals(1, page.getItems().size());
+        assertEquals(file3, page.getItems().get(0).getPath());
+    }
+
+    public void testSearchByName() throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        Map<String, List<String>> h = new HashMap<>(1);
+        h.put("Content-Type", Arrays.asList("application/x-www-form-urlencoded"));
+        ContainerResponse response = launcher.service("POST", SERVICE_URI + "search", BASE_URI, h,
+                                                      "name=file0&nameMatch=substring".getBytes(), writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        List<Item> result = ((ItemList)response.getEntity()).getItems();
+        assertEquals(3, result.size());
+        assertEquals(file1, result.get(0).getPath());
+        assertEquals(file2, result.get(1).getPath());
+        assertEquals(file3, result.get(2).getPath());
+
+        // wildcards are ignored in substring search
+        writer.reset();
+        response = launcher.service("POST", SERVICE_URI + "search", BASE_URI, h,
+                                    "name=*file0*&nameMatch=substring".getBytes(), writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        result = ((ItemList)response.getEntity()).getItems();
+        assertEquals(3, result.size());
+        assertEquals(file1, result.get(0).getPath());
+        assertEquals(file2, result.get(1).getPath());
+        assertEquals(file3, result.get(2).getPath());
+
+        writer.reset();
+        response = launcher.service("POST", SERVICE_URI + "search", BASE_URI, h,
+                                    "name=SearcherTest_Flie02&nameMatch=fuzzy".getBytes(), writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        result = ((ItemList)response.getEntity()).getItems();
+        assertFalse(result.isEmpty());
+        assertEquals(file2, result.get(0).getPath());
+
+        writer.reset();
+        response = launcher.service("POST", SERVICE_URI + "search", BASE_URI, h,
+                                    "name=file0&nameMatch=substring&mediaType=text/xml".getBytes(), writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        result = ((ItemList)response.getEntity()).getItems();
+        assertEquals(1, result.size());
+        assertEquals(file1, result.get(0).getPath());
+    }
+
+    public void testDeleteKeepsFilesWithSamePrefixInNameIndex() throws Exception {
+        VirtualFile folder = mountPoint.getVirtualFile(searchTestPath);
+        // names are prefixes of names of indexed file and folder
+        folder.createFile("SearcherTest_File0", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES)).delete(null);
+        folder.createFolder("folder0").delete(null);
+
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        Map<String, List<String>> h = new HashMap<>(1);
+        h.put("Content-Type", Arrays.asList("application/x-www-form-urlencoded"));
+        ContainerResponse response = launcher.service("POST", SERVICE_URI + "search", BASE_URI, h,
+                                                      "name=file0&nameMatch=substring".getBytes(), writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        List<Item> result = ((ItemList)response.getEntity()).getItems();
+        assertEquals(3, result.size());
+        assertEquals(file1, result.get(0).getPath());
+        assertEquals(file2, result.get(1).getPath());
+        assertEquals(file3, result.get(2).getPath());
+
+        IndexSearcher luceneSearcher = searcher.getLuceneSearcher();
+        TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
+        assertEquals(3, topDocs.totalHits);
+        searcher.releaseLuceneSearcher(luceneSearcher);
+    }
+
     public void testDelete() throws Exception {
         IndexSearcher luceneSearcher = searcher.getLuceneSearcher();
         TopDocs topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
@@ -150,6 +254,30 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcher.releaseLuceneSearcher(luceneSearcher);
     }
 
+    public void testDeferredIndexing() throws Exception {
+        String newFile;
+        try (DeferredIndexing ignored = DeferredIndexing.begin()) {
+            newFile = mountPoint.getVirtualFile(searchTestPath)
+                                .createFile("new_file", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES)).getPath();
+            mountPoint.getVirtualFile(file2).updateContent("text/plain", new ByteArrayInputStream("updated content".getBytes()), null);
+            // removing isn't deferred
+            mountPoint.getVirtualFile(file1).delete(null);
+        }
+        IndexSearcher luceneSearcher = searcher.getLuceneSearcher();
+        assertEquals(0, luceneSearcher.search(new TermQuery(new Term("path", newFile)), 10).totalHits);
+        assertEquals(0, luceneSearcher.search(
+                new QueryParser(Version.LUCENE_29, "text", new SimpleAnalyzer()).parse("updated"), 10).totalHits);
+        assertEquals(0, luceneSearcher.search(new TermQuery(new Term("path", file1)), 10).totalHits);
+        searcher.releaseLuceneSearcher(luceneSearcher);
+
+        searcher.add(mountPoint.getVirtualFile(searchTestPath));
+        luceneSearcher = searcher.getLuceneSearcher();
+        assertEquals(1, luceneSearcher.search(new TermQuery(new Term("path", newFile)), 10).totalHits);
+        assertEquals(1, luceneSearcher.search(
+                new QueryParser(Version.LUCENE_29, "text", new SimpleAnalyzer()).parse("updated"), 10).totalHits);
+        searcher.releaseLuceneSearcher(luceneSearcher);
+    }
+
     public void testUpdate() throws Exception {
         IndexSearcher luceneSearcher = searcher.getLuceneSearcher();
         TopDocs topDocs = luceneSearcher.search(
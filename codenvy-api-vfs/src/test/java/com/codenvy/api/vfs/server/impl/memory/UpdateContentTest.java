@@ -10,10 +10,13 @@
  *******************************************************************************/
 package com.codenvy.api.vfs.server.impl.memory;
 
+import com.codenvy.api.vfs.server.LazyIterator;
 import com.codenvy.api.vfs.server.VirtualFile;
 import com.codenvy.api.vfs.shared.dto.Principal;
 import com.codenvy.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
+import com.codenvy.commons.lang.Pair;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 
 import org.everrest.core.impl.ContainerResponse;
 import org.everrest.core.tools.ByteArrayContainerResponseWriter;
@@ -58,6 +61,18 @@ public class UpdateContentTest extends MemoryFileSystemTest {
         checkFileContext(content, "text/plain", file);
     }
 
+    public void testUpdateContentUpdatesMd5Sum() throws Exception {
+        VirtualFile file = mountPoint.getVirtualFileById(fileId);
+        VirtualFile parent = file.getParent();
+        file.updateContent("text/plain", new ByteArrayInputStream(content.getBytes()), null);
+        LazyIterator<Pair<String, String>> md5Sums = parent.countMd5Sums();
+        assertTrue(md5Sums.hasNext());
+        Pair<String, String> md5Sum = md5Sums.next();
+        assertEquals(Hashing.md5().hashBytes(content.getBytes()).toString(), md5Sum.first);
+        assertEquals("UpdateContentTest_FILE", md5Sum.second);
+        assertFalse(md5Sums.hasNext());
+    }
+
     public void testUpdateContentFolder() throws Exception {
         ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
         String path = SERVICE_URI + "content/" + folderId;
@@ -63,6 +63,8 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriBuilder;
@@ -71,6 +73,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import static com.codenvy.api.core.rest.shared.Links.createLink;
 import static java.lang.Boolean.parseBoolean;
@@ -302,13 +305,44 @@ public class WorkspaceService extends Service {
     @GET
     @Path("/{id}")
     @Produces(APPLICATION_JSON)
-    public WorkspaceDescriptor getById(@ApiParam(value = "Workspace ID")
-                                       @Description("Workspace ID")
-                                       @PathParam("id")
-                                       String id,
-                                       @Context SecurityContext context) throws NotFoundException,
-                                                                                ServerException,
-                                                                                ForbiddenException {
+    public Response getById(@ApiParam(value = "Workspace ID")
+                            @Description("Workspace ID")
+                            @PathParam("id")
+                            String id,
+                            @Context SecurityContext context,
+                            @Context Request request) throws NotFoundException,
+                                                             ServerException,
+                                                             ForbiddenException {
+        final Workspace workspace = getWorkspace(id, context);
+        // Descriptor contains only fields of workspace and links which depend on roles of user, no need to create it to get its ETag.
+        final EntityTag eTag = createEntityTag(getServiceContext().getBaseUriBuilder().build(),
+                                               workspace.getId(),
+                                               workspace.getName(),
+                                               workspace.getAccountId(),
+                                               workspace.isTemporary(),
+                                               new TreeMap<>(workspace.getAttributes()),
+                                               context.isUserInRole("user"),
+                                               context.isUserInRole("workspace/admin"),
+                                               context.isUserInRole("workspace/developer"),
+                                               context.isUserInRole("system/admin"),
+                                               context.isUserInRole("system/manager"));
+        final Response notModified = notModified(request, eTag);
+        if (notModified != null) {
+            return notModified;
+        }
+        return okResponse(toDescriptor(workspace, context), eTag);
+    }
+
+    /**
+     * Searches for workspace with given identifier and returns {@link WorkspaceDescriptor} if found.
+     *
+     * @see #getById(String, SecurityContext, Request)
+     */
+    public WorkspaceDescriptor getById(String id, SecurityContext context) throws NotFoundException, ServerException, ForbiddenException {
+        return toDescriptor(getWorkspace(id, context), context);
+    }
+
+    private Workspace getWorkspace(String id, SecurityContext context) throws NotFoundException, ServerException {
         final Workspace workspace = workspaceDao.getById(id);
         if (!context.isUserInRole("workspace/developer") && !context.isUserInRole("workspace/admin")) {
             // tmp_workspace_cloned_from_private_repo - gives information
@@ -323,7 +357,7 @@ public class WorkspaceService extends Service {
                 attributes.clear();
             }
         }
-        return toDescriptor(workspace, context);
+        return workspace;
     }
 
     /**